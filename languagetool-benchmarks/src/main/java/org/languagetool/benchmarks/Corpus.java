@@ -0,0 +1,98 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.Language;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Access to the bundled benchmark texts in {@code /org/languagetool/benchmarks/corpus/}.
+ * The files contain one sentence per line, an empty line starts a new paragraph,
+ * lines starting with {@code #} are comments.
+ */
+final class Corpus {
+
+  private Corpus() {
+  }
+
+  /**
+   * Get a text of at least {@code minLength} characters, built from the beginning of the
+   * corpus for the given language. The corpus is repeated if it's not long enough, so the
+   * text is always the same for the same parameters.
+   */
+  static String getText(Language lang, int minLength) throws IOException {
+    List<List<String>> paragraphs = loadParagraphs(lang);
+    StringBuilder sb = new StringBuilder();
+    while (true) {
+      for (List<String> paragraph : paragraphs) {
+        for (String sentence : paragraph) {
+          if (sb.length() > 0 && sb.charAt(sb.length() - 1) != '\n') {
+            sb.append(' ');
+          }
+          sb.append(sentence);
+          if (sb.length() >= minLength) {
+            return sb.toString();
+          }
+        }
+        sb.append("\n\n");
+      }
+    }
+  }
+
+  private static List<List<String>> loadParagraphs(Language lang) throws IOException {
+    String path = "/org/languagetool/benchmarks/corpus/" + lang.getShortCode() + ".txt";
+    InputStream stream = Corpus.class.getResourceAsStream(path);
+    if (stream == null) {
+      throw new IllegalArgumentException("No benchmark corpus for " + lang + ", expected at " + path);
+    }
+    List<List<String>> paragraphs = new ArrayList<>();
+    List<String> paragraph = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith("#")) {
+          continue;
+        }
+        if (line.trim().isEmpty()) {
+          if (!paragraph.isEmpty()) {
+            paragraphs.add(paragraph);
+            paragraph = new ArrayList<>();
+          }
+        } else {
+          paragraph.add(line.trim());
+        }
+      }
+    }
+    if (!paragraph.isEmpty()) {
+      paragraphs.add(paragraph);
+    }
+    if (paragraphs.isEmpty()) {
+      throw new IllegalArgumentException("Benchmark corpus is empty: " + path);
+    }
+    return paragraphs;
+  }
+
+}
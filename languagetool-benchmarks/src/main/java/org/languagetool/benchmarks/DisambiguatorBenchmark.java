@@ -0,0 +1,72 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.tagging.disambiguation.rules.XmlRuleDisambiguator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Running the XML disambiguation rules ({@code disambiguation.xml}) on tagged sentences.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DisambiguatorBenchmark {
+
+  @Param({"en-US", "de-DE", "fr", "es", "pt-PT"})
+  public String language;
+
+  @Param({"100", "1000", "10000"})
+  public int textSize;
+
+  private XmlRuleDisambiguator disambiguator;
+  private List<AnalyzedSentence> sentences;
+
+  @Setup
+  public void setup() throws IOException {
+    Language lang = Languages.getLanguageForShortCode(language);
+    disambiguator = new XmlRuleDisambiguator(lang);
+    JLanguageTool lt = new JLanguageTool(lang);
+    sentences = new ArrayList<>();
+    for (String sentence : lt.sentenceTokenize(Corpus.getText(lang, textSize))) {
+      sentences.add(lt.getRawAnalyzedSentence(sentence));
+    }
+  }
+
+  @Benchmark
+  public void disambiguate(Blackhole blackhole) throws IOException {
+    for (AnalyzedSentence sentence : sentences) {
+      blackhole.consume(disambiguator.disambiguate(sentence));
+    }
+  }
+
+}
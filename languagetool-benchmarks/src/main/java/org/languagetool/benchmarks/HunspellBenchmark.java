@@ -0,0 +1,74 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.rules.spelling.SpellingCheckRule;
+import org.languagetool.rules.spelling.hunspell.HunspellRule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spell checking with the language's default {@link HunspellRule} (for German, that's the
+ * compound-aware subclass), including the creation of suggestions for the misspelled
+ * words of the corpus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HunspellBenchmark {
+
+  @Param({"de-DE", "pt-PT"})
+  public String language;
+
+  @Param({"100", "1000", "10000"})
+  public int textSize;
+
+  private HunspellRule rule;
+  private List<AnalyzedSentence> sentences;
+
+  @Setup
+  public void setup() throws IOException {
+    Language lang = Languages.getLanguageForShortCode(language);
+    SpellingCheckRule spellingRule = lang.getDefaultSpellingRule();
+    if (!(spellingRule instanceof HunspellRule)) {
+      throw new IllegalArgumentException("Spelling rule of " + lang + " is not a HunspellRule: " + spellingRule);
+    }
+    rule = (HunspellRule) spellingRule;
+    sentences = new JLanguageTool(lang).analyzeText(Corpus.getText(lang, textSize));
+  }
+
+  @Benchmark
+  public void match(Blackhole blackhole) throws IOException {
+    for (AnalyzedSentence sentence : sentences) {
+      blackhole.consume(rule.match(sentence));
+    }
+  }
+
+}
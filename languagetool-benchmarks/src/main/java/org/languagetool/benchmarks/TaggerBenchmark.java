@@ -0,0 +1,72 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.benchmarks;
+
+import org.languagetool.JLanguageTool;
+import org.languagetool.Language;
+import org.languagetool.Languages;
+import org.languagetool.tagging.Tagger;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Part-of-speech tagging of already tokenized sentences. As the same text is tagged
+ * over and over, this measures tagging with a warm word cache (see
+ * {@link org.languagetool.tagging.CachingWordTagger}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaggerBenchmark {
+
+  @Param({"en-US", "de-DE", "fr", "es", "pt-PT"})
+  public String language;
+
+  @Param({"100", "1000", "10000"})
+  public int textSize;
+
+  private Tagger tagger;
+  private List<List<String>> tokenizedSentences;
+
+  @Setup
+  public void setup() throws IOException {
+    Language lang = Languages.getLanguageForShortCode(language);
+    tagger = lang.getTagger();
+    tokenizedSentences = new ArrayList<>();
+    for (String sentence : new JLanguageTool(lang).sentenceTokenize(Corpus.getText(lang, textSize))) {
+      tokenizedSentences.add(lang.getWordTokenizer().tokenize(sentence));
+    }
+  }
+
+  @Benchmark
+  public void tag(Blackhole blackhole) throws IOException {
+    for (List<String> tokens : tokenizedSentences) {
+      blackhole.consume(tagger.tag(tokens));
+    }
+  }
+
+}
@@ -88,7 +88,7 @@ public final class AnalyzedSentence {
   private static Map<String, List<Integer>> indexTokens(AnalyzedTokenReadings[] tokens) {
     Map<String, List<Integer>> result = new HashMap<>(tokens.length);
     for (int i = 0; i < tokens.length; i++) {
-      result.computeIfAbsent(tokens[i].getToken().toLowerCase(), __ -> new ArrayList<>(1)).add(i);
+      result.computeIfAbsent(toLowerCaseKey(tokens[i].getToken()), __ -> new ArrayList<>(1)).add(i);
     }
     return makeUnmodifiable(result);
   }
@@ -101,7 +101,7 @@ public final class AnalyzedSentence {
       for (int j = 0; j < readingsLength; j++) {
         AnalyzedToken token = tr.getAnalyzedToken(j);
         String lemma = token.getLemma();
-        String key = (lemma != null ? lemma : token.getToken()).toLowerCase();
+        String key = toLowerCaseKey(lemma != null ? lemma : token.getToken());
         List<Integer> list = result.computeIfAbsent(key, __ -> new ArrayList<>(1));
         if (list.isEmpty() || list.get(list.size() - 1) != i) {
           list.add(i);
@@ -111,6 +111,18 @@ public final class AnalyzedSentence {
     return makeUnmodifiable(result);
   }
 
+  /**
+   * Lower-cases the given token text or lemma the way the keys of {@link #getTokenSet()}, {@link #getLemmaSet()},
+   * {@link #getTokenOffsets} and {@link #getLemmaOffsets} are lower-cased. Greek final sigma is mapped to
+   * the regular one, as the lower case of capital sigma depends on its position in the string, which
+   * differs between a whole token and a substring or a pattern value.
+   * @since 5.9
+   */
+  @ApiStatus.Internal
+  public static String toLowerCaseKey(String s) {
+    return s.toLowerCase(Locale.ROOT).replace('\u03C2', '\u03C3');
+  }
+
   private static Map<String, List<Integer>> makeUnmodifiable(Map<String, List<Integer>> result) {
     for (Map.Entry<String, List<Integer>> entry : result.entrySet()) {
       entry.setValue(Collections.unmodifiableList(entry.getValue()));
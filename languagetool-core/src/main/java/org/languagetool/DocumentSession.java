@@ -0,0 +1,263 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.TextLevelRule;
+import org.languagetool.tools.Tools;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * For internal use only. The state of the latest check of a document, used to
+ * re-check only the changed parts when the same document gets checked again.
+ * Sentences of the new text are compared to those of the previous check: the longest
+ * common prefix and suffix are re-used, everything in between (plus a neighbourhood
+ * of {@code neighbourhood} sentences) counts as changed.
+ * @since 5.9
+ */
+class DocumentSession {
+
+  private final Object settings;
+  private final Language language;
+  private final List<String> sentences;
+  private final AnalyzedSentence[] analyzedSentences;
+  private final List<RuleMatch>[] sentenceMatches;
+  private final Map<TextLevelRule, List<RuleMatch>> textLevelMatches = new IdentityHashMap<>();
+
+  @Nullable
+  private DocumentSession previous;
+  // changed range in the new sentences (to: exclusive) and the end of the range in the previous sentences:
+  private final int changedFrom;
+  private final int changedTo;
+  private final int previousChangedTo;
+  private int[] paragraphs;
+
+  @SuppressWarnings("unchecked")
+  DocumentSession(Object settings, Language language, List<String> sentences, @Nullable DocumentSession previous, int neighbourhood) {
+    this.settings = Objects.requireNonNull(settings);
+    this.language = Objects.requireNonNull(language);
+    this.sentences = Objects.requireNonNull(sentences);
+    this.analyzedSentences = new AnalyzedSentence[sentences.size()];
+    this.sentenceMatches = new List[sentences.size()];
+    if (previous != null && previous.settings.equals(settings) && previous.sentences.size() > 0 && sentences.size() > 0) {
+      this.previous = previous;
+      List<String> oldSentences = previous.sentences;
+      int max = Math.min(oldSentences.size(), sentences.size());
+      int prefix = 0;
+      while (prefix < max && oldSentences.get(prefix).equals(sentences.get(prefix))) {
+        prefix++;
+      }
+      if (prefix > 0 && oldSentences.size() != sentences.size() && (prefix == oldSentences.size() || prefix == sentences.size())) {
+        // the last sentence of a text is marked as paragraph end, so it cannot be re-used at another position
+        prefix--;
+      }
+      int suffix = 0;
+      while (suffix < max - prefix &&
+             oldSentences.get(oldSentences.size() - 1 - suffix).equals(sentences.get(sentences.size() - 1 - suffix))) {
+        suffix++;
+      }
+      boolean unchanged = prefix == oldSentences.size() && prefix == sentences.size();
+      changedFrom = unchanged ? prefix : Math.max(0, prefix - neighbourhood);
+      int reusableSuffix = unchanged ? 0 : Math.max(0, suffix - neighbourhood);
+      changedTo = sentences.size() - reusableSuffix;
+      previousChangedTo = oldSentences.size() - reusableSuffix;
+    } else {
+      changedFrom = 0;
+      changedTo = sentences.size();
+      previousChangedTo = 0;
+    }
+  }
+
+  Object getSettings() {
+    return settings;
+  }
+
+  /**
+   * @return true if nothing of the previous check can be re-used
+   */
+  boolean isNew() {
+    return previous == null;
+  }
+
+  /**
+   * @return the number of sentences that need to be analyzed and checked again
+   */
+  int getChangedSentenceCount() {
+    return changedTo - changedFrom;
+  }
+
+  /**
+   * @return the index of the same, unchanged sentence in the previous check, or {@code -1}
+   */
+  private int previousIndex(int index) {
+    if (previous == null) {
+      return -1;
+    }
+    if (index < changedFrom) {
+      return index;
+    }
+    if (index >= changedTo) {
+      return index - changedTo + previousChangedTo;
+    }
+    return -1;
+  }
+
+  @Nullable
+  AnalyzedSentence getReusableAnalyzedSentence(int index) {
+    int prevIndex = previousIndex(index);
+    return prevIndex >= 0 ? previous.analyzedSentences[prevIndex] : null;
+  }
+
+  void setAnalyzedSentence(int index, AnalyzedSentence sentence) {
+    analyzedSentences[index] = sentence;
+  }
+
+  /**
+   * @return the sentence matches of the previous check, with positions relative to the sentence, or {@code null}
+   */
+  @Nullable
+  List<RuleMatch> getReusableSentenceMatches(int index) {
+    int prevIndex = previousIndex(index);
+    return prevIndex >= 0 ? previous.sentenceMatches[prevIndex] : null;
+  }
+
+  void setSentenceMatches(int index, List<RuleMatch> matches) {
+    sentenceMatches[index] = matches;
+  }
+
+  /**
+   * Get the matches of a text-level rule, with positions relative to the plain text. The rule is only
+   * run on the paragraphs it needs to see according to {@link TextLevelRule#minToCheckParagraph()},
+   * the matches for all other paragraphs are taken from the previous check.
+   */
+  RuleMatch[] matchTextLevelRule(TextLevelRule rule, List<AnalyzedSentence> analyzed, AnnotatedText annotatedText) throws IOException {
+    List<RuleMatch> previousMatches = previous != null ? previous.textLevelMatches.get(rule) : null;
+    List<RuleMatch> matches;
+    int minParagraphs = rule.minToCheckParagraph();
+    if (previousMatches == null) {
+      matches = Arrays.asList(rule.match(analyzed, annotatedText));
+    } else if (changedFrom == changedTo && sentences.size() == previous.sentences.size()) {
+      matches = previousMatches;
+    } else if (minParagraphs < 0) {
+      matches = Arrays.asList(rule.match(analyzed, annotatedText));
+    } else {
+      matches = matchChangedParagraphs(rule, minParagraphs, analyzed, annotatedText, previousMatches);
+    }
+    textLevelMatches.put(rule, matches);
+    return matches.toArray(RuleMatch.EMPTY_ARRAY);
+  }
+
+  private List<RuleMatch> matchChangedParagraphs(TextLevelRule rule, int minParagraphs, List<AnalyzedSentence> analyzed,
+                                                 AnnotatedText annotatedText, List<RuleMatch> previousMatches) throws IOException {
+    int[] paragraphs = getParagraphs(analyzed);
+    int lastParagraph = paragraphs[paragraphs.length - 1];
+    // whether a sentence ends a paragraph also depends on the sentence after it:
+    int firstChanged = paragraphs[Math.max(0, changedFrom - 1)];
+    int lastChanged = paragraphs[Math.min(paragraphs.length - 1, changedTo)];
+    // paragraphs with possibly different matches, and the paragraphs the rule needs to see to find them:
+    int affectedFrom = firstSentenceOf(paragraphs, Math.max(0, firstChanged - minParagraphs));
+    int affectedTo = firstSentenceOf(paragraphs, Math.min(lastParagraph, lastChanged + minParagraphs) + 1);
+    int contextFrom = firstSentenceOf(paragraphs, Math.max(0, firstChanged - 2 * minParagraphs));
+    int contextTo = firstSentenceOf(paragraphs, Math.min(lastParagraph, lastChanged + 2 * minParagraphs) + 1);
+
+    int affectedFromPos = startPos(sentences, affectedFrom);
+    int affectedToPos = startPos(sentences, affectedTo);
+    int prevAffectedTo = affectedTo - changedTo + previousChangedTo;
+    int prevAffectedFromPos = startPos(previous.sentences, affectedFrom);
+    int prevAffectedToPos = startPos(previous.sentences, prevAffectedTo);
+    int contextPos = startPos(sentences, contextFrom);
+    int shift = affectedToPos - prevAffectedToPos;
+
+    List<RuleMatch> result = new ArrayList<>();
+    for (RuleMatch match : previousMatches) {
+      if (match.getFromPos() < prevAffectedFromPos) {
+        result.add(match);
+      }
+    }
+    for (RuleMatch match : rule.match(analyzed.subList(contextFrom, contextTo), annotatedText)) {
+      int fromPos = match.getFromPos() + contextPos;
+      if (fromPos >= affectedFromPos && fromPos < affectedToPos) {
+        result.add(shift(match, contextPos));
+      }
+    }
+    for (RuleMatch match : previousMatches) {
+      if (match.getFromPos() >= prevAffectedToPos) {
+        result.add(shift(match, shift));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return the paragraph number of each sentence
+   */
+  private int[] getParagraphs(List<AnalyzedSentence> analyzed) {
+    if (paragraphs == null) {
+      paragraphs = new int[analyzed.size()];
+      int paragraph = 0;
+      for (int i = 0; i < analyzed.size(); i++) {
+        paragraphs[i] = paragraph;
+        if (Tools.isParagraphEnd(analyzed, i, language)) {
+          paragraph++;
+        }
+      }
+    }
+    return paragraphs;
+  }
+
+  private static int firstSentenceOf(int[] paragraphs, int paragraph) {
+    int i = 0;
+    while (i < paragraphs.length && paragraphs[i] < paragraph) {
+      i++;
+    }
+    return i;
+  }
+
+  private static int startPos(List<String> sentences, int index) {
+    int pos = 0;
+    for (int i = 0; i < index; i++) {
+      pos += sentences.get(i).length();
+    }
+    return pos;
+  }
+
+  private static RuleMatch shift(RuleMatch match, int shift) {
+    if (shift == 0) {
+      return match;
+    }
+    RuleMatch shifted = new RuleMatch(match);
+    shifted.setOffsetPosition(match.getFromPos() + shift, match.getToPos() + shift);
+    shifted.setPatternPosition(match.getPatternFromPos() + shift, match.getPatternToPos() + shift);
+    return shifted;
+  }
+
+  /**
+   * Call after the check has completed, so the session can be used for the next check of the document.
+   */
+  DocumentSession finish() {
+    previous = null;
+    paragraphs = null;
+    return this;
+  }
+
+}
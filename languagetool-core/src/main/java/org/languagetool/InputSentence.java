@@ -18,11 +18,21 @@
  */
 package org.languagetool;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.languagetool.rules.CategoryId;
+import org.languagetool.rules.Rule;
 
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Collectors;
 
 /**
  * For internal use only. Used as a key for caching check results.
@@ -30,6 +40,11 @@ import java.util.Set;
  */
 class InputSentence {
 
+  static final int KEY_FORMAT_VERSION = 1;
+
+  // hashing the user config can be expensive with large dictionaries, and there are few different objects:
+  private static final Cache<UserConfig, byte[]> userConfigHashes = CacheBuilder.newBuilder().weakKeys().build();
+
   private final String text;
   private final Language lang;
   private final Language motherTongue;
@@ -74,7 +89,103 @@ class InputSentence {
   public String getText() {
     return text;
   }
+
+  Language getLanguage() {
+    return lang;
+  }
   
+  /**
+   * A SHA-256 hash of this key that's the same in all JVMs that run the same version of LanguageTool, for
+   * use with {@link SharedResultCache}. Like {@link #equals(Object)}, it considers only those parts of the
+   * user config that {@link UserConfig#equals(Object)} considers.
+   * @since 5.9
+   */
+  byte[] getStableHash() {
+    try {
+      ByteArrayOutputStream bos = new ByteArrayOutputStream(text.length() + 128);
+      DataOutputStream out = new DataOutputStream(bos);
+      out.writeByte(KEY_FORMAT_VERSION);
+      out.writeUTF(JLanguageTool.VERSION + "/" + JLanguageTool.BUILD_DATE);
+      writeString(out, text);
+      out.writeUTF(lang.getShortCodeWithCountryAndVariant());
+      out.writeUTF(motherTongue != null ? motherTongue.getShortCodeWithCountryAndVariant() : "");
+      writeSorted(out, disabledRules);
+      writeSorted(out, toStrings(disabledRuleCategories));
+      writeSorted(out, enabledRules);
+      writeSorted(out, toStrings(enabledRuleCategories));
+      out.write(userConfig != null ? userConfigHashes.get(userConfig, () -> getStableHash(userConfig)) : new byte[0]);
+      out.writeLong(textSessionID != null ? textSessionID : Long.MIN_VALUE);
+      out.writeInt(altLanguages != null ? altLanguages.size() : -1);
+      if (altLanguages != null) {
+        for (Language altLanguage : altLanguages) {
+          out.writeUTF(altLanguage.getShortCodeWithCountryAndVariant());
+        }
+      }
+      out.writeUTF(mode.name());
+      out.writeUTF(level.name());
+      return sha256(bos.toByteArray());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private static byte[] getStableHash(UserConfig userConfig) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bos);
+    Map<String, Integer> ruleValues = new TreeMap<>(userConfig.getConfigValues());
+    out.writeInt(ruleValues.size());
+    for (Map.Entry<String, Integer> entry : ruleValues.entrySet()) {
+      writeString(out, entry.getKey());
+      out.writeInt(entry.getValue());
+    }
+    writeSorted(out, userConfig.getRules().stream().map(Rule::getId).collect(Collectors.toList()));
+    out.writeLong(userConfig.getPremiumUid() != null ? userConfig.getPremiumUid() : Long.MIN_VALUE);
+    writeString(out, Objects.toString(userConfig.getUserDictName(), ""));
+    List<String> words = userConfig.getAcceptedWords();
+    out.writeInt(words.size());
+    for (String word : words) {
+      writeString(out, word);
+    }
+    out.writeBoolean(userConfig.filterDictionaryMatches());
+    writeString(out, Objects.toString(userConfig.getAbTest(), ""));
+    out.writeBoolean(userConfig.getHidePremiumMatches());
+    return sha256(bos.toByteArray());
+  }
+
+  private static List<String> toStrings(Set<CategoryId> categoryIds) {
+    return categoryIds == null ? null : categoryIds.stream().map(CategoryId::toString).collect(Collectors.toList());
+  }
+
+  private static void writeSorted(DataOutputStream out, Collection<String> strings) throws IOException {
+    if (strings == null) {
+      out.writeInt(-1);
+      return;
+    }
+    List<String> sorted = new ArrayList<>(strings);
+    Collections.sort(sorted);
+    out.writeInt(sorted.size());
+    for (String s : sorted) {
+      writeString(out, s);
+    }
+  }
+
+  // unlike writeUTF(), this has no length limit:
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static byte[] sha256(byte[] data) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(data);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
   @Override
   public boolean equals(Object o) {
     if (o == null) return false;
@@ -18,6 +18,8 @@
  */
 package org.languagetool;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
@@ -192,6 +194,9 @@ public class JLanguageTool {
   private boolean listUnknownWords;
   private Set<String> unknownWords = new HashSet<>();
   private boolean cleanOverlappingMatches;
+  // state of the latest check per textSessionID, null if incremental checking is disabled:
+  private Cache<Long, DocumentSession> documentSessions;
+  private int sessionNeighbourhood;
 
   /**
    * Constants for correct paragraph-rule handling.
@@ -344,6 +349,37 @@ public class JLanguageTool {
     this.inputLogging = inputLogging;
   }
 
+  /**
+   * Create a JLanguageTool that uses the same rule instances as {@code template}, which is much
+   * faster and uses less memory than loading the rules again. This works because rules need to be
+   * thread-safe anyway (see {@link MultiThreadedJLanguageTool}). The rule lists, enabled and disabled
+   * rules and categories, match filters and other settings are copied, so they can be changed
+   * independently of the template. Incremental checking is not enabled for the copy.
+   * Note that rule configuration changed via {@link #setConfigValues(Map)} is shared, as it
+   * affects the {@link UserConfig} and the rules themselves.
+   * @since 5.9
+   */
+  public JLanguageTool(JLanguageTool template) {
+    this.language = template.language;
+    this.altLanguages = template.altLanguages;
+    this.motherTongue = template.motherTongue;
+    this.userConfig = template.userConfig;
+    this.globalConfig = template.globalConfig;
+    this.builtinRules = new ArrayList<>(template.builtinRules);
+    this.userRules.addAll(template.userRules);
+    this.optionalLanguageModelRules.addAll(template.optionalLanguageModelRules);
+    this.disabledRules.addAll(template.disabledRules);
+    this.disabledRuleCategories.addAll(template.disabledRuleCategories);
+    this.enabledRules.addAll(template.enabledRules);
+    this.enabledRuleCategories.addAll(template.enabledRuleCategories);
+    this.matchFilters.addAll(template.matchFilters);
+    this.cleanOverlappingMatches = template.cleanOverlappingMatches;
+    this.maxErrorsPerWordRate = template.maxErrorsPerWordRate;
+    this.cache = template.cache;
+    this.descProvider = template.descProvider;
+    this.inputLogging = template.inputLogging;
+  }
+
   /**
    * Create a JLanguageTool and setup the built-in rules for the
    * given language and false friend rules for the text language / mother tongue pair.
@@ -470,6 +506,29 @@ public class JLanguageTool {
     this.maxErrorsPerWordRate = maxErrorsPerWordRate;
   }
 
+  /**
+   * Re-use analysis and check results between checks of the same document. A document is identified
+   * by the {@code textSessionID} given to {@link #check(AnnotatedText, boolean, ParagraphHandling, RuleMatchListener, Mode, Level, Long)}.
+   * When a document is checked again, only the sentences that changed since the latest check (plus
+   * {@code neighbourhood} sentences around them) are analyzed and checked, the matches of all other
+   * sentences are taken over with adjusted positions. Text-level rules are only run again on the
+   * paragraphs they need to see, see {@link TextLevelRule#minToCheckParagraph()}.
+   *
+   * @param maxSessions the maximum number of documents to keep state for, {@code 0} disables incremental checking
+   * @param neighbourhood the number of unchanged sentences before and after a change that get checked again, too
+   * @since 5.9
+   */
+  public void setIncrementalChecking(int maxSessions, int neighbourhood) {
+    if (maxSessions < 0 || neighbourhood < 0) {
+      throw new IllegalArgumentException("maxSessions and neighbourhood must be >= 0: " + maxSessions + ", " + neighbourhood);
+    }
+    documentSessions = maxSessions == 0 ? null : CacheBuilder.newBuilder()
+      .maximumSize(maxSessions)
+      .expireAfterAccess(30, TimeUnit.MINUTES)
+      .build();
+    sessionNeighbourhood = neighbourhood;
+  }
+
   /**
    * Callback to determine if result of executing {@link #check(String)} is still needed.
    */
@@ -931,20 +990,43 @@ public class JLanguageTool {
                                Mode mode, Level level, @Nullable Long textSessionID) throws IOException {
     annotatedText = cleanText(annotatedText);
     List<String> sentences = getSentences(annotatedText, tokenizeText);
-    List<AnalyzedSentence> analyzedSentences = analyzeSentences(sentences);
-    return checkInternal(annotatedText, paraMode, listener, mode, level, textSessionID, sentences, analyzedSentences).getRuleMatches();
+    DocumentSession session = startDocumentSession(textSessionID, sentences, paraMode, mode, level);
+    List<AnalyzedSentence> analyzedSentences = session != null ? analyzeSentences(sentences, session) : analyzeSentences(sentences);
+    CheckResults checkResults = checkInternal(annotatedText, paraMode, listener, mode, level, textSessionID, sentences, analyzedSentences, session);
+    finishDocumentSession(textSessionID, session);
+    return checkResults.getRuleMatches();
   }
 
   public CheckResults check2(AnnotatedText annotatedText, boolean tokenizeText, ParagraphHandling paraMode, RuleMatchListener listener,
                              Mode mode, Level level, @Nullable Long textSessionID) throws IOException {
     annotatedText = cleanText(annotatedText);
     List<String> sentences = getSentences(annotatedText, tokenizeText);
-    List<AnalyzedSentence> analyzedSentences = analyzeSentences(sentences);
-    CheckResults checkResults = checkInternal(annotatedText, paraMode, listener, mode, level, textSessionID, sentences, analyzedSentences);
+    DocumentSession session = startDocumentSession(textSessionID, sentences, paraMode, mode, level);
+    List<AnalyzedSentence> analyzedSentences = session != null ? analyzeSentences(sentences, session) : analyzeSentences(sentences);
+    CheckResults checkResults = checkInternal(annotatedText, paraMode, listener, mode, level, textSessionID, sentences, analyzedSentences, session);
+    finishDocumentSession(textSessionID, session);
     checkResults.addSentenceRanges(SentenceRange.getRangesFromSentences(annotatedText, sentences));
     return checkResults;
   }
 
+  @Nullable
+  private DocumentSession startDocumentSession(@Nullable Long textSessionID, List<String> sentences, ParagraphHandling paraMode, Mode mode, Level level) {
+    if (documentSessions == null || textSessionID == null) {
+      return null;
+    }
+    // the rule set gets re-created whenever rules get enabled, disabled or added:
+    List<Object> settings = Arrays.asList(getActiveRulesForLevel(level), paraMode, mode, level, userConfig, new ArrayList<>(matchFilters));
+    DocumentSession previous = documentSessions.getIfPresent(textSessionID);
+    return new DocumentSession(settings, language, sentences, previous, sessionNeighbourhood);
+  }
+
+  private void finishDocumentSession(@Nullable Long textSessionID, @Nullable DocumentSession session) {
+    if (session == null || checkCancelledCallback != null && checkCancelledCallback.checkCancelled()) {
+      return;
+    }
+    documentSessions.put(textSessionID, session.finish());
+  }
+
   private List<String> getSentences(AnnotatedText annotatedText, boolean tokenizeText) {
     List<String> sentences;
     if (tokenizeText) {
@@ -983,6 +1065,12 @@ public class JLanguageTool {
   protected CheckResults checkInternal(AnnotatedText annotatedText, ParagraphHandling paraMode, RuleMatchListener listener,
                                      Mode mode, Level level,
                                      @Nullable Long textSessionID, List<String> sentences, List<AnalyzedSentence> analyzedSentences) throws IOException {
+    return checkInternal(annotatedText, paraMode, listener, mode, level, textSessionID, sentences, analyzedSentences, null);
+  }
+
+  private CheckResults checkInternal(AnnotatedText annotatedText, ParagraphHandling paraMode, RuleMatchListener listener,
+                                     Mode mode, Level level, @Nullable Long textSessionID, List<String> sentences,
+                                     List<AnalyzedSentence> analyzedSentences, @Nullable DocumentSession session) throws IOException {
     RuleSet rules = getActiveRulesForLevel(level);
     if (printStream != null) {
       printIfVerbose(rules.allRules().size() + " rules activated for language " + language);
@@ -1013,8 +1101,14 @@ public class JLanguageTool {
     }
 
     long deadlineStartNanos = System.nanoTime();
-    CheckResults res = performCheck(analyzedSentences, sentences, rules,
+    CheckResults res;
+    if (session != null) {
+      res = performIncrementalCheck(analyzedSentences, sentences, rules,
+            paraMode, annotatedText, listener, mode, level, remoteRulesThreadPool == null, session);
+    } else {
+      res = performCheck(analyzedSentences, sentences, rules,
             paraMode, annotatedText, listener, mode, level, remoteRulesThreadPool == null);
+    }
     long textCheckEnd = System.nanoTime();
 
     fetchRemoteRuleResults(deadlineStartNanos, mode, level, analyzedSentences, remoteMatches, remoteRuleTasks, remoteRules, requestSize,
@@ -1292,6 +1386,32 @@ public class JLanguageTool {
     return analyzedSentences;
   }
 
+  /**
+   * Like {@link #analyzeSentences(List)}, but only analyzes the sentences that changed since the
+   * latest check of the document.
+   */
+  private List<AnalyzedSentence> analyzeSentences(List<String> sentences, DocumentSession session) throws IOException {
+    unknownWords = new HashSet<>();
+    List<AnalyzedSentence> analyzedSentences = new ArrayList<>(sentences.size());
+    for (int i = 0; i < sentences.size(); i++) {
+      if (checkCancelledCallback != null && checkCancelledCallback.checkCancelled()) {
+        break;
+      }
+      AnalyzedSentence analyzedSentence = session.getReusableAnalyzedSentence(i);
+      if (analyzedSentence == null) {
+        analyzedSentence = getAnalyzedSentence(sentences.get(i));
+        if (i == sentences.size() - 1) {
+          analyzedSentence = markAsParagraphEnd(analyzedSentence);
+        }
+        printSentenceInfo(analyzedSentence);
+      }
+      rememberUnknownWords(analyzedSentence);
+      session.setAnalyzedSentence(i, analyzedSentence);
+      analyzedSentences.add(analyzedSentence);
+    }
+    return analyzedSentences;
+  }
+
   @NotNull
   static AnalyzedSentence markAsParagraphEnd(AnalyzedSentence analyzedSentence) {
     AnalyzedTokenReadings[] anTokens = analyzedSentence.getTokens();
@@ -1343,6 +1463,20 @@ public class JLanguageTool {
     }
   }
 
+  private CheckResults performIncrementalCheck(List<AnalyzedSentence> analyzedSentences, List<String> sentenceTexts,
+                                              RuleSet ruleSet, ParagraphHandling paraMode, AnnotatedText annotatedText, RuleMatchListener listener,
+                                              Mode mode, Level level, boolean checkRemoteRules, DocumentSession session) throws IOException {
+    List<SentenceData> sentences = computeSentenceData(analyzedSentences, sentenceTexts);
+    Callable<CheckResults> matcher = new TextCheckCallable(ruleSet, sentences, paraMode, annotatedText, listener, mode, level, checkRemoteRules, session);
+    try {
+      return matcher.call();
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
   protected final List<SentenceData> computeSentenceData(List<AnalyzedSentence> analyzedSentences, List<String> texts) {
     int charCount = 0;
     int lineCount = 0;
@@ -1403,6 +1537,7 @@ public class JLanguageTool {
     List<RuleMatch> sentenceMatches = new ArrayList<>();
     List<String> errorRateLog = new ArrayList<>();
     float tmpErrorsPerWord = 0.0f;
+    String langCode = language.getShortCode();
     for (int i = 0, rulesSize = rules.size(); i < rulesSize; i++) {
       Rule rule = rules.get(i);
       if (rule instanceof TextLevelRule || !checkRemoteRules && rule instanceof RemoteRule) {
@@ -1411,7 +1546,9 @@ public class JLanguageTool {
       if (checkCancelledCallback != null && checkCancelledCallback.checkCancelled()) {
         break;
       }
+      long startTime = RuleMetrics.startTiming();
       RuleMatch[] thisMatches = rule.match(analyzedSentence);
+      RuleMetrics.ruleDone(langCode, rule.getId(), startTime, thisMatches.length);
       Collections.addAll(sentenceMatches, thisMatches);
       if (wordCounter > 0) {
         //check if the maxErrorsPerWordRate is already reached for the full text with this sentence and rule  
@@ -1883,10 +2020,21 @@ public class JLanguageTool {
     private final RuleMatchListener listener;
     private final Mode mode;
     private final Level level;
+    @Nullable
+    private final DocumentSession session;
+    private Map<String, Rule> rulesByFullId;
 
     TextCheckCallable(RuleSet rules, List<SentenceData> sentences,
                       ParagraphHandling paraMode, AnnotatedText annotatedText,
                       RuleMatchListener listener, Mode mode, Level level, boolean checkRemoteRules) {
+      this(rules, sentences, paraMode, annotatedText, listener, mode, level, checkRemoteRules, null);
+    }
+
+    TextCheckCallable(RuleSet rules, List<SentenceData> sentences,
+                      ParagraphHandling paraMode, AnnotatedText annotatedText,
+                      RuleMatchListener listener, Mode mode, Level level, boolean checkRemoteRules,
+                      @Nullable DocumentSession session) {
+      this.session = session;
       this.rules = rules;
       this.checkRemoteRules = checkRemoteRules;
       this.sentences = Objects.requireNonNull(sentences);
@@ -1931,7 +2079,11 @@ public class JLanguageTool {
           if (analyzedSentences == null) {
             analyzedSentences = sentences.stream().map(s -> s.analyzed).collect(Collectors.toList());
           }
-          RuleMatch[] matches = ((TextLevelRule) rule).match(analyzedSentences, annotatedText);
+          long startTime = RuleMetrics.startTiming();
+          RuleMatch[] matches = session != null
+            ? session.matchTextLevelRule((TextLevelRule) rule, analyzedSentences, annotatedText)
+            : ((TextLevelRule) rule).match(analyzedSentences, annotatedText);
+          RuleMetrics.ruleDone(language.getShortCode(), rule.getId(), startTime, matches.length);
           List<RuleMatch> adaptedMatches = new ArrayList<>();
           for (RuleMatch match : matches) {
             LineColumnPosition from = findLineColumn(match.getFromPos());
@@ -1964,6 +2116,21 @@ public class JLanguageTool {
       return ruleMatches;
     }
 
+    // resolves rules of matches from the shared result cache:
+    @Nullable
+    private Rule getRuleByFullId(String fullId) {
+      if (rulesByFullId == null) {
+        rulesByFullId = new HashMap<>();
+        for (Rule rule : this.rules.allRules()) {
+          rulesByFullId.putIfAbsent(rule.getFullId(), rule);
+        }
+        for (Rule rule : userConfig.getRules()) {
+          rulesByFullId.putIfAbsent(rule.getFullId(), rule);
+        }
+      }
+      return rulesByFullId.get(fullId);
+    }
+
     private CheckResults getOtherRuleMatches() {
       List<RuleMatch> ruleMatches = new ArrayList<>();
       List<Range> ignoreRanges = new ArrayList<>();
@@ -1979,22 +2146,27 @@ public class JLanguageTool {
           //if (analyzedSentence.getText().contains("fakecrash")) {
           //  throw new RuntimeException("fake crash");
           //}
-          List<RuleMatch> sentenceMatches = null;
-          InputSentence cacheKey = null;
-          if (cache != null) {
-            cacheKey = new InputSentence(sentence.text, language, motherTongue,
-                    disabledRules, disabledRuleCategories,
-                    enabledRules, enabledRuleCategories, userConfig, altLanguages, mode, level);
-            sentenceMatches = cache.getIfPresent(cacheKey);
-          }
+          List<RuleMatch> sentenceMatches = session != null ? session.getReusableSentenceMatches(i) : null;
           if (sentenceMatches == null) {
+            InputSentence cacheKey = null;
+            if (cache != null) {
+              cacheKey = new InputSentence(sentence.text, language, motherTongue,
+                      disabledRules, disabledRuleCategories,
+                      enabledRules, enabledRuleCategories, userConfig, altLanguages, mode, level);
+              sentenceMatches = cache.getIfPresent(cacheKey, sentence.analyzed, this::getRuleByFullId);
+            }
+            if (sentenceMatches == null) {
 
-            List<Rule> rules = new ArrayList<>(this.rules.rulesForSentence(sentence.analyzed));
-            rules.addAll(userConfig.getRules());
-            sentenceMatches = checkAnalyzedSentence(paraMode, rules, sentence.analyzed, checkRemoteRules, textWordCounter);
+              List<Rule> rules = new ArrayList<>(this.rules.rulesForSentence(sentence.analyzed));
+              rules.addAll(userConfig.getRules());
+              sentenceMatches = checkAnalyzedSentence(paraMode, rules, sentence.analyzed, checkRemoteRules, textWordCounter);
+              if (cache != null) {
+                cache.put(cacheKey, sentenceMatches);
+              }
+            }
           }
-          if (cache != null) {
-            cache.put(cacheKey, sentenceMatches);
+          if (session != null) {
+            session.setSentenceMatches(i, sentenceMatches);
           }
           if (!sentenceMatches.isEmpty()) {
             if (checkCancelledCallback != null && checkCancelledCallback.checkCancelled()) {
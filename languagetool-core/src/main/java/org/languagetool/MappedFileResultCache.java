@@ -0,0 +1,258 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link SharedResultCache} in a memory-mapped file that all LanguageTool processes on a host can share,
+ * e.g. several servers behind a load balancer. The file is a hash table of fixed-size slots, in buckets of
+ * four slots. A new value replaces the least recently written one in its bucket, values larger than a slot
+ * are not stored. Buckets are protected by file locks, so processes can use the file concurrently. All
+ * processes must use the same size and slot size for the file. The file is created if it doesn't exist and
+ * keeps its content when the processes are restarted.
+ * @since 5.9
+ */
+public class MappedFileResultCache implements SharedResultCache {
+
+  public static final int DEFAULT_SLOT_SIZE = 2048;
+
+  private static final int MAGIC = 0x4c545243;  // "LTRC"
+  private static final int FILE_FORMAT_VERSION = 1;
+  private static final int HEADER_SIZE = 64;
+  private static final int KEY_SIZE = 32;
+  private static final int SLOT_HEADER_SIZE = 8 + KEY_SIZE + 4;  // time of writing (0 = empty), key, value length
+  private static final int WAYS = 4;
+  private static final int LOCK_STRIPES = 256;
+  private static final long LOCK_RETRY_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+
+  // file locks are held by the JVM, so threads (even of different instances) must not request overlapping locks:
+  private static final ConcurrentMap<Path, Object[]> jvmLocks = new ConcurrentHashMap<>();
+
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final Object[] locks;
+  private final int slotSize;
+  private final int bucketCount;
+
+  /**
+   * @param sizeInBytes the size of the file, at most 2GB
+   */
+  public MappedFileResultCache(Path file, long sizeInBytes) throws IOException {
+    this(file, sizeInBytes, DEFAULT_SLOT_SIZE);
+  }
+
+  /**
+   * @param sizeInBytes the size of the file, at most 2GB
+   * @param slotSize the maximum size of an entry in bytes
+   */
+  public MappedFileResultCache(Path file, long sizeInBytes, int slotSize) throws IOException {
+    if (slotSize <= SLOT_HEADER_SIZE) {
+      throw new IllegalArgumentException("slotSize must be > " + SLOT_HEADER_SIZE + ": " + slotSize);
+    }
+    if (sizeInBytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("sizeInBytes must be <= " + Integer.MAX_VALUE + ": " + sizeInBytes);
+    }
+    long bucketCount = (sizeInBytes - HEADER_SIZE) / ((long) slotSize * WAYS);
+    if (bucketCount < 1) {
+      throw new IllegalArgumentException("sizeInBytes must be at least " + (HEADER_SIZE + slotSize * WAYS) + ": " + sizeInBytes);
+    }
+    this.slotSize = slotSize;
+    this.bucketCount = (int) bucketCount;
+    this.locks = jvmLocks.computeIfAbsent(file.toAbsolutePath().normalize(), k -> {
+      Object[] locks = new Object[LOCK_STRIPES + 1];  // the last one is for the header
+      for (int i = 0; i < locks.length; i++) {
+        locks[i] = new Object();
+      }
+      return locks;
+    });
+    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      synchronized (locks[LOCK_STRIPES]) {
+        try (FileLock ignored = channel.lock(0, HEADER_SIZE, false)) {
+          boolean isNew = channel.size() == 0;
+          if (!isNew) {
+            ByteBuffer header = ByteBuffer.allocate(16);
+            channel.read(header, 0);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != FILE_FORMAT_VERSION ||
+                header.getInt(8) != slotSize || header.getInt(12) != this.bucketCount) {
+              throw new IOException("File " + file + " is not a result cache file with file format " + FILE_FORMAT_VERSION +
+                ", slot size " + slotSize + " and " + this.bucketCount + " buckets - delete it or use its settings");
+            }
+          }
+          // this extends a new file, with zeros for empty slots:
+          buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + bucketCount * WAYS * slotSize);
+          if (isNew) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, FILE_FORMAT_VERSION);
+            buffer.putInt(8, slotSize);
+            buffer.putInt(12, this.bucketCount);
+          }
+        }
+      }
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  @Nullable
+  @Override
+  public byte[] get(byte[] key) {
+    checkKey(key);
+    int bucket = getBucket(key);
+    synchronized (locks[bucket % LOCK_STRIPES]) {
+      try (FileLock lock = lockBucket(bucket, true)) {
+        if (lock == null) {
+          return null;
+        }
+        int slot = findSlot(bucket, key);
+        if (slot == -1) {
+          return null;
+        }
+        int length = buffer.getInt(slot + 8 + KEY_SIZE);
+        if (length < 0 || length > slotSize - SLOT_HEADER_SIZE) {
+          return null;
+        }
+        byte[] value = new byte[length];
+        ByteBuffer slotBuffer = buffer.duplicate();
+        slotBuffer.position(slot + SLOT_HEADER_SIZE);
+        slotBuffer.get(value);
+        return value;
+      } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+        // the file has been changed by something else than this class, treat it as a miss:
+        return null;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  @Override
+  public void put(byte[] key, byte[] value) {
+    checkKey(key);
+    if (value.length > slotSize - SLOT_HEADER_SIZE) {
+      return;
+    }
+    int bucket = getBucket(key);
+    synchronized (locks[bucket % LOCK_STRIPES]) {
+      try (FileLock lock = lockBucket(bucket, false)) {
+        if (lock == null) {
+          return;
+        }
+        int slot = findSlot(bucket, key);
+        if (slot == -1) {
+          slot = getOldestSlot(bucket);
+        }
+        ByteBuffer slotBuffer = buffer.duplicate();
+        slotBuffer.position(slot);
+        slotBuffer.putLong(0);  // mark as empty while writing
+        slotBuffer.put(key);
+        slotBuffer.putInt(value.length);
+        slotBuffer.put(value);
+        buffer.putLong(slot, Math.max(1, System.currentTimeMillis()));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private void checkKey(byte[] key) {
+    if (key.length != KEY_SIZE) {
+      throw new IllegalArgumentException("Key must have " + KEY_SIZE + " bytes: " + key.length);
+    }
+  }
+
+  private int getBucket(byte[] key) {
+    int hash = (key[0] & 0xff) << 24 | (key[1] & 0xff) << 16 | (key[2] & 0xff) << 8 | (key[3] & 0xff);
+    return (hash & Integer.MAX_VALUE) % bucketCount;
+  }
+
+  private int getSlot(int bucket, int way) {
+    return HEADER_SIZE + (bucket * WAYS + way) * slotSize;
+  }
+
+  private int findSlot(int bucket, byte[] key) {
+    for (int way = 0; way < WAYS; way++) {
+      int slot = getSlot(bucket, way);
+      if (buffer.getLong(slot) != 0 && keyEquals(slot + 8, key)) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  private int getOldestSlot(int bucket) {
+    int oldestSlot = getSlot(bucket, 0);
+    for (int way = 1; way < WAYS; way++) {
+      int slot = getSlot(bucket, way);
+      if (buffer.getLong(slot) < buffer.getLong(oldestSlot)) {
+        oldestSlot = slot;
+      }
+    }
+    return oldestSlot;
+  }
+
+  private boolean keyEquals(int position, byte[] key) {
+    for (int i = 0; i < KEY_SIZE; i++) {
+      if (buffer.get(position + i) != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the lock, or {@code null} if the thread has been interrupted
+   */
+  @Nullable
+  private FileLock lockBucket(int bucket, boolean shared) throws IOException {
+    // not using FileChannel.lock(), as it closes the channel when the thread gets interrupted:
+    while (true) {
+      FileLock lock = channel.tryLock(getSlot(bucket, 0), (long) WAYS * slotSize, shared);
+      if (lock != null) {
+        return lock;
+      }
+      if (Thread.currentThread().isInterrupted()) {
+        return null;
+      }
+      LockSupport.parkNanos(LOCK_RETRY_NANOS);
+    }
+  }
+
+}
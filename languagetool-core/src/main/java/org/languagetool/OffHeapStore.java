@@ -0,0 +1,161 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A byte array store in direct (off-heap) memory, used as the second tier of {@link ResultCache}.
+ * The memory is a ring of fixed-size segments that values are appended to. When the ring is full,
+ * the oldest values are overwritten, so the store never uses more than its capacity, and only the
+ * keys and a small index entry per value are kept on the heap.
+ * @since 5.9
+ */
+final class OffHeapStore<K> {
+
+  static final int MAX_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+  private final Map<K, Entry<K>> index = new HashMap<>();
+  private final ArrayDeque<Entry<K>> entries = new ArrayDeque<>();  // in order of writing, oldest first
+  private final ByteBuffer[] segments;
+  private final int segmentSize;
+  private final long capacity;
+
+  private long writePos;  // virtual position, the physical position is writePos % capacity
+  private long usedBytes;
+  private long hitCount;
+  private long missCount;
+
+  /**
+   * @param maxBytes the memory to allocate, rounded down to a multiple of the segment size if it's larger than one segment
+   */
+  OffHeapStore(long maxBytes) {
+    this(maxBytes, MAX_SEGMENT_SIZE);
+  }
+
+  OffHeapStore(long maxBytes, int maxSegmentSize) {
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("maxBytes must be > 0: " + maxBytes);
+    }
+    segmentSize = (int) Math.min(maxBytes, maxSegmentSize);
+    segments = new ByteBuffer[(int) (maxBytes / segmentSize)];
+    for (int i = 0; i < segments.length; i++) {
+      segments[i] = ByteBuffer.allocateDirect(segmentSize);
+    }
+    capacity = (long) segments.length * segmentSize;
+  }
+
+  /**
+   * Store a value, replacing the old value for the key. Values larger than one segment are not stored.
+   */
+  synchronized void put(K key, byte[] value) {
+    Objects.requireNonNull(key);
+    remove(key);
+    if (value.length > segmentSize) {
+      return;
+    }
+    long start = writePos;
+    if (start % segmentSize + value.length > segmentSize) {
+      // values don't span segments, skip the rest of this one:
+      start += segmentSize - start % segmentSize;
+    }
+    long end = start + value.length;
+    while (!entries.isEmpty() && entries.peekFirst().start < end - capacity) {
+      Entry<K> overwritten = entries.removeFirst();
+      if (overwritten.key != null) {
+        index.remove(overwritten.key);
+        usedBytes -= overwritten.length;
+      }
+    }
+    ByteBuffer segment = segments[(int) (start % capacity / segmentSize)].duplicate();
+    segment.position((int) (start % segmentSize));
+    segment.put(value);
+    Entry<K> entry = new Entry<>(key, start, value.length);
+    entries.addLast(entry);
+    index.put(key, entry);
+    usedBytes += value.length;
+    writePos = end;
+  }
+
+  /**
+   * @return a copy of the value stored for the key, or {@code null}
+   */
+  synchronized byte[] get(K key) {
+    Entry<K> entry = index.get(key);
+    if (entry == null) {
+      missCount++;
+      return null;
+    }
+    hitCount++;
+    byte[] value = new byte[entry.length];
+    ByteBuffer segment = segments[(int) (entry.start % capacity / segmentSize)].duplicate();
+    segment.position((int) (entry.start % segmentSize));
+    segment.get(value);
+    return value;
+  }
+
+  synchronized void remove(K key) {
+    Entry<K> entry = index.remove(key);
+    if (entry != null) {
+      // the memory is reclaimed when the ring wraps around:
+      entry.key = null;
+      usedBytes -= entry.length;
+    }
+  }
+
+  synchronized int size() {
+    return index.size();
+  }
+
+  /**
+   * @return the number of bytes used by values that are still in the store
+   */
+  synchronized long usedBytes() {
+    return usedBytes;
+  }
+
+  long capacity() {
+    return capacity;
+  }
+
+  synchronized long hitCount() {
+    return hitCount;
+  }
+
+  synchronized long requestCount() {
+    return hitCount + missCount;
+  }
+
+  private static class Entry<K> {
+    private K key;  // null if removed
+    private final long start;
+    private final int length;
+
+    Entry(K key, long start, int length) {
+      this.key = key;
+      this.start = start;
+      this.length = length;
+    }
+  }
+
+}
@@ -20,13 +20,20 @@ package org.languagetool;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.cache.Weigher;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
 
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
  * A cache to speed up text checking for use cases where sentences are checked more than once. This
@@ -37,6 +44,19 @@ import java.util.concurrent.TimeUnit;
  * Using a cache with bitext rules isn't supported either.
  * It is okay however, to use the same cache for {@link JLanguageTool} objects with different languages, as
  * cached results are not used for a different language.
+ *
+ * <p>Optionally, rule matches that are evicted from the cache because it's full can be kept in a second
+ * tier in off-heap memory, in a compact binary encoding. That tier is limited by its size in bytes, and
+ * when it's full, the matches that were moved to it first are dropped. Matches found there are moved back
+ * to the first tier. They can only be used if the sentence they belong to is still cached. Evicted matches are
+ * encoded in a background thread, so that the request that causes the eviction doesn't pay for it (encoding
+ * also computes suggestions that haven't been computed yet). If that thread can't keep up, evicted matches
+ * are dropped instead of being moved.
+ *
+ * <p>Optionally, rule matches can also be written to a {@link SharedResultCache} that other processes,
+ * possibly on other hosts, can read them from. Only use the same shared cache for processes that use the
+ * same rules. Matches from the shared cache are looked up with {@link #getIfPresent(InputSentence, AnalyzedSentence, Function)},
+ * as their rules need to be resolved.
  * @since 3.7
  */
 public class ResultCache {
@@ -48,6 +68,17 @@ public class ResultCache {
   private final Cache<InputSentence, Map<String, List<RuleMatch>>> remoteMatchesCache;
   private final Cache<InputSentence, List<RuleMatch>> matchesCache;
   private final Cache<SimpleInputSentence, AnalyzedSentence> sentenceCache;
+  private final OffHeapStore<InputSentence> offHeapMatches;
+  private final RuleMatchCodec codec;
+  private final SharedResultCache sharedCache;
+  private final RuleMatchCodec portableCodec;
+  private final AtomicLong sharedHitCount = new AtomicLong();
+  private final AtomicLong offHeapHitCount = new AtomicLong();
+  private final Executor offHeapExecutor;
+
+  private static final ThreadPoolExecutor defaultOffHeapExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+    new LinkedBlockingQueue<>(10_000), new ThreadFactoryBuilder().setNameFormat("lt-result-cache-off-heap-%d").setDaemon(true).build(),
+    new ThreadPoolExecutor.DiscardPolicy());
 
   /**
    * Create a cache that expires items 5 minutes after the latest read access.
@@ -62,14 +93,56 @@ public class ResultCache {
    * @param expireAfter time to expire sentences from the cache after last read access 
    */
   public ResultCache(long maxSize, long expireAfter, TimeUnit timeUnit) {
+    this(maxSize, expireAfter, timeUnit, 0);
+  }
+
+  /**
+   * @param maxSize maximum cache size in number of sentences
+   * @param expireAfter time to expire sentences from the cache after last read access
+   * @param maxOffHeapBytes size of the off-heap tier for rule matches in bytes, {@code 0} to not use it
+   * @since 5.9
+   */
+  public ResultCache(long maxSize, long expireAfter, TimeUnit timeUnit, long maxOffHeapBytes) {
+    this(maxSize, expireAfter, timeUnit, maxOffHeapBytes, null);
+  }
+
+  /**
+   * @param maxSize maximum cache size in number of sentences
+   * @param expireAfter time to expire sentences from the cache after last read access
+   * @param maxOffHeapBytes size of the off-heap tier for rule matches in bytes, {@code 0} to not use it
+   * @param sharedCache a cache shared with other processes that rule matches are written to, or {@code null}
+   * @since 5.9
+   */
+  public ResultCache(long maxSize, long expireAfter, TimeUnit timeUnit, long maxOffHeapBytes, @Nullable SharedResultCache sharedCache) {
+    this(maxSize, expireAfter, timeUnit, maxOffHeapBytes, sharedCache, defaultOffHeapExecutor);
+  }
+
+  /**
+   * @param offHeapExecutor runs the encoding of matches that are moved to the off-heap tier
+   */
+  ResultCache(long maxSize, long expireAfter, TimeUnit timeUnit, long maxOffHeapBytes, @Nullable SharedResultCache sharedCache, Executor offHeapExecutor) {
     if (maxSize < 0) {
       throw new IllegalArgumentException("Result cache size must be >= 0: " + maxSize);
     }
-    matchesCache = CacheBuilder.newBuilder().
+    if (maxOffHeapBytes < 0) {
+      throw new IllegalArgumentException("Off-heap result cache size must be >= 0: " + maxOffHeapBytes);
+    }
+    CacheBuilder<InputSentence, List<RuleMatch>> matchesCacheBuilder = CacheBuilder.newBuilder().
             maximumWeight(maxSize/2).weigher(new MatchesWeigher()).
             recordStats().
-            expireAfterAccess(expireAfter, timeUnit).
-            build();
+            expireAfterAccess(expireAfter, timeUnit);
+    if (maxOffHeapBytes > 0) {
+      offHeapMatches = new OffHeapStore<>(maxOffHeapBytes);
+      codec = new RuleMatchCodec(false);
+      matchesCache = matchesCacheBuilder.removalListener(this::moveToOffHeap).build();
+    } else {
+      offHeapMatches = null;
+      codec = null;
+      matchesCache = matchesCacheBuilder.build();
+    }
+    this.offHeapExecutor = offHeapExecutor;
+    this.sharedCache = sharedCache;
+    portableCodec = sharedCache != null ? new RuleMatchCodec(true) : null;
     remoteMatchesCache = CacheBuilder.newBuilder().
       maximumWeight(maxSize/2).weigher(new RemoteMatchesWeigher()).
       recordStats().
@@ -107,8 +180,25 @@ public class ResultCache {
     }
   }
   
+  private void moveToOffHeap(RemovalNotification<InputSentence, List<RuleMatch>> notification) {
+    // only what didn't fit anymore, expired or replaced matches are dropped:
+    InputSentence key = notification.getKey();
+    List<RuleMatch> matches = notification.getValue();
+    if (notification.getCause() == RemovalCause.SIZE && key != null && matches != null) {
+      offHeapExecutor.execute(() -> {
+        byte[] data = codec.encode(matches);
+        // the sentence might have been checked and cached again in the meantime:
+        if (!matchesCache.asMap().containsKey(key)) {
+          offHeapMatches.put(key, data);
+        }
+      });
+    }
+  }
+
   public double hitRate() {
-    return (matchesCache.stats().hitRate() + sentenceCache.stats().hitRate()) / 2.0;
+    double matchesHitRate = matchesCache.stats().requestCount() == 0 ? 1.0 :
+      (double) getMatchesHitCount() / matchesCache.stats().requestCount();
+    return (matchesHitRate + sentenceCache.stats().hitRate()) / 2.0;
   }
 
   public double requestCount() {
@@ -116,11 +206,52 @@ public class ResultCache {
   }
 
   public long hitCount() {
-    return matchesCache.stats().hitCount() + sentenceCache.stats().hitCount();
+    return getMatchesHitCount() + sentenceCache.stats().hitCount();
+  }
+
+  private long getMatchesHitCount() {
+    return matchesCache.stats().hitCount() + offHeapHitCount.get() + sharedHitCount.get();
   }
 
   public List<RuleMatch> getIfPresent(InputSentence key) {
-    return matchesCache.getIfPresent(key);
+    List<RuleMatch> matches = matchesCache.getIfPresent(key);
+    if (matches == null && offHeapMatches != null) {
+      byte[] data = offHeapMatches.get(key);
+      if (data != null) {
+        offHeapMatches.remove(key);
+        AnalyzedSentence sentence = sentenceCache.getIfPresent(new SimpleInputSentence(key.getText(), key.getLanguage()));
+        if (sentence != null) {
+          matches = codec.decode(data, sentence);
+          if (matches != null) {
+            offHeapHitCount.incrementAndGet();
+            matchesCache.put(key, matches);
+          }
+        }
+      }
+    }
+    return matches;
+  }
+
+  /**
+   * Like {@link #getIfPresent(InputSentence)}, but also looks up the matches in the shared cache.
+   * @param sentence the analyzed sentence, used for matches from the shared cache
+   * @param rules resolves full rule ids (see {@link Rule#getFullId()}) to rules, returns {@code null} for unknown ids
+   * @since 5.9
+   */
+  @Nullable
+  public List<RuleMatch> getIfPresent(InputSentence key, AnalyzedSentence sentence, Function<String, Rule> rules) {
+    List<RuleMatch> matches = getIfPresent(key);
+    if (matches == null && sharedCache != null) {
+      byte[] data = sharedCache.get(key.getStableHash());
+      if (data != null) {
+        matches = portableCodec.decode(data, sentence, rules);
+        if (matches != null) {
+          sharedHitCount.incrementAndGet();
+          matchesCache.put(key, matches);
+        }
+      }
+    }
+    return matches;
   }
 
   public AnalyzedSentence getIfPresent(SimpleInputSentence key) {
@@ -129,13 +260,56 @@ public class ResultCache {
 
   public void put(InputSentence key, List<RuleMatch> sentenceMatches) {
     matchesCache.put(key, sentenceMatches);
+    if (offHeapMatches != null) {
+      offHeapMatches.remove(key);
+    }
+    if (sharedCache != null) {
+      sharedCache.put(key.getStableHash(), portableCodec.encode(sentenceMatches));
+    }
   }
 
   public void put(SimpleInputSentence key, AnalyzedSentence aSentence) {
     sentenceCache.put(key, aSentence);
   }
 
-  /** @since 4.1 */
+  /**
+   * @return the number of bytes used by rule matches in the off-heap tier
+   * @since 5.9
+   */
+  public long getOffHeapBytes() {
+    return offHeapMatches != null ? offHeapMatches.usedBytes() : 0;
+  }
+
+  /**
+   * @return the number of sentences whose rule matches are in the off-heap tier
+   * @since 5.9
+   */
+  public long getOffHeapSize() {
+    return offHeapMatches != null ? offHeapMatches.size() : 0;
+  }
+
+  /**
+   * @return the share of lookups in the off-heap tier (i.e. of lookups that missed the first tier) that
+   *   found the rule matches, between 0 and 1
+   * @since 5.9
+   */
+  public double getOffHeapHitRate() {
+    long requestCount = offHeapMatches != null ? offHeapMatches.requestCount() : 0;
+    return requestCount == 0 ? 0 : (double) offHeapMatches.hitCount() / requestCount;
+  }
+
+  /**
+   * @return the number of sentences whose rule matches were found in the shared cache
+   * @since 5.9
+   */
+  public long getSharedHitCount() {
+    return sharedHitCount.get();
+  }
+
+  /**
+   * @return the first tier of the rule match cache, which doesn't include the off-heap tier
+   * @since 4.1
+   */
   public Cache<InputSentence, List<RuleMatch>> getMatchesCache() {
     return matchesCache;
   }
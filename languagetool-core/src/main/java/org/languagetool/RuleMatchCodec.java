@@ -0,0 +1,274 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.Nullable;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.SuggestedReplacement;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * A compact binary encoding of the rule matches of a sentence, used by {@link OffHeapStore} and
+ * {@link SharedResultCache}. The analyzed sentence isn't encoded, it's given when decoding.
+ * Suggestions that haven't been computed yet are computed when encoding. Only the character positions are
+ * encoded, not the (deprecated) line and column numbers: the cached matches are relative to their sentence,
+ * lines and columns are calculated from the character positions when they're adjusted to the text.
+ * <ul>
+ *   <li>The local encoding, which can only be decoded by the same codec object, encodes rules as numbers.
+ *     As rules are only weakly referenced, decoding fails if a rule isn't in use anymore.</li>
+ *   <li>The portable encoding, which can be decoded in other JVMs, encodes rules by their full id
+ *     (see {@link Rule#getFullId()}), which are resolved when decoding. It starts with a format version,
+ *     decoding data of another version fails. As the data can come from another process, all lengths
+ *     and ordinals are checked when decoding, malformed data is treated like data that can't be decoded.</li>
+ * </ul>
+ * @since 5.9
+ */
+final class RuleMatchCodec {
+
+  static final int FORMAT_VERSION = 2;
+
+  private static final RuleMatch.Type[] TYPES = RuleMatch.Type.values();
+  private static final SuggestedReplacement.SuggestionType[] SUGGESTION_TYPES = SuggestedReplacement.SuggestionType.values();
+
+  private final Cache<Rule, Integer> ruleToId = CacheBuilder.newBuilder().weakKeys().build();
+  private final Cache<Integer, Rule> idToRule = CacheBuilder.newBuilder().weakValues().build();
+  private final AtomicInteger nextId = new AtomicInteger();
+  private final boolean portable;
+
+  /**
+   * @param portable whether to use the portable encoding
+   */
+  RuleMatchCodec(boolean portable) {
+    this.portable = portable;
+  }
+
+  byte[] encode(List<RuleMatch> matches) {
+    try {
+      ByteArrayOutputStream bos = new ByteArrayOutputStream(64 * matches.size() + 8);
+      DataOutputStream out = new DataOutputStream(bos);
+      if (portable) {
+        out.writeByte(FORMAT_VERSION);
+      }
+      out.writeInt(matches.size());
+      for (RuleMatch match : matches) {
+        Rule rule = match.getRule();
+        if (portable) {
+          writeString(out, rule.getFullId());
+        } else {
+          out.writeInt(getId(rule));
+        }
+        writeString(out, match.getSpecificRuleId().equals(rule.getId()) ? null : match.getSpecificRuleId());
+        writeString(out, match.getMessage());
+        writeString(out, match.getShortMessage());
+        out.writeInt(match.getFromPos());
+        out.writeInt(match.getToPos());
+        out.writeInt(match.getPatternFromPos());
+        out.writeInt(match.getPatternToPos());
+        writeString(out, match.getUrl() != null ? match.getUrl().toString() : null);
+        out.writeByte(match.getType().ordinal());
+        out.writeBoolean(match.isAutoCorrect());
+        out.writeBoolean(match.getSentence() != null);
+        writeString(out, match.getErrorLimitLang());
+        writeFeatures(out, match.getFeatures());
+        List<SuggestedReplacement> replacements = match.getSuggestedReplacementObjects();
+        out.writeInt(replacements.size());
+        for (SuggestedReplacement replacement : replacements) {
+          writeString(out, replacement.getReplacement());
+          writeString(out, replacement.getShortDescription());
+          writeString(out, replacement.getSuffix());
+          out.writeBoolean(replacement.getConfidence() != null);
+          if (replacement.getConfidence() != null) {
+            out.writeFloat(replacement.getConfidence());
+          }
+          out.writeByte(replacement.getType().ordinal());
+          writeFeatures(out, replacement.getFeatures());
+        }
+      }
+      return bos.toByteArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Decode the local encoding.
+   * @param sentence the sentence the matches were found in
+   * @return the decoded matches, or {@code null} if one of their rules isn't in use anymore
+   */
+  @Nullable
+  List<RuleMatch> decode(byte[] data, AnalyzedSentence sentence) {
+    if (portable) {
+      throw new IllegalStateException("Rules need to be resolved to decode the portable encoding");
+    }
+    return decode(data, sentence, null);
+  }
+
+  /**
+   * Decode the portable encoding.
+   * @param sentence the sentence the matches were found in
+   * @param rules resolves full rule ids to rules, returns {@code null} for unknown ids
+   * @return the decoded matches, or {@code null} if the format version is different, one of their rules
+   *   is unknown or the data is malformed
+   */
+  @Nullable
+  List<RuleMatch> decode(byte[] data, AnalyzedSentence sentence, Function<String, Rule> rules) {
+    try {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+      if (portable && in.readByte() != FORMAT_VERSION) {
+        return null;
+      }
+      int size = readSize(in);
+      List<RuleMatch> matches = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        Rule rule = portable ? rules.apply(readString(in)) : idToRule.getIfPresent(in.readInt());
+        if (rule == null) {
+          return null;
+        }
+        String specificRuleId = readString(in);
+        String message = readString(in);
+        String shortMessage = readString(in);
+        int fromPos = in.readInt();
+        int toPos = in.readInt();
+        int patternFromPos = in.readInt();
+        int patternToPos = in.readInt();
+        String url = readString(in);
+        RuleMatch.Type type = TYPES[readOrdinal(in, TYPES.length)];
+        boolean autoCorrect = in.readBoolean();
+        boolean hasSentence = in.readBoolean();
+        RuleMatch match = new RuleMatch(rule, hasSentence ? sentence : null, fromPos, toPos, patternFromPos, patternToPos, message, shortMessage);
+        if (specificRuleId != null) {
+          match.setSpecificRuleId(specificRuleId);
+        }
+        if (url != null) {
+          match.setUrl(new URL(url));
+        }
+        match.setType(type);
+        match.setAutoCorrect(autoCorrect);
+        String errorLimitLang = readString(in);
+        if (errorLimitLang != null) {
+          match.setErrorLimitLang(errorLimitLang);
+        }
+        match.setFeatures(readFeatures(in));
+        int replacementCount = readSize(in);
+        List<SuggestedReplacement> replacements = new ArrayList<>(replacementCount);
+        for (int j = 0; j < replacementCount; j++) {
+          SuggestedReplacement replacement = new SuggestedReplacement(readString(in), readString(in), readString(in));
+          if (in.readBoolean()) {
+            replacement.setConfidence(in.readFloat());
+          }
+          replacement.setType(SUGGESTION_TYPES[readOrdinal(in, SUGGESTION_TYPES.length)]);
+          replacement.setFeatures(readFeatures(in));
+          replacements.add(replacement);
+        }
+        match.setSuggestedReplacementObjects(replacements);
+        matches.add(match);
+      }
+      return matches;
+    } catch (IOException | IllegalArgumentException e) {
+      // EOFException if truncated, IllegalArgumentException e.g. for invalid positions
+      return null;
+    }
+  }
+
+  private int getId(Rule rule) {
+    try {
+      return ruleToId.get(rule, () -> {
+        int id = nextId.incrementAndGet();
+        idToRule.put(id, rule);
+        return id;
+      });
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static void writeFeatures(DataOutputStream out, SortedMap<String, Float> features) throws IOException {
+    out.writeInt(features.size());
+    for (Map.Entry<String, Float> entry : features.entrySet()) {
+      writeString(out, entry.getKey());
+      out.writeFloat(entry.getValue());
+    }
+  }
+
+  private static SortedMap<String, Float> readFeatures(DataInputStream in) throws IOException {
+    int size = readSize(in);
+    if (size == 0) {
+      return Collections.emptySortedMap();
+    }
+    SortedMap<String, Float> features = new TreeMap<>();
+    for (int i = 0; i < size; i++) {
+      features.put(readString(in), in.readFloat());
+    }
+    return features;
+  }
+
+  /**
+   * Reads the number of elements of a list, which can't be more than the remaining bytes.
+   */
+  private static int readSize(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    if (size < 0 || size > in.available()) {
+      throw new IOException("Invalid size: " + size);
+    }
+    return size;
+  }
+
+  private static int readOrdinal(DataInputStream in, int valueCount) throws IOException {
+    int ordinal = in.readByte();
+    if (ordinal < 0 || ordinal >= valueCount) {
+      throw new IOException("Invalid ordinal: " + ordinal);
+    }
+    return ordinal;
+  }
+
+  // unlike writeUTF(), this has no length limit:
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    if (s == null) {
+      out.writeInt(-1);
+    } else {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length == -1) {
+      return null;
+    }
+    if (length < 0 || length > in.available()) {
+      throw new IOException("Invalid string length: " + length);
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+}
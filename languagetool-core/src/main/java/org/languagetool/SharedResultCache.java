@@ -0,0 +1,45 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * A cache that several LanguageTool instances, e.g. servers behind a load balancer, can share,
+ * so a sentence checked by one of them doesn't need to be checked again by the others.
+ * It's used by {@link ResultCache} for rule matches that are not in its own cache. Keys are
+ * 32-byte hashes of the sentence and everything that affects its matches, including the
+ * LanguageTool version. Values are the matches in a versioned binary encoding. Implementations
+ * can evict entries at any time and need to be thread-safe.
+ * @see MappedFileResultCache
+ * @since 5.9
+ */
+public interface SharedResultCache extends Closeable {
+
+  /**
+   * @return the value stored for the key, or {@code null}
+   */
+  @Nullable
+  byte[] get(byte[] key);
+
+  void put(byte[] key, byte[] value);
+
+}
@@ -0,0 +1,284 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.languagetool.rules.RuleMatch;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Checks texts of any size with constant memory use: the text is read paragraph by paragraph
+ * and checked in windows of about {@code windowSize} characters, matches are passed to a
+ * {@link RuleMatchListener} as soon as the window they occur in has been checked. The character
+ * positions of the matches refer to the complete text, the deprecated line and column numbers are
+ * not adjusted and refer to the window.
+ *
+ * <p>Each window is preceded by the last {@code contextParagraphs} paragraphs of the previous window, so
+ * text-level rules that look at neighbouring paragraphs (e.g. repeated paragraph beginnings) work across
+ * window borders. Only matches that start after that context are reported. Rules that need the whole text
+ * (e.g. unpaired quotes that span many paragraphs) only see the current window.
+ * @since 5.9
+ */
+public class StreamingChecker {
+
+  public static final int DEFAULT_WINDOW_SIZE = 10_000;
+  public static final int DEFAULT_CONTEXT_PARAGRAPHS = 2;
+  public static final int DEFAULT_MAX_CHUNK_SIZE = 100_000;
+
+  private final JLanguageTool lt;
+  private final int windowSize;
+  private final int contextParagraphs;
+  private final int maxChunkSize;
+
+  public StreamingChecker(JLanguageTool lt) {
+    this(lt, DEFAULT_WINDOW_SIZE, DEFAULT_CONTEXT_PARAGRAPHS);
+  }
+
+  /**
+   * @param windowSize the number of characters (at paragraph boundaries) to check at once
+   * @param contextParagraphs the number of paragraphs of the previous window to check again as context
+   */
+  public StreamingChecker(JLanguageTool lt, int windowSize, int contextParagraphs) {
+    this(lt, windowSize, contextParagraphs, DEFAULT_MAX_CHUNK_SIZE);
+  }
+
+  /**
+   * @param windowSize the number of characters (at paragraph boundaries, if possible) to check at once
+   * @param contextParagraphs the number of paragraphs of the previous window to check again as context
+   * @param maxChunkSize the maximum number of characters read before a paragraph is split, even if
+   *                     there's no line break (see {@link #check(Reader, RuleMatchListener)})
+   */
+  public StreamingChecker(JLanguageTool lt, int windowSize, int contextParagraphs, int maxChunkSize) {
+    if (windowSize <= 0) {
+      throw new IllegalArgumentException("windowSize must be > 0: " + windowSize);
+    }
+    if (contextParagraphs < 0) {
+      throw new IllegalArgumentException("contextParagraphs must be >= 0: " + contextParagraphs);
+    }
+    if (maxChunkSize <= 0) {
+      throw new IllegalArgumentException("maxChunkSize must be > 0: " + maxChunkSize);
+    }
+    this.lt = Objects.requireNonNull(lt);
+    this.windowSize = windowSize;
+    this.contextParagraphs = contextParagraphs;
+    this.maxChunkSize = maxChunkSize;
+  }
+
+  /**
+   * Check the text from {@code reader}, in which paragraphs are separated by empty lines.
+   * A paragraph longer than the window size is split at a line break. A paragraph that reaches
+   * {@code maxChunkSize} characters without a line break is split at the end of a sentence or at
+   * whitespace, so text without line breaks doesn't need to be kept in memory completely.
+   * The reader is not closed.
+   * @return the number of matches passed to the listener
+   */
+  public long check(Reader reader, RuleMatchListener listener) throws IOException {
+    try {
+      return checkParagraphs(new ParagraphIterator(reader, windowSize, maxChunkSize), listener);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Check a text given as paragraphs. Positions of matches refer to the text that consists
+   * of the paragraphs joined with {@code "\n\n"}.
+   * @return the number of matches passed to the listener
+   */
+  public long check(Iterator<String> paragraphs, RuleMatchListener listener) throws IOException {
+    return checkParagraphs(new Iterator<String>() {
+      @Override
+      public boolean hasNext() {
+        return paragraphs.hasNext();
+      }
+      @Override
+      public String next() {
+        String paragraph = paragraphs.next();
+        return paragraphs.hasNext() ? paragraph + "\n\n" : paragraph;
+      }
+    }, listener);
+  }
+
+  /**
+   * @param paragraphs paragraphs including their trailing line breaks
+   */
+  private long checkParagraphs(Iterator<String> paragraphs, RuleMatchListener listener) throws IOException {
+    Deque<String> context = new ArrayDeque<>();
+    int contextLength = 0;
+    long pos = 0;  // position of the text after the context
+    long matchCount = 0;
+    StringBuilder window = new StringBuilder();
+    List<String> windowParagraphs = new ArrayList<>();
+    while (paragraphs.hasNext()) {
+      window.setLength(0);
+      windowParagraphs.clear();
+      for (String paragraph : context) {
+        window.append(paragraph);
+      }
+      while (paragraphs.hasNext() && window.length() - contextLength < windowSize) {
+        String paragraph = paragraphs.next();
+        window.append(paragraph);
+        windowParagraphs.add(paragraph);
+      }
+      String text = window.toString();
+      long windowPos = pos - contextLength;
+      for (RuleMatch match : lt.check(text)) {
+        if (match.getFromPos() >= contextLength) {
+          listener.matchFound(shift(match, windowPos));
+          matchCount++;
+        }
+      }
+      for (String paragraph : windowParagraphs) {
+        pos += paragraph.length();
+        context.addLast(paragraph);
+        contextLength += paragraph.length();
+        if (context.size() > contextParagraphs) {
+          contextLength -= context.removeFirst().length();
+        }
+      }
+    }
+    return matchCount;
+  }
+
+  private static RuleMatch shift(RuleMatch match, long pos) {
+    RuleMatch shifted = new RuleMatch(match);
+    shifted.setOffsetPosition(toInt(match.getFromPos() + pos), toInt(match.getToPos() + pos));
+    shifted.setPatternPosition(toInt(match.getPatternFromPos() + pos), toInt(match.getPatternToPos() + pos));
+    return shifted;
+  }
+
+  private static int toInt(long value) {
+    if (value > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Text too long, position exceeds " + Integer.MAX_VALUE + ": " + value);
+    }
+    return (int) value;
+  }
+
+  /**
+   * Splits the text from a reader into paragraphs, keeping all characters so positions don't change.
+   * A paragraph ends after an empty line (and any further empty lines), or at the first line
+   * break after {@code maxLength} characters. A paragraph that reaches {@code maxChunkSize} characters
+   * without such a line break is split after its last sentence end or, if there's none in the second half
+   * of the paragraph, after its last whitespace, so it never gets longer than that.
+   */
+  static class ParagraphIterator implements Iterator<String> {
+
+    private final Reader reader;
+    private final int maxLength;
+    private final int maxChunkSize;
+    private final StringBuilder sb = new StringBuilder();  // may start with the rest of a split paragraph
+    private String next;
+    private int pending = -1;
+    private boolean eof;
+
+    ParagraphIterator(Reader reader, int maxLength, int maxChunkSize) {
+      this.reader = Objects.requireNonNull(reader);
+      this.maxLength = maxLength;
+      this.maxChunkSize = maxChunkSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (next == null && !eof) {
+        try {
+          next = readParagraph();
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public String next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      String result = next;
+      next = null;
+      return result;
+    }
+
+    private String readParagraph() throws IOException {
+      // the rest of a split paragraph never contains a line break:
+      boolean lineIsEmpty = sb.chars().allMatch(Character::isWhitespace);
+      boolean paragraphEnded = false;
+      int lineStart = 0;
+      while (true) {
+        int c = pending != -1 ? pending : reader.read();
+        pending = -1;
+        if (c == -1) {
+          eof = true;
+          break;
+        }
+        if (paragraphEnded && !Character.isWhitespace(c)) {
+          // first character of the next paragraph
+          pending = c;
+          break;
+        }
+        sb.append((char) c);
+        if (c == '\n') {
+          if (lineIsEmpty && sb.length() > 1 || sb.length() >= maxLength) {
+            paragraphEnded = true;
+          }
+          lineIsEmpty = true;
+          lineStart = sb.length();
+        } else if (!Character.isWhitespace(c)) {
+          lineIsEmpty = false;
+        }
+        if (sb.length() >= maxChunkSize) {
+          String chunk = sb.substring(0, getSplitPos(lineStart));
+          sb.delete(0, chunk.length());
+          return chunk;
+        }
+      }
+      String result = sb.length() > 0 ? sb.toString() : null;
+      sb.setLength(0);
+      return result;
+    }
+
+    private int getSplitPos(int lineStart) {
+      int from = Math.max(lineStart, sb.length() / 2);
+      int whitespaceEnd = -1;
+      for (int i = sb.length() - 1; i >= from; i--) {
+        if (Character.isWhitespace(sb.charAt(i))) {
+          if (whitespaceEnd == -1) {
+            whitespaceEnd = i + 1;
+          }
+          if (i > 0 && isSentenceEnd(sb.charAt(i - 1))) {
+            return i + 1;
+          }
+        }
+      }
+      if (whitespaceEnd != -1) {
+        return whitespaceEnd;
+      }
+      // don't split a surrogate pair:
+      return sb.length() > 1 && Character.isHighSurrogate(sb.charAt(sb.length() - 1)) ? sb.length() - 1 : sb.length();
+    }
+
+    private static boolean isSentenceEnd(char c) {
+      return c == '.' || c == '!' || c == '?';
+    }
+  }
+
+}
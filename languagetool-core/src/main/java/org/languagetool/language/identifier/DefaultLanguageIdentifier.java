@@ -115,8 +115,22 @@ public class DefaultLanguageIdentifier extends LanguageIdentifier {
     }
   }
 
+  /**
+   * Runs the fastText model in the JVM. The fastText binary is only used if the model can't be loaded
+   * like that (e.g. because it's quantized).
+   */
   void enableFasttext(File fasttextBinary, File fasttextModel) {
-    if (fasttextBinary != null && fasttextModel != null) {
+    if (fasttextModel != null) {
+      try {
+        fastTextDetector = new FastTextDetector(fasttextModel);
+        logger.info("Loaded fasttext model for language identification @ " + fasttextModel);
+        return;
+      } catch (IOException e) {
+        if (fasttextBinary == null) {
+          throw new RuntimeException("Could not load fasttext model for language identification @ " + fasttextModel, e);
+        }
+        logger.warn("Could not load fasttext model @ " + fasttextModel + ", will use fasttext binary: " + e.getMessage());
+      }
       try {
         fastTextDetector = new FastTextDetector(fasttextModel, fasttextBinary);
         logger.info("Started fasttext process for language identification: Binary " + fasttextBinary + " with model @ " + fasttextModel);
@@ -202,7 +216,10 @@ public class DefaultLanguageIdentifier extends LanguageIdentifier {
    */
   @Override
   public DetectedLanguage detectLanguage(String cleanText, List<String> noopLangsTmp, List<String> preferredLangsTmp) {
+    return detectCached(cleanText, noopLangsTmp, preferredLangsTmp, () -> detect(cleanText, noopLangsTmp, preferredLangsTmp));
+  }
 
+  private DetectedLanguage detect(String cleanText, List<String> noopLangsTmp, List<String> preferredLangsTmp) {
     String text = cleanText;
     ParsedLanguageLists parsedLanguageLists = prepareDetectLanguage(text, noopLangsTmp, preferredLangsTmp);
     if (parsedLanguageLists == null) {
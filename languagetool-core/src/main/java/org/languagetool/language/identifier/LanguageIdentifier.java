@@ -20,6 +20,12 @@
 
 package org.languagetool.language.identifier;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.optimaize.langdetect.text.TextFilter;
 import lombok.Getter;
 import org.jetbrains.annotations.Nullable;
@@ -29,7 +35,9 @@ import org.languagetool.language.identifier.detector.CommonWordsDetector;
 import org.languagetool.language.identifier.detector.UnicodeBasedDetector;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -40,6 +48,9 @@ public abstract class LanguageIdentifier {
   private static final Pattern MENTION = Pattern.compile("@[A-Za-z0-9_]+");
   protected static final float SCORE_THRESHOLD = 0.85f;
   protected static final int CONSIDER_ONLY_PREFERRED_THRESHOLD = 50;
+  private static final String SIGNATURE_START = "\n-- \n";
+  private static final int DETECTION_CACHE_SIZE = 10_000;
+  private static final HashFunction CACHE_KEY_HASH = Hashing.murmur3_128();
   protected static final List<String> NON_LATIN_CHARS_LANGUAGES = Arrays.asList("ar", "fa", "ru", "uk", "be", "zh", "ja", "km", "ta", "el", "hi", "mr", "th", "he", "ko");
 
   protected static final TextFilter REMOVE_EMAIL_SIGNATURE_FILTER = text -> SIGNATURE.matcher(text).replaceFirst("");
@@ -58,6 +69,12 @@ public abstract class LanguageIdentifier {
     }
   }
 
+  // typing clients send almost the same text many times, so keep the results for the cleaned text:
+  private final Cache<HashCode, Optional<DetectedLanguage>> detectionCache = CacheBuilder.newBuilder()
+          .maximumSize(DETECTION_CACHE_SIZE)
+          .recordStats()
+          .build();
+
   protected int maxLength;
 
   public LanguageIdentifier(int maxLength) {
@@ -89,12 +106,172 @@ public abstract class LanguageIdentifier {
    */
   public String cleanAndShortenText(String text) {
     String shortText = text.length() > maxLength ? text.substring(0, maxLength) : text;
-    shortText = shortText.replaceAll("\uFEFF+", " ");  // used by the browser add-on to filter HTML etc. (_ignoreText() in validator.js)
-    shortText = REMOVE_URL_FILTER.filter(shortText);
-    shortText = REMOVE_EMAIL_SIGNATURE_FILTER.filter(shortText);
-    shortText = REMOVE_MENTION_FILTER.filter(shortText);
-    shortText = REMOVE_NON_BREAKING_SPACES_FILTER.filter(shortText);
-    return shortText;
+    return clean(shortText);
+  }
+
+  /**
+   * Replaces {@code \uFEFF} (used by the browser add-on to filter HTML etc., see _ignoreText() in validator.js)
+   * and applies the same changes as {@link #REMOVE_URL_FILTER}, {@link #REMOVE_EMAIL_SIGNATURE_FILTER},
+   * {@link #REMOVE_MENTION_FILTER} and {@link #REMOVE_NON_BREAKING_SPACES_FILTER}, in that order, but
+   * with a single scan over the text instead of one regex run per filter.
+   */
+  static String clean(String text) {
+    StringBuilder sb = new StringBuilder(text.length());
+    int len = text.length();
+    int i = 0;
+    while (i < len) {
+      char c = text.charAt(i);
+      if (c == '\uFEFF') {
+        while (i < len && text.charAt(i) == '\uFEFF') {
+          i++;
+        }
+        sb.append(' ');
+        continue;
+      }
+      int urlEnd = getUrlEnd(text, i);
+      if (urlEnd > i) {
+        sb.append(' ');
+        i = urlEnd;
+        continue;
+      }
+      if (c == '@') {
+        // the local part of a mail address is what we've just added, the domain comes next:
+        int localStart = sb.length();
+        while (localStart > 0 && isMailChar(sb.charAt(localStart - 1))) {
+          localStart--;
+        }
+        int domainEnd = getMailDomainEnd(text, i + 1);
+        if (localStart < sb.length() && domainEnd != -1) {
+          sb.setLength(localStart);
+          sb.append(' ');
+          i = domainEnd;
+          continue;
+        }
+      }
+      sb.append(c);
+      i++;
+      if (c == '\n' && endsWith(sb, SIGNATURE_START)) {
+        sb.setLength(sb.length() - SIGNATURE_START.length());
+        break;
+      }
+    }
+    int mentionStart = -1;
+    int mentionEnd = -1;
+    for (int j = 0; j < sb.length() - 1 && mentionStart == -1; j++) {
+      if (sb.charAt(j) == '@' && isMentionChar(sb.charAt(j + 1))) {
+        mentionStart = j;
+        mentionEnd = j + 1;
+        while (mentionEnd < sb.length() && isMentionChar(sb.charAt(mentionEnd))) {
+          mentionEnd++;
+        }
+      }
+    }
+    StringBuilder result = new StringBuilder(sb.length());
+    for (int j = 0; j < sb.length(); j++) {
+      if (j == mentionStart) {
+        j = mentionEnd - 1;
+      } else {
+        char c = sb.charAt(j);
+        result.append(c == '\u00A0' ? ' ' : c);
+      }
+    }
+    return result.toString();
+  }
+
+  /**
+   * @return the end of the URL that starts at {@code start} (see {@link #URL_REGEX}), or {@code start} if there's none
+   */
+  private static int getUrlEnd(String text, int start) {
+    if (!text.startsWith("http", start)) {
+      return start;
+    }
+    int pos = start + 4;
+    if (text.startsWith("s://", pos)) {
+      pos += 4;
+    } else if (text.startsWith("://", pos)) {
+      pos += 3;
+    } else {
+      return start;
+    }
+    int end = pos;
+    while (end < text.length() && isUrlChar(text.charAt(end))) {
+      end++;
+    }
+    return end > pos ? end : start;
+  }
+
+  /**
+   * @return the end of the mail domain that starts at {@code start} (see {@link #MAIL_REGEX}), or -1 if there's none
+   */
+  private static int getMailDomainEnd(String text, int start) {
+    int end = start;
+    while (end < text.length() && isMailChar(text.charAt(end)) && getUrlEnd(text, end) == end) {
+      end++;
+    }
+    return end - start >= 2 && text.charAt(start) != '.' ? end : -1;
+  }
+
+  private static boolean endsWith(StringBuilder sb, String suffix) {
+    int offset = sb.length() - suffix.length();
+    if (offset < 0) {
+      return false;
+    }
+    for (int i = 0; i < suffix.length(); i++) {
+      if (sb.charAt(offset + i) != suffix.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isAsciiLetterOrDigit(char c) {
+    return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9';
+  }
+
+  private static boolean isUrlChar(char c) {
+    return isAsciiLetterOrDigit(c) || "-_.?&~;+=/#%".indexOf(c) != -1;
+  }
+
+  private static boolean isMailChar(char c) {
+    return isAsciiLetterOrDigit(c) || c == '-' || c == '_' || c == '.';
+  }
+
+  private static boolean isMentionChar(char c) {
+    return isAsciiLetterOrDigit(c) || c == '_';
+  }
+
+  /**
+   * Returns the cached result of an earlier call with the same arguments, or calls {@code detector}
+   * and caches its result.
+   * @since 5.9
+   */
+  @Nullable
+  protected DetectedLanguage detectCached(String cleanText, List<String> noopLangs, List<String> preferredLangs,
+                                          Supplier<DetectedLanguage> detector) {
+    Hasher hasher = CACHE_KEY_HASH.newHasher();
+    hasher.putInt(cleanText.length()).putString(cleanText, StandardCharsets.UTF_8);
+    for (List<String> langs : Arrays.asList(noopLangs, preferredLangs)) {
+      hasher.putInt(langs.size());
+      for (String lang : langs) {
+        hasher.putString(lang, StandardCharsets.UTF_8).putByte((byte) 0);
+      }
+    }
+    HashCode key = hasher.hash();
+    Optional<DetectedLanguage> cached = detectionCache.getIfPresent(key);
+    if (cached != null) {
+      return cached.orElse(null);
+    }
+    DetectedLanguage result = detector.get();
+    detectionCache.put(key, Optional.ofNullable(result));
+    return result;
+  }
+
+  /**
+   * The cache of detection results, e.g. to export its statistics.
+   * @since 5.9
+   */
+  public Cache<?, ?> getDetectionCache() {
+    return detectionCache;
   }
 
   protected ParsedLanguageLists prepareDetectLanguage(String text, List<String> noopLangsTmp, List<String> preferredLangsTmp) {
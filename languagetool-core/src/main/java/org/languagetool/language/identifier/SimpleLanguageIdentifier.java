@@ -76,6 +76,11 @@ public class SimpleLanguageIdentifier extends LanguageIdentifier {
   @Nullable
   @Override
   public DetectedLanguage detectLanguage(String cleanText, List<String> noopLangsTmp, List<String> preferredLangsTmp) {
+    return detectCached(cleanText, noopLangsTmp, preferredLangsTmp, () -> detect(cleanText, noopLangsTmp, preferredLangsTmp));
+  }
+
+  @Nullable
+  private DetectedLanguage detect(String cleanText, List<String> noopLangsTmp, List<String> preferredLangsTmp) {
     ParsedLanguageLists parsedLanguageLists = prepareDetectLanguage(cleanText, noopLangsTmp, preferredLangsTmp);
     if (parsedLanguageLists == null) {
       return new DetectedLanguage(null, new NoopLanguage());
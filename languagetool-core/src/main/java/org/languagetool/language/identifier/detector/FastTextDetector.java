@@ -28,6 +28,8 @@ import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
+ * Language identification with a fastText model, either in the JVM (see {@link #FastTextDetector(File)})
+ * or with a {@code fasttext} process.
  * @since 5.0
  */
 public class FastTextDetector {
@@ -36,6 +38,7 @@ public class FastTextDetector {
   private static final int K_HIGHEST_SCORES = 5;
   private static final int BUFFER_SIZE = 4096;
 
+  private final FastTextModel model;
   private final Process fasttextProcess;
   private final Reader fasttextIn;
   private final Writer fasttextOut;
@@ -56,7 +59,25 @@ public class FastTextDetector {
     }
   }
 
+  /**
+   * Runs the model in the JVM. This is thread-safe and doesn't lock, so several threads can detect
+   * languages at the same time.
+   * @throws IOException if the model cannot be read, e.g. because it's quantized
+   * @since 5.9
+   */
+  public FastTextDetector(File modelPath) throws IOException {
+    model = new FastTextModel(modelPath);
+    fasttextProcess = null;
+    fasttextIn = null;
+    fasttextOut = null;
+  }
+
+  /**
+   * Runs the model with the {@code fasttext} binary in a separate process. As this process
+   * can only detect one text at a time, prefer {@link #FastTextDetector(File)}.
+   */
   public FastTextDetector(File modelPath, File binaryPath) throws IOException {
+    model = null;
     fasttextProcess = new ProcessBuilder(binaryPath.getPath(), "predict-prob", modelPath.getPath(), "-", "" + K_HIGHEST_SCORES).start();
     // avoid buffering, we want to flush/read all data immediately
     // might cause mixup
@@ -66,6 +87,7 @@ public class FastTextDetector {
 
   // for tests only
   FastTextDetector() {
+    model = null;
     fasttextProcess = null;
     fasttextIn = null;
     fasttextOut = null;
@@ -73,6 +95,15 @@ public class FastTextDetector {
 
   public Map<String, Double> runFasttext(String text, List<String> additionalLanguageCodes) throws IOException {
     String joined = text.replace("\n", " ").toLowerCase(Locale.ROOT);
+    if (model != null) {
+      Map<String, Double> probabilities = new HashMap<>();
+      model.predict(joined, K_HIGHEST_SCORES).forEach((langCode, prob) -> {
+        if (LanguageIdentifierService.INSTANCE.canLanguageBeDetected(langCode, additionalLanguageCodes)) {
+          probabilities.put(langCode, prob);
+        }
+      });
+      return probabilities;
+    }
     char[] cbuf = new char[BUFFER_SIZE];
     synchronized (this) {
       fasttextOut.write(joined + System.lineSeparator());
@@ -124,7 +155,9 @@ public class FastTextDetector {
   }
 
   void destroy() {
-    fasttextProcess.destroy();
+    if (fasttextProcess != null) {
+      fasttextProcess.destroy();
+    }
   }
 
 }
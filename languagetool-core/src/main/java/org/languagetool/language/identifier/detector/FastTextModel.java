@@ -0,0 +1,482 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.language.identifier.detector;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A supervised fastText model (like {@code lid.176.bin}), loaded into the JVM so predictions don't need
+ * the {@code fasttext} binary. This does the same as {@code fasttext predict-prob}: the input line is split
+ * into words, each word is looked up with its character n-grams, word n-grams are hashed into buckets,
+ * the averaged embedding is multiplied with the output matrix and the best labels are selected
+ * (softmax, one-vs-all, or hierarchical softmax). Quantized models ({@code .ftz}) are not supported.
+ *
+ * <p>The embeddings are memory-mapped, not copied to the heap. The model is immutable after loading,
+ * so {@link #predict(String, int)} can be called by several threads at the same time without locking.
+ * @since 5.9
+ */
+class FastTextModel {
+
+  private static final int MAGIC = 793712314;
+  private static final String EOS = "</s>";
+  private static final String LABEL_PREFIX = "__label__";
+  private static final byte BOW = '<';
+  private static final byte EOW = '>';
+  private static final int LOSS_HS = 1;
+  private static final int LOSS_SOFTMAX = 3;
+  private static final int MODEL_SUP = 3;
+  private static final int SIGMOID_TABLE_SIZE = 512;
+  private static final int MAX_SIGMOID = 8;
+  private static final float[] SIGMOID_TABLE = new float[SIGMOID_TABLE_SIZE + 1];
+
+  static {
+    for (int i = 0; i < SIGMOID_TABLE.length; i++) {
+      double x = (double) (i * 2 * MAX_SIGMOID) / SIGMOID_TABLE_SIZE - MAX_SIGMOID;
+      SIGMOID_TABLE[i] = (float) (1.0 / (1.0 + Math.exp(-x)));
+    }
+  }
+
+  private final MappedByteBuffer buffer;
+  private final int dim;
+  private final int wordNgrams;
+  private final int loss;
+  private final int bucket;
+  private final int minn;
+  private final int maxn;
+  private final int nwords;
+  private final String[] labels;
+  // the words of the dictionary, as offsets of their UTF-8 bytes in the buffer, found via an open addressing table:
+  private final int[] wordStart;
+  private final int[] wordLength;
+  private final int[] wordTable;
+  private final int eosId;
+  private final FloatBuffer input;
+  private final FloatBuffer output;
+  private final int outputRows;
+  // the tree for hierarchical softmax:
+  private final int[] treeLeft;
+  private final int[] treeRight;
+
+  FastTextModel(File modelFile) throws IOException {
+    try (RandomAccessFile raf = new RandomAccessFile(modelFile, "r")) {
+      if (raf.length() > Integer.MAX_VALUE) {
+        throw new IOException("fastText models larger than 2GB are not supported: " + modelFile);
+      }
+      buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+    }
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.getInt() != MAGIC) {
+      throw new IOException("Not a fastText model: " + modelFile);
+    }
+    int version = buffer.getInt();
+    if (version != 11 && version != 12) {
+      throw new IOException("Unsupported fastText model version " + version + ": " + modelFile);
+    }
+    dim = buffer.getInt();
+    buffer.getInt();  // ws
+    buffer.getInt();  // epoch
+    buffer.getInt();  // minCount
+    buffer.getInt();  // neg
+    wordNgrams = buffer.getInt();
+    loss = buffer.getInt();
+    int model = buffer.getInt();
+    bucket = buffer.getInt();
+    minn = buffer.getInt();
+    int maxnValue = buffer.getInt();
+    maxn = version == 11 && model == MODEL_SUP ? 0 : maxnValue;  // like fastText's loadModel()
+    buffer.getInt();  // lrUpdateRate
+    buffer.getDouble();  // t
+    if (model != MODEL_SUP) {
+      throw new IOException("Not a supervised fastText model: " + modelFile);
+    }
+
+    int size = buffer.getInt();
+    nwords = buffer.getInt();
+    int nlabels = buffer.getInt();
+    buffer.getLong();  // ntokens
+    long pruneIdxSize = buffer.getLong();
+    wordStart = new int[nwords];
+    wordLength = new int[nwords];
+    labels = new String[nlabels];
+    long[] labelCounts = new long[nlabels];
+    for (int i = 0; i < size; i++) {
+      int start = buffer.position();
+      while (buffer.get() != 0) {
+        // find the end of the word
+      }
+      int length = buffer.position() - start - 1;
+      long count = buffer.getLong();
+      byte type = buffer.get();
+      if (type == 0 && i < nwords) {
+        wordStart[i] = start;
+        wordLength[i] = length;
+      } else if (type == 1 && i >= nwords) {
+        labels[i - nwords] = getString(start, length);
+        labelCounts[i - nwords] = count;
+      } else {
+        throw new IOException("Unexpected dictionary entry " + i + " in " + modelFile);
+      }
+    }
+    if (pruneIdxSize >= 0 || buffer.get() != 0) {
+      throw new IOException("Quantized fastText models are not supported: " + modelFile);
+    }
+    wordTable = new int[Math.max(1, (int) Math.ceil(nwords / 0.7))];
+    Arrays.fill(wordTable, -1);
+    for (int i = 0; i < nwords; i++) {
+      wordTable[findSlot(wordStart[i], wordLength[i], null)] = i;
+    }
+    byte[] eos = EOS.getBytes(StandardCharsets.UTF_8);
+    eosId = wordTable[findSlot(-1, eos.length, eos)];
+
+    long inputRows = buffer.getLong();
+    if (inputRows != (long) nwords + bucket || buffer.getLong() != dim) {
+      throw new IOException("Unexpected size of input matrix in " + modelFile);
+    }
+    input = floats((int) inputRows * dim);
+    if (buffer.get() != 0) {
+      throw new IOException("Quantized fastText models are not supported: " + modelFile);
+    }
+    outputRows = (int) buffer.getLong();
+    if (buffer.getLong() != dim) {
+      throw new IOException("Unexpected size of output matrix in " + modelFile);
+    }
+    output = floats(outputRows * dim);
+
+    if (loss == LOSS_HS) {
+      if (outputRows < nlabels - 1) {  // fastText saves nlabels rows, but only uses the ones of the inner nodes
+        throw new IOException("Unexpected size of output matrix for hierarchical softmax in " + modelFile);
+      }
+      treeLeft = new int[2 * nlabels - 1];
+      treeRight = new int[2 * nlabels - 1];
+      buildTree(labelCounts);
+    } else {
+      if (outputRows != nlabels) {
+        throw new IOException("Unexpected size of output matrix in " + modelFile);
+      }
+      treeLeft = null;
+      treeRight = null;
+    }
+  }
+
+  /**
+   * @param line the text, words are separated by whitespace
+   * @param k the number of labels to return
+   * @return the {@code k} most probable labels (without {@code __label__} prefix) and their probability,
+   *    best first; empty if the text has no words
+   */
+  Map<String, Double> predict(String line, int k) {
+    int[] ids = getInputIds(line);
+    Map<String, Double> result = new LinkedHashMap<>();
+    if (ids.length == 0) {
+      return result;
+    }
+    float[] hidden = new float[dim];
+    for (int id : ids) {
+      int offset = id * dim;
+      for (int j = 0; j < dim; j++) {
+        hidden[j] += input.get(offset + j);
+      }
+    }
+    float scale = (float) (1.0 / ids.length);
+    for (int j = 0; j < dim; j++) {
+      hidden[j] *= scale;
+    }
+    PriorityQueue<Prediction> heap = new PriorityQueue<>();  // the worst of the best k first
+    if (loss == LOSS_HS) {
+      dfs(k, 2 * labels.length - 2, 0.0f, heap, hidden);
+    } else {
+      findKBest(k, computeOutput(hidden), heap);
+    }
+    List<Prediction> predictions = new ArrayList<>(heap);
+    predictions.sort(Collections.reverseOrder());
+    for (Prediction prediction : predictions) {
+      String label = labels[prediction.label];
+      result.put(label.startsWith(LABEL_PREFIX) ? label.substring(LABEL_PREFIX.length()) : label, Math.exp(prediction.score));
+    }
+    return result;
+  }
+
+  /**
+   * The rows of the input matrix for the line, like fastText's {@code Dictionary::getLine()}.
+   */
+  int[] getInputIds(String line) {
+    IntList ids = new IntList();
+    IntList wordHashes = new IntList();
+    for (String token : line.split("[ \\n\\r\\t\\u000b\\f\\u0000]+")) {
+      if (!token.isEmpty() && !token.startsWith(LABEL_PREFIX)) {
+        addWord(token.getBytes(StandardCharsets.UTF_8), ids, wordHashes);
+      }
+    }
+    addWord(EOS.getBytes(StandardCharsets.UTF_8), ids, wordHashes);  // fastText reads the line's newline as EOS
+    for (int i = 0; i < wordHashes.size && bucket > 0; i++) {
+      long h = wordHashes.values[i];
+      for (int j = i + 1; j < wordHashes.size && j < i + wordNgrams; j++) {
+        h = h * 116049371 + wordHashes.values[j];
+        ids.add(nwords + (int) Long.remainderUnsigned(h, bucket));
+      }
+    }
+    return Arrays.copyOf(ids.values, ids.size);
+  }
+
+  private void addWord(byte[] word, IntList ids, IntList wordHashes) {
+    int wid = wordTable[findSlot(-1, word.length, word)];
+    if (wid == -1) {
+      if (!Arrays.equals(word, EOS.getBytes(StandardCharsets.UTF_8))) {
+        addSubwords(word, ids);
+      }
+    } else {
+      ids.add(wid);
+      if (maxn > 0 && wid != eosId) {
+        byte[] known = new byte[wordLength[wid]];
+        for (int i = 0; i < known.length; i++) {
+          known[i] = buffer.get(wordStart[wid] + i);
+        }
+        addSubwords(known, ids);
+      }
+    }
+    wordHashes.add(hash(word, 0, word.length));
+  }
+
+  /**
+   * Character n-grams of {@code <word>}, on UTF-8 bytes, like fastText's {@code Dictionary::computeSubwords()}.
+   */
+  private void addSubwords(byte[] word, IntList ids) {
+    if (bucket == 0) {
+      return;
+    }
+    byte[] bytes = new byte[word.length + 2];
+    bytes[0] = BOW;
+    System.arraycopy(word, 0, bytes, 1, word.length);
+    bytes[bytes.length - 1] = EOW;
+    for (int i = 0; i < bytes.length; i++) {
+      if ((bytes[i] & 0xC0) == 0x80) {
+        continue;
+      }
+      int j = i;
+      for (int n = 1; j < bytes.length && n <= maxn; n++) {
+        j++;
+        while (j < bytes.length && (bytes[j] & 0xC0) == 0x80) {
+          j++;
+        }
+        if (n >= minn && !(n == 1 && (i == 0 || j == bytes.length))) {
+          ids.add(nwords + Integer.remainderUnsigned(hash(bytes, i, j), bucket));
+        }
+      }
+    }
+  }
+
+  // FNV-1a, with the bytes sign-extended like in fastText
+  private static int hash(byte[] bytes, int from, int to) {
+    int h = 0x811C9DC5;
+    for (int i = from; i < to; i++) {
+      h ^= bytes[i];
+      h *= 16777619;
+    }
+    return h;
+  }
+
+  /**
+   * @param start the offset of the word in the buffer, or -1 to use {@code word}
+   */
+  private int findSlot(int start, int length, byte[] word) {
+    if (word == null) {
+      word = new byte[length];
+      for (int i = 0; i < length; i++) {
+        word[i] = buffer.get(start + i);
+      }
+    }
+    int h = hash(word, 0, length);
+    int slot = Integer.remainderUnsigned(h, wordTable.length);
+    while (wordTable[slot] != -1 && !isWord(wordTable[slot], word)) {
+      slot = (slot + 1) % wordTable.length;
+    }
+    return slot;
+  }
+
+  private boolean isWord(int id, byte[] word) {
+    if (wordLength[id] != word.length) {
+      return false;
+    }
+    for (int i = 0; i < word.length; i++) {
+      if (buffer.get(wordStart[id] + i) != word[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private float[] computeOutput(float[] hidden) {
+    float[] result = new float[outputRows];
+    for (int i = 0; i < outputRows; i++) {
+      result[i] = dotRow(hidden, i);
+    }
+    if (loss == LOSS_SOFTMAX) {
+      float max = result[0];
+      for (float value : result) {
+        max = Math.max(value, max);
+      }
+      float z = 0;
+      for (int i = 0; i < result.length; i++) {
+        result[i] = (float) Math.exp(result[i] - max);
+        z += result[i];
+      }
+      for (int i = 0; i < result.length; i++) {
+        result[i] /= z;
+      }
+    } else {  // one-vs-all and negative sampling
+      for (int i = 0; i < result.length; i++) {
+        result[i] = sigmoid(result[i]);
+      }
+    }
+    return result;
+  }
+
+  private static void findKBest(int k, float[] output, PriorityQueue<Prediction> heap) {
+    for (int i = 0; i < output.length; i++) {
+      float score = stdLog(output[i]);
+      if (heap.size() == k && score < heap.peek().score) {
+        continue;
+      }
+      heap.add(new Prediction(score, i));
+      if (heap.size() > k) {
+        heap.poll();
+      }
+    }
+  }
+
+  private void dfs(int k, int node, float score, PriorityQueue<Prediction> heap, float[] hidden) {
+    if (score < stdLog(0.0f)) {  // fastText's default threshold of 0.0
+      return;
+    }
+    if (heap.size() == k && score < heap.peek().score) {
+      return;
+    }
+    if (treeLeft[node] == -1 && treeRight[node] == -1) {
+      heap.add(new Prediction(score, node));
+      if (heap.size() > k) {
+        heap.poll();
+      }
+      return;
+    }
+    float f = dotRow(hidden, node - labels.length);
+    f = (float) (1.0 / (1 + Math.exp(-f)));
+    dfs(k, treeLeft[node], score + stdLog(1.0f - f), heap, hidden);
+    dfs(k, treeRight[node], score + stdLog(f), heap, hidden);
+  }
+
+  /**
+   * The Huffman tree over the label counts, like fastText's {@code HierarchicalSoftmaxLoss::buildTree()}.
+   */
+  private void buildTree(long[] counts) {
+    int osz = counts.length;
+    long[] treeCount = new long[2 * osz - 1];
+    Arrays.fill(treeLeft, -1);
+    Arrays.fill(treeRight, -1);
+    Arrays.fill(treeCount, (long) 1e15);
+    System.arraycopy(counts, 0, treeCount, 0, osz);
+    int leaf = osz - 1;
+    int node = osz;
+    for (int i = osz; i < 2 * osz - 1; i++) {
+      int[] mini = new int[2];
+      for (int j = 0; j < 2; j++) {
+        if (leaf >= 0 && treeCount[leaf] < treeCount[node]) {
+          mini[j] = leaf--;
+        } else {
+          mini[j] = node++;
+        }
+      }
+      treeLeft[i] = mini[0];
+      treeRight[i] = mini[1];
+      treeCount[i] = treeCount[mini[0]] + treeCount[mini[1]];
+    }
+  }
+
+  private float dotRow(float[] vector, int row) {
+    int offset = row * dim;
+    float d = 0;
+    for (int j = 0; j < dim; j++) {
+      d += output.get(offset + j) * vector[j];
+    }
+    return d;
+  }
+
+  private static float sigmoid(float x) {
+    if (x < -MAX_SIGMOID) {
+      return 0.0f;
+    } else if (x > MAX_SIGMOID) {
+      return 1.0f;
+    }
+    return SIGMOID_TABLE[(int) ((x + MAX_SIGMOID) * SIGMOID_TABLE_SIZE / MAX_SIGMOID / 2)];
+  }
+
+  private static float stdLog(float x) {
+    return (float) Math.log(x + 1e-5);
+  }
+
+  private FloatBuffer floats(int count) {
+    FloatBuffer result = buffer.slice().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+    result.limit(count);
+    buffer.position(buffer.position() + count * Float.BYTES);
+    return result;
+  }
+
+  private String getString(int start, int length) {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = buffer.get(start + i);
+    }
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static class Prediction implements Comparable<Prediction> {
+    private final float score;
+    private final int label;
+
+    Prediction(float score, int label) {
+      this.score = score;
+      this.label = label;
+    }
+
+    @Override
+    public int compareTo(Prediction other) {
+      return Float.compare(score, other.score);
+    }
+  }
+
+  private static class IntList {
+    private int[] values = new int[16];
+    private int size;
+
+    void add(int value) {
+      if (size == values.length) {
+        values = Arrays.copyOf(values, size * 2);
+      }
+      values[size++] = value;
+    }
+  }
+
+}
@@ -34,11 +34,12 @@ import static java.lang.StrictMath.min;
 public class NGramDetector {
 
   private final static double EPSILON = 1e-4;
+  private final static double LOG_EPSILON = log(EPSILON);
 
   private final Map<String, Integer> vocab;
   private final List<String[]> codes; // Elem format = {Name, 2-code (or "NULL"), 3-code}
 
-  private final List<Map<String, Double>> knpBigramProbs;
+  private final BigramTable bigramLogProbs;
   private final int thresholdsStart;
   private final List<double[]> thresholds;
 
@@ -85,45 +86,54 @@ public class NGramDetector {
     }
 
     //Load transition matrices - Line format = {i} {j} {val}
-    knpBigramProbs = expectedFiles().stream().map(this::readLines).parallel().map(NGramDetector::loadDict).collect(Collectors.toList());
+    List<BigramList> bigramLists = expectedFiles().stream().map(this::readLines).parallel().map(NGramDetector::loadBigrams).collect(Collectors.toList());
+    bigramLogProbs = new BigramTable(bigramLists);
   }
 
   public Map<String, Double> detectLanguages(String text, List<String> additionalLanguageCodes) {
-    List<Integer> enc = encode(text);
-    List<Double> finalProbs = new ArrayList<>();
-    List<int[]> keys = keys(enc);
+    int[] enc = encode(text);
+    double[] finalProbs = new double[codes.size()];
+    int[] hits = new int[codes.size()];
 
-    for (int i = 0; i < codes.size(); i++) {
-      double val = 0;
-      for (int[] key: keys) {
-        double prob = knpBigramProbs.get(i).getOrDefault(key[0] + "_" + key[1], EPSILON);
-        val += log(prob);
+    //Bigrams of all languages at once, bigrams not known for a language have probability EPSILON
+    for (int i = 1; i < enc.length; i++) {
+      int row = bigramLogProbs.getRow(enc[i-1], enc[i]);
+      if (row != -1) {
+        for (int e = bigramLogProbs.rowStart[row]; e < bigramLogProbs.rowStart[row+1]; e++) {
+          finalProbs[bigramLogProbs.langs[e]] += bigramLogProbs.logProbs[e];
+          hits[bigramLogProbs.langs[e]]++;
+        }
       }
-      finalProbs.add(val);
+    }
+    for (int i = 0; i < codes.size(); i++) {
+      finalProbs[i] += (enc.length - 1 - hits[i]) * LOG_EPSILON;
     }
 
     Map<String, Double> result = new HashMap<>();
 
     if (text.length() >= this.thresholdsStart) {
       int argMax = 0;
-      for (int i = 1; i < finalProbs.size(); i++) {
-        if (finalProbs.get(i) > finalProbs.get(argMax)) {
+      for (int i = 1; i < finalProbs.length; i++) {
+        if (finalProbs[i] > finalProbs[argMax]) {
           argMax = i;
         }
       }
       int thresholdIndex = min(text.length(), maxLength) - this.thresholdsStart;
-      if (finalProbs.get(argMax) < thresholds.get(thresholdIndex)[argMax]) {
+      if (finalProbs[argMax] < thresholds.get(thresholdIndex)[argMax]) {
         result.put(NoopLanguage.SHORT_CODE, 100.0);
         return result;
       }
     }
 
-    finalProbs = finalProbs.stream().map(StrictMath::exp).collect(Collectors.toList());
-    finalProbs = normalize(finalProbs);
+    double tot = 0;
+    for (int i = 0; i < finalProbs.length; i++) {
+      finalProbs[i] = StrictMath.exp(finalProbs[i]);
+      tot += finalProbs[i];
+    }
     for (int i = 0; i < codes.size(); i++) {
       String langCode = codes.get(i)[1].equals("NULL") ? codes.get(i)[2] : codes.get(i)[1]; //2-character code if possible
       if (LanguageIdentifierService.INSTANCE.canLanguageBeDetected(langCode, additionalLanguageCodes)) {
-        result.put(langCode, finalProbs.get(i));
+        result.put(langCode, finalProbs[i] / tot);
       }
     }
 
@@ -149,14 +159,20 @@ public class NGramDetector {
     return result;
   }
 
-  private static Map<String, Double> loadDict(List<String> lines)  {
-    Map<String, Double> tm = new HashMap<>();
+  private static BigramList loadBigrams(List<String> lines)  {
+    BigramList result = new BigramList(lines.size());
     for (String line : lines) {
       String[] parts = line.trim().split(" ");
-      String key = String.join("_", Arrays.copyOfRange(parts, 0, parts.length-1));
-      tm.put(key, Double.parseDouble(parts[parts.length-1]));
+      if (parts.length != 3) {
+        throw new RuntimeException("Expected format '{i} {j} {val}': '" + line + "'");
+      }
+      result.add(key(Integer.parseInt(parts[0]), Integer.parseInt(parts[1])), log(Double.parseDouble(parts[2])));
     }
-    return tm;
+    return result;
+  }
+
+  private static long key(int token1, int token2) {
+    return (long) token1 << 32 | (token2 & 0xffffffffL);
   }
 
   private List<String> expectedFiles() {
@@ -168,9 +184,7 @@ public class NGramDetector {
     return result;
   }
 
-  private List<Integer> encode(String text) {
-    List<Integer> result = new ArrayList<>();
-    result.add(1); //Start of sentence token
+  private int[] encode(String text) {
     if (text.length() > maxLength) {
       text = text.substring(0, maxLength);
     }
@@ -186,10 +200,13 @@ public class NGramDetector {
     text = text.replaceAll("[\\u0B80-\\u0BFF]", "<TA>"); // Tamil
     text = text.replaceAll("\\s+", "▁");
     if (text.length() == 0) {
-      return result;
+      return new int[]{1}; //Start of sentence token
     }
     text = "▁" + text;
 
+    int[] result = new int[text.length() + 1];
+    result[0] = 1; //Start of sentence token
+    int size = 1;
     int cur = 0;
     while (cur < text.length()) {
       int tok = 0;
@@ -202,22 +219,131 @@ public class NGramDetector {
         }
       }
       cur += ci;
-      result.add(tok);
+      result[size++] = tok;
     }
-    return result;
+    return Arrays.copyOf(result, size);
   }
 
-  private List<int[]> keys(List<Integer> enc) {
-    //For now just bigrams
-    List<int[]> result = new ArrayList<>();
-    for (int i = 1; i < enc.size(); i++) {
-      result.add(new int[]{enc.get(i-1), enc.get(i)});
+  /**
+   * The bigrams of one language, as read from its file.
+   */
+  private static class BigramList {
+    private long[] keys;
+    private double[] logProbs;
+    private int size;
+
+    BigramList(int capacity) {
+      keys = new long[capacity];
+      logProbs = new double[capacity];
+    }
+
+    void add(long key, double logProb) {
+      if (size == keys.length) {
+        keys = Arrays.copyOf(keys, size * 2 + 1);
+        logProbs = Arrays.copyOf(logProbs, size * 2 + 1);
+      }
+      keys[size] = key;
+      logProbs[size] = logProb;
+      size++;
     }
-    return result;
   }
 
-  private List<Double> normalize(List<Double> vals) {
-    double tot = vals.stream().mapToDouble(f -> f).sum();
-    return vals.stream().map(n -> n/tot).collect(Collectors.toList());
+  /**
+   * The log probabilities of all languages, in primitive arrays: an open addressing hash table maps each bigram
+   * to a row, the row's entries ({@code rowStart[row]} to {@code rowStart[row+1]}) are the languages that know the
+   * bigram and their log probability.
+   */
+  private static class BigramTable {
+    private static final long EMPTY = -1;  // keys are >= 0, as token ids are
+
+    private final long[] tableKeys;
+    private final int[] tableRows;
+    private final int mask;
+    private final int[] rowStart;
+    private final short[] langs;
+    private final double[] logProbs;
+
+    BigramTable(List<BigramList> bigramLists) {
+      if (bigramLists.size() > Short.MAX_VALUE) {
+        throw new IllegalArgumentException("Too many languages: " + bigramLists.size());
+      }
+      int maxEntries = 0;
+      for (BigramList list : bigramLists) {
+        maxEntries += list.size;
+      }
+      int capacity = Integer.highestOneBit(Math.max(maxEntries, 1) * 2 - 1) * 2;  // a load factor of at most 0.5
+      tableKeys = new long[capacity];
+      Arrays.fill(tableKeys, EMPTY);
+      tableRows = new int[capacity];
+      mask = capacity - 1;
+      // count the languages per row:
+      int[] rowSizes = new int[Math.max(maxEntries, 1)];
+      int[] rowLastLang = new int[rowSizes.length];
+      int rows = 0;
+      int entries = 0;
+      for (int lang = 0; lang < bigramLists.size(); lang++) {
+        BigramList list = bigramLists.get(lang);
+        for (int i = 0; i < list.size; i++) {
+          int slot = findSlot(list.keys[i]);
+          if (tableKeys[slot] == EMPTY) {
+            tableKeys[slot] = list.keys[i];
+            tableRows[slot] = rows;
+            rowLastLang[rows] = -1;
+            rows++;
+          }
+          int row = tableRows[slot];
+          if (rowLastLang[row] != lang) {  // a bigram that occurs twice for a language is only counted once
+            rowLastLang[row] = lang;
+            rowSizes[row]++;
+            entries++;
+          }
+        }
+      }
+      rowStart = new int[rows + 1];
+      for (int row = 0; row < rows; row++) {
+        rowStart[row + 1] = rowStart[row] + rowSizes[row];
+      }
+      // fill the rows, languages are added in order, so a language's entry is the last one of a row when it occurs again:
+      int[] rowFill = Arrays.copyOf(rowStart, rows);
+      langs = new short[entries];
+      logProbs = new double[entries];
+      for (int lang = 0; lang < bigramLists.size(); lang++) {
+        BigramList list = bigramLists.get(lang);
+        for (int i = 0; i < list.size; i++) {
+          int row = tableRows[findSlot(list.keys[i])];
+          if (rowFill[row] > rowStart[row] && langs[rowFill[row] - 1] == lang) {
+            logProbs[rowFill[row] - 1] = list.logProbs[i];  // the last one wins, like in a map
+          } else {
+            langs[rowFill[row]] = (short) lang;
+            logProbs[rowFill[row]] = list.logProbs[i];
+            rowFill[row]++;
+          }
+        }
+      }
+    }
+
+    /**
+     * @return the row for the bigram, or -1 if no language knows it
+     */
+    int getRow(int token1, int token2) {
+      int slot = findSlot(key(token1, token2));
+      return tableKeys[slot] == EMPTY ? -1 : tableRows[slot];
+    }
+
+    private int findSlot(long key) {
+      int slot = (int) mix(key) & mask;
+      while (tableKeys[slot] != EMPTY && tableKeys[slot] != key) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    private static long mix(long key) {
+      // from MurmurHash3's fmix64, so that similar token ids don't end up in neighbouring slots:
+      key ^= key >>> 33;
+      key *= 0xff51afd7ed558ccdL;
+      key ^= key >>> 33;
+      return key;
+    }
   }
 }
@@ -18,10 +18,12 @@
  */
 package org.languagetool.languagemodel;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.rules.ngrams.Probability;
 
-import java.util.List;
-import java.util.Locale;
+import java.util.*;
 
 /**
  * The algorithm of a language model, independent of the way data
@@ -31,10 +33,24 @@ import java.util.Locale;
 public abstract class BaseLanguageModel implements LanguageModel {
 
   private static final boolean DEBUG = false;
-  
+  static final int DEFAULT_COUNT_CACHE_SIZE = 100_000;
+
+  // ngram (tokens joined by space) -> count, shared by all threads that use this model:
+  @Nullable
+  private final Cache<String, Long> countCache;
+
   private Long totalTokenCount;
 
   public BaseLanguageModel()  {
+    this(DEFAULT_COUNT_CACHE_SIZE);
+  }
+
+  /**
+   * @param countCacheSize the maximum number of ngram counts to keep in memory, {@code 0} to not cache counts
+   * @since 5.9
+   */
+  protected BaseLanguageModel(int countCacheSize) {
+    countCache = countCacheSize > 0 ? CacheBuilder.newBuilder().maximumSize(countCacheSize).build() : null;
   }
 
   public Probability getPseudoProbabilityStupidBackoff(List<String> context) {
@@ -62,7 +78,7 @@ public abstract class BaseLanguageModel implements LanguageModel {
 
   private long tryGetCount(List<String> context) {
     try {
-      return getCount(context);
+      return getCounts(Collections.singletonList(context)).get(context);
     } catch (RuntimeException ignored) {
       return 0;
     }
@@ -70,13 +86,38 @@ public abstract class BaseLanguageModel implements LanguageModel {
 
   @Override
   public Probability getPseudoProbability(List<String> context) {
+    return getPseudoProbabilities(Collections.singletonList(context)).get(0);
+  }
+
+  /**
+   * Like {@link #getPseudoProbability(List)}, but the counts of all contexts are looked up together,
+   * with {@link #getCounts(Collection)}.
+   * @since 5.9
+   */
+  @Override
+  public List<Probability> getPseudoProbabilities(List<List<String>> contexts) {
+    List<List<String>> ngrams = new ArrayList<>();
+    for (List<String> context : contexts) {
+      for (int i = 1; i <= context.size(); i++) {
+        ngrams.add(context.subList(0, i));
+      }
+    }
+    Map<List<String>, Long> counts = getCounts(ngrams);
+    List<Probability> result = new ArrayList<>(contexts.size());
+    for (List<String> context : contexts) {
+      result.add(getPseudoProbability(context, counts));
+    }
+    return result;
+  }
+
+  private Probability getPseudoProbability(List<String> context, Map<List<String>, Long> counts) {
     if (this.totalTokenCount == null) {
       this.totalTokenCount = getTotalTokenCount();
     }
     int maxCoverage = 0;
     int coverage = 0;
     // TODO: lm.getCount("_START_") returns 0 for Google data -- see getCount(String) in LuceneLanguageModel
-    long firstWordCount = getCount(context.get(0));
+    long firstWordCount = counts.get(context.subList(0, 1));
     maxCoverage++;
     if (firstWordCount > 0) {
       coverage++;
@@ -88,7 +129,7 @@ public abstract class BaseLanguageModel implements LanguageModel {
     long totalCount = 0;
     for (int i = 2; i <= context.size(); i++) {
       List<String> subList = context.subList(0, i);
-      long phraseCount = getCount(subList);
+      long phraseCount = counts.get(subList);
       //System.out.println(subList + " -> " +phraseCount);
       if (subList.size() == 3) {
         totalCount = phraseCount;
@@ -109,6 +150,52 @@ public abstract class BaseLanguageModel implements LanguageModel {
     return new Probability(p, (float)coverage/maxCoverage, totalCount);
   }
 
+  /**
+   * Get the occurrence counts of several ngrams at once. Duplicates are looked up only once, counts that
+   * have been looked up before are taken from a cache, and the others are looked up together with
+   * {@link #getCountsUncached(List)}.
+   * @return a map from each ngram to its occurrence count
+   * @since 5.9
+   */
+  public Map<List<String>, Long> getCounts(Collection<List<String>> ngrams) {
+    Map<List<String>, Long> result = new HashMap<>();
+    List<List<String>> missing = new ArrayList<>();
+    for (List<String> ngram : ngrams) {
+      if (result.containsKey(ngram)) {
+        continue;
+      }
+      Long count = countCache != null ? countCache.getIfPresent(String.join(" ", ngram)) : null;
+      result.put(ngram, count);
+      if (count == null) {
+        missing.add(ngram);
+      }
+    }
+    if (!missing.isEmpty()) {
+      Map<List<String>, Long> counts = getCountsUncached(missing);
+      for (List<String> ngram : missing) {
+        long count = counts.get(ngram);
+        result.put(ngram, count);
+        if (countCache != null) {
+          countCache.put(String.join(" ", ngram), count);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Look up the occurrence counts of several different ngrams. Overwrite this if the counts can be
+   * looked up faster together than with one {@link #getCount(List)} call per ngram.
+   * @since 5.9
+   */
+  protected Map<List<String>, Long> getCountsUncached(List<List<String>> ngrams) {
+    Map<List<String>, Long> result = new HashMap<>();
+    for (List<String> ngram : ngrams) {
+      result.put(ngram, getCount(ngram));
+    }
+    return result;
+  }
+
   /**
    * Get the occurrence count for {@code token}.
    */
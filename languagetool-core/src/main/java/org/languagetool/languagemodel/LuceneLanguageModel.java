@@ -21,9 +21,7 @@ package org.languagetool.languagemodel;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 
 /**
  * Like {@link LuceneSingleIndexLanguageModel}, but can merge the results of
@@ -55,14 +53,15 @@ public class LuceneLanguageModel extends BaseLanguageModel {
    *                    the sub directories described under 1)
    */
   public LuceneLanguageModel(File topIndexDir)  {
+    // the counts are cached by this class, so the single indexes don't need caches of their own:
     File[] subDirs = getSubDirectoriesOrNull(topIndexDir);
     if (subDirs != null && subDirs.length > 0) {
       System.out.println("Running in multi-index mode with " + subDirs.length + " indexes: " + topIndexDir);
       for (File subDir : subDirs) {
-        lms.add(new LuceneSingleIndexLanguageModel(subDir));
+        lms.add(new LuceneSingleIndexLanguageModel(subDir, 0));
       }
     } else {
-      lms.add(new LuceneSingleIndexLanguageModel(topIndexDir));
+      lms.add(new LuceneSingleIndexLanguageModel(topIndexDir, 0));
     }
   }
 
@@ -71,6 +70,16 @@ public class LuceneLanguageModel extends BaseLanguageModel {
     return lms.stream().mapToLong(lm -> lm.getCount(tokens)).sum();
   }
 
+  @Override
+  protected Map<List<String>, Long> getCountsUncached(List<List<String>> ngrams) {
+    // the counts are cached by this class, so skip the caches of the single indexes:
+    Map<List<String>, Long> result = new HashMap<>();
+    for (LuceneSingleIndexLanguageModel lm : lms) {
+      lm.getCountsUncached(ngrams).forEach((ngram, count) -> result.merge(ngram, count, Long::sum));
+    }
+    return result;
+  }
+
   @Override
   public long getCount(String token) {
     return getCount(Arrays.asList(token));
@@ -18,11 +18,11 @@
  */
 package org.languagetool.languagemodel;
 
-import org.apache.lucene.index.DirectoryReader;
-import org.apache.lucene.index.IndexReader;
-import org.apache.lucene.index.Term;
+import org.apache.lucene.index.*;
 import org.apache.lucene.search.*;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
 import org.languagetool.Experimental;
 
 import java.io.File;
@@ -88,6 +88,15 @@ public class LuceneSingleIndexLanguageModel extends BaseLanguageModel {
    *                    {@code org.languagetool.dev.FrequencyIndexCreator}.
    */
   public LuceneSingleIndexLanguageModel(File topIndexDir)  {
+    this(topIndexDir, DEFAULT_COUNT_CACHE_SIZE);
+  }
+
+  /**
+   * @param countCacheSize the maximum number of ngram counts to keep in memory, {@code 0} to not cache counts
+   * @since 5.9
+   */
+  LuceneSingleIndexLanguageModel(File topIndexDir, int countCacheSize)  {
+    super(countCacheSize);
     doValidateDirectory(topIndexDir);
     this.topIndexDir = topIndexDir;
     addIndex(topIndexDir, 1);
@@ -140,6 +149,58 @@ public class LuceneSingleIndexLanguageModel extends BaseLanguageModel {
     return getCount(Arrays.asList(token1));
   }
 
+  /**
+   * Looks up the ngrams of each size in one pass over the index's terms, in sorted order.
+   */
+  @Override
+  protected Map<List<String>, Long> getCountsUncached(List<List<String>> ngrams) {
+    if (luceneSearcherMap.isEmpty()) {
+      // no index, the counts come from a sub class:
+      return super.getCountsUncached(ngrams);
+    }
+    Map<Integer, SortedMap<BytesRef, List<String>>> termsBySize = new HashMap<>();
+    for (List<String> ngram : ngrams) {
+      if (ngram.size() > maxNgram) {
+        throw new RuntimeException("Requested " + ngram.size() + "gram but index has only up to " + maxNgram + "gram: " + ngram);
+      }
+      termsBySize.computeIfAbsent(ngram.size(), k -> new TreeMap<>()).put(new BytesRef(String.join(" ", ngram)), ngram);
+    }
+    Map<List<String>, Long> result = new HashMap<>();
+    for (Map.Entry<Integer, SortedMap<BytesRef, List<String>>> entry : termsBySize.entrySet()) {
+      LuceneSearcher luceneSearcher = getLuceneSearcher(entry.getKey());
+      for (List<String> ngram : entry.getValue().values()) {
+        result.put(ngram, 0L);
+      }
+      try {
+        for (LeafReaderContext leaf : luceneSearcher.reader.leaves()) {
+          Terms terms = leaf.reader().terms("ngram");
+          if (terms == null) {
+            continue;
+          }
+          Bits liveDocs = leaf.reader().getLiveDocs();
+          TermsEnum termsEnum = terms.iterator();
+          PostingsEnum postings = null;
+          for (Map.Entry<BytesRef, List<String>> term : entry.getValue().entrySet()) {
+            if (termsEnum.seekExact(term.getKey())) {
+              postings = termsEnum.postings(postings, PostingsEnum.NONE);
+              long count = 0;
+              int docId;
+              while ((docId = postings.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+                if (liveDocs == null || liveDocs.get(docId)) {
+                  count += Long.parseLong(leaf.reader().document(docId).get("count"));
+                }
+              }
+              result.merge(term.getValue(), count, Long::sum);
+            }
+          }
+        }
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    }
+    return result;
+  }
+
   @Override
   public long getTotalTokenCount() {
     LuceneSearcher luceneSearcher = getLuceneSearcher(1);
@@ -0,0 +1,264 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Information about ngram occurrences, like {@link LuceneLanguageModel}, but read from a compact binary
+ * file ({@value #FILE_NAME}) that's memory-mapped, so a lookup is a hash computation and a few memory
+ * reads instead of a Lucene query. The file can be created from the Lucene indexes with
+ * {@code org.languagetool.dev.bigdata.LuceneToMappedNgramIndex}.
+ *
+ * <p>The file is a hash table with linear probing. Each entry has a 48-bit fingerprint of the ngram's
+ * hash and a 48-bit count, the ngrams themselves are not stored. So there's a tiny chance (about
+ * 1 in 10<sup>14</sup> per lookup) that an unknown ngram gets the count of another one.
+ * @since 5.9
+ */
+public class MappedNgramLanguageModel extends BaseLanguageModel {
+
+  public static final String FILE_NAME = "ngrams.bin";
+
+  private static final int MAGIC = 0x4c544e47;  // "LTNG"
+  private static final int FORMAT_VERSION = 1;
+  private static final int HEADER_SIZE = 32;  // magic, format version, max. ngram size, unused, total token count, slot count
+  private static final int ENTRY_SIZE = 12;   // fingerprint (0 = empty slot), count
+  private static final long MAX_COUNT = (1L << 48) - 1;
+  private static final int ENTRIES_PER_CHUNK = (1 << 30) / ENTRY_SIZE;  // a buffer can't map more than 2GB
+  private static final double LOAD_FACTOR = 0.7;
+  private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+  private final File file;
+  private final MappedByteBuffer[] chunks;
+  private final long slotCount;
+  private final int maxNgram;
+  private final long totalTokenCount;
+
+  /**
+   * @param topIndexDir a directory with a {@value #FILE_NAME} file
+   */
+  public MappedNgramLanguageModel(File topIndexDir) {
+    super(0);  // a lookup is about as fast as a cache lookup
+    file = new File(topIndexDir, FILE_NAME);
+    try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+      FileChannel channel = raf.getChannel();
+      ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+      if (header.getInt(0) != MAGIC) {
+        throw new RuntimeException("Not an ngram file: " + file);
+      }
+      if (header.getInt(4) != FORMAT_VERSION) {
+        throw new RuntimeException("Unsupported format version " + header.getInt(4) + " (expected " + FORMAT_VERSION + ") in " + file);
+      }
+      maxNgram = header.getInt(8);
+      totalTokenCount = header.getLong(16);
+      slotCount = header.getLong(24);
+      if (channel.size() != HEADER_SIZE + slotCount * ENTRY_SIZE) {
+        throw new RuntimeException("Unexpected size " + channel.size() + " of " + file + ", file may be truncated");
+      }
+      chunks = map(channel, FileChannel.MapMode.READ_ONLY, slotCount);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not open " + file, e);
+    }
+  }
+
+  /**
+   * Whether the directory has an ngram file for this class.
+   */
+  public static boolean exists(File topIndexDir) {
+    return new File(topIndexDir, FILE_NAME).isFile();
+  }
+
+  @Override
+  public long getCount(List<String> tokens) {
+    Objects.requireNonNull(tokens);
+    if (tokens.size() > maxNgram) {
+      throw new RuntimeException("Requested " + tokens.size() + "gram but index has only up to " + maxNgram + "gram: " + tokens);
+    }
+    long hash = hash(String.join(" ", tokens));
+    long fingerprint = fingerprint(hash);
+    long slot = Long.remainderUnsigned(hash, slotCount);
+    for (long i = 0; i < slotCount; i++) {
+      long slotFingerprint = read48(chunks, slot, 0);
+      if (slotFingerprint == 0) {
+        return 0;
+      }
+      if (slotFingerprint == fingerprint) {
+        return read48(chunks, slot, 6);
+      }
+      slot = slot + 1 == slotCount ? 0 : slot + 1;
+    }
+    return 0;
+  }
+
+  @Override
+  public long getCount(String token1) {
+    Objects.requireNonNull(token1);
+    return getCount(Arrays.asList(token1));
+  }
+
+  @Override
+  public long getTotalTokenCount() {
+    return totalTokenCount;
+  }
+
+  @Override
+  public void close() {
+    // the memory is unmapped when the buffers are garbage-collected
+  }
+
+  @Override
+  public String toString() {
+    return file.toString();
+  }
+
+  private static long hash(String ngram) {
+    return HASH_FUNCTION.hashString(ngram, StandardCharsets.UTF_8).asLong();
+  }
+
+  private static long fingerprint(long hash) {
+    long fingerprint = hash >>> 16;
+    return fingerprint == 0 ? 1 : fingerprint;
+  }
+
+  private static MappedByteBuffer[] map(FileChannel channel, FileChannel.MapMode mode, long slotCount) throws IOException {
+    MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((slotCount + ENTRIES_PER_CHUNK - 1) / ENTRIES_PER_CHUNK)];
+    for (int i = 0; i < chunks.length; i++) {
+      long firstSlot = (long) i * ENTRIES_PER_CHUNK;
+      long entries = Math.min(ENTRIES_PER_CHUNK, slotCount - firstSlot);
+      chunks[i] = channel.map(mode, HEADER_SIZE + firstSlot * ENTRY_SIZE, entries * ENTRY_SIZE);
+    }
+    return chunks;
+  }
+
+  private static long read48(MappedByteBuffer[] chunks, long slot, int offset) {
+    MappedByteBuffer chunk = chunks[(int) (slot / ENTRIES_PER_CHUNK)];
+    int pos = (int) (slot % ENTRIES_PER_CHUNK) * ENTRY_SIZE + offset;
+    return (chunk.getShort(pos) & 0xffffL) << 32 | (chunk.getInt(pos + 2) & 0xffffffffL);
+  }
+
+  private static void write48(MappedByteBuffer[] chunks, long slot, int offset, long value) {
+    MappedByteBuffer chunk = chunks[(int) (slot / ENTRIES_PER_CHUNK)];
+    int pos = (int) (slot % ENTRIES_PER_CHUNK) * ENTRY_SIZE + offset;
+    chunk.putShort(pos, (short) (value >>> 32));
+    chunk.putInt(pos + 2, (int) value);
+  }
+
+  /**
+   * Creates a {@value #FILE_NAME} file. Not thread-safe.
+   */
+  public static class Writer implements Closeable {
+
+    private final RandomAccessFile raf;
+    private final MappedByteBuffer[] chunks;
+    private final long maxEntries;
+    private final long slotCount;
+    private final int maxNgram;
+    private long totalTokenCount;
+    private long size;
+
+    /**
+     * @param topIndexDir the directory to create the file in
+     * @param maxEntries the maximum number of different ngrams that will be added, the file needs
+     *                   about 17 bytes per entry
+     * @param maxNgram the maximum number of tokens per ngram
+     */
+    public Writer(File topIndexDir, long maxEntries, int maxNgram) throws IOException {
+      this.maxEntries = maxEntries;
+      this.slotCount = (long) (maxEntries / LOAD_FACTOR) + 1;  // so there's always an empty slot
+      this.maxNgram = maxNgram;
+      raf = new RandomAccessFile(new File(topIndexDir, FILE_NAME), "rw");
+      raf.setLength(0);
+      raf.setLength(HEADER_SIZE + slotCount * ENTRY_SIZE);
+      chunks = map(raf.getChannel(), FileChannel.MapMode.READ_WRITE, slotCount);
+    }
+
+    /**
+     * Add the count of an ngram, adding it to the count that has been added before for the same ngram.
+     * @param ngram the tokens of the ngram, separated by a space
+     */
+    public void add(String ngram, long count) {
+      if (count < 0 || count > MAX_COUNT) {
+        throw new IllegalArgumentException("Count must be between 0 and " + MAX_COUNT + ": " + count + " for '" + ngram + "'");
+      }
+      long hash = hash(ngram);
+      long fingerprint = fingerprint(hash);
+      long slot = Long.remainderUnsigned(hash, slotCount);
+      while (true) {
+        long slotFingerprint = read48(chunks, slot, 0);
+        if (slotFingerprint == 0) {
+          if (size >= maxEntries) {
+            throw new IllegalStateException("More ngrams than expected, the file can only keep " + maxEntries);
+          }
+          write48(chunks, slot, 0, fingerprint);
+          write48(chunks, slot, 6, count);
+          size++;
+          return;
+        }
+        if (slotFingerprint == fingerprint) {
+          write48(chunks, slot, 6, Math.min(MAX_COUNT, read48(chunks, slot, 6) + count));
+          return;
+        }
+        slot = slot + 1 == slotCount ? 0 : slot + 1;
+      }
+    }
+
+    public void setTotalTokenCount(long totalTokenCount) {
+      this.totalTokenCount = totalTokenCount;
+    }
+
+    /**
+     * @return the number of different ngrams that have been added
+     */
+    public long getSize() {
+      return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        for (MappedByteBuffer chunk : chunks) {
+          chunk.force();
+        }
+        MappedByteBuffer header = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        header.putInt(0, MAGIC);
+        header.putInt(4, FORMAT_VERSION);
+        header.putInt(8, maxNgram);
+        header.putLong(16, totalTokenCount);
+        header.putLong(24, slotCount);
+        header.force();
+      } finally {
+        raf.close();
+      }
+    }
+  }
+
+}
@@ -129,23 +129,19 @@ public class AnnotatedTextBuilder {
   public AnnotatedText build() {
     int plainTextPosition = 0;
     int totalPosition = 0;
-    Map<Integer, MappingValue> mapping = new HashMap<>();
+    PositionMapping mapping = new PositionMapping();
     for (int i = 0; i < parts.size(); i++) {
       TextPart part = parts.get(i);
       if (part.getType() == TextPart.Type.TEXT) {
         plainTextPosition += part.getPart().length();
         totalPosition += part.getPart().length();
-        MappingValue mappingValue = new MappingValue(totalPosition);
-        mapping.put(plainTextPosition, mappingValue);
+        mapping.add(plainTextPosition, totalPosition, 0, true);
       } else if (part.getType() == TextPart.Type.MARKUP) {
         totalPosition += part.getPart().length();
         if (hasFakeContent(i, parts)) {
           plainTextPosition += parts.get(i + 1).getPart().length();
           i++;
-          if (mapping.get(plainTextPosition) == null) {
-            MappingValue mappingValue = new MappingValue(totalPosition, part.getPart().length());
-            mapping.put(plainTextPosition, mappingValue);
-          }
+          mapping.add(plainTextPosition, totalPosition, part.getPart().length(), false);
         }
       }
     }
@@ -0,0 +1,113 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.markup;
+
+import java.util.Arrays;
+
+/**
+ * Maps positions in the plain text to positions in the original text (with markup).
+ * Entries are stored sorted by plain text position in primitive arrays, so that
+ * lookups are a binary search. Use {@link AnnotatedTextBuilder} to create objects of this type.
+ * @since 5.9
+ */
+class PositionMapping {
+
+  private int[] plainTextPositions = new int[8];
+  private int[] totalPositions = new int[8];
+  private int[] fakeMarkupLengths = new int[8];  // > 0 if the entry is the end of fake markup
+  private int size;
+
+  /**
+   * Add an entry. Entries must be added in order of (non-decreasing) plain text position.
+   * @param overwrite whether to overwrite an existing entry for the same plain text position
+   */
+  void add(int plainTextPosition, int totalPosition, int fakeMarkupLength, boolean overwrite) {
+    if (size > 0 && plainTextPositions[size - 1] == plainTextPosition) {
+      if (overwrite) {
+        totalPositions[size - 1] = totalPosition;
+        fakeMarkupLengths[size - 1] = fakeMarkupLength;
+      }
+      return;
+    }
+    if (size > 0 && plainTextPositions[size - 1] > plainTextPosition) {
+      throw new IllegalArgumentException("Positions must be added in order: " + plainTextPosition + " < " + plainTextPositions[size - 1]);
+    }
+    if (size == plainTextPositions.length) {
+      int newLength = size * 2;
+      plainTextPositions = Arrays.copyOf(plainTextPositions, newLength);
+      totalPositions = Arrays.copyOf(totalPositions, newLength);
+      fakeMarkupLengths = Arrays.copyOf(fakeMarkupLengths, newLength);
+    }
+    plainTextPositions[size] = plainTextPosition;
+    totalPositions[size] = totalPosition;
+    fakeMarkupLengths[size] = fakeMarkupLength;
+    size++;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return the index of the entry with the smallest plain text position greater than
+   * {@code plainTextPosition}, or {@code -1} if there's no such entry
+   */
+  int findNextHigher(int plainTextPosition) {
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      if (plainTextPositions[mid] <= plainTextPosition) {
+        low = mid + 1;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low < size ? low : -1;
+  }
+
+  int getPlainTextPosition(int index) {
+    return plainTextPositions[index];
+  }
+
+  int getTotalPosition(int index) {
+    return totalPositions[index];
+  }
+
+  int getFakeMarkupLength(int index) {
+    return fakeMarkupLengths[index];
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < size; i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append(plainTextPositions[i]).append("=totalPos:").append(totalPositions[i])
+        .append(",fakeMarkupLen=").append(fakeMarkupLengths[i]);
+    }
+    return sb.append('}').toString();
+  }
+}
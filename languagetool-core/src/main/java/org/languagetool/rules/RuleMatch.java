@@ -186,6 +186,7 @@ public class RuleMatch implements Comparable<RuleMatch> {
     this(clone.getRule(), clone.getSentence(), clone.getFromPos(), clone.getToPos(), clone.getMessage(), clone.getShortMessage());
     this.setPatternPosition(clone.getPatternFromPos(), clone.getPatternToPos());
     suggestedReplacements = clone.suggestedReplacements;
+    suggestionsComputed = clone.suggestionsComputed;
     this.setAutoCorrect(clone.isAutoCorrect());
     this.setFeatures(clone.getFeatures());
     this.setUrl(clone.getUrl());
@@ -0,0 +1,229 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Invocation and match counters and CPU time per rule and language, to find the rules
+ * that slow down checking. Every invocation is counted, but only every {@value #SAMPLE_INTERVAL}th
+ * invocation (chosen randomly) is timed, the total time is extrapolated from those samples.
+ * The metrics are never reset, so they can be exported as counters.
+ * Usage:
+ * <pre>
+ *   long startTime = RuleMetrics.startTiming();
+ *   RuleMatch[] matches = rule.match(sentence);
+ *   RuleMetrics.ruleDone(langCode, rule.getId(), startTime, matches.length);
+ * </pre>
+ * @since 5.9
+ */
+public final class RuleMetrics {
+
+  static final int SAMPLE_INTERVAL = 16;
+  private static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+  private static final ConcurrentMap<String, ConcurrentMap<String, Counters>> rules = new ConcurrentHashMap<>();
+  private static final ConcurrentMap<String, ConcurrentMap<String, Counters>> disambiguationRules = new ConcurrentHashMap<>();
+
+  private static volatile boolean enabled = true;
+
+  private RuleMetrics() {
+    throw new IllegalStateException("RuleMetrics should only be used via static methods.");
+  }
+
+  /**
+   * Metrics are enabled by default.
+   */
+  public static void setEnabled(boolean enabled) {
+    RuleMetrics.enabled = enabled;
+  }
+
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Call before running a rule and pass the result to {@link #ruleDone} or {@link #disambiguationRuleDone}.
+   */
+  public static long startTiming() {
+    if (enabled && ThreadLocalRandom.current().nextInt(SAMPLE_INTERVAL) == 0) {
+      return System.nanoTime();
+    }
+    return NOT_SAMPLED;
+  }
+
+  /**
+   * Record an invocation of a rule (sentence-level or text-level).
+   * @param startTime the result of {@link #startTiming()}
+   */
+  public static void ruleDone(String langCode, String ruleId, long startTime, int matchCount) {
+    record(rules, langCode, ruleId, startTime, matchCount);
+  }
+
+  /**
+   * Record an invocation of a disambiguation rule.
+   * @param startTime the result of {@link #startTiming()}
+   */
+  public static void disambiguationRuleDone(String langCode, String ruleId, long startTime) {
+    record(disambiguationRules, langCode, ruleId, startTime, 0);
+  }
+
+  private static void record(ConcurrentMap<String, ConcurrentMap<String, Counters>> metrics,
+                             String langCode, String ruleId, long startTime, int matchCount) {
+    if (!enabled) {
+      return;
+    }
+    ConcurrentMap<String, Counters> langMetrics = metrics.get(langCode);
+    if (langMetrics == null) {
+      langMetrics = metrics.computeIfAbsent(langCode, k -> new ConcurrentHashMap<>());
+    }
+    Counters counters = langMetrics.get(ruleId);
+    if (counters == null) {
+      counters = langMetrics.computeIfAbsent(ruleId, k -> new Counters());
+    }
+    counters.invocations.increment();
+    if (matchCount > 0) {
+      counters.matches.add(matchCount);
+    }
+    if (startTime != NOT_SAMPLED) {
+      counters.sampledInvocations.increment();
+      counters.sampledNanos.add(System.nanoTime() - startTime);
+    }
+  }
+
+  /**
+   * @return the metrics of all sentence-level and text-level rules that have been run
+   */
+  public static List<RuleStats> getRuleStats() {
+    return getStats(rules);
+  }
+
+  /**
+   * @return the metrics of all disambiguation rules that have been run
+   */
+  public static List<RuleStats> getDisambiguationRuleStats() {
+    return getStats(disambiguationRules);
+  }
+
+  /**
+   * @return the {@code limit} rules with the highest estimated time, most expensive rule first
+   */
+  public static List<RuleStats> getTopRulesByTime(List<RuleStats> stats, int limit) {
+    return stats.stream()
+      .sorted(Comparator.comparingLong(RuleStats::getEstimatedNanos).reversed())
+      .limit(limit)
+      .collect(Collectors.toList());
+  }
+
+  private static List<RuleStats> getStats(ConcurrentMap<String, ConcurrentMap<String, Counters>> metrics) {
+    List<RuleStats> result = new ArrayList<>();
+    for (Map.Entry<String, ConcurrentMap<String, Counters>> langEntry : metrics.entrySet()) {
+      for (Map.Entry<String, Counters> entry : langEntry.getValue().entrySet()) {
+        Counters counters = entry.getValue();
+        result.add(new RuleStats(langEntry.getKey(), entry.getKey(), counters.invocations.sum(), counters.matches.sum(),
+          counters.sampledInvocations.sum(), counters.sampledNanos.sum()));
+      }
+    }
+    return result;
+  }
+
+  private static class Counters {
+    private final LongAdder invocations = new LongAdder();
+    private final LongAdder matches = new LongAdder();
+    private final LongAdder sampledInvocations = new LongAdder();
+    private final LongAdder sampledNanos = new LongAdder();
+  }
+
+  /**
+   * A snapshot of the metrics of one rule.
+   */
+  public static final class RuleStats {
+
+    private final String langCode;
+    private final String ruleId;
+    private final long invocations;
+    private final long matches;
+    private final long sampledInvocations;
+    private final long sampledNanos;
+
+    RuleStats(String langCode, String ruleId, long invocations, long matches, long sampledInvocations, long sampledNanos) {
+      this.langCode = langCode;
+      this.ruleId = ruleId;
+      this.invocations = invocations;
+      this.matches = matches;
+      this.sampledInvocations = sampledInvocations;
+      this.sampledNanos = sampledNanos;
+    }
+
+    public String getLangCode() {
+      return langCode;
+    }
+
+    public String getRuleId() {
+      return ruleId;
+    }
+
+    public long getInvocations() {
+      return invocations;
+    }
+
+    public long getMatches() {
+      return matches;
+    }
+
+    /**
+     * @return the number of invocations that have been timed
+     */
+    public long getSampledInvocations() {
+      return sampledInvocations;
+    }
+
+    /**
+     * @return the time spent in the timed invocations, in nanoseconds
+     */
+    public long getSampledNanos() {
+      return sampledNanos;
+    }
+
+    /**
+     * @return the total time spent in the rule, extrapolated from the timed invocations
+     */
+    public long getEstimatedNanos() {
+      if (sampledInvocations == 0) {
+        return 0;
+      }
+      return (long) ((double) sampledNanos / sampledInvocations * invocations);
+    }
+
+    @Override
+    public String toString() {
+      return langCode + "/" + ruleId + ": " + invocations + " invocations, " + matches + " matches, ~" +
+        getEstimatedNanos() / 1_000_000 + "ms";
+    }
+  }
+
+}
@@ -105,6 +105,12 @@ public class NgramProbabilityRule extends Rule {
   public RuleMatch[] match(AnalyzedSentence sentence) throws IOException {
     List<GoogleToken> tokens = GoogleToken.getGoogleTokens(sentence, true, getGoogleStyleWordTokenizer());
     List<RuleMatch> matches = new ArrayList<>();
+    // look up the 3grams of the whole sentence together:
+    List<List<String>> contexts = new ArrayList<>();
+    for (int j = 2; j < tokens.size() - 1; j++) {
+      contexts.add(Arrays.asList(tokens.get(j-1).token, tokens.get(j).token, tokens.get(j+1).token));
+    }
+    List<Probability> probs = lm.getPseudoProbabilities(contexts);
     GoogleToken prevPrevToken = null;
     GoogleToken prevToken = null;
     int i = 0;
@@ -117,7 +123,7 @@ public class NgramProbabilityRule extends Rule {
           //Probability p = lm.getPseudoProbability(Arrays.asList(prevToken.token, token));
           //Probability p = lm.getPseudoProbability(Arrays.asList(token, next.token));
           // 3grams:
-          Probability p = lm.getPseudoProbability(Arrays.asList(prevToken.token, token, next.token));
+          Probability p = probs.get(i - 2);  // = lm.getPseudoProbability(Arrays.asList(prevToken.token, token, next.token))
           // a test with 4grams with fallback:
           /*Probability p = lm.getPseudoProbability(Arrays.asList(prevPrevToken.token, prevToken.token, token, next.token));
           if (p.getOccurrences() == 0) {
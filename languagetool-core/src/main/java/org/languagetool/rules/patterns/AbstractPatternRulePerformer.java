@@ -42,6 +42,8 @@ public abstract class AbstractPatternRulePerformer {
   private final int minOccurCorrection;
   private final @Nullable Map<PatternToken, List<List<AnalyzedToken>>> toUnify;
   private final @Nullable Map<PatternToken, List<AnalyzedTokenReadings>> neutralReadings;
+  // re-used for every start position, consumers must not keep a reference to it:
+  private final int[] tokenPositions;
 
   protected AbstractPatternRulePerformer(AbstractTokenBasedRule rule, Unifier unifier) {
     this.rule = Objects.requireNonNull(rule);
@@ -51,6 +53,7 @@ public abstract class AbstractPatternRulePerformer {
     minOccurCorrection = getMinOccurrenceCorrection();
     toUnify = rule.isTestUnification() ? new HashMap<>() : null;
     neutralReadings = rule.isTestUnification() ? new HashMap<>() : null;
+    tokenPositions = new int[patternSize];
   }
 
   private List<PatternTokenMatcher> createElementMatchers() {
@@ -66,23 +69,33 @@ public abstract class AbstractPatternRulePerformer {
     AbstractTokenBasedRule.TokenHint anchor = rule.anchorHint;
     List<Integer> anchorIndices = anchor == null || isInterpretPosTagsPreDisambiguation() ? null : anchor.getPossibleIndices(sentence);
 
-    int[] tokenPositions = new int[patternTokenMatchers.size()];
     int limit = rule.isSentStart() ? 1 : Math.max(0, tokens.length - patternSize + 1) + minOccurCorrection;
     if (anchorIndices != null) {
       for (Integer anchorIndex : anchorIndices) {
         int i = anchorIndex - anchor.tokenIndex;
         if (i >= 0 && i < limit) {
-          matchFrom(i, tokens, consumer, tokenPositions);
+          matchFrom(i, tokens, consumer);
         }
       }
     } else {
       for (int i = 0; i < limit; i++) {
-        matchFrom(i, tokens, consumer, tokenPositions);
+        matchFrom(i, tokens, consumer);
       }
     }
+    clearSentenceState();
   }
 
-  private void matchFrom(int startIndex, AnalyzedTokenReadings[] tokens, MatchConsumer consumer, int[] tokenPositions) throws IOException {
+  // performers are re-used, don't keep the tokens of the last sentence alive:
+  private void clearSentenceState() {
+    unifiedTokens = null;
+    if (toUnify != null) {
+      toUnify.clear();
+      Objects.requireNonNull(neutralReadings).clear();
+    }
+    unifier.reset();
+  }
+
+  private void matchFrom(int startIndex, AnalyzedTokenReadings[] tokens, MatchConsumer consumer) throws IOException {
     PatternTokenMatcher pTokenMatcher = null;
     int skipShiftTotal = 0;
     boolean allElementsMatch = false;
@@ -174,7 +187,8 @@ public abstract class AbstractPatternRulePerformer {
     int numberOfReadings = tokens[tokenNo].getReadingsLength();
     matcher.prepareAndGroup(firstMatchToken, tokens, rule.getLanguage());
 
-    List<AnalyzedToken> readingsToUnify = toUnify == null ? null : new ArrayList<>();
+    // only allocated when a reading needs to be unified:
+    List<AnalyzedToken> readingsToUnify = null;
 
     for (int i = 0; i < numberOfReadings; i++) {
       AnalyzedToken matchToken = tokens[tokenNo].getAnalyzedToken(i);
@@ -222,7 +236,10 @@ public abstract class AbstractPatternRulePerformer {
 
         boolean isLastReading = i + 1 == numberOfReadings;
         PatternToken elem = matcher.getPatternToken();
-        if (readingMatches && readingsToUnify != null && elem.isUnified() && !elem.isUnificationNeutral()) {
+        if (readingMatches && toUnify != null && elem.isUnified() && !elem.isUnificationNeutral()) {
+          if (readingsToUnify == null) {
+            readingsToUnify = new ArrayList<>();
+          }
           readingsToUnify.add(matchToken);
         }
         anyMatched &= testAndGroup(isLastReading, matchToken, matcher);
@@ -261,7 +278,7 @@ public abstract class AbstractPatternRulePerformer {
         }
       }
     }
-    if (anyMatched && readingsToUnify != null && !readingsToUnify.isEmpty()) {
+    if (anyMatched && readingsToUnify != null) {
       toUnify.computeIfAbsent(matcher.getPatternToken(), __ -> new ArrayList<>()).add(readingsToUnify);
     }
     return anyMatched;
@@ -102,7 +102,7 @@ public abstract class AbstractTokenBasedRule extends AbstractPatternRule {
     private TokenHint(boolean inflected, Set<String> possibleValues, int tokenIndex) {
       this.inflected = inflected;
       this.tokenIndex = tokenIndex;
-      lowerCaseValues = possibleValues.stream().map(String::toLowerCase).distinct().toArray(String[]::new);
+      lowerCaseValues = possibleValues.stream().map(AnalyzedSentence::toLowerCaseKey).distinct().toArray(String[]::new);
     }
 
     @Override
@@ -19,13 +19,16 @@
 package org.languagetool.rules.patterns;
 
 import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.JLanguageTool;
@@ -55,6 +58,10 @@ public class PatternRule extends AbstractTokenBasedRule {
   // Marks whether the rule is a member of a disjunctive set (in case of OR operation on phraserefs).
   private boolean isMemberOfDisjunctiveSet;
 
+  // A matcher not currently in use by any thread, re-used by match(). Only softly referenced,
+  // so that the matchers of rare rules can be garbage collected when memory gets low:
+  private final AtomicReference<SoftReference<PatternRuleMatcher>> idleMatcher = new AtomicReference<>();
+
   /**
    * @param id Id of the Rule. Used in configuration. Should not contain special characters and should
    *        be stable over time, unless the rule changes completely.
@@ -214,9 +221,24 @@ public class PatternRule extends AbstractTokenBasedRule {
   public RuleMatch[] match(AnalyzedSentence sentence) throws IOException {
     if (canBeIgnoredFor(sentence)) return RuleMatch.EMPTY_ARRAY;
     
-    RuleMatcher matcher = new PatternRuleMatcher(this, useList);
-    return checkForAntiPatterns(sentence, matcher, matcher.match(sentence));
+    // take the idle matcher, if any, so its buffers don't need to be re-created for each sentence;
+    // if another thread is using it, fall back to a new matcher:
+    SoftReference<PatternRuleMatcher> ref = idleMatcher.getAndSet(null);
+    PatternRuleMatcher matcher = ref != null ? ref.get() : null;
+    if (matcher == null) {
+      matcher = new PatternRuleMatcher(this, useList);
+      ref = new SoftReference<>(matcher);
+    }
+    RuleMatch[] matches = checkForAntiPatterns(sentence, matcher, matcher.match(sentence));
+    // a matcher that failed might be in an inconsistent state, so it's only re-used on success:
+    idleMatcher.set(ref);
+    return matches;
+  }
 
+  @Nullable
+  PatternRuleMatcher getIdleMatcher() {
+    SoftReference<PatternRuleMatcher> ref = idleMatcher.get();
+    return ref != null ? ref.get() : null;
   }
 
   private RuleMatch[] checkForAntiPatterns(AnalyzedSentence sentence, RuleMatcher matcher, RuleMatch[] matches) throws IOException {
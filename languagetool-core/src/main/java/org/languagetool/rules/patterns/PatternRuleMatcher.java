@@ -49,6 +49,8 @@ final public class PatternRuleMatcher extends AbstractPatternRulePerformer imple
           + allowedChars + "(\\(" + allowedChars + "\\)|" + MISTAKE + ")" + allowedChars  
           + RuleMatch.SUGGESTION_END_TAG);
 
+  private static final RuleMatchFilter maxFilter = new RuleWithMaxFilter();
+
   private final boolean useList;
   //private final Integer slowMatchThreshold;
   private static final boolean monitorRules = System.getProperty("monitorActiveRules") != null;
@@ -83,7 +85,9 @@ final public class PatternRuleMatcher extends AbstractPatternRulePerformer imple
           ruleMatches.add(ruleMatch);
         }
       });
-      RuleMatchFilter maxFilter = new RuleWithMaxFilter();
+      if (ruleMatches.isEmpty()) {
+        return RuleMatch.EMPTY_ARRAY;
+      }
       List<RuleMatch> filteredMatches = maxFilter.filter(ruleMatches);
       /*if (slowMatchThreshold != null) {
         long runTime = System.currentTimeMillis() - startTime;
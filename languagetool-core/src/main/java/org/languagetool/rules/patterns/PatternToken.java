@@ -22,6 +22,7 @@ import com.google.common.collect.ObjectArrays;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.languagetool.AnalyzedSentence;
 import org.languagetool.AnalyzedToken;
 import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.JLanguageTool;
@@ -705,6 +706,56 @@ public class PatternToken implements Cloneable {
     return calcStringHints(true);
   }
 
+  /**
+   * @return the POS tag prefixes of which at least one must start the POS tag of any token matched by this
+   * token pattern, or {@code null} if there's no such requirement.
+   * This is used internally for performance optimizations.
+   */
+  @Nullable
+  Set<String> calcPosTagPrefixHints() {
+    PosToken pos = posToken;
+    if (pos == null || pos.posTag == null || pos.negation || pos.posUnknown ||
+        isReferenceElement() || mayBeOmitted || hasOrGroup()) {
+      return null;
+    }
+    if (pos.posPattern == null) {
+      return Collections.singleton(pos.posTag);
+    }
+    Set<String> possibleValues = pos.posPattern.getPossibleValues();
+    if (possibleValues != null) {
+      return possibleValues.contains("") ? null : possibleValues;
+    }
+    Substrings required = pos.posPattern.requiredSubstrings();
+    if (required != null && required.mustStart && !required.substrings[0].isEmpty()) {
+      return Collections.singleton(required.substrings[0]);
+    }
+    return null;
+  }
+
+  /**
+   * @return a lowercase string that the token text (or lemma, if {@link #isInflected()}) must contain to be
+   * matched by this token pattern, or {@code null} if there's no such requirement or if it's already covered by
+   * {@link #calcFormHints()} or {@link #calcLemmaHints()}.
+   * This is used internally for performance optimizations.
+   */
+  @Nullable
+  String calcSubstringHint() {
+    if (negation || !hasStringThatMustMatch() || hasOrGroup() || textMatcher.getPossibleValues() != null) {
+      return null;
+    }
+    Substrings required = textMatcher.requiredSubstrings();
+    if (required == null) {
+      return null;
+    }
+    String longest = "";
+    for (String substring : required.substrings) {
+      if (substring.length() > longest.length()) {
+        longest = substring;
+      }
+    }
+    return longest.isEmpty() ? null : AnalyzedSentence.toLowerCaseKey(longest);
+  }
+
   private Set<String> calcStringHints(boolean inflected) {
     Set<String> result = inflected != this.inflected ? null : calcOwnPossibleStringValues();
     if (result == null) return null;
@@ -0,0 +1,264 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules.patterns;
+
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedTokenReadings;
+import org.languagetool.rules.Rule;
+
+import java.util.*;
+
+/**
+ * A prefilter for {@link RuleSet#rulesForSentence}. Each {@link AbstractTokenBasedRule} is described by a number of
+ * conditions that a sentence must fulfill for the rule to possibly match. A condition is a set of alternatives,
+ * at least one of which must occur in the sentence: token texts or lemmas, required substrings of token texts or
+ * lemmas, or POS tag prefixes. All conditions are compiled into hash maps and tries, so the sentence's tokens are
+ * only looked at once, and a rule becomes a candidate when the number of its fulfilled conditions reaches the number
+ * of its conditions. Rules without conditions are always candidates.
+ */
+final class RuleHintIndex {
+
+  private final Map<String, int[]> byToken = new HashMap<>();
+  private final Map<String, int[]> byLemma = new HashMap<>();
+  private final Trie tokenSubstrings = new Trie();
+  private final Trie lemmaSubstrings = new Trie();
+  private final Trie posTagPrefixes = new Trie();
+  private final BitSet unconditional = new BitSet();
+  private final int[] conditionRules;
+  private final int[] conditionCounts;
+  private final ThreadLocal<State> state;
+
+  RuleHintIndex(List<Rule> rules, boolean withLemmaAndPosHints) {
+    Map<String, List<Integer>> byToken = new HashMap<>();
+    Map<String, List<Integer>> byLemma = new HashMap<>();
+    List<Integer> conditionRules = new ArrayList<>();
+    conditionCounts = new int[rules.size()];
+    for (int i = 0; i < rules.size(); i++) {
+      Rule rule = rules.get(i);
+      if (rule instanceof AbstractTokenBasedRule) {
+        AbstractTokenBasedRule tokenBasedRule = (AbstractTokenBasedRule) rule;
+        if (tokenBasedRule.tokenHints != null) {
+          for (AbstractTokenBasedRule.TokenHint hint : tokenBasedRule.tokenHints) {
+            if (hint.inflected && !withLemmaAndPosHints) {
+              continue;
+            }
+            int condition = addCondition(conditionRules, i);
+            for (String value : hint.lowerCaseValues) {
+              (hint.inflected ? byLemma : byToken).computeIfAbsent(value, k -> new ArrayList<>()).add(condition);
+            }
+          }
+        }
+        for (PatternToken patternToken : tokenBasedRule.getPatternTokens()) {
+          String substring = patternToken.calcSubstringHint();
+          if (substring != null && (withLemmaAndPosHints || !patternToken.isInflected())) {
+            int condition = addCondition(conditionRules, i);
+            (patternToken.isInflected() ? lemmaSubstrings : tokenSubstrings).add(substring, condition);
+          }
+          Set<String> posTagPrefixes = withLemmaAndPosHints ? patternToken.calcPosTagPrefixHints() : null;
+          if (posTagPrefixes != null) {
+            int condition = addCondition(conditionRules, i);
+            for (String prefix : posTagPrefixes) {
+              this.posTagPrefixes.add(prefix, condition);
+            }
+          }
+        }
+      }
+      if (conditionCounts[i] == 0) {
+        unconditional.set(i);
+      }
+    }
+    this.conditionRules = conditionRules.stream().mapToInt(Integer::intValue).toArray();
+    byToken.forEach((value, conditions) -> this.byToken.put(value, toArray(conditions)));
+    byLemma.forEach((value, conditions) -> this.byLemma.put(value, toArray(conditions)));
+    state = ThreadLocal.withInitial(() -> new State(this.conditionRules.length, rules.size()));
+  }
+
+  private int addCondition(List<Integer> conditionRules, int ruleIndex) {
+    conditionRules.add(ruleIndex);
+    conditionCounts[ruleIndex]++;
+    return conditionRules.size() - 1;
+  }
+
+  private static int[] toArray(List<Integer> list) {
+    return list.stream().mapToInt(Integer::intValue).distinct().toArray();
+  }
+
+  /**
+   * @return the rules (in their original order) whose conditions are all fulfilled by the given sentence
+   */
+  List<Rule> rulesForSentence(AnalyzedSentence sentence, List<Rule> rules) {
+    State state = this.state.get();
+    try {
+      for (String token : sentence.getTokenSet()) {
+        state.fulfill(byToken.get(token));
+        if (!tokenSubstrings.isEmpty()) {
+          tokenSubstrings.findSubstrings(token, state);
+        }
+      }
+      if (!byLemma.isEmpty() || !lemmaSubstrings.isEmpty()) {
+        for (String lemma : sentence.getLemmaSet()) {
+          state.fulfill(byLemma.get(lemma));
+          if (!lemmaSubstrings.isEmpty()) {
+            lemmaSubstrings.findSubstrings(lemma, state);
+          }
+        }
+      }
+      if (!posTagPrefixes.isEmpty()) {
+        for (AnalyzedTokenReadings readings : sentence.getTokensWithoutWhitespace()) {
+          for (int i = 0, length = readings.getReadingsLength(); i < length; i++) {
+            String posTag = readings.getAnalyzedToken(i).getPOSTag();
+            if (posTag != null) {
+              posTagPrefixes.findPrefixes(posTag, 0, state);
+            }
+          }
+        }
+      }
+      state.candidates.or(unconditional);
+      return RuleSet.filterList(state.candidates, rules);
+    } finally {
+      state.reset();
+    }
+  }
+
+  /**
+   * Per-thread buffers for {@link #rulesForSentence}, so that it doesn't allocate anything but the result.
+   */
+  private final class State {
+    private final BitSet fulfilled;
+    private final int[] fulfilledCounts;
+    private final BitSet candidates;
+
+    State(int conditionCount, int ruleCount) {
+      fulfilled = new BitSet(conditionCount);
+      fulfilledCounts = new int[ruleCount];
+      candidates = new BitSet(ruleCount);
+    }
+
+    void fulfill(int[] conditions) {
+      if (conditions != null) {
+        for (int condition : conditions) {
+          if (!fulfilled.get(condition)) {
+            fulfilled.set(condition);
+            int rule = conditionRules[condition];
+            if (++fulfilledCounts[rule] == conditionCounts[rule]) {
+              candidates.set(rule);
+            }
+          }
+        }
+      }
+    }
+
+    void reset() {
+      for (int condition = fulfilled.nextSetBit(0); condition >= 0; condition = fulfilled.nextSetBit(condition + 1)) {
+        fulfilledCounts[conditionRules[condition]] = 0;
+      }
+      fulfilled.clear();
+      candidates.clear();
+    }
+  }
+
+  /**
+   * A character trie whose nodes carry the conditions fulfilled by the string leading to them.
+   */
+  private static final class Trie {
+    private final Node root = new Node();
+
+    void add(String key, int condition) {
+      Node node = root;
+      for (int i = 0; i < key.length(); i++) {
+        node = node.getOrAddChild(key.charAt(i));
+      }
+      node.conditions = appendIfAbsent(node.conditions, condition);
+    }
+
+    boolean isEmpty() {
+      return root.keys.length == 0;
+    }
+
+    /**
+     * Fulfill the conditions of all keys that {@code text} contains.
+     */
+    void findSubstrings(String text, State state) {
+      for (int start = 0; start < text.length(); start++) {
+        findPrefixes(text, start, state);
+      }
+    }
+
+    /**
+     * Fulfill the conditions of all keys that {@code text} starts with at the given position.
+     */
+    void findPrefixes(String text, int start, State state) {
+      Node node = root;
+      for (int i = start; i < text.length(); i++) {
+        node = node.getChild(text.charAt(i));
+        if (node == null) {
+          return;
+        }
+        state.fulfill(node.conditions);
+      }
+    }
+
+    private static int[] appendIfAbsent(int[] array, int value) {
+      if (array == null) {
+        return new int[]{value};
+      }
+      for (int i : array) {
+        if (i == value) {
+          return array;
+        }
+      }
+      int[] result = Arrays.copyOf(array, array.length + 1);
+      result[array.length] = value;
+      return result;
+    }
+
+    private static final class Node {
+      // sorted, for binary search:
+      private char[] keys = new char[0];
+      private Node[] children = new Node[0];
+      private int[] conditions;
+
+      Node getChild(char c) {
+        int i = Arrays.binarySearch(keys, c);
+        return i >= 0 ? children[i] : null;
+      }
+
+      Node getOrAddChild(char c) {
+        int i = Arrays.binarySearch(keys, c);
+        if (i >= 0) {
+          return children[i];
+        }
+        int insert = -i - 1;
+        char[] newKeys = new char[keys.length + 1];
+        Node[] newChildren = new Node[children.length + 1];
+        System.arraycopy(keys, 0, newKeys, 0, insert);
+        System.arraycopy(children, 0, newChildren, 0, insert);
+        System.arraycopy(keys, insert, newKeys, insert + 1, keys.length - insert);
+        System.arraycopy(children, insert, newChildren, insert + 1, children.length - insert);
+        Node child = new Node();
+        newKeys[insert] = c;
+        newChildren[insert] = child;
+        keys = newKeys;
+        children = newChildren;
+        return child;
+      }
+    }
+  }
+
+}
@@ -77,8 +77,8 @@ public abstract class RuleSet {
   }
 
   /**
-   * @return a RuleSet whose {@link #rulesForSentence} excludes rules requiring token texts or lemmas
-   * that don't occur in the given sentence
+   * @return a RuleSet whose {@link #rulesForSentence} excludes rules requiring token texts, lemmas
+   * or POS tags that don't occur in the given sentence
    */
   public static RuleSet textLemmaHinted(List<? extends Rule> rules) {
     return hinted(rules, true);
@@ -92,32 +92,9 @@ public abstract class RuleSet {
     return hinted(rules, false);
   }
 
-  private static RuleSet hinted(List<? extends Rule> rules, boolean withLemmaHints) {
+  private static RuleSet hinted(List<? extends Rule> rules, boolean withLemmaAndPosHints) {
     List<Rule> allRules = Collections.unmodifiableList(rules);
-    Map<String, BitSet> byToken = new HashMap<>();
-    Map<String, BitSet> byLemma = new HashMap<>();
-    BitSet unclassified = new BitSet();
-    for (int i = 0; i < allRules.size(); i++) {
-      Rule rule = allRules.get(i);
-      boolean classified = false;
-      if (rule instanceof AbstractTokenBasedRule) {
-        AbstractTokenBasedRule.TokenHint[] tokenHints = ((AbstractTokenBasedRule) rule).tokenHints;
-        AbstractTokenBasedRule.TokenHint firstHint =
-          tokenHints == null ? null :
-          withLemmaHints ? tokenHints[0] :
-          Arrays.stream(tokenHints).filter(th -> !th.inflected).findFirst().orElse(null);
-        if (firstHint != null) {
-          classified = true;
-          Map<String, BitSet> map = firstHint.inflected ? byLemma : byToken;
-          for (String hint : firstHint.lowerCaseValues) {
-            map.computeIfAbsent(hint, __ -> new BitSet()).set(i);
-          }
-        }
-      }
-      if (!classified) {
-        unclassified.set(i);
-      }
-    }
+    RuleHintIndex index = new RuleHintIndex(allRules, withLemmaAndPosHints);
     return new RuleSet() {
       @Override
       public List<Rule> allRules() {
@@ -126,23 +103,7 @@ public abstract class RuleSet {
 
       @Override
       public List<Rule> rulesForSentence(AnalyzedSentence sentence) {
-        BitSet included = new BitSet();
-        included.or(unclassified);
-        if (!byLemma.isEmpty()) {
-          for (String lemma : sentence.getLemmaSet()) {
-            BitSet set = byLemma.get(lemma);
-            if (set != null) {
-              included.or(set);
-            }
-          }
-        }
-        for (String token : sentence.getTokenSet()) {
-          BitSet set = byToken.get(token);
-          if (set != null) {
-            included.or(set);
-          }
-        }
-        return filterList(included, allRules);
+        return index.rulesForSentence(sentence, allRules);
       }
     };
   }
@@ -61,6 +61,15 @@ public abstract class StringMatcher {
    */
   public abstract boolean matches(String s);
 
+  /**
+   * @return the substrings that every string accepted by this regexp matcher contains,
+   * or {@code null} if they're unknown
+   */
+  @Nullable
+  Substrings requiredSubstrings() {
+    return null;
+  }
+
   /**
    * Create a case-sensitive regexp matcher.
    * @since 5.6
@@ -142,6 +151,12 @@ public abstract class StringMatcher {
         if (substringsAreSufficient) return true;
         return compiled.matcher(new InterruptibleCharSequence(s)).matches();
       }
+
+      @Nullable
+      @Override
+      Substrings requiredSubstrings() {
+        return substrings;
+      }
     };
   }
 
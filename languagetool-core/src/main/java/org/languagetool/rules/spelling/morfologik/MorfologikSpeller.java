@@ -57,8 +57,22 @@ public class MorfologikSpeller {
         }
       });
 
+  private static final int MISSPELLED_CACHE_SIZE = 100_000;
+
+  // Results of isMisspelled(), shared by all spellers that use the same dictionary:
+  private static final LoadingCache<Dictionary, Cache<String, Boolean>> misspelledCache = CacheBuilder.newBuilder()
+      .weakKeys()
+      .build(new CacheLoader<Dictionary, Cache<String, Boolean>>() {
+        @Override
+        public Cache<String, Boolean> load(@NotNull Dictionary dictionary) {
+          return CacheBuilder.newBuilder().maximumSize(MISSPELLED_CACHE_SIZE).build();
+        }
+      });
   private final Dictionary dictionary;
-  private final Speller speller;
+  // Speller is not thread-safe, but cheap to create on top of the thread-safe Dictionary,
+  // so every thread gets its own instance instead of synchronizing on a shared one:
+  private final ThreadLocal<Speller> speller;
+  private final Cache<String, Boolean> misspelled;
   private final int maxEditDistance;
 
   /**
@@ -84,7 +98,8 @@ public class MorfologikSpeller {
     }
     this.dictionary = dictionary;
     this.maxEditDistance = maxEditDistance;
-    speller = new Speller(dictionary, maxEditDistance);
+    speller = ThreadLocal.withInitial(() -> new Speller(dictionary, maxEditDistance));
+    misspelled = misspelledCache.getUnchecked(dictionary);
   }
 
   /**
@@ -99,25 +114,29 @@ public class MorfologikSpeller {
     if (word.isEmpty() || SpellingCheckRule.LANGUAGETOOL.equals(word) || SpellingCheckRule.LANGUAGETOOLER.equals(word)) {
       return false;
     }
-    synchronized (this) {
-      return speller.isMisspelled(word);
+    Boolean result = misspelled.getIfPresent(word);
+    if (result == null) {
+      result = speller.get().isMisspelled(word);
+      misspelled.put(word, result);
     }
+    return result;
   }
 
-  public synchronized List<String> findReplacements(String word) {
-    return speller.findReplacements(word);
+  public List<String> findReplacements(String word) {
+    return speller.get().findReplacements(word);
   }
   
-  public synchronized List<String> findSimilarWords(String word) {
-    return speller.findSimilarWords(word);
+  public List<String> findSimilarWords(String word) {
+    return speller.get().findSimilarWords(word);
   }
 
   /**
    * @deprecated use (or introduce) other methods to this class which would take care of the necessary synchronization
+   * @return the speller of the current thread, which must not be used by other threads
    */
   @Deprecated
   public Speller getSpeller() {
-    return speller;
+    return speller.get();
   }
 
   public List<WeightedSuggestion> getSuggestions(String word) {
@@ -204,7 +223,7 @@ public class MorfologikSpeller {
    * @since 2.5
    */
   public boolean convertsCase() {
-    return speller.convertsCase();
+    return speller.get().convertsCase();
   }
 
   @Override
@@ -212,7 +231,8 @@ public class MorfologikSpeller {
     return "dist=" + maxEditDistance;
   }
 
-  public synchronized int getFrequency(String word) {
+  public int getFrequency(String word) {
+    Speller speller = this.speller.get();
     int freq = speller.getFrequency(word);
     if (freq == 0 && !word.equals(word.toLowerCase())) {
       freq = speller.getFrequency(word.toLowerCase());
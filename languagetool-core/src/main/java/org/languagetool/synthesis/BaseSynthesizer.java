@@ -18,6 +18,8 @@
  */
 package org.languagetool.synthesis;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import morfologik.stemming.Dictionary;
 import morfologik.stemming.DictionaryLookup;
 import morfologik.stemming.IStemmer;
@@ -34,6 +36,7 @@ import java.io.InputStreamReader;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Predicate;
 import java.util.regex.Pattern;
@@ -43,11 +46,16 @@ public class BaseSynthesizer implements Synthesizer {
 
   public final String SPELLNUMBER_TAG = "_spell_number_";
 
+  private static final int LOOKUP_CACHE_SIZE = 20_000;
+
   protected volatile List<String> possibleTags;
 
   private final String tagFileName;
   private final String resourceFileName;
-  private final IStemmer stemmer;
+  // DictionaryLookup is not thread-safe, but cheap to create on top of the thread-safe Dictionary:
+  private final ThreadLocal<IStemmer> stemmer;
+  // (lemma|posTag) -> forms, as returned by lookup():
+  private final Cache<String, List<String>> lookupCache = CacheBuilder.newBuilder().maximumSize(LOOKUP_CACHE_SIZE).build();
   private final ManualSynthesizer manualSynthesizer;
   private final ManualSynthesizer removalSynthesizer;
   private final ManualSynthesizer removalSynthesizer2;
@@ -63,7 +71,9 @@ public class BaseSynthesizer implements Synthesizer {
   public BaseSynthesizer(String sorosFileName, String resourceFileName, String tagFileName, Language lang) {
     this.resourceFileName = resourceFileName;
     this.tagFileName = tagFileName;
-    this.stemmer = createStemmer();
+    IStemmer initialStemmer = createStemmer();
+    this.stemmer = ThreadLocal.withInitial(this::createStemmer);
+    this.stemmer.set(initialStemmer);
     this.sorosFileName = sorosFileName;
     this.numberSpeller = createNumberSpeller(lang.getShortCode());
     try {
@@ -156,12 +166,21 @@ public class BaseSynthesizer implements Synthesizer {
    * @param posTag the desired part-of-speech tag.
    */
   protected List<String> lookup(String lemma, String posTag) {
+    String key = lemma + "|" + posTag;
+    List<String> cachedResults = lookupCache.getIfPresent(key);
+    if (cachedResults == null) {
+      cachedResults = Collections.unmodifiableList(lookupUncached(key, lemma, posTag));
+      lookupCache.put(key, cachedResults);
+    }
+    // callers may modify the result:
+    return new ArrayList<>(cachedResults);
+  }
+
+  private List<String> lookupUncached(String key, String lemma, String posTag) {
     List<String> results = new ArrayList<>();
-    synchronized (this) { // the stemmer is not thread-safe
-      List<WordData> wordForms = stemmer.lookup(lemma + "|" + posTag);
-      for (WordData wd : wordForms) {
-        results.add(wd.getStem().toString());
-      }
+    List<WordData> wordForms = stemmer.get().lookup(key);
+    for (WordData wd : wordForms) {
+      results.add(wd.getStem().toString());
     }
     if (manualSynthesizer != null) {
       List<String> manualForms = manualSynthesizer.lookup(lemma, posTag);
@@ -236,10 +255,10 @@ public class BaseSynthesizer implements Synthesizer {
 
   /**
    * @since 2.5
-   * @return the stemmer interface to be used.
+   * @return the stemmer interface to be used by the current thread, must not be shared among threads
    */
   public IStemmer getStemmer() {
-    return stemmer;
+    return stemmer.get();
   }
 
   protected void initPossibleTags() throws IOException {
@@ -42,7 +42,15 @@ public abstract class BaseTagger implements Tagger {
   private static final String MANUAL_REMOVALS_FILE = "/removed.txt";
   private static final String CUSTOM_MANUAL_REMOVALS_FILE = "/removed_custom.txt";
 
+  /**
+   * Default maximum number of words whose tags are cached per tagger, see {@link #getWordTaggerCacheSize()}.
+   * @since 5.9
+   */
+  protected static final int DEFAULT_WORD_TAGGER_CACHE_SIZE = 50_000;
+
   protected final WordTagger wordTagger;
+  @Nullable
+  private final CachingWordTagger cachingWordTagger;
   protected final Locale locale;
 
   private final boolean tagLowercaseWithUppercase;
@@ -87,6 +95,8 @@ public abstract class BaseTagger implements Tagger {
     this.tagLowercaseWithUppercase = tagLowercaseWithUppercase;
     this.dictionary = MorfologikSpeller.getDictionaryWithCaching(filename);
     this.wordTagger = initWordTagger(internTags);
+    int cacheSize = getWordTaggerCacheSize();
+    this.cachingWordTagger = cacheSize > 0 ? new CachingWordTagger(wordTagger, cacheSize) : null;
   }
 
   /**
@@ -105,8 +115,29 @@ public abstract class BaseTagger implements Tagger {
     return false;
   }
 
+  /**
+   * The maximum number of words whose tags get cached, {@code 0} to disable the cache.
+   * Note that this is called from the constructor.
+   * @since 5.9
+   */
+  protected int getWordTaggerCacheSize() {
+    return DEFAULT_WORD_TAGGER_CACHE_SIZE;
+  }
+
+  /**
+   * @return the tagger used for looking up words, with a cache in front of it if enabled
+   */
   protected WordTagger getWordTagger() {
-    return wordTagger;
+    return cachingWordTagger != null ? cachingWordTagger : wordTagger;
+  }
+
+  /**
+   * @return the cache of word lookups, e.g. to get its statistics, or {@code null} if the cache is disabled
+   * @since 5.9
+   */
+  @Nullable
+  public CachingWordTagger getWordTaggerCache() {
+    return cachingWordTagger;
   }
 
   private WordTagger initWordTagger(boolean internTags) {
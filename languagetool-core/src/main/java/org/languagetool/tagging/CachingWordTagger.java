@@ -0,0 +1,89 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A {@link WordTagger} that caches the results of another tagger. As word frequencies
+ * are very unevenly distributed, most lookups of frequent words are served from
+ * the cache. Thread-safe if the underlying tagger is thread-safe.
+ * @since 5.9
+ */
+public class CachingWordTagger implements WordTagger {
+
+  private final WordTagger tagger;
+  private final Cache<String, List<TaggedWord>> cache;
+
+  /**
+   * @param maxSize the maximum number of words to keep in the cache
+   */
+  public CachingWordTagger(WordTagger tagger, long maxSize) {
+    this.tagger = Objects.requireNonNull(tagger);
+    this.cache = CacheBuilder.newBuilder()
+      .maximumSize(maxSize)
+      .recordStats()
+      .build();
+  }
+
+  @Override
+  public List<TaggedWord> tag(String word) {
+    List<TaggedWord> taggedWords = cache.getIfPresent(word);
+    if (taggedWords == null) {
+      taggedWords = Collections.unmodifiableList(new ArrayList<>(tagger.tag(word)));
+      cache.put(word, taggedWords);
+    }
+    // callers may modify the result:
+    return new ArrayList<>(taggedWords);
+  }
+
+  /**
+   * @return the tagger whose results are cached
+   */
+  public WordTagger getWordTagger() {
+    return tagger;
+  }
+
+  public double hitRate() {
+    return cache.stats().hitRate();
+  }
+
+  public long requestCount() {
+    return cache.stats().requestCount();
+  }
+
+  public long hitCount() {
+    return cache.stats().hitCount();
+  }
+
+  public long missCount() {
+    return cache.stats().missCount();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+}
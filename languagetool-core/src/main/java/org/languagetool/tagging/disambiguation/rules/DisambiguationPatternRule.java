@@ -27,9 +27,11 @@ import org.languagetool.rules.patterns.Match;
 import org.languagetool.rules.patterns.PatternToken;
 
 import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A Rule that describes a pattern of words or part-of-speech tags used for
@@ -52,6 +54,10 @@ public class DisambiguationPatternRule extends AbstractTokenBasedRule {
   private List<DisambiguatedExample> examples = Collections.emptyList();
   private List<String> untouchedExamples = Collections.emptyList();
 
+  // A replacer not currently in use by any thread, re-used by replace(). Only softly referenced,
+  // so that the replacers of rare rules can be garbage collected when memory gets low:
+  private final AtomicReference<SoftReference<DisambiguationPatternRuleReplacer>> idleReplacer = new AtomicReference<>();
+
   /**
    * @param id Id of the Rule
    * @param language Language of the Rule
@@ -98,7 +104,25 @@ public class DisambiguationPatternRule extends AbstractTokenBasedRule {
    * @return {@link AnalyzedSentence} Disambiguated sentence (might be unchanged).
    */
   public final AnalyzedSentence replace(AnalyzedSentence sentence) throws IOException {
-    return canBeIgnoredFor(sentence) ? sentence : new DisambiguationPatternRuleReplacer(this).replace(sentence);
+    if (canBeIgnoredFor(sentence)) {
+      return sentence;
+    }
+    SoftReference<DisambiguationPatternRuleReplacer> ref = idleReplacer.getAndSet(null);
+    DisambiguationPatternRuleReplacer replacer = ref != null ? ref.get() : null;
+    if (replacer == null) {
+      replacer = new DisambiguationPatternRuleReplacer(this);
+      ref = new SoftReference<>(replacer);
+    }
+    AnalyzedSentence result = replacer.replace(sentence);
+    // a replacer that failed might be in an inconsistent state, so it's only re-used on success:
+    idleReplacer.set(ref);
+    return result;
+  }
+
+  @Nullable
+  DisambiguationPatternRuleReplacer getIdleReplacer() {
+    SoftReference<DisambiguationPatternRuleReplacer> ref = idleReplacer.get();
+    return ref != null ? ref.get() : null;
   }
 
   public void setExamples(List<DisambiguatedExample> examples) {
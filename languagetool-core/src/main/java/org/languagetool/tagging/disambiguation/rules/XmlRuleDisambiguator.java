@@ -24,6 +24,7 @@ import org.languagetool.AnalyzedSentence;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMetrics;
 import org.languagetool.rules.patterns.RuleSet;
 import org.languagetool.tagging.disambiguation.AbstractDisambiguator;
 import org.xml.sax.SAXException;
@@ -44,6 +45,7 @@ public class XmlRuleDisambiguator extends AbstractDisambiguator {
   private static final String GLOBAL_DISAMBIGUATION_FILE = "disambiguation-global.xml";
 
   private final RuleSet disambiguationRules;
+  private final String langCode;
   
   public XmlRuleDisambiguator(Language language) {
     // by default, don't use global disambiguation (for now)
@@ -52,6 +54,7 @@ public class XmlRuleDisambiguator extends AbstractDisambiguator {
 
   public XmlRuleDisambiguator(Language language, boolean useGlobalDisambiguation) {
     Objects.requireNonNull(language);
+    langCode = language.getShortCode();
     String disambiguationFile = language.getShortCode() + "/" + DISAMBIGUATION_FILE;
     List<DisambiguationPatternRule> disambiguationRulesList;
     try {
@@ -82,7 +85,9 @@ public class XmlRuleDisambiguator extends AbstractDisambiguator {
       if (checkCanceled != null && checkCanceled.checkCancelled()) {
         break;
       }
+      long startTime = RuleMetrics.startTiming();
       sentence = ((DisambiguationPatternRule) rule).replace(sentence);
+      RuleMetrics.disambiguationRuleDone(langCode, rule.getId(), startTime);
     }
     return sentence;
   }
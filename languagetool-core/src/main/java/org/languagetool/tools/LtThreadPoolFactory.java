@@ -25,6 +25,7 @@ import io.prometheus.client.Counter;
 import io.prometheus.client.Gauge;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
 import java.util.concurrent.*;
@@ -118,6 +119,63 @@ public final class LtThreadPoolFactory {
     }
   }
 
+  /**
+   * Like {@link #createFixedThreadPoolExecutor(String, int, int, int, long, boolean, Thread.UncaughtExceptionHandler, boolean)},
+   * but runs the tasks on virtual threads, so tasks that block on I/O don't occupy a platform thread. Virtual threads
+   * require Java 21 or later, on older JVMs this falls back to (daemon) platform threads, see {@link #isVirtualThreadSupported()}.
+   * Idle threads are removed after 60 seconds.
+   * @param identifier       Name of the thread-pool, will be used as name of the threads in the threadPool
+   * @param maxThreads       Number of parallel threads running in this pool
+   * @param maxTaskInQueue   Number of maximum Task in the pool queue
+   * @param exceptionHandler Handler for exceptions in Thread
+   * @param reuse            True if thread-pool should be reused
+   * @since 5.9
+   */
+  public static ThreadPoolExecutor createVirtualThreadPoolExecutor(@NotNull String identifier, int maxThreads, int maxTaskInQueue, @NotNull Thread.UncaughtExceptionHandler exceptionHandler, boolean reuse) {
+    if (reuse) {
+      return executorServices.computeIfAbsent(identifier, id -> getNewVirtualThreadPoolExecutor(identifier, maxThreads, maxTaskInQueue, exceptionHandler));
+    } else {
+      return getNewVirtualThreadPoolExecutor(identifier, maxThreads, maxTaskInQueue, exceptionHandler);
+    }
+  }
+
+  /**
+   * @return whether the JVM supports virtual threads (Java 21 or later)
+   * @since 5.9
+   */
+  public static boolean isVirtualThreadSupported() {
+    return getVirtualThreadFactory("lt-virtual-thread-check", (thread, throwable) -> {}) != null;
+  }
+
+  private static ThreadPoolExecutor getNewVirtualThreadPoolExecutor(@NotNull String identifier, int maxThreads, int maxTaskInQueue, @NotNull Thread.UncaughtExceptionHandler exceptionHandler) {
+    ThreadFactory threadFactory = getVirtualThreadFactory(identifier, exceptionHandler);
+    if (threadFactory == null) {
+      log.warn(LoggingTools.SYSTEM, "Virtual threads are not supported by this JVM (Java 21 or later needed), using platform threads for pool '{}'", identifier);
+      threadFactory = getThreadFactory(identifier, true, exceptionHandler);
+    }
+    // all threads are core threads, as creating a virtual thread is cheap, but allow them to time out:
+    ThreadPoolExecutor executor = getNewThreadPoolExecutor(identifier, maxThreads, maxThreads, maxTaskInQueue, 60, threadFactory);
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Uses reflection, as virtual threads are only available since Java 21.
+   * @return a factory for virtual threads, or {@code null} if the JVM doesn't support them
+   */
+  @Nullable
+  private static ThreadFactory getVirtualThreadFactory(@NotNull String identifier, @NotNull Thread.UncaughtExceptionHandler exceptionHandler) {
+    try {
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, identifier + "-", 0L);
+      builder = builderClass.getMethod("uncaughtExceptionHandler", Thread.UncaughtExceptionHandler.class).invoke(builder, exceptionHandler);
+      return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
   private static class LtRejectedExecutionHandler extends ThreadPoolExecutor.AbortPolicy {
 
     @Override
@@ -134,6 +192,11 @@ public final class LtThreadPoolFactory {
   @NotNull
   private static ThreadPoolExecutor getNewThreadPoolExecutor(@NotNull String identifier, int corePool, int maxThreads, int maxTaskInQueue, long keepAliveTimeSeconds, boolean isDaemon, @NotNull Thread.UncaughtExceptionHandler exceptionHandler) {
     log.debug(LoggingTools.SYSTEM, String.format("Create new threadPool with corePool: %d maxThreads: %d maxTaskInQueue: %d identifier: %s daemon: %s exceptionHandler: %s", corePool, maxThreads, maxTaskInQueue, identifier, isDaemon, exceptionHandler));
+    return getNewThreadPoolExecutor(identifier, corePool, maxThreads, maxTaskInQueue, keepAliveTimeSeconds, getThreadFactory(identifier, isDaemon, exceptionHandler));
+  }
+
+  @NotNull
+  private static ThreadPoolExecutor getNewThreadPoolExecutor(@NotNull String identifier, int corePool, int maxThreads, int maxTaskInQueue, long keepAliveTimeSeconds, @NotNull ThreadFactory threadFactory) {
     BlockingQueue<Runnable> queue;
     if (maxTaskInQueue == 0) {
       queue = new LinkedBlockingQueue<>();
@@ -143,13 +206,17 @@ public final class LtThreadPoolFactory {
       // fair = true helps with respecting keep-alive time
       queue = new ArrayBlockingQueue<>(maxTaskInQueue, true);
     }
-    ThreadFactory threadFactory = new ThreadFactoryBuilder()
+    ThreadPoolExecutor newThreadPoolExecutor = new LtThreadPoolExecutor(identifier, corePool, maxThreads, keepAliveTimeSeconds, SECONDS, queue, threadFactory, handler);
+    return newThreadPoolExecutor;
+  }
+
+  @NotNull
+  private static ThreadFactory getThreadFactory(@NotNull String identifier, boolean isDaemon, @NotNull Thread.UncaughtExceptionHandler exceptionHandler) {
+    return new ThreadFactoryBuilder()
       .setNameFormat(identifier + "-%d")
       .setDaemon(isDaemon)
       .setUncaughtExceptionHandler(exceptionHandler)
       .build();
-    ThreadPoolExecutor newThreadPoolExecutor = new LtThreadPoolExecutor(identifier, corePool, maxThreads, keepAliveTimeSeconds, SECONDS, queue, threadFactory, handler);
-    return newThreadPoolExecutor;
   }
 
   /**
@@ -18,6 +18,7 @@
  */
 package org.languagetool.tools;
 
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import org.languagetool.*;
@@ -26,6 +27,7 @@ import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.*;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -97,24 +99,10 @@ public class RuleMatchesAsJsonSerializer {
      */
   public String ruleMatchesToJson2(List<CheckResults> res, List<RuleMatch> hiddenMatches, AnnotatedText text, int contextSize,
                                    DetectedLanguage detectedLang, String incompleteResultsReason, boolean showPremiumHint, JLanguageTool.Mode mode) {
-    ContextTools contextTools = new ContextTools();
-    contextTools.setEscapeHtml(false);
-    contextTools.setContextSize(contextSize);
-    contextTools.setErrorMarker(START_MARKER, "");
     StringWriter sw = new StringWriter();
     try {
       try (JsonGenerator g = factory.createGenerator(sw)) {
-        g.writeStartObject();
-        writeSoftwareSection(g, showPremiumHint);
-        writeWarningsSection(g, incompleteResultsReason);
-        writeLanguageSection(g, detectedLang);
-        writeMatchesSection("matches", g, res, text, contextTools);
-        if (hiddenMatches != null && hiddenMatches.size() > 0) {
-          writeMatchesSection("hiddenMatches", g, Collections.singletonList(new CheckResults(hiddenMatches, Collections.emptyList())), text, contextTools);
-        }
-        writeIgnoreRanges(g, res);
-        writeSentenceRanges(g, res);
-        g.writeEndObject();
+        writeJson(g, res, hiddenMatches, text, contextSize, detectedLang, incompleteResultsReason, showPremiumHint);
       }
     } catch (IOException e) {
       throw new RuntimeException(e);
@@ -122,6 +110,41 @@ public class RuleMatchesAsJsonSerializer {
     return sw.toString();
   }
 
+  /**
+   * Like {@link #ruleMatchesToJson2(List, List, AnnotatedText, int, DetectedLanguage, String, boolean, JLanguageTool.Mode)},
+   * but writes the JSON as UTF-8 directly to {@code out} instead of building a string, so large results
+   * don't need to be kept in memory. {@code out} is flushed, but not closed.
+   * @since 5.9
+   */
+  public void ruleMatchesToJson2(OutputStream out, List<CheckResults> res, List<RuleMatch> hiddenMatches, AnnotatedText text, int contextSize,
+                                 DetectedLanguage detectedLang, String incompleteResultsReason, boolean showPremiumHint, JLanguageTool.Mode mode) throws IOException {
+    try (JsonGenerator g = factory.createGenerator(out, JsonEncoding.UTF8)) {
+      g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      // if writing fails, leave the JSON incomplete instead of closing it like a complete result:
+      g.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+      writeJson(g, res, hiddenMatches, text, contextSize, detectedLang, incompleteResultsReason, showPremiumHint);
+    }
+  }
+
+  private void writeJson(JsonGenerator g, List<CheckResults> res, List<RuleMatch> hiddenMatches, AnnotatedText text, int contextSize,
+                         DetectedLanguage detectedLang, String incompleteResultsReason, boolean showPremiumHint) throws IOException {
+    ContextTools contextTools = new ContextTools();
+    contextTools.setEscapeHtml(false);
+    contextTools.setContextSize(contextSize);
+    contextTools.setErrorMarker(START_MARKER, "");
+    g.writeStartObject();
+    writeSoftwareSection(g, showPremiumHint);
+    writeWarningsSection(g, incompleteResultsReason);
+    writeLanguageSection(g, detectedLang);
+    writeMatchesSection("matches", g, res, text, contextTools);
+    if (hiddenMatches != null && hiddenMatches.size() > 0) {
+      writeMatchesSection("hiddenMatches", g, Collections.singletonList(new CheckResults(hiddenMatches, Collections.emptyList())), text, contextTools);
+    }
+    writeIgnoreRanges(g, res);
+    writeSentenceRanges(g, res);
+    g.writeEndObject();
+  }
+
   private void writeSoftwareSection(JsonGenerator g, boolean showPremiumHint) throws IOException {
     if (compactMode == 1) {
       return;
@@ -0,0 +1,110 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.rules.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class DocumentSessionTest {
+
+  private final AtomicInteger checkedSentences = new AtomicInteger();
+
+  @Test
+  public void testIncrementalCheck() throws IOException {
+    JLanguageTool full = getLanguageTool();
+    JLanguageTool incremental = getLanguageTool();
+    incremental.setIncrementalChecking(10, 0);
+    String text = "This is is a test. Another sentence (here.\n\n" +
+                  "This paragraph  has two spaces. And and another one.\n\n" +
+                  "This is the last paragraph. It has has errors, too.";
+    assertSameMatches(full, incremental, text);
+    checkedSentences.set(0);
+    assertSameMatches(full, incremental, text);
+    assertThat(checkedSentences.get(), is(0));
+
+    String changed = text.replace("Another sentence", "Another  sentence");
+    assertSameMatches(full, incremental, changed);
+    assertThat(checkedSentences.get(), is(1));
+
+    checkedSentences.set(0);
+    assertSameMatches(full, incremental, changed.replace("two spaces.", "two spaces. Inserted inserted here."));
+    assertThat(checkedSentences.get(), is(1));
+
+    assertSameMatches(full, incremental, changed.replace("This paragraph  has two spaces. And and another one.\n\n", ""));
+    assertSameMatches(full, incremental, changed + " Appended appended.");
+    assertSameMatches(full, incremental, "This is the first paragraph. It is new.\n\n" + changed);
+    assertSameMatches(full, incremental, "Something completely different.");
+  }
+
+  @Test
+  public void testSessionsAreIndependent() throws IOException {
+    JLanguageTool lt = getLanguageTool();
+    lt.setIncrementalChecking(10, 1);
+    String text1 = "This is is a test. Another sentence.";
+    String text2 = "Here is a test. Another another sentence.";
+    assertThat(check(lt, text1, 1L).size(), is(1));
+    assertThat(check(lt, text2, 2L).size(), is(1));
+    assertThat(check(lt, text1, 1L).get(0).getFromPos(), is(5));
+    assertThat(check(lt, text2, 2L).get(0).getFromPos(), is(16));
+  }
+
+  private JLanguageTool getLanguageTool() {
+    Language lang = new FakeLanguage();
+    ResourceBundle messages = JLanguageTool.getMessageBundle();
+    JLanguageTool lt = new JLanguageTool(lang);
+    lt.addRule(new WordRepeatRule(messages, lang) {
+      @Override
+      public RuleMatch[] match(AnalyzedSentence sentence) {
+        checkedSentences.incrementAndGet();
+        return super.match(sentence);
+      }
+    });
+    lt.addRule(new MultipleWhitespaceRule(messages, lang));
+    lt.addRule(new GenericUnpairedBracketsRule(messages));
+    lt.addRule(new ParagraphRepeatBeginningRule(messages, lang));
+    return lt;
+  }
+
+  private void assertSameMatches(JLanguageTool full, JLanguageTool incremental, String text) throws IOException {
+    int count = checkedSentences.get();
+    String expected = toString(check(full, text, null));
+    checkedSentences.set(count);
+    assertThat(toString(check(incremental, text, 1L)), is(expected));
+  }
+
+  private List<RuleMatch> check(JLanguageTool lt, String text, Long textSessionID) throws IOException {
+    return lt.check(new AnnotatedTextBuilder().addText(text).build(), true, JLanguageTool.ParagraphHandling.NORMAL,
+      null, JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT, textSessionID);
+  }
+
+  private String toString(List<RuleMatch> matches) {
+    return matches.stream()
+      .map(m -> m.getRule().getId() + ":" + m.getFromPos() + "-" + m.getToPos() + ":" + m.getLine() + "/" + m.getColumn())
+      .collect(Collectors.joining(", "));
+  }
+}
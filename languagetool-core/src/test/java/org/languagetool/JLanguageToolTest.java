@@ -52,4 +52,25 @@ public class JLanguageToolTest {
     assertThat(matches2.size(), is(1));
   }
 
+  @Test
+  public void testCopySharesRules() throws IOException {
+    Language lang = Languages.getLanguageForShortCode("xx");
+    JLanguageTool template = new JLanguageTool(lang);
+    List<PatternToken> patternTokens = Arrays.asList(PatternRuleBuilderHelper.token("my"), PatternRuleBuilderHelper.token("test"));
+    template.addRule(new PatternRule("MY_TEST", lang, patternTokens, "test rule desc", "my test rule", "my test rule"));
+    template.disableRule("test_unification_with_negation");
+
+    JLanguageTool copy = new JLanguageTool(template);
+    assertThat(copy.getAllRules().size(), is(template.getAllRules().size()));
+    for (int i = 0; i < template.getAllRules().size(); i++) {
+      assertThat(copy.getAllRules().get(i) == template.getAllRules().get(i), is(true));
+    }
+    assertThat(copy.getDisabledRules(), is(template.getDisabledRules()));
+    assertThat(copy.check("This is my test").size(), is(1));
+
+    copy.disableRule("MY_TEST");
+    assertThat(copy.check("This is my test").size(), is(0));
+    assertThat(template.check("This is my test").size(), is(1));
+  }
+
 }
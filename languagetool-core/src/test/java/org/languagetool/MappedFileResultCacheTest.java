@@ -0,0 +1,145 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.WordRepeatRule;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MappedFileResultCacheTest {
+
+  @Test
+  public void testSharedBetweenInstances() throws IOException {
+    File file = File.createTempFile("result-cache", ".bin");
+    file.deleteOnExit();
+    try (MappedFileResultCache cache1 = new MappedFileResultCache(file.toPath(), 64 * 1024, 256);
+         MappedFileResultCache cache2 = new MappedFileResultCache(file.toPath(), 64 * 1024, 256)) {
+      assertThat(cache2.get(key(1)), is(nullValue()));
+      cache1.put(key(1), new byte[]{1, 2, 3});
+      assertThat(cache2.get(key(1)), is(new byte[]{1, 2, 3}));
+      cache2.put(key(1), new byte[]{4});
+      assertThat(cache1.get(key(1)), is(new byte[]{4}));
+      cache1.put(key(2), new byte[256]);  // too large for a slot
+      assertThat(cache2.get(key(2)), is(nullValue()));
+    }
+    try (MappedFileResultCache cache = new MappedFileResultCache(file.toPath(), 64 * 1024, 256)) {
+      assertThat(cache.get(key(1)), is(new byte[]{4}));
+    }
+    try {
+      new MappedFileResultCache(file.toPath(), 64 * 1024, 512);
+      throw new AssertionError("Expected an exception for a different slot size");
+    } catch (IOException expected) {
+    }
+  }
+
+  @Test
+  public void testEviction() throws IOException {
+    File file = File.createTempFile("result-cache", ".bin");
+    file.deleteOnExit();
+    // a single bucket with four slots:
+    try (MappedFileResultCache cache = new MappedFileResultCache(file.toPath(), 64 + 4 * 128, 128)) {
+      for (int i = 1; i <= 5; i++) {
+        cache.put(key(i), new byte[]{(byte) i});
+      }
+      assertThat(cache.get(key(1)), is(nullValue()));
+      for (int i = 2; i <= 5; i++) {
+        assertThat(cache.get(key(i)), is(new byte[]{(byte) i}));
+      }
+    }
+  }
+
+  @Test
+  public void testResultCacheWithSharedTier() throws IOException {
+    File file = File.createTempFile("result-cache", ".bin");
+    file.deleteOnExit();
+    Language lang = new FakeLanguage();
+    String text = "This is is a test. Here here is another one. No error.";
+    try (MappedFileResultCache sharedCache = new MappedFileResultCache(file.toPath(), 1024 * 1024)) {
+      ResultCache cache1 = new ResultCache(1000, 5, TimeUnit.MINUTES, 0, sharedCache);
+      JLanguageTool lt1 = new JLanguageTool(lang, null, cache1);
+      lt1.addRule(new WordRepeatRule(JLanguageTool.getMessageBundle(), lang));
+      String expected = toString(lt1.check(text));
+      assertThat(cache1.getSharedHitCount(), is(0L));
+
+      // e.g. another server process:
+      ResultCache cache2 = new ResultCache(1000, 5, TimeUnit.MINUTES, 0, sharedCache);
+      JLanguageTool lt2 = new JLanguageTool(lang, null, cache2);
+      lt2.addRule(new WordRepeatRule(JLanguageTool.getMessageBundle(), lang));
+      assertThat(toString(lt2.check(text)), is(expected));
+      assertThat(cache2.getSharedHitCount(), is(3L));
+    }
+  }
+
+  @Test
+  public void testCorruptedSlotIsAMiss() throws IOException {
+    File file = File.createTempFile("result-cache", ".bin");
+    file.deleteOnExit();
+    Language lang = new FakeLanguage();
+    String text = "This is is a test. Here here is another one. No error.";
+    int slotSize = 1024;
+    try (MappedFileResultCache sharedCache = new MappedFileResultCache(file.toPath(), 64 * 1024, slotSize)) {
+      ResultCache cache1 = new ResultCache(1000, 5, TimeUnit.MINUTES, 0, sharedCache);
+      JLanguageTool lt1 = new JLanguageTool(lang, null, cache1);
+      lt1.addRule(new WordRepeatRule(JLanguageTool.getMessageBundle(), lang));
+      String expected = toString(lt1.check(text));
+
+      // e.g. another process that crashed while writing: garbage after the format version of each value
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        byte[] garbage = new byte[slotSize - 8 - 32 - 4 - 1];
+        Arrays.fill(garbage, (byte) 0x7f);
+        for (long slot = 64; slot + slotSize <= raf.length(); slot += slotSize) {
+          raf.seek(slot);
+          if (raf.readLong() != 0) {
+            raf.seek(slot + 8 + 32 + 4 + 1);
+            raf.write(garbage);
+          }
+        }
+      }
+      ResultCache cache2 = new ResultCache(1000, 5, TimeUnit.MINUTES, 0, sharedCache);
+      JLanguageTool lt2 = new JLanguageTool(lang, null, cache2);
+      lt2.addRule(new WordRepeatRule(JLanguageTool.getMessageBundle(), lang));
+      assertThat(toString(lt2.check(text)), is(expected));
+      assertThat(cache2.getSharedHitCount(), is(0L));
+    }
+  }
+
+  private static byte[] key(int i) {
+    byte[] key = new byte[32];
+    key[31] = (byte) i;
+    return key;
+  }
+
+  private static String toString(List<RuleMatch> matches) {
+    return matches.stream().map(m -> m.getSpecificRuleId() + ":" + m.getFromPos() + "-" + m.getToPos() + ":" +
+      m.getMessage() + ":" + m.getSuggestedReplacements()).collect(Collectors.joining("\n"));
+  }
+
+}
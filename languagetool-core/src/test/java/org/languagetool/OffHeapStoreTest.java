@@ -0,0 +1,77 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class OffHeapStoreTest {
+
+  @Test
+  public void testPutAndGet() {
+    OffHeapStore<String> store = new OffHeapStore<>(100);
+    store.put("a", bytes(10, 1));
+    store.put("b", bytes(20, 2));
+    assertThat(store.get("a"), is(bytes(10, 1)));
+    assertThat(store.get("b"), is(bytes(20, 2)));
+    assertThat(store.get("c"), is(nullValue()));
+    assertThat(store.size(), is(2));
+    assertThat(store.usedBytes(), is(30L));
+    assertThat(store.hitCount(), is(2L));
+    assertThat(store.requestCount(), is(3L));
+    store.put("a", bytes(5, 3));
+    assertThat(store.get("a"), is(bytes(5, 3)));
+    assertThat(store.usedBytes(), is(25L));
+    store.remove("b");
+    assertThat(store.get("b"), is(nullValue()));
+    assertThat(store.size(), is(1));
+    assertThat(store.usedBytes(), is(5L));
+  }
+
+  @Test
+  public void testOldestValuesAreOverwritten() {
+    OffHeapStore<Integer> store = new OffHeapStore<>(100, 50);
+    assertThat(store.capacity(), is(100L));
+    for (int i = 0; i < 10; i++) {
+      store.put(i, bytes(20, i));
+    }
+    // two values per segment, the last 10 bytes of each segment are unused:
+    for (int i = 0; i < 6; i++) {
+      assertThat(store.get(i), is(nullValue()));
+    }
+    for (int i = 6; i < 10; i++) {
+      assertThat(store.get(i), is(bytes(20, i)));
+    }
+    assertThat(store.usedBytes(), is(80L));
+    store.put(10, bytes(60, 10));  // larger than a segment
+    assertThat(store.get(10), is(nullValue()));
+    assertThat(store.size(), is(4));
+  }
+
+  private byte[] bytes(int length, int value) {
+    byte[] result = new byte[length];
+    for (int i = 0; i < length; i++) {
+      result[i] = (byte) (value + i);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,142 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.rules.*;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RuleMatchCodecTest {
+
+  @Test
+  public void testEncodeAndDecode() throws IOException {
+    Language lang = new FakeLanguage();
+    Rule rule = new WordRepeatRule(JLanguageTool.getMessageBundle(), lang);
+    AnalyzedSentence sentence = new JLanguageTool(lang).getAnalyzedSentence("This is is a test.");
+    RuleMatch match1 = new RuleMatch(rule, sentence, 5, 10, 4, 11, "Message with <suggestion>is</suggestion>", "short");
+    match1.setSpecificRuleId("SPECIFIC_ID");
+    match1.setUrl(new URL("https://example.org/rule"));
+    match1.setType(RuleMatch.Type.UnknownWord);
+    match1.setAutoCorrect(true);
+    match1.setErrorLimitLang("de");
+    match1.setFeatures(new TreeMap<>(Collections.singletonMap("f", 0.5f)));
+    SuggestedReplacement replacement = new SuggestedReplacement("is", "desc", "suffix");
+    replacement.setConfidence(0.75f);
+    replacement.setType(SuggestedReplacement.SuggestionType.Curated);
+    match1.setSuggestedReplacementObjects(Arrays.asList(replacement, new SuggestedReplacement("it")));
+    RuleMatch match2 = new RuleMatch(rule, null, 0, 4, "Second message ä");
+    match2.setLazySuggestedReplacements(() -> Collections.singletonList(new SuggestedReplacement("lazy")));
+
+    RuleMatchCodec codec = new RuleMatchCodec(false);
+    List<RuleMatch> decoded = codec.decode(codec.encode(Arrays.asList(match1, match2)), sentence);
+    assertDecoded(decoded, match1, match2, rule, sentence);
+
+    RuleMatchCodec portableCodec = new RuleMatchCodec(true);
+    byte[] encoded = portableCodec.encode(Arrays.asList(match1, match2));
+    Map<String, Rule> rules = Collections.singletonMap(rule.getFullId(), rule);
+    assertDecoded(new RuleMatchCodec(true).decode(encoded, sentence, rules::get), match1, match2, rule, sentence);
+    assertThat(new RuleMatchCodec(true).decode(encoded, sentence, id -> null), is(nullValue()));
+    encoded[0]++;  // another format version
+    assertThat(new RuleMatchCodec(true).decode(encoded, sentence, rules::get), is(nullValue()));
+  }
+
+  private void assertDecoded(List<RuleMatch> decoded, RuleMatch match1, RuleMatch match2, Rule rule, AnalyzedSentence sentence) {
+    assertThat(decoded.size(), is(2));
+    assertThat(toString(decoded.get(0)), is(toString(match1)));
+    assertThat(toString(decoded.get(1)), is(toString(match2)));
+    assertThat(decoded.get(0).getRule() == rule, is(true));
+    assertThat(decoded.get(0).getSentence() == sentence, is(true));
+    assertThat(decoded.get(1).getSentence(), is(nullValue()));
+    assertThat(decoded.get(0).getSuggestedReplacementObjects().get(0).getConfidence(), is(0.75f));
+    assertThat(decoded.get(0).getSuggestedReplacementObjects().get(0).getType(), is(SuggestedReplacement.SuggestionType.Curated));
+  }
+
+  @Test
+  public void testResultCacheWithOffHeapTier() throws IOException {
+    Language lang = new FakeLanguage();
+    // the first tier can only keep one sentence, all others are moved to the off-heap tier:
+    ResultCache cache = new ResultCache(2, 5, TimeUnit.MINUTES, 1024 * 1024, null, Runnable::run);
+    JLanguageTool lt = new JLanguageTool(lang, null, cache);
+    lt.addRule(new WordRepeatRule(JLanguageTool.getMessageBundle(), lang));
+    String text = "This is is a test. Here here is another one. And a a third. No error.";
+    JLanguageTool ltWithoutCache = new JLanguageTool(lang);
+    ltWithoutCache.addRule(new WordRepeatRule(JLanguageTool.getMessageBundle(), lang));
+    String expected = toString(ltWithoutCache.check(text));
+    assertThat(toString(lt.check(text)), is(expected));
+    assertThat(cache.getOffHeapSize() > 0, is(true));
+    assertThat(cache.getOffHeapBytes() > 0, is(true));
+    long hitCount = cache.hitCount();
+    assertThat(toString(lt.check(text)), is(expected));
+    assertThat(cache.hitCount() > hitCount, is(true));
+    assertThat(cache.getOffHeapHitRate() > 0, is(true));
+  }
+
+  @Test
+  public void testOffHeapHitCountedOnlyIfDecoded() throws IOException {
+    Language lang = new FakeLanguage();
+    Rule rule = new WordRepeatRule(JLanguageTool.getMessageBundle(), lang);
+    ResultCache cache = new ResultCache(2, 5, TimeUnit.MINUTES, 1024 * 1024, null, Runnable::run);
+    AnalyzedSentence sentence = new JLanguageTool(lang).getAnalyzedSentence("This is is a test.");
+    InputSentence key1 = inputSentence("This is is a test.", lang);
+    InputSentence key2 = inputSentence("Another test.", lang);
+    cache.put(key1, Collections.singletonList(new RuleMatch(rule, sentence, 5, 10, "Message")));
+    cache.put(key2, Collections.singletonList(new RuleMatch(rule, null, 0, 7, "Message")));
+    assertThat(cache.getOffHeapSize(), is(1L));
+    // the analyzed sentence isn't cached, so the matches can't be decoded:
+    assertThat(cache.getIfPresent(key1), is(nullValue()));
+    assertThat(matchesHitCount(cache), is(0L));
+
+    cache.put(new SimpleInputSentence(key1.getText(), lang), sentence);
+    cache.put(key1, Collections.singletonList(new RuleMatch(rule, sentence, 5, 10, "Message")));
+    cache.put(key2, Collections.singletonList(new RuleMatch(rule, null, 0, 7, "Message")));
+    assertThat(cache.getIfPresent(key1).size(), is(1));
+    assertThat(matchesHitCount(cache), is(1L));
+  }
+
+  private long matchesHitCount(ResultCache cache) {
+    return cache.hitCount() - cache.getSentenceCache().stats().hitCount();
+  }
+
+  private InputSentence inputSentence(String text, Language lang) {
+    return new InputSentence(text, lang, null, Collections.emptySet(), Collections.emptySet(), Collections.emptySet(),
+      Collections.emptySet(), new UserConfig(), Collections.emptyList(), JLanguageTool.Mode.ALL, JLanguageTool.Level.DEFAULT);
+  }
+
+  private String toString(List<RuleMatch> matches) {
+    return matches.stream().map(this::toString).collect(Collectors.joining("\n"));
+  }
+
+  private String toString(RuleMatch m) {
+    return m.getSpecificRuleId() + ":" + m.getFromPos() + "-" + m.getToPos() + "/" + m.getPatternFromPos() + "-" + m.getPatternToPos() +
+      ":" + m.getLine() + "/" + m.getColumn() + "-" + m.getEndLine() + "/" + m.getEndColumn() + ":" + m.getMessage() + ":" +
+      m.getShortMessage() + ":" + m.getUrl() + ":" + m.getType() + ":" + m.isAutoCorrect() + ":" + m.getErrorLimitLang() + ":" +
+      m.getFeatures() + ":" + m.getSuggestedReplacementObjects().stream()
+        .map(r -> r.getReplacement() + "/" + r.getShortDescription() + "/" + r.getSuffix() + "/" + r.getConfidence() + "/" + r.getType())
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,117 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool;
+
+import org.junit.Test;
+import org.languagetool.rules.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class StreamingCheckerTest {
+
+  private static final String TEXT =
+    "This is is a test. Another sentence.\n\n" +
+    "This paragraph  has two spaces.\nAnd and a second line.\n\n\n" +
+    "This paragraph also starts with 'This'. Fine.\n\n" +
+    "Here, here is the last paragraph. It has has errors, too.\n";
+
+  @Test
+  public void testSameMatchesAsFullCheck() throws IOException {
+    JLanguageTool lt = getLanguageTool();
+    String expected = toString(lt.check(TEXT));
+    for (int windowSize : new int[] {1, 20, 60, 10_000}) {
+      List<RuleMatch> matches = new ArrayList<>();
+      long count = new StreamingChecker(lt, windowSize, 1).check(new StringReader(TEXT), matches::add);
+      assertThat("window size " + windowSize, toString(matches), is(expected));
+      assertThat(count, is((long) matches.size()));
+    }
+  }
+
+  @Test
+  public void testTextWithoutLineBreaks() throws IOException {
+    JLanguageTool lt = getLanguageTool();
+    String text = TEXT.replace('\n', ' ');
+    String expected = toString(lt.check(text));
+    for (int maxChunkSize : new int[] {40, 60, 10_000}) {
+      List<RuleMatch> matches = new ArrayList<>();
+      new StreamingChecker(lt, 1, 1, maxChunkSize).check(new StringReader(text), matches::add);
+      assertThat("max chunk size " + maxChunkSize, toString(matches), is(expected));
+    }
+  }
+
+  @Test
+  public void testParagraphIterator() throws IOException {
+    JLanguageTool lt = getLanguageTool();
+    List<String> paragraphs = Arrays.asList("This is is a test.", "This  is another test.", "And and the end.");
+    String expected = toString(lt.check(String.join("\n\n", paragraphs)));
+    List<RuleMatch> matches = new ArrayList<>();
+    new StreamingChecker(lt, 1, 1).check(paragraphs.iterator(), matches::add);
+    assertThat(toString(matches), is(expected));
+  }
+
+  @Test
+  public void testSplitParagraphs() {
+    assertThat(split("A.\n\nB.\nC.\n \n\nD.", 100), is(Arrays.asList("A.\n\n", "B.\nC.\n \n\n", "D.")));
+    assertThat(split("A.\nB.\nC.", 2), is(Arrays.asList("A.\n", "B.\n", "C.")));
+    assertThat(split("", 100), is(Collections.emptyList()));
+  }
+
+  @Test
+  public void testSplitLongParagraphs() {
+    // at the last sentence end, at the last whitespace, or anywhere:
+    assertThat(split("A b. C d! E f g h", 100, 10), is(Arrays.asList("A b. C d! ", "E f g h")));
+    assertThat(split("A b c d e f g h", 100, 10), is(Arrays.asList("A b c d e ", "f g h")));
+    assertThat(split("A. bcdefghijklmn", 100, 10), is(Arrays.asList("A. bcdefgh", "ijklmn")));
+    // a line break counts as the start of the paragraph:
+    assertThat(split("A.\nb c defghi. j", 3, 10), is(Arrays.asList("A.\n", "b c defghi", ". j")));
+    assertThat(split("A b c\nd.", 100, 10), is(Arrays.asList("A b c\nd.")));
+  }
+
+  private List<String> split(String text, int maxLength) {
+    return split(text, maxLength, StreamingChecker.DEFAULT_MAX_CHUNK_SIZE);
+  }
+
+  private List<String> split(String text, int maxLength, int maxChunkSize) {
+    List<String> result = new ArrayList<>();
+    new StreamingChecker.ParagraphIterator(new StringReader(text), maxLength, maxChunkSize).forEachRemaining(result::add);
+    return result;
+  }
+
+  private JLanguageTool getLanguageTool() {
+    Language lang = new FakeLanguage();
+    ResourceBundle messages = JLanguageTool.getMessageBundle();
+    JLanguageTool lt = new JLanguageTool(lang);
+    lt.addRule(new WordRepeatRule(messages, lang));
+    lt.addRule(new MultipleWhitespaceRule(messages, lang));
+    lt.addRule(new ParagraphRepeatBeginningRule(messages, lang));
+    return lt;
+  }
+
+  private String toString(List<RuleMatch> matches) {
+    return matches.stream()
+      .map(m -> m.getRule().getId() + ":" + m.getFromPos() + "-" + m.getToPos() + "/" + m.getPatternFromPos() + "-" + m.getPatternToPos())
+      .collect(Collectors.joining(", "));
+  }
+}
@@ -0,0 +1,114 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.language.identifier.detector;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class FastTextModelTest {
+
+  private static final int LOSS_HS = 1;
+  private static final int LOSS_SOFTMAX = 3;
+  private static final double EN = Math.E / (Math.E + 1);  // the embedding of 'hello' is [1, 0], of '</s>' it's [0, 1]
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testSoftmax() throws IOException {
+    FastTextModel model = new FastTextModel(createModel(LOSS_SOFTMAX, 1, 10, 0, 0, false));
+    Map<String, Double> result = model.predict("hello", 2);
+    assertThat(result.keySet().toString(), is("[en, de]"));
+    assertEquals(EN, result.get("en"), 1e-4);
+    assertEquals(1 - EN, result.get("de"), 1e-4);
+    assertThat(model.predict("hello", 1).keySet().toString(), is("[en]"));
+    Map<String, Double> unknown = model.predict("unknown words", 2);
+    assertEquals(0.5, unknown.get("en"), 1e-4);
+    assertEquals(0.5, unknown.get("de"), 1e-4);
+  }
+
+  @Test
+  public void testHierarchicalSoftmax() throws IOException {
+    FastTextModel model = new FastTextModel(createModel(LOSS_HS, 1, 10, 0, 0, false));
+    Map<String, Double> result = model.predict("hello", 2);
+    assertThat(result.keySet().toString(), is("[en, de]"));
+    assertEquals(EN, result.get("en"), 1e-4);
+    assertEquals(1 - EN, result.get("de"), 1e-4);
+  }
+
+  @Test
+  public void testInputIds() throws IOException {
+    // expected bucket ids were calculated with fastText's hash function, modulo the 1000 buckets:
+    FastTextModel words = new FastTextModel(createModel(LOSS_SOFTMAX, 2, 1000, 0, 0, false));
+    assertArrayEquals(new int[]{0, 1, 2 + 714}, words.getInputIds("hello"));
+    assertArrayEquals(new int[]{0, 1, 2 + 714}, words.getInputIds(" hello\t__label__en "));
+    FastTextModel subwords = new FastTextModel(createModel(LOSS_SOFTMAX, 1, 1000, 1, 2, false));
+    assertArrayEquals(new int[]{2 + 750, 2 + 220, 2 + 946, 2 + 77, 2 + 561, 1}, subwords.getInputIds("ab"));
+    assertArrayEquals(new int[]{2 + 627, 2 + 777, 2 + 781, 1}, subwords.getInputIds("é"));
+  }
+
+  @Test(expected = IOException.class)
+  public void testQuantizedModel() throws IOException {
+    new FastTextModel(createModel(LOSS_SOFTMAX, 1, 10, 0, 0, true));
+  }
+
+  private File createModel(int loss, int wordNgrams, int bucket, int minn, int maxn, boolean quantized) throws IOException {
+    String[] entries = {"hello", "</s>", "__label__en", "__label__de"};
+    ByteBuffer buf = ByteBuffer.allocate(1000 + (2 + bucket) * 2 * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    buf.putInt(793712314).putInt(12);
+    // dim, ws, epoch, minCount, neg, wordNgrams, loss, model, bucket, minn, maxn, lrUpdateRate, t:
+    buf.putInt(2).putInt(5).putInt(5).putInt(1).putInt(5).putInt(wordNgrams).putInt(loss).putInt(3)
+      .putInt(bucket).putInt(minn).putInt(maxn).putInt(100).putDouble(1e-4);
+    buf.putInt(entries.length).putInt(2).putInt(2).putLong(100).putLong(quantized ? 0 : -1);
+    long[] counts = {20, 20, 10, 5};
+    for (int i = 0; i < entries.length; i++) {
+      buf.put(entries[i].getBytes(StandardCharsets.UTF_8)).put((byte) 0).putLong(counts[i]).put((byte) (i < 2 ? 0 : 1));
+    }
+    buf.put((byte) 0);
+    buf.putLong(2 + bucket).putLong(2);
+    buf.putFloat(1).putFloat(0);  // hello
+    buf.putFloat(0).putFloat(1);  // </s>
+    for (int i = 0; i < bucket * 2; i++) {
+      buf.putFloat(0);
+    }
+    buf.put((byte) 0);
+    buf.putLong(2).putLong(2);
+    buf.putFloat(2).putFloat(0);  // en (softmax) or the root node (hierarchical softmax)
+    buf.putFloat(0).putFloat(0);  // de
+    File file = tempFolder.newFile();
+    Files.write(file.toPath(), Arrays.copyOf(buf.array(), buf.position()));
+    return file;
+  }
+
+}
@@ -0,0 +1,84 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.language.identifier.detector;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class NGramDetectorTest {
+
+  private static final List<String> LANGS = Arrays.asList("xa", "xb");
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testDetectLanguages() throws IOException {
+    NGramDetector detector = new NGramDetector(createModel(), 50);
+    // "ab" is encoded as <s> ▁ a b, i.e. the bigrams 1_2, 2_3, 3_4
+    Map<String, Double> result = detector.detectLanguages("ab", LANGS);
+    double xa = Math.exp(3 * Math.log(0.5));
+    double xb = Math.exp(Math.log(0.5) + Math.log(0.2) + Math.log(1e-4));
+    assertEquals(xa / (xa + xb), result.get("xa"), 1e-9);
+    assertEquals(xb / (xa + xb), result.get("xb"), 1e-9);
+    assertThat(result.size(), is(2));
+  }
+
+  @Test
+  public void testUnknownText() throws IOException {
+    NGramDetector detector = new NGramDetector(createModel(), 50);
+    Map<String, Double> result = detector.detectLanguages("", LANGS);
+    assertEquals(0.5, result.get("xa"), 1e-9);
+    assertEquals(0.5, result.get("xb"), 1e-9);
+  }
+
+  private File createModel() throws IOException {
+    File zip = tempFolder.newFile("model.zip");
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+      add(out, "iso_codes.tsv", "Lang A\txa\txaa\t1\nLang Z\tNULL\txzz\t0\nLang B\txb\txbb\t1\n");
+      add(out, "vocab.txt", "<unk>\n<s>\n▁\na\nb\n");
+      add(out, "thresholds.txt", "100\n");
+      add(out, "00.txt", "1 2 0.5\n2 3 0.5\n3 4 0.5\n");
+      add(out, "01.txt", "1 2 0.5\n2 3 0.1\n2 3 0.2\n");  // for duplicates, the last one counts
+    }
+    return zip;
+  }
+
+  private static void add(ZipOutputStream out, String name, String content) throws IOException {
+    out.putNextEntry(new ZipEntry(name));
+    out.write(content.getBytes(StandardCharsets.UTF_8));
+    out.closeEntry();
+  }
+
+}
@@ -23,8 +23,7 @@ import org.languagetool.rules.ngrams.FakeLanguageModel;
 import org.languagetool.rules.ngrams.Probability;
 
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.Collections;
+import java.util.*;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
@@ -48,6 +47,53 @@ public class BaseLanguageModelTest {
     }
   }
 
+  @Test
+  public void testPseudoProbabilities() throws IOException {
+    try (FakeLanguageModel lm = new FakeLanguageModel()) {
+      List<List<String>> contexts = Arrays.asList(Arrays.asList("There", "are"), Arrays.asList("no", "data", "here"), Arrays.asList("There", "are", "new"));
+      List<Probability> probs = lm.getPseudoProbabilities(contexts);
+      assertThat(probs.size(), is(3));
+      for (int i = 0; i < contexts.size(); i++) {
+        Probability expected = new FakeLanguageModel().getPseudoProbability(contexts.get(i));
+        assertEquals(expected.getProb(), probs.get(i).getProb(), 0.0);
+        assertThat(probs.get(i).getCoverage(), is(expected.getCoverage()));
+        assertThat(probs.get(i).getOccurrences(), is(expected.getOccurrences()));
+      }
+    }
+  }
+
+  @Test
+  public void testCountsAreDeduplicatedAndCached() {
+    List<List<String>> lookups = new ArrayList<>();
+    BaseLanguageModel lm = new BaseLanguageModel() {
+      @Override
+      protected Map<List<String>, Long> getCountsUncached(List<List<String>> ngrams) {
+        lookups.addAll(ngrams);
+        return super.getCountsUncached(ngrams);
+      }
+      @Override
+      public long getCount(String token1) {
+        return getCount(Collections.singletonList(token1));
+      }
+      @Override
+      public long getCount(List<String> tokens) {
+        return tokens.size();
+      }
+      @Override
+      public long getTotalTokenCount() {
+        return 10;
+      }
+      @Override
+      public void close() {}
+    };
+    Map<List<String>, Long> counts = lm.getCounts(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("a"), Arrays.asList("a", "b")));
+    assertThat(counts.get(Arrays.asList("a", "b")), is(2L));
+    assertThat(counts.get(Collections.singletonList("a")), is(1L));
+    assertThat(lookups.size(), is(2));
+    lm.getPseudoProbabilities(Arrays.asList(Arrays.asList("a", "b", "c"), Arrays.asList("a", "b")));
+    assertThat(lookups, is(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("a"), Arrays.asList("a", "b", "c"))));
+  }
+
   @Test(expected = IndexOutOfBoundsException.class)
   public void testPseudoProbabilityFail1() throws IOException {
     try (FakeLanguageModel lm = new FakeLanguageModel()) {
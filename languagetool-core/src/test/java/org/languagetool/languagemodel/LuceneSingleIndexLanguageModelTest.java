@@ -25,6 +25,8 @@ import org.languagetool.JLanguageTool;
 import java.io.File;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -40,6 +42,12 @@ public class LuceneSingleIndexLanguageModelTest extends LanguageModelTest {
       assertThat(model.getCount(Arrays.asList("the", "nice", "building")), is(1L));
       assertThat(model.getCount("not-in-here"), is(0L));
       assertThat(model.getTotalTokenCount(), is(3L));
+      Map<List<String>, Long> counts = model.getCounts(Arrays.asList(Arrays.asList("the"), Arrays.asList("the", "nice"),
+        Arrays.asList("the", "nice", "building"), Arrays.asList("not-in-here")));
+      assertThat(counts.get(Arrays.asList("the")), is(55L));
+      assertThat(counts.get(Arrays.asList("the", "nice")), is(3L));
+      assertThat(counts.get(Arrays.asList("the", "nice", "building")), is(1L));
+      assertThat(counts.get(Arrays.asList("not-in-here")), is(0L));
     }
   }
 
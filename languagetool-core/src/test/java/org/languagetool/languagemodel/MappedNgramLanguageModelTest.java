@@ -0,0 +1,98 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.languagemodel;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class MappedNgramLanguageModelTest {
+
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  @Test
+  public void testLanguageModel() throws Exception {
+    File dir = tempFolder.newFolder();
+    assertThat(MappedNgramLanguageModel.exists(dir), is(false));
+    try (MappedNgramLanguageModel.Writer writer = new MappedNgramLanguageModel.Writer(dir, 5, 3)) {
+      writer.add("the", 50);
+      writer.add("the nice", 3);
+      writer.add("the nice building", 1);
+      writer.add("nice", 7);
+      writer.add("the", 5);  // e.g. from another index
+      writer.setTotalTokenCount(3);
+      assertThat(writer.getSize(), is(4L));
+    }
+    assertThat(MappedNgramLanguageModel.exists(dir), is(true));
+    try (MappedNgramLanguageModel model = new MappedNgramLanguageModel(dir)) {
+      assertThat(model.getCount("the"), is(55L));
+      assertThat(model.getCount(Arrays.asList("the", "nice")), is(3L));
+      assertThat(model.getCount(Arrays.asList("the", "nice", "building")), is(1L));
+      assertThat(model.getCount("nice"), is(7L));
+      assertThat(model.getCount("not-in-here"), is(0L));
+      assertThat(model.getCount(Arrays.asList("nice", "the")), is(0L));
+      assertThat(model.getTotalTokenCount(), is(3L));
+    }
+  }
+
+  @Test
+  public void testManyNgrams() throws Exception {
+    File dir = tempFolder.newFolder();
+    int count = 10_000;
+    try (MappedNgramLanguageModel.Writer writer = new MappedNgramLanguageModel.Writer(dir, count, 2)) {
+      for (int i = 0; i < count; i++) {
+        writer.add("token" + i + " next", i);
+      }
+    }
+    try (MappedNgramLanguageModel model = new MappedNgramLanguageModel(dir)) {
+      for (int i = 0; i < count; i++) {
+        assertThat(model.getCount(Arrays.asList("token" + i, "next")), is((long) i));
+      }
+      assertThat(model.getCount(Arrays.asList("token" + count, "next")), is(0L));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testTooManyNgrams() throws Exception {
+    try (MappedNgramLanguageModel.Writer writer = new MappedNgramLanguageModel.Writer(tempFolder.newFolder(), 10, 1)) {
+      for (int i = 0; i < 100; i++) {
+        writer.add("token" + i, 1);
+      }
+    }
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testNgramTooLong() throws Exception {
+    File dir = tempFolder.newFolder();
+    try (MappedNgramLanguageModel.Writer writer = new MappedNgramLanguageModel.Writer(dir, 1, 2)) {
+      writer.add("the", 1);
+    }
+    try (MappedNgramLanguageModel model = new MappedNgramLanguageModel(dir)) {
+      model.getCount(Arrays.asList("a", "b", "c"));
+    }
+  }
+
+}
@@ -0,0 +1,68 @@
+/* LanguageTool, a natural language style checker 
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ * 
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.markup;
+
+/**
+ * Measure the time needed to map plain text positions to original positions for a text
+ * with a lot of markup, as is typical for HTML or DOCX input.
+ * Not a unit test, for interactive use only.
+ */
+final class AnnotatedTextPerformanceTest {
+
+  private static final int RUNS = 10;
+  private static final int SKIP = 3;
+
+  private void run(int parts, int lookups) {
+    AnnotatedTextBuilder builder = new AnnotatedTextBuilder();
+    for (int i = 0; i < parts; i++) {
+      builder.addText("This is sentence number " + i + ". ");
+      builder.addMarkup("<span class='x" + i + "'>");
+      if (i % 10 == 0) {
+        builder.addMarkup("<p>", "\n\n");
+      }
+    }
+    AnnotatedText text = builder.build();
+    int plainTextLength = text.getPlainText().length();
+    System.out.println("Parts: " + parts + ", plain text length: " + plainTextLength + ", lookups per run: " + lookups);
+    long totalTime = 0;
+    for (int i = 0; i < RUNS + SKIP; i++) {
+      long startTime = System.nanoTime();
+      long sum = 0;
+      for (int j = 0; j < lookups; j++) {
+        int pos = (int) ((long) j * 7919 % plainTextLength);
+        sum += text.getOriginalTextPositionFor(pos, false);
+        sum += text.getOriginalTextPositionFor(pos, true);
+      }
+      long runTime = (System.nanoTime() - startTime) / 1000;
+      if (i >= SKIP) {
+        totalTime += runTime;
+        System.out.println("Time: " + runTime + "µs (checksum " + sum + ")");
+      } else {
+        System.out.println("Time: " + runTime + "µs (checksum " + sum + ") - skipped because of warm-up");
+      }
+    }
+    System.out.println("Avg. Time: " + (float)totalTime/RUNS + "µs");
+  }
+
+  public static void main(String[] args) {
+    AnnotatedTextPerformanceTest test = new AnnotatedTextPerformanceTest();
+    test.run(args.length > 0 ? Integer.parseInt(args[0]) : 20_000, args.length > 1 ? Integer.parseInt(args[1]) : 10_000);
+  }
+
+}
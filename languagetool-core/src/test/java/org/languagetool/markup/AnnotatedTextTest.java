@@ -21,6 +21,10 @@ package org.languagetool.markup;
 import org.junit.Test;
 import org.languagetool.tools.ContextTools;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.*;
 
@@ -71,4 +75,35 @@ public class AnnotatedTextTest {
     assertThat(contextTools.getContext(14, 18, text.getTextWithMarkup()), is("hello <p>more #xxxx# text!"));
   }
 
+  @Test
+  public void testManyMarkupParts() {
+    Random rnd = new Random(42);
+    AnnotatedTextBuilder builder = new AnnotatedTextBuilder();
+    List<Integer> originalPositions = new ArrayList<>();  // original position of each plain text char
+    int totalPosition = 0;
+    for (int i = 0; i < 1000; i++) {
+      String text = "word" + i + " ";
+      builder.addText(text);
+      for (int j = 0; j < text.length(); j++) {
+        originalPositions.add(totalPosition++);
+      }
+      if (rnd.nextBoolean()) {
+        String markup = "<span id='" + i + "'>";
+        builder.addMarkup(markup);
+        totalPosition += markup.length();
+      }
+    }
+    AnnotatedText text = builder.build();
+    for (int i = 0; i < originalPositions.size(); i++) {
+      assertThat(text.getOriginalTextPositionFor(i, false), is(originalPositions.get(i)));
+      assertThat(text.getOriginalTextPositionFor(i, true), is(originalPositions.get(i)));
+    }
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testPositionAfterEnd() {
+    AnnotatedText text = new AnnotatedTextBuilder().addText("hello ").addMarkup("<b>").addText("user!").build();
+    text.getOriginalTextPositionFor(11, false);
+  }
+
 }
@@ -0,0 +1,76 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.rules;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+import org.languagetool.TestTools;
+import org.languagetool.language.Demo;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class RuleMetricsTest {
+
+  @Test
+  public void testCheckIsCounted() throws IOException {
+    Demo demoLanguage = new Demo();
+    JLanguageTool lt = new JLanguageTool(demoLanguage);
+    lt.addRule(new FakeRule("RULE_METRICS_TEST_RULE"));
+    lt.addRule(new WordRepeatRule(TestTools.getEnglishMessages(), demoLanguage) {
+      @Override
+      public String getId() {
+        return "RULE_METRICS_TEST_REPEAT";
+      }
+    });
+    lt.check("This is is a test. Another test. A third one one.");
+    RuleMetrics.RuleStats fakeRuleStats = getStats("RULE_METRICS_TEST_RULE");
+    assertThat(fakeRuleStats.getLangCode(), is(demoLanguage.getShortCode()));
+    assertThat(fakeRuleStats.getInvocations(), is(3L));
+    assertThat(fakeRuleStats.getMatches(), is(0L));
+    assertThat(getStats("RULE_METRICS_TEST_REPEAT").getMatches(), is(2L));
+  }
+
+  @Test
+  public void testSampling() {
+    for (int i = 0; i < 1000; i++) {
+      RuleMetrics.ruleDone("xx", "RULE_METRICS_SAMPLING_TEST", RuleMetrics.startTiming(), 1);
+    }
+    RuleMetrics.RuleStats stats = getStats("RULE_METRICS_SAMPLING_TEST");
+    assertThat(stats.getInvocations(), is(1000L));
+    assertThat(stats.getMatches(), is(1000L));
+    assertTrue(stats.getEstimatedNanos() > 0);
+    List<RuleMetrics.RuleStats> top = RuleMetrics.getTopRulesByTime(RuleMetrics.getRuleStats(), 1);
+    assertThat(top.size(), is(1));
+  }
+
+  private RuleMetrics.RuleStats getStats(String ruleId) {
+    List<RuleMetrics.RuleStats> stats = RuleMetrics.getRuleStats().stream()
+      .filter(s -> s.getRuleId().equals(ruleId))
+      .collect(Collectors.toList());
+    assertThat(stats.size(), is(1));
+    return stats.get(0);
+  }
+
+}
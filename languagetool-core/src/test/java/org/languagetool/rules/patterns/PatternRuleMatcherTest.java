@@ -27,10 +27,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.BeforeClass;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.languagetool.AnalyzedSentence;
+import org.languagetool.AnalyzedTokenReadings;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Languages;
 import org.languagetool.language.Demo;
@@ -477,6 +483,75 @@ public class PatternRuleMatcherTest {
     assertFalse(ruleMatch2.equals(ruleMatch3));
   }
 
+  @Test
+  public void testMatcherReuse() throws Exception {
+    PatternRule rule = getPatternRule("my test");
+    assertNull(rule.getIdleMatcher());
+    assertThat(rule.match(lt.getAnalyzedSentence("This is my test.")).length, is(1));
+    PatternRuleMatcher matcher = rule.getIdleMatcher();
+    assertNotNull(matcher);
+    assertThat(rule.match(lt.getAnalyzedSentence("This test is not my fault.")).length, is(0));
+    assertThat(rule.match(lt.getAnalyzedSentence("my test and my test")).length, is(2));
+    assertSame(matcher, rule.getIdleMatcher());
+  }
+
+  @Test
+  public void testFailedMatcherIsNotReused() throws Exception {
+    PatternRule rule = getPatternRule("my test");
+    rule.setFilter(new RuleFilter() {
+      @Override
+      public RuleMatch acceptRuleMatch(RuleMatch match, Map<String, String> arguments, int patternTokenPos, AnalyzedTokenReadings[] patternTokens) {
+        throw new IllegalStateException("filter failed");
+      }
+    });
+    rule.setFilterArguments("");
+    assertThat(rule.match(lt.getAnalyzedSentence("This test is not my fault.")).length, is(0));
+    PatternRuleMatcher matcher = rule.getIdleMatcher();
+    assertNotNull(matcher);
+    try {
+      rule.match(lt.getAnalyzedSentence("This is my test."));
+      fail();
+    } catch (RuntimeException expected) {
+    }
+    assertNull(rule.getIdleMatcher());
+    assertThat(rule.match(lt.getAnalyzedSentence("This test is not my fault.")).length, is(0));
+    assertNotSame(matcher, rule.getIdleMatcher());
+  }
+
+  @Test
+  public void testConcurrentMatching() throws Exception {
+    PatternToken patternTokenB = makeElement("b");
+    patternTokenB.setMinOccurrence(0);
+    PatternRule rule = getPatternRule(Arrays.asList(makeElement("a"), patternTokenB, makeElement("c")));
+    List<AnalyzedSentence> sentences = new ArrayList<>();
+    List<String> expected = new ArrayList<>();
+    for (String text : Arrays.asList("a b c FOO a b c FOO a c a b c", "a X c", "b a c", "a c", "c a b")) {
+      AnalyzedSentence sentence = lt.getAnalyzedSentence(text);
+      sentences.add(sentence);
+      expected.add(Arrays.toString(new PatternRuleMatcher(rule, false).match(sentence)));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        futures.add(executor.submit(() -> {
+          for (int i = 0; i < 500; i++) {
+            int idx = i % sentences.size();
+            if (!Arrays.toString(rule.match(sentences.get(idx))).equals(expected.get(idx))) {
+              return false;
+            }
+          }
+          return true;
+        }));
+      }
+      for (Future<Boolean> future : futures) {
+        assertTrue(future.get());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   private RuleMatch[] getMatches(String input, PatternRuleMatcher matcher) throws IOException {
     return matcher.match(lt.getAnalyzedSentence(input));
   }
@@ -26,6 +26,7 @@ import org.languagetool.FakeLanguage;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.languagetool.rules.patterns.PatternRuleBuilderHelper.*;
@@ -64,15 +65,66 @@ public class RuleSetTest {
     PatternToken unsuitable = new PatternTokenBuilder().csToken("unsuitable").matchInflectedForms().build();
     assertRulesForSentence(textLemmaHinted(Collections.singletonList(ruleOf(unsuitable))));
 
-    PatternRule unrelated = ruleOf(pos("somePos"));
+    PatternRule unrelated = ruleOf(posRegex(".*Pos"));
     assertRulesForSentence(textLemmaHinted(Arrays.asList(ruleOf(unsuitable), unrelated)), unrelated);
   }
 
+  @Test
+  public void allHintsAreHonored() {
+    PatternRule suitable = ruleOf(Arrays.asList(token("token"), new PatternTokenBuilder().token("lemma").matchInflectedForms().build()));
+    PatternRule unsuitable = ruleOf(Arrays.asList(token("token"), token("unsuitable")));
+    assertRulesForSentence(textLemmaHinted(Arrays.asList(unsuitable, suitable)), suitable);
+    assertRulesForSentence(RuleSet.textHinted(Arrays.asList(unsuitable, suitable)), suitable);
+  }
+
+  @Test
+  public void posTagHintsAreHonored() {
+    PatternRule suitable1 = ruleOf(pos("pos"));
+    PatternRule suitable2 = ruleOf(posRegex("po.*"));
+    PatternRule suitable3 = ruleOf(posRegex("pos|other"));
+    PatternRule unsuitable1 = ruleOf(pos("somePos"));
+    PatternRule unsuitable2 = ruleOf(posRegex("x.*"));
+    assertRulesForSentence(textLemmaHinted(Arrays.asList(suitable1, unsuitable1, suitable2, unsuitable2, suitable3)),
+      suitable1, suitable2, suitable3);
+    // disambiguation rules can change POS tags, so textHinted must not filter on them:
+    assertRulesForSentence(RuleSet.textHinted(Arrays.asList(suitable1, unsuitable1)), suitable1, unsuitable1);
+  }
+
+  @Test
+  public void substringHintsAreHonored() {
+    PatternRule suitable1 = ruleOf(tokenRegex(".*ok.*"));
+    PatternRule suitable2 = ruleOf(csRegex("T.*n"));
+    PatternRule suitable3 = ruleOf(new PatternTokenBuilder().tokenRegex("le.*a").matchInflectedForms().build());
+    PatternRule unsuitable1 = ruleOf(tokenRegex(".*xyz.*"));
+    PatternRule unsuitable2 = ruleOf(new PatternTokenBuilder().tokenRegex("to.*n").matchInflectedForms().build());
+    assertRulesForSentence(textLemmaHinted(Arrays.asList(suitable1, unsuitable1, suitable2, unsuitable2, suitable3)),
+      suitable1, suitable2, suitable3);
+  }
+
+  @Test
+  public void greekSigmaHintsAreHonored() {
+    // a capital sigma lower-cases to a final sigma at the end of a hint, but not inside the sentence's token:
+    AnalyzedSentence sentence = new AnalyzedSentence(new AnalyzedTokenReadings[]{new AnalyzedTokenReadings(
+      new AnalyzedToken("ΟΣΑ", "pos", "όσος")
+    )});
+    PatternRule suitable1 = ruleOf(tokenRegex(".*ΟΣ.*"));
+    PatternRule suitable2 = ruleOf(tokenRegex("ΟΣ.*"));
+    PatternRule suitable3 = ruleOf(new PatternTokenBuilder().tokenRegex("ΌΣ.*").matchInflectedForms().build());
+    PatternRule suitable4 = ruleOf(new PatternTokenBuilder().token("ΌΣΟΣ").matchInflectedForms().build());
+    PatternRule unsuitable = ruleOf(tokenRegex(".*ΟΣΟ.*"));
+    List<PatternRule> rules = Arrays.asList(suitable1, suitable2, suitable3, suitable4, unsuitable);
+    assertEquals(Arrays.asList(suitable1, suitable2, suitable3, suitable4), textLemmaHinted(rules).rulesForSentence(sentence));
+  }
+
   private static void assertRulesForSentence(RuleSet ruleSet, PatternRule... expected) {
     assertEquals(Arrays.asList(expected), ruleSet.rulesForSentence(sampleSentence));
   }
 
   private static PatternRule ruleOf(PatternToken token) {
-    return new PatternRule("", new FakeLanguage(), Collections.singletonList(token), "", "", "");
+    return ruleOf(Collections.singletonList(token));
+  }
+
+  private static PatternRule ruleOf(List<PatternToken> tokens) {
+    return new PatternRule("", new FakeLanguage(), tokens, "", "", "");
   }
 }
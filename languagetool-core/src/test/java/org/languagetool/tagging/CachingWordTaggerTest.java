@@ -0,0 +1,47 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.tagging;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CachingWordTaggerTest {
+
+  @Test
+  public void testTag() throws Exception {
+    ManualTagger manualTagger = new ManualTagger(JLanguageTool.getDataBroker().getFromResourceDirAsStream("/xx/added1.txt"));
+    CachingWordTagger tagger = new CachingWordTagger(manualTagger, 10);
+    assertThat(tagger.tag("nosuchword").size(), is(0));
+    assertThat(tagger.tag("nosuchword").size(), is(0));
+    List<TaggedWord> result = tagger.tag("fullform");
+    assertThat(result.toString(), is("[baseform1/POSTAG1]"));
+    result.clear();  // must not modify the cached result
+    assertThat(tagger.tag("fullform").toString(), is("[baseform1/POSTAG1]"));
+    assertThat(tagger.requestCount(), is(4L));
+    assertThat(tagger.hitCount(), is(2L));
+    assertThat(tagger.missCount(), is(2L));
+    assertThat(tagger.size(), is(2L));
+  }
+
+}
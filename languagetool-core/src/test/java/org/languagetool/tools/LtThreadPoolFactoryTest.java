@@ -64,6 +64,23 @@ public class LtThreadPoolFactoryTest {
     assertEquals(LtThreadPoolFactory.defaultPool, LtThreadPoolFactory.getFixedThreadPoolExecutor("Test-Pool-notCached").get());
   }
 
+  @Test
+  public void virtualThreadPoolTest() throws Exception {
+    ThreadPoolExecutor myThreadPool = LtThreadPoolFactory.createVirtualThreadPoolExecutor(
+      "Test-Pool-virtual",
+      10,
+      0,
+      (thread, throwable) -> {
+        System.out.println(throwable.getClass());
+      },
+      false);
+    Thread thread = myThreadPool.submit(Thread::currentThread).get();
+    assertTrue(thread.getName().startsWith("Test-Pool-virtual-"));
+    assertTrue(thread.isDaemon());
+    assertTrue(myThreadPool.allowsCoreThreadTimeOut());
+    myThreadPool.shutdownNow();
+  }
+
   @Test
   @Ignore //Could fail if CI is to slow and will slow down the CI build; test local
   public void stressedQueueTest() {
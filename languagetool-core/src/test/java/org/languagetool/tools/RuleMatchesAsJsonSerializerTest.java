@@ -20,12 +20,17 @@ package org.languagetool.tools;
 
 import org.junit.Test;
 import org.languagetool.*;
+import org.languagetool.markup.AnnotatedText;
+import org.languagetool.markup.AnnotatedTextBuilder;
 import org.languagetool.rules.ITSIssueType;
 import org.languagetool.rules.Rule;
 import org.languagetool.rules.RuleMatch;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -54,6 +59,17 @@ public class RuleMatchesAsJsonSerializerTest {
   public RuleMatchesAsJsonSerializerTest() throws IOException {
   }
 
+  @Test
+  public void testJsonToStream() throws IOException {
+    DetectedLanguage lang = new DetectedLanguage(Languages.getLanguageForShortCode("xx-XX"), Languages.getLanguageForShortCode("xx-XX")) ;
+    AnnotatedText text = new AnnotatedTextBuilder().addText("This is an text, ä.").build();
+    List<CheckResults> res = Collections.singletonList(new CheckResults(matches, Collections.emptyList()));
+    String json = serializer.ruleMatchesToJson2(res, null, text, 5, lang, "timeout", false, JLanguageTool.Mode.ALL);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    serializer.ruleMatchesToJson2(out, res, null, text, 5, lang, "timeout", false, JLanguageTool.Mode.ALL);
+    assertEquals(json, new String(out.toByteArray(), StandardCharsets.UTF_8));
+  }
+
   @Test
   public void testJson() {
     DetectedLanguage lang = new DetectedLanguage(Languages.getLanguageForShortCode("xx-XX"), Languages.getLanguageForShortCode("xx-XX")) ;
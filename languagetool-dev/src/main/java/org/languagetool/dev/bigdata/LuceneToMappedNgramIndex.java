@@ -0,0 +1,133 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.dev.bigdata;
+
+import org.apache.lucene.index.*;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.languagetool.languagemodel.LuceneSingleIndexLanguageModel;
+import org.languagetool.languagemodel.MappedNgramLanguageModel;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Converts the Lucene ngram indexes of a language (e.g. {@code ngrams/en}, with {@code 1grams}, {@code 2grams}, ...
+ * sub directories, or with {@code index-1}, {@code index-2}, ... directories that contain those) to the
+ * single file used by {@link MappedNgramLanguageModel}. The file is written to the same directory and
+ * is then used instead of the Lucene indexes.
+ * @since 5.9
+ */
+final class LuceneToMappedNgramIndex {
+
+  private static final int MAX_NGRAM = 4;
+
+  private LuceneToMappedNgramIndex() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      System.out.println("Usage: " + LuceneToMappedNgramIndex.class.getSimpleName() + " <ngramIndexDir>");
+      System.out.println("  <ngramIndexDir> is the directory with the ngram index of one language, e.g. 'ngrams/en'");
+      System.exit(1);
+    }
+    File topIndexDir = new File(args[0]);
+    List<File> indexDirs = getIndexDirs(topIndexDir);
+    long maxEntries = 0;
+    int maxNgram = 0;
+    long totalTokenCount = 0;
+    for (File indexDir : indexDirs) {
+      for (int ngramSize = 1; ngramSize <= MAX_NGRAM; ngramSize++) {
+        File ngramDir = new File(indexDir, ngramSize + "grams");
+        if (ngramDir.isDirectory()) {
+          try (IndexReader reader = DirectoryReader.open(FSDirectory.open(ngramDir.toPath()))) {
+            maxEntries += reader.numDocs();
+          }
+          maxNgram = Math.max(maxNgram, ngramSize);
+        }
+      }
+      LuceneSingleIndexLanguageModel lm = new LuceneSingleIndexLanguageModel(indexDir);
+      totalTokenCount += lm.getTotalTokenCount();
+      lm.close();
+    }
+    System.out.println("Converting " + indexDirs + " with up to " + maxEntries + " ngrams, " +
+      "total token count " + totalTokenCount);
+    long startTime = System.currentTimeMillis();
+    try (MappedNgramLanguageModel.Writer writer = new MappedNgramLanguageModel.Writer(topIndexDir, maxEntries, maxNgram)) {
+      writer.setTotalTokenCount(totalTokenCount);
+      for (File indexDir : indexDirs) {
+        for (int ngramSize = 1; ngramSize <= maxNgram; ngramSize++) {
+          File ngramDir = new File(indexDir, ngramSize + "grams");
+          if (ngramDir.isDirectory()) {
+            addIndex(ngramDir, writer);
+          }
+        }
+      }
+      System.out.println("Writing " + writer.getSize() + " different ngrams to " +
+        new File(topIndexDir, MappedNgramLanguageModel.FILE_NAME));
+    }
+    System.out.println("Done in " + (System.currentTimeMillis() - startTime) / 1000 + "s");
+  }
+
+  private static List<File> getIndexDirs(File topIndexDir) {
+    File[] subDirs = topIndexDir.listFiles((file, name) -> name.matches("index-\\d+"));
+    if (subDirs != null && subDirs.length > 0) {
+      return Arrays.asList(subDirs);
+    }
+    List<File> result = new ArrayList<>();
+    result.add(topIndexDir);
+    return result;
+  }
+
+  private static void addIndex(File ngramDir, MappedNgramLanguageModel.Writer writer) throws IOException {
+    System.out.println("Adding " + ngramDir + "...");
+    try (IndexReader reader = DirectoryReader.open(FSDirectory.open(ngramDir.toPath()))) {
+      // the 'ngram' field is usually not stored, so iterate its terms instead of the documents:
+      Terms terms = MultiFields.getTerms(reader, "ngram");
+      if (terms == null) {
+        return;
+      }
+      Bits liveDocs = MultiFields.getLiveDocs(reader);
+      TermsEnum termsEnum = terms.iterator();
+      PostingsEnum postings = null;
+      long termCount = 0;
+      BytesRef term;
+      while ((term = termsEnum.next()) != null) {
+        postings = termsEnum.postings(postings, PostingsEnum.NONE);
+        long count = 0;
+        int docId;
+        while ((docId = postings.nextDoc()) != DocIdSetIterator.NO_MORE_DOCS) {
+          if (liveDocs == null || liveDocs.get(docId)) {
+            count += Long.parseLong(reader.document(docId).get("count"));
+          }
+        }
+        writer.add(term.utf8ToString(), count);
+        if (++termCount % 1_000_000 == 0) {
+          System.out.println(termCount + "/" + reader.numDocs() + "...");
+        }
+      }
+    }
+  }
+
+}
@@ -19,17 +19,14 @@
 package org.languagetool.remote;
 
 import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import javax.xml.stream.XMLStreamException;
 import java.io.*;
 import java.net.*;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.util.*;
 
 /**
  * Check a text using a <a href="https://dev.languagetool.org/http-server">remote LanguageTool server</a> via HTTP or HTTPS.
@@ -41,6 +38,7 @@ import java.util.Objects;
 public class RemoteLanguageTool {
 
   private static final String V2_CHECK = "/v2/check";
+  private static final String V2_CHECK_BATCH = "/v2/check/batch";
   private static final String V2_MAXTEXTLENGTH = "/v2/maxtextlength";
   private static final String V2_CONFIGINFO = "/v2/configinfo";
   
@@ -73,9 +71,38 @@ public class RemoteLanguageTool {
     return check(getUrlParams(text, config));
   }
 
+  /**
+   * Check several texts with the same configuration in one request. This is faster than
+   * calling {@link #check(String, CheckConfiguration)} for each text, as the server
+   * checks the texts in parallel. Guessing the language is not supported.
+   * @param texts the texts to be checked
+   * @return one result per text, in the same order as the texts
+   * @since 5.9
+   */
+  public List<RemoteResult> check(List<String> texts, CheckConfiguration config) {
+    if (config.guessLanguage()) {
+      throw new IllegalArgumentException("Guessing the language is not supported for batch checks, please specify a language");
+    }
+    List<Map<String, String>> items = new ArrayList<>();
+    for (String text : texts) {
+      items.add(Collections.singletonMap("text", text));
+    }
+    String data;
+    try {
+      data = mapper.writeValueAsString(Collections.singletonMap("items", items));
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException(e);
+    }
+    return checkBatch(getUrlParams("data", data, config));
+  }
+
   private String getUrlParams(String text, CheckConfiguration config) {
+    return getUrlParams("text", text, config);
+  }
+
+  private String getUrlParams(String textParamName, String text, CheckConfiguration config) {
     StringBuilder params = new StringBuilder();
-    append(params, "text", text);
+    append(params, textParamName, text);
     if (config.getMotherTongueLangCode() != null) {
       append(params, "motherTongue", config.getMotherTongueLangCode());
     }
@@ -131,10 +158,18 @@ public class RemoteLanguageTool {
   }
 
   private RemoteResult check(String urlParameters) {
+    return post(V2_CHECK, urlParameters, this::parseJson);
+  }
+
+  private List<RemoteResult> checkBatch(String urlParameters) {
+    return post(V2_CHECK_BATCH, urlParameters, this::parseBatchJson);
+  }
+
+  private <T> T post(String path, String urlParameters, ResponseParser<T> parser) {
     byte[] postData = urlParameters.getBytes(StandardCharsets.UTF_8);
     URL checkUrl;
     try {
-      checkUrl = new URL(serverBaseUrl + V2_CHECK);
+      checkUrl = new URL(serverBaseUrl + path);
     } catch (MalformedURLException e) {
       throw new RuntimeException(e);
     }
@@ -142,7 +177,7 @@ public class RemoteLanguageTool {
     try {
       if (conn.getResponseCode() == HttpURLConnection.HTTP_OK) {
         try (InputStream inputStream = conn.getInputStream()) {
-          return parseJson(inputStream);
+          return parser.parse(inputStream);
         }
       } else {
         try (InputStream inputStream = conn.getErrorStream()) {
@@ -256,8 +291,20 @@ public class RemoteLanguageTool {
     return sb.toString();
   }
 
-  private RemoteResult parseJson(InputStream inputStream) throws XMLStreamException, IOException {
+  private RemoteResult parseJson(InputStream inputStream) throws IOException {
+    return parseResult(mapper.readValue(inputStream, Map.class));
+  }
+
+  private List<RemoteResult> parseBatchJson(InputStream inputStream) throws IOException {
     Map map = mapper.readValue(inputStream, Map.class);
+    List<RemoteResult> result = new ArrayList<>();
+    for (Object item : (List) getRequired(map, "results")) {
+      result.add(parseResult((Map) item));
+    }
+    return result;
+  }
+
+  private RemoteResult parseResult(Map map) {
     Map<String, String> languageObj = (Map<String, String>) map.get("language");
     String language = languageObj.get("name");
     String languageCode = languageObj.get("code");
@@ -334,4 +381,8 @@ public class RemoteLanguageTool {
     return l;
   }
 
+  private interface ResponseParser<T> {
+    T parse(InputStream inputStream) throws IOException;
+  }
+
 }
@@ -28,6 +28,8 @@ import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
@@ -47,6 +49,17 @@ public class RemoteLanguageToolTest {
     assertThat(result3.getMatches().get(0).getUrl().get(), is("https://fake.org/foo"));
   }
 
+  @Test
+  public void testBatchResultParsing() throws IOException {
+    RemoteLanguageTool lt = new FakeRemoteLanguageTool("response-batch.json");
+    CheckConfiguration config = new CheckConfigurationBuilder("en-US").build();
+    List<RemoteResult> results = lt.check(Arrays.asList("some text", "reply is hard-coded anyway"), config);
+    assertThat(results.size(), is(2));
+    runAsserts(results.get(0));
+    assertThat(results.get(1).getLanguageCode(), is("en-US"));
+    assertThat(results.get(1).getMatches().size(), is(0));
+  }
+
   private void runAsserts(RemoteResult result) {
     assertThat(result.getLanguage(), is("English (US)"));
     assertThat(result.getLanguageCode(), is("en-US"));
@@ -1364,7 +1364,8 @@ public class ProhibitedCompoundRule extends Rule {
       addAllCaseVariants(candidatePairs, confusionPair);
     }
 
-    List<WeightedRuleMatch> weightedMatches = new ArrayList<>();
+    List<String> variants = new ArrayList<>(candidatePairs.size());
+    List<List<String>> ngrams = new ArrayList<>();
     for (Pair pair : candidatePairs) {
       String variant = null;
       if (wordPart.contains(pair.part1)) {
@@ -1372,13 +1373,28 @@ public class ProhibitedCompoundRule extends Rule {
       } else if (wordPart.contains(pair.part2)) {
         variant = wordPart.replaceFirst(pair.part2, pair.part1);
       }
+      variants.add(variant);
+      if (variant != null) {
+        ngrams.add(Collections.singletonList(variant));
+      }
+    }
+    if (!ngrams.isEmpty()) {
+      ngrams.add(Collections.singletonList(wordPart));
+    }
+    // look up the counts of the word and all its variants together:
+    Map<List<String>, Long> counts = ngrams.isEmpty() ? Collections.emptyMap() : lm.getCounts(ngrams);
+
+    List<WeightedRuleMatch> weightedMatches = new ArrayList<>();
+    for (int i = 0; i < candidatePairs.size(); i++) {
+      Pair pair = candidatePairs.get(i);
+      String variant = variants.get(i);
       //System.out.println(word + " <> " + variant);
       if (variant == null) {
         partsStartPos += wordPart.length() + 1;
         continue;
       }
-      long wordCount = lm.getCount(wordPart);
-      long variantCount = lm.getCount(variant);
+      long wordCount = counts.get(Collections.singletonList(wordPart));
+      long variantCount = counts.get(Collections.singletonList(variant));
       //float factor = variantCount / (float)Math.max(wordCount, 1);
       //System.out.println("word: " + wordPart + " (" + wordCount + "), variant: " + variant + " (" + variantCount + "), factor: " + factor + ", pair: " + pair);
 
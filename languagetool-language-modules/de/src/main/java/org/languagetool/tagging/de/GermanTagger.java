@@ -93,7 +93,7 @@ public class GermanTagger extends BaseTagger {
 
   public GermanTagger() {
     super("/de/german.dict", Locale.GERMAN);
-    removalTagger = (ManualTagger) ((CombiningTagger) getWordTagger()).getRemovalTagger();
+    removalTagger = (ManualTagger) ((CombiningTagger) wordTagger).getRemovalTagger();
   }
 
   private static ExpansionInfos initExpansionInfos() {
@@ -202,23 +202,34 @@ public abstract class AbstractEnglishSpellerRule extends MorfologikSpellerRule {
           if (!StringTools.startsWithUppercase(covered)) {
             continue;
           }
+          List<SuggestedReplacement> replacements = match.getSuggestedReplacementObjects();
+          replacements = replacements.subList(0, Math.min(5, replacements.size()));
+          // look up the counts of the text and its replacements together:
+          List<List<String>> ngrams = new ArrayList<>();
+          ngrams.add(Collections.singletonList(covered));
+          for (SuggestedReplacement repl : replacements) {
+            List<String> replList = Arrays.asList(repl.getReplacement().split(" "));
+            if (replList.size() <= 3) {
+              ngrams.add(replList);
+            }
+          }
+          Map<List<String>, Long> counts = lm.getCounts(ngrams);
           List<String> infos = new ArrayList<>();
-          long textCount = lm.getCount(covered);
+          long textCount = counts.get(Collections.singletonList(covered));
           //System.out.println(textCount + " for " + covered);
           infos.add(covered + "/" + textCount);
           String mostCommonRepl = null;
           long mostCommonReplCount = textCount;
-          int i = 0;
           int nonZeroReplacements = 0;
           int lookupFailures = 0;
           int translations = 0;
-          for (SuggestedReplacement repl : match.getSuggestedReplacementObjects()) {
+          for (SuggestedReplacement repl : replacements) {
             if (repl.getType() == SuggestedReplacement.SuggestionType.Translation) {
               translations++;
             }
             List<String> replList = Arrays.asList(repl.getReplacement().split(" "));
             if (replList.size() <= 3) {  // hard-coding 3grams is not good, but a base LM doesn't know about ngrams...
-              long replCount = lm.getCount(replList);
+              long replCount = counts.get(replList);
               if (replCount > 0) {
                 nonZeroReplacements++;
               }
@@ -230,9 +241,6 @@ public abstract class AbstractEnglishSpellerRule extends MorfologikSpellerRule {
             } else {
               lookupFailures++;
             }
-            if (i++ >= 4) {
-              break;
-            }
           }
           //System.out.println("mostCommonRepl: "+  mostCommonRepl);
           if (translations == 0 && nonZeroReplacements == 0 && lookupFailures == 0) {  // e.g. "Fastow", which only offers "Fa stow" and "Fast ow"
@@ -18,6 +18,7 @@
  */
 package org.languagetool.server;
 
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -82,6 +83,8 @@ class ApiV2 {
       handleSoftwareInfoRequest(httpExchange);
     } else if (path.equals("check")) {
       handleCheckRequest(httpExchange, parameters, errorRequestLimiter, remoteAddress, config);
+    } else if (path.equals("check/batch")) {
+      handleBatchCheckRequest(httpExchange, parameters, errorRequestLimiter, remoteAddress);
     } else if (path.equals("words")) {
       handleWordsRequest(httpExchange, parameters, config);
     } else if (path.equals("words/add")) {
@@ -123,11 +126,8 @@ class ApiV2 {
       throw new BadRequestException("'language' parameter missing");
     }
     Language lang = Languages.getLanguageForShortCode(parameters.get("language"));
-    String response = getConfigurationInfo(lang, config);
-    ServerTools.setCommonHeaders(httpExchange, JSON_CONTENT_TYPE, allowOriginUrl);
-    httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.getBytes(ENCODING).length);
-    httpExchange.getResponseBody().write(response.getBytes(ENCODING));
-    ServerMetricsCollector.getInstance().logResponse(HttpURLConnection.HTTP_OK);
+    List<Rule> rules = getConfigurationInfoRules(lang);
+    sendJson(httpExchange, g -> writeConfigurationInfo(g, rules, config));
   }
 
   private void handleSoftwareInfoRequest(HttpExchange httpExchange) throws IOException {
@@ -173,6 +173,44 @@ class ApiV2 {
     textChecker.checkText(aText, httpExchange, parameters, errorRequestLimiter, remoteAddress);
   }
 
+  /**
+   * Check several texts with the same settings. Expects a 'data' parameter with JSON like
+   * {@code {"items": [{"text": "..."}, {"annotation": [...]}]}}, where each item has the format
+   * of the 'data' parameter of {@code /v2/check}.
+   */
+  private void handleBatchCheckRequest(HttpExchange httpExchange, Map<String, String> parameters, ErrorRequestLimiter errorRequestLimiter, String remoteAddress) throws Exception {
+    ensurePostMethod(httpExchange, "/check/batch");
+    if (parameters.containsKey("text")) {
+      throw new BadRequestException("Use the 'data' parameter with a list of 'items' for batch checks, not 'text'");
+    }
+    if (!parameters.containsKey("data")) {
+      throw new BadRequestException("Missing 'data' parameter");
+    }
+    JsonNode data;
+    try {
+      data = new ObjectMapper().readTree(parameters.get("data"));
+    } catch (JsonProcessingException e) {
+      throw new BadRequestException("Could not parse JSON from 'data' parameter", e);
+    }
+    JsonNode items = data.get("items");
+    if (items == null || !items.isArray() || items.size() == 0) {
+      throw new BadRequestException("'data' key in JSON requires a non-empty 'items' list");
+    }
+    List<AnnotatedText> texts = new ArrayList<>();
+    for (JsonNode item : items) {
+      if (item.get("text") != null && item.get("annotation") != null) {
+        throw new BadRequestException("Items in 'items' list require either 'text' or 'annotation' key, not both");
+      } else if (item.get("text") != null) {
+        texts.add(getAnnotatedTextFromString(item, item.get("text").asText()));
+      } else if (item.get("annotation") != null) {
+        texts.add(getAnnotatedTextFromJson(item));
+      } else {
+        throw new BadRequestException("Items in 'items' list require 'text' or 'annotation' key");
+      }
+    }
+    textChecker.checkTexts(texts, httpExchange, parameters, errorRequestLimiter, remoteAddress);
+  }
+
   private void handleIpLogMatch(HttpExchange httpExchange, String remoteAddress) {
     Logger logger = LoggerFactory.getLogger(ApiV2.class);
     InetSocketAddress localAddress = httpExchange.getLocalAddress();
@@ -263,8 +301,7 @@ class ApiV2 {
       throw new PathNotFoundException("Rule '" + params.get("ruleId") + "' not found for language " + lang +
               " (LanguageTool version/date: " + JLanguageTool.VERSION + "/" + JLanguageTool.BUILD_DATE + ", total rules of language: " + rules.size() + ")");
     }
-    StringWriter sw = new StringWriter();
-    try (JsonGenerator g = factory.createGenerator(sw)) {
+    sendJson(httpExchange, g -> {
       g.writeStartObject();
       g.writeArrayFieldStart("results");
       g.writeStartObject();
@@ -291,8 +328,7 @@ class ApiV2 {
       }
       g.writeEndArray();
       g.writeEndObject();
-    }
-    sendJson(httpExchange, sw);
+    });
   }
 
   /*
@@ -343,9 +379,8 @@ class ApiV2 {
       String password = basicAuthentication.getPassword();
       UserInfoEntry userInfo = DatabaseAccess.getInstance().getUserInfoWithPassword(user, password);
       if (userInfo != null) {
-        StringWriter sw = new StringWriter();
-        new ObjectMapper().writeValue(sw, DatabaseAccess.getInstance().getExtendedUserInfo(user));
-        sendJson(httpExchange, sw);
+        ExtendedUserInfo extendedUserInfo = DatabaseAccess.getInstance().getExtendedUserInfo(user);
+        sendJson(httpExchange, g -> new ObjectMapper().writeValue(g, extendedUserInfo));
       } else {
         throw new IllegalStateException("Could not fetch user information");
       }
@@ -374,18 +409,15 @@ class ApiV2 {
   }
 
   private void writeResponse(String fieldName, boolean added, HttpExchange httpExchange) throws IOException {
-    StringWriter sw = new StringWriter();
-    try (JsonGenerator g = factory.createGenerator(sw)) {
+    sendJson(httpExchange, g -> {
       g.writeStartObject();
       g.writeBooleanField(fieldName, added);
       g.writeEndObject();
-    }
-    sendJson(httpExchange, sw);
+    });
   }
   
   private void writeListResponse(String fieldName, List<String> words, HttpExchange httpExchange) throws IOException {
-    StringWriter sw = new StringWriter();
-    try (JsonGenerator g = factory.createGenerator(sw)) {
+    sendJson(httpExchange, g -> {
       g.writeStartObject();
       g.writeArrayFieldStart(fieldName);
       for (String word : words) {
@@ -393,15 +425,30 @@ class ApiV2 {
       }
       g.writeEndArray();
       g.writeEndObject();
-    }
-    sendJson(httpExchange, sw);
+    });
   }
 
-  private void sendJson(HttpExchange httpExchange, StringWriter sw) throws IOException {
-    String response = sw.toString();
+  private void sendJson(HttpExchange httpExchange, JsonContent content) throws IOException {
     ServerTools.setCommonHeaders(httpExchange, JSON_CONTENT_TYPE, allowOriginUrl);
-    httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.getBytes(ENCODING).length);
-    httpExchange.getResponseBody().write(response.getBytes(ENCODING));
+    if (textChecker != null && textChecker.config.isStreamResponses()) {
+      // response length 0 = chunked transfer encoding, so the response doesn't need to be built in memory first:
+      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+      // the status code has been sent now, so an error while writing can't be reported anymore - don't
+      // complete the JSON on close then, so the client can at least tell that the response is truncated:
+      try (JsonGenerator g = factory.createGenerator(httpExchange.getResponseBody(), JsonEncoding.UTF8)) {
+        g.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        g.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        content.write(g);
+      }
+    } else {
+      StringWriter sw = new StringWriter();
+      try (JsonGenerator g = factory.createGenerator(sw)) {
+        content.write(g);
+      }
+      String response = sw.toString();
+      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.getBytes(ENCODING).length);
+      httpExchange.getResponseBody().write(response.getBytes(ENCODING));
+    }
     ServerMetricsCollector.getInstance().logResponse(HttpURLConnection.HTTP_OK);
   }
 
@@ -496,8 +543,7 @@ class ApiV2 {
     return sw.toString();
   }
 
-  String getConfigurationInfo(Language lang, HTTPServerConfig config) throws IOException {
-    StringWriter sw = new StringWriter();
+  private List<Rule> getConfigurationInfoRules(Language lang) throws IOException {
     JLanguageTool lt = new JLanguageTool(lang);
     if (textChecker.config.languageModelDir != null) {
       lt.activateLanguageModelRules(textChecker.config.languageModelDir);
@@ -506,59 +552,63 @@ class ApiV2 {
       lt.activateWord2VecModelRules(textChecker.config.word2vecModelDir);
     }
     List<Rule> rules = lt.getAllRules();
-    rules = rules.stream().filter(rule -> !Premium.get().isPremiumRule(rule)).collect(Collectors.toList());
-    try (JsonGenerator g = factory.createGenerator(sw)) {
-      g.writeStartObject();
-
-      g.writeObjectFieldStart("software");
-      g.writeStringField("name", "LanguageTool");
-      g.writeStringField("version", JLanguageTool.VERSION);
-      g.writeStringField("buildDate", JLanguageTool.BUILD_DATE);
-      g.writeBooleanField("premium", Premium.isPremiumVersion());
-      g.writeEndObject();
-      
-      g.writeObjectFieldStart("parameter");
-      g.writeNumberField("maxTextLength", config.getMaxTextHardLength());
-      g.writeEndObject();
+    return rules.stream().filter(rule -> !Premium.get().isPremiumRule(rule)).collect(Collectors.toList());
+  }
 
-      g.writeArrayFieldStart("rules");
-      for (Rule rule : rules) {
-        g.writeStartObject();
-        g.writeStringField("ruleId", rule.getId());
-        g.writeStringField("description", rule.getDescription());
-        if (rule.isDictionaryBasedSpellingRule()) {
-          g.writeStringField("isDictionaryBasedSpellingRule", "yes");
-        }
-        if (rule.isDefaultOff()) {
-          g.writeStringField("isDefaultOff", "yes");
-        }
-        if (rule.isOfficeDefaultOff()) {
-          g.writeStringField("isOfficeDefaultOff", "yes");
-        }
-        if (rule.isOfficeDefaultOn()) {
-          g.writeStringField("isOfficeDefaultOn", "yes");
-        }
-        if (rule.hasConfigurableValue()) {
-          g.writeStringField("hasConfigurableValue", "yes");
-          g.writeStringField("configureText", rule.getConfigureText());
-          g.writeStringField("maxConfigurableValue", Integer.toString(rule.getMaxConfigurableValue()));
-          g.writeStringField("minConfigurableValue", Integer.toString(rule.getMinConfigurableValue()));
-          g.writeStringField("defaultValue", Integer.toString(rule.getDefaultValue()));
-        }
-        g.writeStringField("categoryId", rule.getCategory().getId().toString());
-        g.writeStringField("categoryName", rule.getCategory().getName());
-        g.writeStringField("locQualityIssueType", rule.getLocQualityIssueType().toString());
-        if (rule instanceof TextLevelRule) {
-          g.writeStringField("isTextLevelRule", "yes");
-          g.writeStringField("minToCheckParagraph", Integer.toString(((TextLevelRule) rule).minToCheckParagraph()));
-        }
-        g.writeEndObject();
+  private void writeConfigurationInfo(JsonGenerator g, List<Rule> rules, HTTPServerConfig config) throws IOException {
+    g.writeStartObject();
+
+    g.writeObjectFieldStart("software");
+    g.writeStringField("name", "LanguageTool");
+    g.writeStringField("version", JLanguageTool.VERSION);
+    g.writeStringField("buildDate", JLanguageTool.BUILD_DATE);
+    g.writeBooleanField("premium", Premium.isPremiumVersion());
+    g.writeEndObject();
+    
+    g.writeObjectFieldStart("parameter");
+    g.writeNumberField("maxTextLength", config.getMaxTextHardLength());
+    g.writeEndObject();
+
+    g.writeArrayFieldStart("rules");
+    for (Rule rule : rules) {
+      g.writeStartObject();
+      g.writeStringField("ruleId", rule.getId());
+      g.writeStringField("description", rule.getDescription());
+      if (rule.isDictionaryBasedSpellingRule()) {
+        g.writeStringField("isDictionaryBasedSpellingRule", "yes");
+      }
+      if (rule.isDefaultOff()) {
+        g.writeStringField("isDefaultOff", "yes");
+      }
+      if (rule.isOfficeDefaultOff()) {
+        g.writeStringField("isOfficeDefaultOff", "yes");
+      }
+      if (rule.isOfficeDefaultOn()) {
+        g.writeStringField("isOfficeDefaultOn", "yes");
+      }
+      if (rule.hasConfigurableValue()) {
+        g.writeStringField("hasConfigurableValue", "yes");
+        g.writeStringField("configureText", rule.getConfigureText());
+        g.writeStringField("maxConfigurableValue", Integer.toString(rule.getMaxConfigurableValue()));
+        g.writeStringField("minConfigurableValue", Integer.toString(rule.getMinConfigurableValue()));
+        g.writeStringField("defaultValue", Integer.toString(rule.getDefaultValue()));
+      }
+      g.writeStringField("categoryId", rule.getCategory().getId().toString());
+      g.writeStringField("categoryName", rule.getCategory().getName());
+      g.writeStringField("locQualityIssueType", rule.getLocQualityIssueType().toString());
+      if (rule instanceof TextLevelRule) {
+        g.writeStringField("isTextLevelRule", "yes");
+        g.writeStringField("minToCheckParagraph", Integer.toString(((TextLevelRule) rule).minToCheckParagraph()));
       }
-      g.writeEndArray();
-
       g.writeEndObject();
     }
-    return sw.toString();
+    g.writeEndArray();
+
+    g.writeEndObject();
+  }
+
+  private interface JsonContent {
+    void write(JsonGenerator g) throws IOException;
   }
 
 }
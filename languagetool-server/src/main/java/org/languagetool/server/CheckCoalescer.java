@@ -0,0 +1,160 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.CheckResults;
+import org.languagetool.RuleMatchListener;
+import org.languagetool.rules.RuleMatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets concurrent identical checks share one computation: the first request for a key runs the check,
+ * requests with the same key that arrive while it's running wait for its result instead of running
+ * the check again. This helps with clients that send the same request several times, e.g. from
+ * several tabs. Results are not kept after the check has finished, that's what the result cache is for.
+ * Waiting requests get their own copies of the rule matches, as requests modify them (e.g. discard
+ * suggestions that haven't been computed when they time out).
+ * @since 5.9
+ */
+class CheckCoalescer {
+
+  private final ConcurrentMap<Object, InFlightCheck> inFlight = new ConcurrentHashMap<>();
+  private final AtomicLong coalescedCount = new AtomicLong();
+
+  interface Check {
+    List<CheckResults> run(RuleMatchListener listener) throws Exception;
+  }
+
+  /**
+   * Thrown to requests waiting for a check that has been interrupted, which usually means
+   * it took longer than allowed.
+   */
+  static class CheckInterruptedException extends RuntimeException {
+    CheckInterruptedException() {
+      super("Check shared with an identical request has been interrupted");
+    }
+  }
+
+  /**
+   * @param key everything the result depends on
+   * @param listener gets the matches found so far, also when the check is run for another request
+   * @param onCoalesced called if this request waits for the check of another request
+   * @return the results, in new {@link CheckResults} objects for each request, so they can be modified
+   */
+  List<CheckResults> check(Object key, RuleMatchListener listener, Runnable onCoalesced, Check check) throws Exception {
+    InFlightCheck own = new InFlightCheck(listener);
+    InFlightCheck running = inFlight.putIfAbsent(key, own);
+    if (running != null) {
+      coalescedCount.incrementAndGet();
+      onCoalesced.run();
+      running.addListener(listener);
+      try {
+        return copy(running.result.get(), true);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof Exception) {
+          throw (Exception) e.getCause();
+        }
+        throw e;
+      } finally {
+        running.removeListener(listener);
+      }
+    }
+    try {
+      List<CheckResults> results = check.run(own::matchFound);
+      own.result.complete(results);
+      return copy(results, false);
+    } catch (Throwable t) {
+      own.result.completeExceptionally(Thread.currentThread().isInterrupted() || t instanceof InterruptedException ?
+        new CheckInterruptedException() : t);
+      throw t;
+    } finally {
+      inFlight.remove(key, own);
+    }
+  }
+
+  /**
+   * @return the number of requests that waited for the check of another request
+   */
+  long getCoalescedCount() {
+    return coalescedCount.get();
+  }
+
+  /**
+   * @param copyMatches whether to copy the rule matches, too, which is needed for all requests but the one that ran the check
+   */
+  private static List<CheckResults> copy(List<CheckResults> results, boolean copyMatches) {
+    List<CheckResults> copy = new ArrayList<>(results.size());
+    for (CheckResults result : results) {
+      List<RuleMatch> matches = new ArrayList<>(result.getRuleMatches().size());
+      for (RuleMatch match : result.getRuleMatches()) {
+        matches.add(copyMatches ? copy(match) : match);
+      }
+      CheckResults resultCopy = new CheckResults(matches, new ArrayList<>(result.getIgnoredRanges()));
+      resultCopy.addSentenceRanges(result.getSentenceRanges());
+      copy.add(resultCopy);
+    }
+    return copy;
+  }
+
+  private static RuleMatch copy(RuleMatch match) {
+    RuleMatch copy = new RuleMatch(match);
+    if (match.getErrorLimitLang() != null) {
+      copy.setErrorLimitLang(match.getErrorLimitLang());
+    }
+    return copy;
+  }
+
+  private static class InFlightCheck {
+    private final CompletableFuture<List<CheckResults>> result = new CompletableFuture<>();
+    private final List<RuleMatch> matchesSoFar = new ArrayList<>();
+    private final RuleMatchListener ownListener;  // gets the original matches, all other listeners get copies
+    private final List<RuleMatchListener> listeners = new ArrayList<>();
+
+    InFlightCheck(RuleMatchListener ownListener) {
+      this.ownListener = ownListener;
+    }
+
+    synchronized void addListener(RuleMatchListener listener) {
+      for (RuleMatch match : matchesSoFar) {
+        listener.matchFound(copy(match));
+      }
+      listeners.add(listener);
+    }
+
+    synchronized void removeListener(RuleMatchListener listener) {
+      listeners.remove(listener);
+    }
+
+    synchronized void matchFound(RuleMatch match) {
+      ownListener.matchFound(match);
+      matchesSoFar.add(match);
+      for (RuleMatchListener listener : listeners) {
+        listener.matchFound(copy(match));
+      }
+    }
+  }
+
+}
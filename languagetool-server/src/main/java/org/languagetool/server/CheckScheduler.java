@@ -0,0 +1,235 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.JLanguageTool;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.*;
+
+/**
+ * Decides which checks run when, in front of the text checker's thread pool. Checks are queued in lanes,
+ * so that short interactive checks don't wait behind long documents:
+ * <ul>
+ *   <li>Lanes are served by weighted fair queuing (stride scheduling): while several lanes have
+ *     waiting checks, each gets a share of the started checks that's proportional to its weight.</li>
+ *   <li>The number of checks that run at the same time is limited adaptively, between 1 and the
+ *     number of threads: the limit grows while the check latency per character stays near its
+ *     long-term average and shrinks when it gets worse, i.e. when the checks compete for the CPU
+ *     (similar to the "gradient" algorithm of Netflix' concurrency-limits library).</li>
+ *   <li>If a lane's queue is full, new checks for it are rejected at once with a
+ *     {@link RejectedExecutionException}, so the client gets a 503 and can retry elsewhere.</li>
+ * </ul>
+ * @since 5.9
+ */
+class CheckScheduler {
+
+  enum Lane {
+    /** short texts, typically checked while typing */
+    SHORT(6),
+    /** checks with {@link JLanguageTool.Mode#TEXTLEVEL_ONLY}, typically sent in the background */
+    TEXT_LEVEL(3),
+    /** long texts and batches */
+    LONG(1);
+
+    private final int weight;
+
+    Lane(int weight) {
+      this.weight = weight;
+    }
+
+    static Lane of(int textLength, JLanguageTool.Mode mode, int longTextLength) {
+      return of(textLength, mode, longTextLength, false);
+    }
+
+    /**
+     * @param batch whether the check is part of a batch request, these always use {@link #LONG},
+     *              even if each of their texts is short
+     */
+    static Lane of(int textLength, JLanguageTool.Mode mode, int longTextLength, boolean batch) {
+      if (batch) {
+        return LONG;
+      }
+      if (mode == JLanguageTool.Mode.TEXTLEVEL_ONLY) {
+        return TEXT_LEVEL;
+      }
+      return textLength > longTextLength ? LONG : SHORT;
+    }
+  }
+
+  // the per-check overhead, in characters, so the latency of short texts isn't overestimated:
+  private static final int LENGTH_OFFSET = 500;
+  private static final double SHORT_TERM_WEIGHT = 0.1;    // about the last 10 checks
+  private static final double LONG_TERM_WEIGHT = 0.005;   // about the last 200 checks
+  private static final double LATENCY_TOLERANCE = 1.5;    // latency can get this much worse without reducing the limit
+  private static final double LIMIT_SMOOTHING = 0.2;
+
+  private final Executor executor;
+  private final int maxLimit;
+  private final int maxQueueSize;
+  private final ArrayDeque<Job<?>>[] queues;
+  private final double[] pass;  // the virtual time at which a lane gets its next turn
+
+  private double virtualTime;
+  private double limit;
+  private int running;
+  private double shortTermLatency;
+  private double longTermLatency;
+
+  /**
+   * @param executor runs the checks, needs to run at least {@code maxLimit} of them at the same time
+   * @param maxLimit the maximum number of checks that run at the same time
+   * @param maxQueueSize the maximum number of checks waiting in each lane
+   */
+  @SuppressWarnings("unchecked")
+  CheckScheduler(Executor executor, int maxLimit, int maxQueueSize) {
+    if (maxLimit < 1) {
+      throw new IllegalArgumentException("maxLimit must be >= 1: " + maxLimit);
+    }
+    this.executor = executor;
+    this.maxLimit = maxLimit;
+    this.maxQueueSize = maxQueueSize;
+    this.limit = maxLimit;
+    queues = new ArrayDeque[Lane.values().length];
+    for (int i = 0; i < queues.length; i++) {
+      queues[i] = new ArrayDeque<>();
+    }
+    pass = new double[queues.length];
+  }
+
+  /**
+   * @param textLength the length of the text(s) to be checked, used to normalize the latency
+   * @throws RejectedExecutionException if the lane's queue is full
+   */
+  synchronized <T> Future<T> submit(Lane lane, int textLength, Callable<T> check) {
+    ArrayDeque<Job<?>> queue = queues[lane.ordinal()];
+    removeCancelled(queue);
+    if (queue.size() >= maxQueueSize) {
+      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.QUEUE_FULL);
+      throw new RejectedExecutionException("Queue for " + lane + " checks is full (" + maxQueueSize + " checks), " +
+        "running: " + running + ", limit: " + (int) limit);
+    }
+    if (queue.isEmpty()) {
+      // an idle lane doesn't save up turns:
+      pass[lane.ordinal()] = Math.max(pass[lane.ordinal()], virtualTime);
+    }
+    Job<T> job = new Job<>(check, textLength);
+    queue.add(job);
+    startChecks();
+    return job;
+  }
+
+  synchronized int getLimit() {
+    return Math.max(1, (int) limit);
+  }
+
+  synchronized int getRunning() {
+    return running;
+  }
+
+  synchronized int getQueueSize(Lane lane) {
+    return queues[lane.ordinal()].size();
+  }
+
+  // visible for tests
+  synchronized void addLatency(long nanos, int textLength) {
+    double latency = (double) nanos / (textLength + LENGTH_OFFSET);
+    if (longTermLatency == 0) {
+      shortTermLatency = latency;
+      longTermLatency = latency;
+    } else {
+      shortTermLatency = shortTermLatency * (1 - SHORT_TERM_WEIGHT) + latency * SHORT_TERM_WEIGHT;
+      longTermLatency = longTermLatency * (1 - LONG_TERM_WEIGHT) + latency * LONG_TERM_WEIGHT;
+      if (longTermLatency > 2 * shortTermLatency) {
+        // the load has gone down a lot, let the long-term average catch up faster:
+        longTermLatency *= 0.95;
+      }
+    }
+    double gradient = Math.max(0.5, Math.min(1.0, LATENCY_TOLERANCE * longTermLatency / shortTermLatency));
+    double newLimit = limit * gradient + Math.sqrt(limit);
+    limit = Math.max(1, Math.min(maxLimit, limit * (1 - LIMIT_SMOOTHING) + newLimit * LIMIT_SMOOTHING));
+  }
+
+  private void startChecks() {
+    while (running < getLimit()) {
+      Job<?> job = nextJob();
+      if (job == null) {
+        return;
+      }
+      running++;
+      try {
+        executor.execute(() -> run(job));
+      } catch (RejectedExecutionException e) {
+        running--;
+        job.setException(e);
+      }
+    }
+  }
+
+  private Job<?> nextJob() {
+    int next = -1;
+    for (int i = 0; i < queues.length; i++) {
+      removeCancelled(queues[i]);
+      if (!queues[i].isEmpty() && (next == -1 || pass[i] < pass[next])) {
+        next = i;
+      }
+    }
+    if (next == -1) {
+      return null;
+    }
+    virtualTime = pass[next];
+    pass[next] += 1.0 / Lane.values()[next].weight;
+    return queues[next].poll();
+  }
+
+  private void run(Job<?> job) {
+    long startTime = System.nanoTime();
+    boolean cancelledBeforeStart = job.isCancelled();
+    try {
+      job.run();
+    } finally {
+      synchronized (this) {
+        running--;
+        if (!cancelledBeforeStart) {
+          addLatency(System.nanoTime() - startTime, job.textLength);
+        }
+        startChecks();
+      }
+    }
+  }
+
+  private static void removeCancelled(ArrayDeque<Job<?>> queue) {
+    queue.removeIf(Future::isCancelled);
+  }
+
+  private static class Job<T> extends FutureTask<T> {
+    private final int textLength;
+
+    Job(Callable<T> callable, int textLength) {
+      super(callable);
+      this.textLength = textLength;
+    }
+
+    @Override
+    protected void setException(Throwable t) {
+      super.setException(t);
+    }
+  }
+
+}
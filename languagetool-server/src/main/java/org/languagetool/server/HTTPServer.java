@@ -103,6 +103,10 @@ public class HTTPServer extends Server {
         ManagementFactory.getPlatformMBeanServer().registerMBean(new ActiveRules(),
           ObjectName.getInstance("org.languagetool:name=ActiveRules, type=ActiveRules"));
       }
+      ObjectName rulePerformanceName = ObjectName.getInstance("org.languagetool:name=RulePerformance, type=RulePerformance");
+      if (!ManagementFactory.getPlatformMBeanServer().isRegistered(rulePerformanceName)) {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new RulePerformance(), rulePerformanceName);
+      }
       RequestLimiter limiter = getRequestLimiterOrNull(config);
       ErrorRequestLimiter errorLimiter = getErrorRequestLimiterOrNull(config);
       executorService = getExecutorService(config);
@@ -74,6 +74,15 @@ public class HTTPServerConfig {
   protected int maxCheckThreads = 10;
   protected int maxTextCheckerThreads; // default to same value as maxCheckThreads
   protected int textCheckerQueueSize = 8;
+  protected int maxBatchCheckThreads = 0;
+  protected boolean virtualThreads = false;
+  protected int maxVirtualThreads = 1000;
+  protected boolean streamResponses = false;
+  protected boolean checkScheduler = false;
+  protected int checkSchedulerLongTextLength = 5000;
+  protected int checkSchedulerQueueSize = 50;
+  protected int incrementalCheckingSessions = 0;
+  protected int incrementalCheckingNeighbourhood = 1;
   protected Mode mode;
   protected File languageModelDir = null;
   protected File word2vecModelDir = null;
@@ -98,6 +107,9 @@ public class HTTPServerConfig {
   protected File remoteRulesConfigFile = null;
   protected int cacheSize = 0;
   protected long cacheTTLSeconds = 300;
+  protected int cacheOffHeapSizeInMB = 0;
+  protected File sharedCacheFile = null;
+  protected int sharedCacheSizeInMB = 256;
   protected float maxErrorsPerWordRate = 0;
   protected int maxSpellingSuggestions = 0;
   protected List<String> blockedReferrers = new ArrayList<>();
@@ -188,9 +200,9 @@ public class HTTPServerConfig {
   
   
   private static final List<String> KNOWN_OPTION_KEYS = Arrays.asList("abTest", "abTestClients", "abTestRollout",
-    "beolingusFile", "blockedReferrers", "cacheSize", "cacheTTLSeconds",
+    "beolingusFile", "blockedReferrers", "cacheSize", "cacheTTLSeconds", "cacheOffHeapSizeInMB", "sharedCacheFile", "sharedCacheSizeInMB",
     "dbDriver", "dbPassword", "dbUrl", "dbUsername", "disabledRuleIds", "fasttextBinary", "fasttextModel", "grammalectePassword",
-    "grammalecteServer", "grammalecteUser", "ipFingerprintFactor", "languageModel", "maxCheckThreads", "maxTextCheckerThreads", "textCheckerQueueSize", "maxCheckTimeMillis",
+    "grammalecteServer", "grammalecteUser", "ipFingerprintFactor", "languageModel", "maxCheckThreads", "maxTextCheckerThreads", "maxBatchCheckThreads", "textCheckerQueueSize", "virtualThreads", "maxVirtualThreads", "streamResponses", "checkScheduler", "checkSchedulerLongTextLength", "checkSchedulerQueueSize", "incrementalCheckingSessions", "incrementalCheckingNeighbourhood", "maxCheckTimeMillis",
     "maxCheckTimeWithApiKeyMillis", "maxErrorsPerWordRate", "maxPipelinePoolSize", "maxSpellingSuggestions", "maxTextHardLength",
     "maxTextLength", "maxTextLengthWithApiKey", "maxWorkQueueSize", "neuralNetworkModel", "pipelineCaching",
     "pipelineExpireTimeInSeconds", "pipelinePrewarming", "prometheusMonitoring", "prometheusPort", "remoteRulesFile",
@@ -362,7 +374,7 @@ public class HTTPServerConfig {
         }
         String fasttextModel = getOptionalProperty(props, "fasttextModel", null);
         String fasttextBinary = getOptionalProperty(props, "fasttextBinary", null);
-        if (fasttextBinary != null && fasttextModel != null) {
+        if (fasttextModel != null) {
           setFasttextPaths(fasttextModel, fasttextBinary);
         }
         maxCheckThreads = Integer.parseInt(getOptionalProperty(props, "maxCheckThreads", "10"));
@@ -378,6 +390,33 @@ public class HTTPServerConfig {
         if (textCheckerQueueSize < 0) {
           throw new IllegalArgumentException("Invalid value for textCheckerQueueSize, must be >= 1: " + textCheckerQueueSize);
         }
+        virtualThreads = Boolean.parseBoolean(getOptionalProperty(props, "virtualThreads", "false").trim());
+        maxVirtualThreads = Integer.parseInt(getOptionalProperty(props, "maxVirtualThreads", "1000"));
+        if (maxVirtualThreads < 1) {
+          throw new IllegalArgumentException("Invalid value for maxVirtualThreads, must be >= 1: " + maxVirtualThreads);
+        }
+        maxBatchCheckThreads = Integer.parseInt(getOptionalProperty(props, "maxBatchCheckThreads", "0"));
+        if (maxBatchCheckThreads < 0) {
+          throw new IllegalArgumentException("Invalid value for maxBatchCheckThreads, must be >= 0: " + maxBatchCheckThreads);
+        }
+        streamResponses = Boolean.parseBoolean(getOptionalProperty(props, "streamResponses", "false").trim());
+        checkScheduler = Boolean.parseBoolean(getOptionalProperty(props, "checkScheduler", "false").trim());
+        checkSchedulerLongTextLength = Integer.parseInt(getOptionalProperty(props, "checkSchedulerLongTextLength", "5000"));
+        if (checkSchedulerLongTextLength < 0) {
+          throw new IllegalArgumentException("Invalid value for checkSchedulerLongTextLength, must be >= 0: " + checkSchedulerLongTextLength);
+        }
+        checkSchedulerQueueSize = Integer.parseInt(getOptionalProperty(props, "checkSchedulerQueueSize", "50"));
+        if (checkSchedulerQueueSize < 0) {
+          throw new IllegalArgumentException("Invalid value for checkSchedulerQueueSize, must be >= 0: " + checkSchedulerQueueSize);
+        }
+        incrementalCheckingSessions = Integer.parseInt(getOptionalProperty(props, "incrementalCheckingSessions", "0"));
+        if (incrementalCheckingSessions < 0) {
+          throw new IllegalArgumentException("Invalid value for incrementalCheckingSessions, must be >= 0: " + incrementalCheckingSessions);
+        }
+        incrementalCheckingNeighbourhood = Integer.parseInt(getOptionalProperty(props, "incrementalCheckingNeighbourhood", "1"));
+        if (incrementalCheckingNeighbourhood < 0) {
+          throw new IllegalArgumentException("Invalid value for incrementalCheckingNeighbourhood, must be >= 0: " + incrementalCheckingNeighbourhood);
+        }
 
         boolean atdMode = getOptionalProperty(props, "mode", "LanguageTool").equalsIgnoreCase("AfterTheDeadline");
         if (atdMode) {
@@ -405,6 +444,24 @@ public class HTTPServerConfig {
           throw new IllegalArgumentException("Use of cacheTTLSeconds without also setting cacheSize has no effect.");
         }
         cacheTTLSeconds = Integer.parseInt(getOptionalProperty(props, "cacheTTLSeconds", "300"));
+        if (props.containsKey("cacheOffHeapSizeInMB") && !props.containsKey("cacheSize")) {
+          throw new IllegalArgumentException("Use of cacheOffHeapSizeInMB without also setting cacheSize has no effect.");
+        }
+        cacheOffHeapSizeInMB = Integer.parseInt(getOptionalProperty(props, "cacheOffHeapSizeInMB", "0"));
+        if (cacheOffHeapSizeInMB < 0) {
+          throw new IllegalArgumentException("Invalid value for cacheOffHeapSizeInMB: " + cacheOffHeapSizeInMB + ", use 0 to deactivate off-heap cache");
+        }
+        if (props.containsKey("sharedCacheFile") && !props.containsKey("cacheSize")) {
+          throw new IllegalArgumentException("Use of sharedCacheFile without also setting cacheSize has no effect.");
+        }
+        String sharedCacheFilePath = getOptionalProperty(props, "sharedCacheFile", null);
+        if (sharedCacheFilePath != null) {
+          sharedCacheFile = new File(sharedCacheFilePath);
+        }
+        sharedCacheSizeInMB = Integer.parseInt(getOptionalProperty(props, "sharedCacheSizeInMB", "256"));
+        if (sharedCacheSizeInMB <= 0 || sharedCacheSizeInMB > 2047) {
+          throw new IllegalArgumentException("Invalid value for sharedCacheSizeInMB: " + sharedCacheSizeInMB + ", must be between 1 and 2047");
+        }
         if (props.containsKey("warmUp")) {
           System.err.println("Setting ignored: 'warmUp'. Look into using pipelineCaching and pipelinePrewarming instead.");
         }
@@ -576,13 +633,16 @@ public class HTTPServerConfig {
     }
   }
 
-  void setFasttextPaths(String fasttextModelPath, String fasttextBinaryPath) {
+  /**
+   * @param fasttextBinaryPath optional, only needed for models that can't be run in the JVM (e.g. quantized ones)
+   */
+  void setFasttextPaths(String fasttextModelPath, @Nullable String fasttextBinaryPath) {
     fasttextModel = new File(fasttextModelPath);
-    fasttextBinary = new File(fasttextBinaryPath);
+    fasttextBinary = fasttextBinaryPath != null ? new File(fasttextBinaryPath) : null;
     if (!fasttextModel.exists() || fasttextModel.isDirectory()) {
       throw new RuntimeException("Fasttext model path not valid (file doesn't exist or is a directory): " + fasttextModelPath);
     }
-    if (!fasttextBinary.exists() || fasttextBinary.isDirectory() || !fasttextBinary.canExecute()) {
+    if (fasttextBinary != null && (!fasttextBinary.exists() || fasttextBinary.isDirectory() || !fasttextBinary.canExecute())) {
       throw new RuntimeException("Fasttext binary path not valid (file doesn't exist, is a directory or not executable): " + fasttextBinaryPath);
     }
   }
@@ -901,6 +961,21 @@ public class HTTPServerConfig {
     return maxTextCheckerThreads != 0 ? maxTextCheckerThreads : maxCheckThreads;
   }
 
+  /**
+   * @param maxBatchCheckThreads The maximum number of threads a single batch request (several texts
+   *                             in one request) may use at the same time, {@code 0} for the default.
+   * @since 5.9
+   */
+  void setMaxBatchCheckThreads(int maxBatchCheckThreads) {
+    this.maxBatchCheckThreads = maxBatchCheckThreads;
+  }
+
+  /** @since 5.9 */
+  int getMaxBatchCheckThreads() {
+    // unset - use a quarter of the checker threads, so one batch can't keep all other requests waiting
+    return maxBatchCheckThreads != 0 ? maxBatchCheckThreads : Math.max(1, getMaxTextCheckerThreads() / 4);
+  }
+
   public int getTextCheckerQueueSize() {
     return textCheckerQueueSize;
   }
@@ -909,6 +984,122 @@ public class HTTPServerConfig {
     this.textCheckerQueueSize = textCheckerQueueSize;
   }
 
+  /**
+   * @param virtualThreads if {@code true}, requests (including waiting for the check result, remote rules and
+   *                       database lookups) are handled on virtual threads, at most {@link #getMaxVirtualThreads()}
+   *                       at the same time. The CPU-bound checking still runs on the {@link #getMaxTextCheckerThreads()}
+   *                       platform threads. Needs Java 21 or later, falls back to platform threads otherwise.
+   * @since 5.9
+   */
+  public void setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+  }
+
+  /** @since 5.9 */
+  public boolean isVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * @param maxVirtualThreads The maximum number of requests handled at the same time if {@link #isVirtualThreads()} is set.
+   * @since 5.9
+   */
+  public void setMaxVirtualThreads(int maxVirtualThreads) {
+    this.maxVirtualThreads = maxVirtualThreads;
+  }
+
+  /** @since 5.9 */
+  public int getMaxVirtualThreads() {
+    return maxVirtualThreads;
+  }
+
+  /**
+   * @param streamResponses if {@code true}, JSON responses are written directly to the connection
+   *                        with chunked transfer encoding instead of being built in memory first, so
+   *                        there's no {@code Content-Length} header. As the status code is sent before
+   *                        the JSON, an error while writing the JSON can't change it anymore: the client then
+   *                        gets status 200 with incomplete JSON.
+   * @since 5.9
+   */
+  public void setStreamResponses(boolean streamResponses) {
+    this.streamResponses = streamResponses;
+  }
+
+  /** @since 5.9 */
+  public boolean isStreamResponses() {
+    return streamResponses;
+  }
+
+  /**
+   * @param checkScheduler if {@code true}, checks are queued in lanes by text length and mode, which are served
+   *                       by weighted fair queuing, and the number of checks that run at the same time is adapted
+   *                       to the check latency, with at most {@link #getMaxTextCheckerThreads()}
+   * @since 5.9
+   */
+  public void setCheckScheduler(boolean checkScheduler) {
+    this.checkScheduler = checkScheduler;
+  }
+
+  /** @since 5.9 */
+  public boolean isCheckScheduler() {
+    return checkScheduler;
+  }
+
+  /**
+   * @param checkSchedulerLongTextLength texts longer than this (in characters) are queued in the lane for long texts
+   * @since 5.9
+   */
+  public void setCheckSchedulerLongTextLength(int checkSchedulerLongTextLength) {
+    this.checkSchedulerLongTextLength = checkSchedulerLongTextLength;
+  }
+
+  /** @since 5.9 */
+  public int getCheckSchedulerLongTextLength() {
+    return checkSchedulerLongTextLength;
+  }
+
+  /**
+   * @param checkSchedulerQueueSize the maximum number of checks waiting in each lane, more are rejected
+   * @since 5.9
+   */
+  public void setCheckSchedulerQueueSize(int checkSchedulerQueueSize) {
+    this.checkSchedulerQueueSize = checkSchedulerQueueSize;
+  }
+
+  /** @since 5.9 */
+  public int getCheckSchedulerQueueSize() {
+    return checkSchedulerQueueSize;
+  }
+
+  /**
+   * @param incrementalCheckingSessions the maximum number of documents (identified by their {@code textSessionId})
+   *                                    each pipeline keeps the latest check of, so that a re-check only checks the
+   *                                    changed sentences, {@code 0} to disable this. Only useful with pipeline caching.
+   * @since 5.9
+   */
+  public void setIncrementalCheckingSessions(int incrementalCheckingSessions) {
+    this.incrementalCheckingSessions = incrementalCheckingSessions;
+  }
+
+  /** @since 5.9 */
+  public int getIncrementalCheckingSessions() {
+    return incrementalCheckingSessions;
+  }
+
+  /**
+   * @param incrementalCheckingNeighbourhood the number of unchanged sentences before and after a change that
+   *                                         get checked again with incremental checking
+   * @since 5.9
+   */
+  public void setIncrementalCheckingNeighbourhood(int incrementalCheckingNeighbourhood) {
+    this.incrementalCheckingNeighbourhood = incrementalCheckingNeighbourhood;
+  }
+
+  /** @since 5.9 */
+  public int getIncrementalCheckingNeighbourhood() {
+    return incrementalCheckingNeighbourhood;
+  }
+
   /**
    * Set to {@code true} if this is running behind a (reverse) proxy which
    * sets the {@code X-forwarded-for} HTTP header. The last IP address (but not local IP addresses)
@@ -1018,6 +1209,45 @@ public class HTTPServerConfig {
     this.cacheTTLSeconds = cacheTTLSeconds;
   }
 
+  /**
+   * Size of the off-heap tier of the cache in megabytes. Rule matches that don't fit into
+   * the cache anymore are moved there, so more sentences can be cached without using more heap.
+   * @since 5.9
+   */
+  int getCacheOffHeapSizeInMB() {
+    return cacheOffHeapSizeInMB;
+  }
+
+  /** @since 5.9 */
+  void setCacheOffHeapSizeInMB(int cacheOffHeapSizeInMB) {
+    this.cacheOffHeapSizeInMB = cacheOffHeapSizeInMB;
+  }
+
+  /**
+   * A file for rule matches that is shared with other server processes on the same host,
+   * or {@code null}. All processes need to use the same {@link #getSharedCacheSizeInMB()}.
+   * @since 5.9
+   */
+  @Nullable
+  File getSharedCacheFile() {
+    return sharedCacheFile;
+  }
+
+  /** @since 5.9 */
+  void setSharedCacheFile(File sharedCacheFile) {
+    this.sharedCacheFile = sharedCacheFile;
+  }
+
+  /** @since 5.9 */
+  int getSharedCacheSizeInMB() {
+    return sharedCacheSizeInMB;
+  }
+
+  /** @since 5.9 */
+  void setSharedCacheSizeInMB(int sharedCacheSizeInMB) {
+    this.sharedCacheSizeInMB = sharedCacheSizeInMB;
+  }
+
   /**
    * Maximum errors per word rate, checking will stop if the rate is higher.
    * For example, with a rate of 0.33, the checking would stop if the user's
@@ -240,7 +240,12 @@ class LanguageToolHttpHandler implements HttpHandler {
       }
       long endTime = System.currentTimeMillis();
       logError(remoteAddress, e, errorCode, httpExchange, parameters, textLoggingAllowed, logStacktrace, endTime-startTime);
-      sendError(httpExchange, errorCode, "Error: " + response);
+      if (httpExchange.getResponseCode() == -1) {
+        sendError(httpExchange, errorCode, "Error: " + response);
+      } else {
+        // a streamed response has failed after its headers have been sent, the client gets an incomplete response:
+        ServerMetricsCollector.getInstance().logResponse(errorCode);
+      }
 
     } finally {
       logger.info("Handled request in {}ms; sending code {}", System.currentTimeMillis() - startTime, httpExchange.getResponseCode());
@@ -64,6 +64,13 @@ class Pipeline extends JLanguageTool {
     super(language, altLanguages, motherTongue, cache, globalConfig, userConfig, inputLogging);
   }
 
+  /**
+   * Create a pipeline that shares the rules with {@code template}, see {@link JLanguageTool#JLanguageTool(JLanguageTool)}.
+   */
+  Pipeline(Pipeline template) {
+    super(template);
+  }
+
   @Override
   public void setCleanOverlappingMatches(boolean cleanOverlappingMatches) {
     preventModificationAfterSetup();
@@ -76,6 +83,12 @@ class Pipeline extends JLanguageTool {
     }
   }
 
+  @Override
+  public void setIncrementalChecking(int maxSessions, int neighbourhood) {
+    preventModificationAfterSetup();
+    super.setIncrementalChecking(maxSessions, neighbourhood);
+  }
+
   @Override
   public void setMaxErrorsPerWordRate(float maxErrorsPerWordRate) {
     preventModificationAfterSetup();
@@ -21,24 +21,30 @@
 
 package org.languagetool.server;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.pool2.KeyedObjectPool;
 import org.apache.commons.pool2.KeyedPooledObjectFactory;
 import org.apache.commons.pool2.PooledObject;
 import org.apache.commons.pool2.impl.DefaultPooledObject;
+import org.apache.commons.pool2.impl.EvictionConfig;
 import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
 import org.apache.commons.pool2.impl.GenericKeyedObjectPoolConfig;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.*;
 import org.languagetool.gui.Configuration;
 import org.languagetool.rules.*;
+import org.languagetool.tools.LtThreadPoolFactory;
 import org.languagetool.tools.Tools;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
 /**
@@ -48,17 +54,34 @@ class PipelinePool implements KeyedPooledObjectFactory<PipelineSettings, Pipelin
 
   private static final Logger logger = LoggerFactory.getLogger(PipelinePool.class);
 
+  private static final String REPLENISH_POOL = "lt-pipeline-replenish-thread";
+  // idle pipelines are only evicted if there were fewer pipelines of their settings in use during this period:
+  static final long DEMAND_PERIOD_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
   private final KeyedObjectPool<PipelineSettings, Pipeline> pool;
 
   private final HTTPServerConfig config;
   private final ResultCache cache;
   private final boolean internalServer;
+  // the rules are the expensive part of a pipeline, so all pipelines that only differ
+  // in their query settings share the same rule instances, see createPipeline():
+  private final Cache<SharedRulesKey, Pipeline> sharedRules;
+  // the settings include the user's configuration, so forget the demand of settings that aren't used anymore:
+  private final Cache<PipelineSettings, Demand> demands;
+  // prewarmed settings are configured, so there are only a few of them, and their demand must not expire:
+  private final ConcurrentMap<PipelineSettings, Demand> prewarmedDemands = new ConcurrentHashMap<>();
+  private final Set<PipelineSettings> replenishing = ConcurrentHashMap.newKeySet();
+  private final ThreadPoolExecutor replenishExecutor;
+  private final int maxPoolSize;
 
   PipelinePool(HTTPServerConfig config, ResultCache cache, boolean internalServer) {
     this.internalServer = internalServer;
     this.config = config;
     this.cache = cache;
-    int maxPoolSize = config.getMaxPipelinePoolSize();
+    this.maxPoolSize = config.getMaxPipelinePoolSize();
+    // a demand that hasn't been recorded for two periods is 0 anyway, but the evictor needs it as long as pipelines are idle:
+    long demandExpireMillis = Math.max(2 * DEMAND_PERIOD_MILLIS, TimeUnit.SECONDS.toMillis(config.getPipelineExpireTime()));
+    this.demands = CacheBuilder.newBuilder().expireAfterAccess(demandExpireMillis, TimeUnit.MILLISECONDS).build();
     if (config.isPipelineCachingEnabled()) {
       GenericKeyedObjectPoolConfig<Pipeline> poolConfig = new GenericKeyedObjectPoolConfig<>();
       poolConfig.setMaxTotal(maxPoolSize);
@@ -66,10 +89,21 @@ class PipelinePool implements KeyedPooledObjectFactory<PipelineSettings, Pipelin
       poolConfig.setMaxTotalPerKey(maxPoolSize);
       poolConfig.setMinIdlePerKey(0);
       poolConfig.setBlockWhenExhausted(false);
-      // could try setting wait time, idle time (from expireTime), use another eviction policy, ...
+      if (config.getPipelineExpireTime() > 0) {
+        long expireMillis = TimeUnit.SECONDS.toMillis(config.getPipelineExpireTime());
+        poolConfig.setTimeBetweenEvictionRunsMillis(expireMillis);
+        poolConfig.setMinEvictableIdleTimeMillis(expireMillis);
+        poolConfig.setNumTestsPerEvictionRun(-1);  // test all idle pipelines
+        poolConfig.setEvictionPolicy(this::evict);
+      }
       this.pool = new GenericKeyedObjectPool<>(this, poolConfig);
+      this.sharedRules = CacheBuilder.newBuilder().maximumSize(maxPoolSize).build();
+      this.replenishExecutor = LtThreadPoolFactory.createFixedThreadPoolExecutor(REPLENISH_POOL, 1, 1, maxPoolSize, 60, true,
+        (thread, throwable) -> logger.error("Thread: " + thread.getName() + " failed with: " + throwable.getMessage()), false);
     } else {
       this.pool = null;
+      this.sharedRules = null;
+      this.replenishExecutor = null;
     }
   }
 
@@ -84,10 +118,17 @@ class PipelinePool implements KeyedPooledObjectFactory<PipelineSettings, Pipelin
         Pipeline p = pool.borrowObject(settings);
         logger.debug("Fetching pipeline took {}ms; pool has {} active objects, {} idle; pipeline settings: {}",
           System.currentTimeMillis() - time, pool.getNumActive(), pool.getNumIdle(), settings);
+        Demand demand = getDemand(settings);
+        demand.record(pool.getNumActive(settings), System.currentTimeMillis());
+        // a pipeline that's used only once (e.g. with a user's very specific settings) isn't worth a spare one:
+        if (pool.getNumIdle(settings) == 0 && demand.isRepeated()) {
+          replenish(settings);
+        }
         return p;
       } catch(NoSuchElementException ignored) {
         logger.info("Pipeline pool capacity reached: {} active objects, {} idle",
           pool.getNumActive(), pool.getNumIdle());
+        getDemand(settings).record(pool.getNumActive(settings) + 1, System.currentTimeMillis());
         return createPipeline(settings.lang, settings.motherTongue, settings.query, settings.globalConfig, settings.userConfig, config.getDisabledRuleIds());
       }
     }
@@ -105,52 +146,133 @@ class PipelinePool implements KeyedPooledObjectFactory<PipelineSettings, Pipelin
     }
   }
 
+  /**
+   * Create {@code count} pipelines for the given settings and run a check with each of them, so that lazily
+   * initialized resources are loaded and the code is warmed up before the first request. These pipelines are
+   * not evicted when idle, so they're available after a restart even if the first requests come in late.
+   */
+  void prewarm(PipelineSettings settings, int count) throws Exception {
+    prewarmedDemands.computeIfAbsent(settings, k -> new Demand()).setMinimum(count);
+    // request n pipelines first, return all afterwards -> creates multiple for same setting
+    List<Pipeline> pipelines = new ArrayList<>();
+    try {
+      for (int i = 0; i < count; i++) {
+        Pipeline p = getPipeline(settings);
+        pipelines.add(p);
+        p.check("LanguageTool");
+      }
+    } finally {
+      for (Pipeline p : pipelines) {
+        returnPipeline(settings, p);
+      }
+    }
+  }
+
+  void shutdown() {
+    if (replenishExecutor != null) {
+      replenishExecutor.shutdownNow();
+    }
+    if (pool != null) {
+      pool.close();
+    }
+  }
+
+  private Demand getDemand(PipelineSettings settings) {
+    Demand demand = prewarmedDemands.get(settings);
+    return demand != null ? demand : demands.asMap().computeIfAbsent(settings, k -> new Demand());
+  }
+
+  @Nullable
+  private Demand findDemand(PipelineSettings settings) {
+    Demand demand = prewarmedDemands.get(settings);
+    return demand != null ? demand : demands.getIfPresent(settings);
+  }
+
+  /**
+   * Create pipelines in the background until there's an idle one and as many as recently needed,
+   * so requests don't have to wait for a pipeline to be created.
+   */
+  private void replenish(PipelineSettings settings) {
+    if (!replenishing.add(settings)) {
+      return;  // already running
+    }
+    try {
+      replenishExecutor.execute(() -> {
+        boolean failed = false;
+        try {
+          for (int i = 0; i < maxPoolSize && needsPipelines(settings); i++) {
+            pool.addObject(settings);
+          }
+        } catch (Exception e) {
+          failed = true;
+          logger.warn("Could not create pipeline in background for " + settings, e);
+        } finally {
+          replenishing.remove(settings);
+        }
+        // pipelines might have been borrowed after the last check:
+        if (!failed && needsPipelines(settings)) {
+          replenish(settings);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      replenishing.remove(settings);
+    }
+  }
+
+  private boolean needsPipelines(PipelineSettings settings) {
+    if (pool.getNumIdle() + pool.getNumActive() >= maxPoolSize) {
+      return false;
+    }
+    int idle = pool.getNumIdle(settings);
+    Demand demand = findDemand(settings);
+    int wanted = demand == null ? 0 : Math.min(maxPoolSize, demand.get(System.currentTimeMillis()));
+    return idle == 0 || idle + pool.getNumActive(settings) < wanted;
+  }
+
+  /**
+   * Evict pipelines that have been idle for a while, but keep as many pipelines per settings as were
+   * in use at the same time recently.
+   */
+  boolean evict(EvictionConfig evictionConfig, PooledObject<Pipeline> pooledPipeline, int idleCount) {
+    if (pooledPipeline.getIdleTimeMillis() <= evictionConfig.getIdleEvictTime()) {
+      return false;
+    }
+    PipelineSettings settings = ((PooledPipeline) pooledPipeline).settings;
+    Demand demand = findDemand(settings);
+    int wanted = demand == null ? 0 : demand.get(System.currentTimeMillis());
+    int active = pool.getNumActive(settings);
+    // keep one spare pipeline while others are in use, as replenish() would create it again anyway:
+    boolean evict = idleCount + active > Math.max(wanted, active > 0 ? active + 1 : 0);
+    if (evict) {
+      logger.debug("Evicting idle pipeline, {} idle and {} wanted for {}", idleCount, wanted, settings);
+    }
+    return evict;
+  }
+
   /**
    * Create a JLanguageTool instance for a specific language, mother tongue, and rule configuration.
-   * Uses Pipeline wrapper to safely share objects
+   * Uses Pipeline wrapper to safely share objects. With pipeline caching enabled, the rules are not loaded
+   * again but shared with the other pipelines for the same language and configuration.
    *  @param lang the language to be used
    * @param motherTongue the user's mother tongue or {@code null}
    */
   Pipeline createPipeline(Language lang, Language motherTongue, TextChecker.QueryParams params, GlobalConfig globalConfig,
                           UserConfig userConfig, List<String> disabledRuleIds)
     throws Exception { // package-private for mocking
-    Pipeline lt = new Pipeline(lang, params.altLanguages, motherTongue, cache, globalConfig, userConfig, params.inputLogging);
-    lt.setMaxErrorsPerWordRate(config.getMaxErrorsPerWordRate());
-    lt.disableRules(disabledRuleIds);
-    if (config.getLanguageModelDir() != null) {
-      lt.activateLanguageModelRules(config.getLanguageModelDir());
-    }
-    if (config.getWord2VecModelDir () != null) {
-      lt.activateWord2VecModelRules(config.getWord2VecModelDir());
-    }
-    if (config.getRulesConfigFile() != null) {
-      configureFromRulesFile(lt, lang);
-    } else {
-      configureFromGUI(lt, lang);
-    }
-    if (params.regressionTestMode) {
-      List<RemoteRuleConfig> rules = Collections.emptyList();
+    Pipeline lt;
+    if (sharedRules != null) {
+      SharedRulesKey key = new SharedRulesKey(lang, motherTongue, params, globalConfig, userConfig, disabledRuleIds);
       try {
-        if (config.getRemoteRulesConfigFile() != null) {
-          rules = RemoteRuleConfig.load(config.getRemoteRulesConfigFile());
-        }
-      } catch (Exception e) {
-        logger.error("Could not load remote rule configuration", e);
+        lt = new Pipeline(sharedRules.get(key, () -> {
+          Pipeline template = createSharedRules(lang, motherTongue, params, globalConfig, userConfig, disabledRuleIds);
+          template.setupFinished();
+          return template;
+        }));
+      } catch (ExecutionException | UncheckedExecutionException e) {
+        throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
       }
-      // modify remote rule configuration to avoid timeouts
-
-      // temporary workaround: don't run into check timeout, causes limit enforcement;
-      // extend timeout as long as possible instead
-      long timeout = Math.max(config.getMaxCheckTimeMillisAnonymous() - 1, 0);
-      rules = rules.stream().map(c -> {
-        RemoteRuleConfig config = new RemoteRuleConfig(c);
-        config.baseTimeoutMilliseconds = timeout;
-        config.timeoutPerCharacterMilliseconds = 0f;
-        return config;
-      }).collect(Collectors.toList());
-      lt.activateRemoteRules(rules);
     } else {
-      lt.activateRemoteRules(config.getRemoteRulesConfigFile());
+      lt = createSharedRules(lang, motherTongue, params, globalConfig, userConfig, disabledRuleIds);
     }
     if (params.useQuerySettings) {
       Tools.selectRules(lt, new HashSet<>(params.disabledCategories), new HashSet<>(params.enabledCategories),
@@ -160,6 +282,10 @@ class PipelinePool implements KeyedPooledObjectFactory<PipelineSettings, Pipelin
       lt.addMatchFilter(new DictionaryMatchFilter(userConfig));
     }
     lt.addMatchFilter(new DictionarySpellMatchFilter(userConfig));
+    if (config.getIncrementalCheckingSessions() > 0) {
+      // not shared, as the state of the latest checks belongs to each pipeline:
+      lt.setIncrementalChecking(config.getIncrementalCheckingSessions(), config.getIncrementalCheckingNeighbourhood());
+    }
 
     Premium premium = Premium.get();
     if (config.isPremiumOnly()) {
@@ -192,6 +318,53 @@ class PipelinePool implements KeyedPooledObjectFactory<PipelineSettings, Pipelin
     return lt;
   }
 
+  /**
+   * Create a pipeline with the rules and the configuration that doesn't depend on the query, i.e. everything that
+   * can be shared by all pipelines with the same {@link SharedRulesKey}.
+   */
+  private Pipeline createSharedRules(Language lang, Language motherTongue, TextChecker.QueryParams params, GlobalConfig globalConfig,
+                                     UserConfig userConfig, List<String> disabledRuleIds) throws IOException {
+    Pipeline lt = new Pipeline(lang, params.altLanguages, motherTongue, cache, globalConfig, userConfig, params.inputLogging);
+    lt.setMaxErrorsPerWordRate(config.getMaxErrorsPerWordRate());
+    lt.disableRules(disabledRuleIds);
+    if (config.getLanguageModelDir() != null) {
+      lt.activateLanguageModelRules(config.getLanguageModelDir());
+    }
+    if (config.getWord2VecModelDir () != null) {
+      lt.activateWord2VecModelRules(config.getWord2VecModelDir());
+    }
+    if (config.getRulesConfigFile() != null) {
+      configureFromRulesFile(lt, lang);
+    } else {
+      configureFromGUI(lt, lang);
+    }
+    if (params.regressionTestMode) {
+      List<RemoteRuleConfig> rules = Collections.emptyList();
+      try {
+        if (config.getRemoteRulesConfigFile() != null) {
+          rules = RemoteRuleConfig.load(config.getRemoteRulesConfigFile());
+        }
+      } catch (Exception e) {
+        logger.error("Could not load remote rule configuration", e);
+      }
+      // modify remote rule configuration to avoid timeouts
+
+      // temporary workaround: don't run into check timeout, causes limit enforcement;
+      // extend timeout as long as possible instead
+      long timeout = Math.max(config.getMaxCheckTimeMillisAnonymous() - 1, 0);
+      rules = rules.stream().map(c -> {
+        RemoteRuleConfig config = new RemoteRuleConfig(c);
+        config.baseTimeoutMilliseconds = timeout;
+        config.timeoutPerCharacterMilliseconds = 0f;
+        return config;
+      }).collect(Collectors.toList());
+      lt.activateRemoteRules(rules);
+    } else {
+      lt.activateRemoteRules(config.getRemoteRulesConfigFile());
+    }
+    return lt;
+  }
+
   private void configureFromRulesFile(JLanguageTool lt, Language lang) throws IOException {
     ServerTools.print("Using options configured in " + config.getRulesConfigFile());
     // If we are explicitly configuring from rules, ignore the useGUIConfig flag
@@ -213,8 +386,8 @@ class PipelinePool implements KeyedPooledObjectFactory<PipelineSettings, Pipelin
 
   @Override
   public PooledObject<Pipeline> makeObject(PipelineSettings pipelineSettings) throws Exception {
-    return new DefaultPooledObject<>(createPipeline(pipelineSettings.lang, pipelineSettings.motherTongue, pipelineSettings.query,
-      pipelineSettings.globalConfig, pipelineSettings.userConfig, config.getDisabledRuleIds()));
+    return new PooledPipeline(pipelineSettings, createPipeline(pipelineSettings.lang, pipelineSettings.motherTongue,
+      pipelineSettings.query, pipelineSettings.globalConfig, pipelineSettings.userConfig, config.getDisabledRuleIds()));
   }
 
   @Override
@@ -237,4 +410,121 @@ class PipelinePool implements KeyedPooledObjectFactory<PipelineSettings, Pipelin
   public void passivateObject(PipelineSettings pipelineSettings, PooledObject<Pipeline> pooledObject) throws Exception {
   }
 
+  private static class PooledPipeline extends DefaultPooledObject<Pipeline> {
+    private final PipelineSettings settings;
+
+    PooledPipeline(PipelineSettings settings, Pipeline pipeline) {
+      super(pipeline);
+      this.settings = settings;
+    }
+  }
+
+  /**
+   * The maximum number of pipelines of one setting that were in use at the same time
+   * during the current and the previous {@link #DEMAND_PERIOD_MILLIS period}.
+   */
+  static class Demand {
+    private int minimum;
+    private int currentPeak;
+    private int previousPeak;
+    private long periodStart;
+    private long lastUse = -1;
+    private boolean repeated;
+
+    synchronized void setMinimum(int minimum) {
+      this.minimum = minimum;
+    }
+
+    synchronized void record(int inUse, long now) {
+      startPeriod(now);
+      currentPeak = Math.max(currentPeak, inUse);
+      repeated = inUse > 1 || lastUse != -1 && now - lastUse < DEMAND_PERIOD_MILLIS;
+      lastUse = now;
+    }
+
+    /**
+     * Whether the settings have been used more than once recently (at the time of the last {@link #record(int, long)}),
+     * or pipelines have been prewarmed for them.
+     */
+    synchronized boolean isRepeated() {
+      return repeated || minimum > 0;
+    }
+
+    synchronized int get(long now) {
+      startPeriod(now);
+      return Math.max(minimum, Math.max(currentPeak, previousPeak));
+    }
+
+    private void startPeriod(long now) {
+      long elapsed = now - periodStart;
+      if (elapsed >= DEMAND_PERIOD_MILLIS) {
+        previousPeak = elapsed >= 2 * DEMAND_PERIOD_MILLIS ? 0 : currentPeak;
+        currentPeak = 0;
+        periodStart = now;
+      }
+    }
+  }
+
+  /**
+   * The settings that the shared rules of a pipeline depend on, i.e. {@link PipelineSettings} without the query
+   * settings that only select rules.
+   */
+  private static class SharedRulesKey {
+    private final Language lang;
+    private final Language motherTongue;
+    private final List<Language> altLanguages;
+    private final boolean inputLogging;
+    private final boolean regressionTestMode;
+    private final GlobalConfig globalConfig;
+    private final UserConfig userConfig;
+    private final List<String> disabledRuleIds;
+
+    SharedRulesKey(Language lang, Language motherTongue, TextChecker.QueryParams params, GlobalConfig globalConfig,
+                   UserConfig userConfig, List<String> disabledRuleIds) {
+      this.lang = lang;
+      this.motherTongue = motherTongue;
+      this.altLanguages = params.altLanguages;
+      this.inputLogging = params.inputLogging;
+      this.regressionTestMode = params.regressionTestMode;
+      this.globalConfig = globalConfig;
+      this.userConfig = userConfig;
+      this.disabledRuleIds = disabledRuleIds;
+    }
+
+    @Override
+    public int hashCode() {
+      return new HashCodeBuilder(17, 31)
+        .append(lang)
+        .append(motherTongue)
+        .append(altLanguages)
+        .append(inputLogging)
+        .append(regressionTestMode)
+        .append(globalConfig)
+        .append(userConfig)
+        .append(disabledRuleIds)
+        .toHashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (obj == this) {
+        return true;
+      }
+      if (obj == null || getClass() != obj.getClass()) {
+        return false;
+      }
+      SharedRulesKey other = (SharedRulesKey) obj;
+      return new EqualsBuilder()
+        .append(lang, other.lang)
+        .append(motherTongue, other.motherTongue)
+        .append(altLanguages, other.altLanguages)
+        .append(inputLogging, other.inputLogging)
+        .append(regressionTestMode, other.regressionTestMode)
+        .append(globalConfig, other.globalConfig)
+        .append(userConfig, other.userConfig)
+        .append(disabledRuleIds, other.disabledRuleIds)
+        .isEquals();
+    }
+  }
+
 }
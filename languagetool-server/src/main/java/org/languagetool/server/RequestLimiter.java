@@ -21,19 +21,28 @@ package org.languagetool.server;
 import org.languagetool.JLanguageTool;
 
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Limit the maximum number of request per IP address for a given time range.
+ * Requests are counted per IP address and per IP address and fingerprint in
+ * sliding windows of {@link #BUCKETS_PER_PERIOD} time buckets, so checking a
+ * request takes constant time.
  */
 class RequestLimiter {
 
-  // TODO: this only works if the period covered is larger than requestLimitPeriodInSeconds -
-  // we should add a sanity check that warns if that's not the case
-  static final int REQUEST_QUEUE_SIZE = 1000;
+  // the limit period is split into this many buckets, so requests are forgotten
+  // after between (BUCKETS_PER_PERIOD - 1) / BUCKETS_PER_PERIOD periods and one period:
+  static final int BUCKETS_PER_PERIOD = 10;
+
+  // ConcurrentHashMap locks per bin, and each Window locks only itself, so clients don't block each other:
+  private final ConcurrentMap<String, Window> byIp = new ConcurrentHashMap<>();
+  private final ConcurrentMap<FingerprintKey, Window> byFingerprint = new ConcurrentHashMap<>();
+  private final AtomicLong lastCleanupBucket = new AtomicLong();
+  private final long bucketMillis;
 
-  final List<RequestEvent> requestEvents = new CopyOnWriteArrayList<>();
-  
   private final int ipFingerprintFactor;
   private final List<String> whitelistUsers;
   private final int whitelistLimit;
@@ -57,6 +66,7 @@ class RequestLimiter {
     this.ipFingerprintFactor = ipFingerprintFactor;
     this.whitelistUsers = whitelistUsers != null ? whitelistUsers : Collections.emptyList();
     this.whitelistLimit = whitelistLimit;
+    this.bucketMillis = Math.max(1, requestLimitPeriodInSeconds * 1000L / BUCKETS_PER_PERIOD);
     if (ipFingerprintFactor > 0) {
       this.ipRequestLimit = requestLimit * ipFingerprintFactor;
       this.ipRequestLimitInBytes = requestLimitInBytes * ipFingerprintFactor;
@@ -116,12 +126,9 @@ class RequestLimiter {
       // internal special case for e.g. nightly tests
       return;
     }
-    int reqSize = getRequestSize(params);
-    while (requestEvents.size() > REQUEST_QUEUE_SIZE) {
-      requestEvents.remove(0);
-    }
-    requestEvents.add(new RequestEvent(ipAddress, new Date(), reqSize, computeFingerprint(httpHeader, params), ServerTools.getMode(params)));
-    checkLimit(ipAddress, params, httpHeader);
+    String fingerprint = computeFingerprint(httpHeader, params);
+    logRequest(ipAddress, fingerprint, getRequestSize(params), ServerTools.getMode(params));
+    checkLimit(ipAddress, fingerprint, params, httpHeader);
   }
 
   private int getRequestSize(Map<String, String> params) {
@@ -183,97 +190,170 @@ class RequestLimiter {
   }
 
   void checkLimit(String ipAddress, Map<String, String> parameters, Map<String, List<String>> httpHeader) {
-    int requestsByIp = 0;
-    int requestSizeByIp = 0;
-    int requestsByFingerprint = 0;
-    int requestSizeByFingerprint = 0;
-    // all requests before this date are considered old:
-    Date thresholdDate = new Date(System.currentTimeMillis() - requestLimitPeriodInSeconds * 1000L);
-    String fingerprint = computeFingerprint(httpHeader, parameters);
+    checkLimit(ipAddress, computeFingerprint(httpHeader, parameters), parameters, httpHeader);
+  }
+
+  private void checkLimit(String ipAddress, String fingerprint, Map<String, String> parameters, Map<String, List<String>> httpHeader) {
     String referer = getReferer(httpHeader);
     String userAgent = getUserAgent(httpHeader);
     Long clientId = getClientId(parameters);
     String user = parameters.get("username");
     boolean whitelistedUser = user != null && whitelistUsers.contains(user);
-    for (RequestEvent event : requestEvents) {
-      if (event.ip.equals(ipAddress) && event.date.after(thresholdDate)) {
-        // text level rules cause much less load, so count them accordingly
-        float modeFactor = event.mode == JLanguageTool.Mode.TEXTLEVEL_ONLY ? 0.1f : 1f;
-        requestsByIp++;
-        requestSizeByIp += event.getSizeInBytes() * modeFactor;
-        if (whitelistedUser) {
-          if (whitelistLimit <= 0 || requestsByIp < whitelistLimit) {
-            continue;
-          } else {
-            String msg = "limit: " + ipRequestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            throw new TooManyRequestsException("Whitelist request limit of " + whitelistLimit + " requests per " +
-              requestLimitPeriodInSeconds + " seconds exceeded");
-          }
-        }
-        if (event.fingerprint.equals(fingerprint)) {
-          requestsByFingerprint++;
-          requestSizeByFingerprint += event.getSizeInBytes() * modeFactor;
-        }
-        if (ipFingerprintFactor > 0 && requestLimit > 0 && requestsByFingerprint > requestLimit) {
-          String msg = "limit: " + requestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-          throw new TooManyRequestsException("Client request limit of " + requestLimit + " requests per " +
-            requestLimitPeriodInSeconds + " seconds exceeded"); }
-        if (requestLimit > 0 && requestsByIp > ipRequestLimit) {
-          String msg = "limit: " + ipRequestLimit + " / " + requestLimitPeriodInSeconds + ", requests: "  + requestsByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-          throw new TooManyRequestsException("IP request limit of " + ipRequestLimit + " requests per " +
-            requestLimitPeriodInSeconds + " seconds exceeded");
+    long bucket = currentBucket();
+    Window ipWindow = byIp.get(ipAddress);
+    if (ipWindow == null) {
+      return;
+    }
+    int requestsByIp = ipWindow.getRequests(bucket);
+    long requestSizeByIp = ipWindow.getSize(bucket);
+    if (whitelistedUser) {
+      if (whitelistLimit > 0 && requestsByIp >= whitelistLimit) {
+        throw new TooManyRequestsException("Whitelist request limit of " + whitelistLimit + " requests per " +
+          requestLimitPeriodInSeconds + " seconds exceeded");
+      }
+      return;
+    }
+    Window fingerprintWindow = byFingerprint.get(new FingerprintKey(ipAddress, fingerprint));
+    int requestsByFingerprint = fingerprintWindow == null ? 0 : fingerprintWindow.getRequests(bucket);
+    long requestSizeByFingerprint = fingerprintWindow == null ? 0 : fingerprintWindow.getSize(bucket);
+    if (ipFingerprintFactor > 0 && requestLimit > 0 && requestsByFingerprint > requestLimit) {
+      throw new TooManyRequestsException("Client request limit of " + requestLimit + " requests per " +
+        requestLimitPeriodInSeconds + " seconds exceeded");
+    }
+    if (requestLimit > 0 && requestsByIp > ipRequestLimit) {
+      throw new TooManyRequestsException("IP request limit of " + ipRequestLimit + " requests per " +
+        requestLimitPeriodInSeconds + " seconds exceeded");
+    }
+    String textLevelInfo = ServerTools.getMode(parameters) == JLanguageTool.Mode.TEXTLEVEL_ONLY ? " in text-level checks" : "";
+    if (ipFingerprintFactor > 0 && requestLimitInBytes > 0 && requestSizeByFingerprint > requestLimitInBytes) {
+      throw new TooManyRequestsException("Client request size limit of " + requestLimitInBytes + " bytes per " +
+        requestLimitPeriodInSeconds + " seconds exceeded" + textLevelInfo);
+    }
+    if (requestLimitInBytes > 0 && requestSizeByIp > ipRequestLimitInBytes) {
+      throw new TooManyRequestsException("IP request size limit of " + ipRequestLimitInBytes + " bytes per " +
+        requestLimitPeriodInSeconds + " seconds exceeded" + textLevelInfo);
+    }
+  }
+
+  /**
+   * Count a request for the IP address and for the combination of IP address and fingerprint.
+   */
+  void logRequest(String ipAddress, String fingerprint, int sizeInBytes, JLanguageTool.Mode mode) {
+    long bucket = currentBucket();
+    // text level rules cause much less load, so count them accordingly
+    long size = mode == JLanguageTool.Mode.TEXTLEVEL_ONLY ? sizeInBytes / 10 : sizeInBytes;
+    addToWindow(byIp, ipAddress, bucket, size);
+    addToWindow(byFingerprint, new FingerprintKey(ipAddress, fingerprint), bucket, size);
+    removeExpiredWindows(bucket);
+  }
+
+  // adding inside compute() keeps removeExpiredWindows() from removing the window in between:
+  private static <K> void addToWindow(ConcurrentMap<K, Window> windows, K key, long bucket, long size) {
+    windows.compute(key, (k, window) -> {
+      Window result = window != null ? window : new Window();
+      result.add(bucket, size);
+      return result;
+    });
+  }
+
+  private long currentBucket() {
+    return System.currentTimeMillis() / bucketMillis;
+  }
+
+  /**
+   * Remove the windows of clients without requests in the current period, at most once per period,
+   * so memory use depends on the number of active clients only.
+   */
+  private void removeExpiredWindows(long bucket) {
+    long lastCleanup = lastCleanupBucket.get();
+    if (bucket - lastCleanup >= BUCKETS_PER_PERIOD && lastCleanupBucket.compareAndSet(lastCleanup, bucket)) {
+      removeExpiredWindows(byIp, bucket);
+      removeExpiredWindows(byFingerprint, bucket);
+    }
+  }
+
+  // the expiry check and the removal happen atomically per key, so a concurrent request isn't lost:
+  private static <K> void removeExpiredWindows(ConcurrentMap<K, Window> windows, long bucket) {
+    for (K key : windows.keySet()) {
+      windows.computeIfPresent(key, (k, window) -> window.isExpired(bucket) ? null : window);
+    }
+  }
+
+  /**
+   * Request counts and sizes of one client in a ring buffer of {@link #BUCKETS_PER_PERIOD} buckets
+   * that covers the limit period.
+   */
+  static final class Window {
+
+    private final long[] buckets = new long[BUCKETS_PER_PERIOD];
+    private final int[] requests = new int[BUCKETS_PER_PERIOD];
+    private final long[] sizes = new long[BUCKETS_PER_PERIOD];
+    private long lastBucket;
+
+    synchronized void add(long bucket, long size) {
+      int slot = (int) (bucket % BUCKETS_PER_PERIOD);
+      if (buckets[slot] != bucket) {
+        buckets[slot] = bucket;
+        requests[slot] = 0;
+        sizes[slot] = 0;
+      }
+      requests[slot]++;
+      sizes[slot] += size;
+      lastBucket = Math.max(lastBucket, bucket);
+    }
+
+    synchronized int getRequests(long currentBucket) {
+      int result = 0;
+      for (int i = 0; i < BUCKETS_PER_PERIOD; i++) {
+        if (isInPeriod(buckets[i], currentBucket)) {
+          result += requests[i];
         }
-        if (event.mode == JLanguageTool.Mode.TEXTLEVEL_ONLY) {
-          if (ipFingerprintFactor > 0 && requestLimitInBytes > 0 && requestSizeByFingerprint > requestLimitInBytes) {
-            String msg = "limit in Mode.TEXTLEVEL_ONLY: " + requestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            throw new TooManyRequestsException("Client request size limit of " + requestLimitInBytes + " bytes per " +
-              requestLimitPeriodInSeconds + " seconds exceeded in text-level checks");
-          }
-          if (requestLimitInBytes > 0 && requestSizeByIp > ipRequestLimitInBytes) {
-            String msg = "limit in Mode.TEXTLEVEL_ONLY: " + ipRequestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            throw new TooManyRequestsException("IP request size limit of " + ipRequestLimitInBytes + " bytes per " +
-              requestLimitPeriodInSeconds + " seconds exceeded in text-level checks");
-          }
-        } else {
-          if (ipFingerprintFactor > 0 && requestLimitInBytes > 0 && requestSizeByFingerprint > requestLimitInBytes) {
-            String msg = "limit: " + requestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            throw new TooManyRequestsException("Client request size limit of " + requestLimitInBytes + " bytes per " +
-              requestLimitPeriodInSeconds + " seconds exceeded");
-          }
-          if (requestLimitInBytes > 0 && requestSizeByIp > ipRequestLimitInBytes) {
-            String msg = "limit: " + ipRequestLimitInBytes + " / " + requestLimitPeriodInSeconds + ", request size: "  + requestSizeByIp + ", ip: " + ipAddress + ", fingerprint: " + fingerprint;
-            throw new TooManyRequestsException("IP request size limit of " + ipRequestLimitInBytes + " bytes per " +
-              requestLimitPeriodInSeconds + " seconds exceeded");
-          }
+      }
+      return result;
+    }
+
+    synchronized long getSize(long currentBucket) {
+      long result = 0;
+      for (int i = 0; i < BUCKETS_PER_PERIOD; i++) {
+        if (isInPeriod(buckets[i], currentBucket)) {
+          result += sizes[i];
         }
       }
+      return result;
+    }
+
+    synchronized boolean isExpired(long currentBucket) {
+      // not !isInPeriod(), a concurrent request may already have been added to a bucket after currentBucket:
+      return lastBucket <= currentBucket - BUCKETS_PER_PERIOD;
+    }
+
+    private static boolean isInPeriod(long bucket, long currentBucket) {
+      return bucket > currentBucket - BUCKETS_PER_PERIOD && bucket <= currentBucket;
     }
   }
-  
-  protected static class RequestEvent {
+
+  private static final class FingerprintKey {
 
     private final String ip;
-    private final Date date;
-    private final int sizeInBytes;
-    private final String fingerprint;
-    private final JLanguageTool.Mode mode;
+    private final int fingerprintHash;
 
-    RequestEvent(String ip, Date date, int sizeInBytes, String fingerprint, JLanguageTool.Mode mode) {
+    FingerprintKey(String ip, String fingerprint) {
       this.ip = ip;
-      this.date = new Date(date.getTime());
-      this.sizeInBytes = sizeInBytes;
-      this.fingerprint = fingerprint;
-      this.mode = mode;
+      this.fingerprintHash = fingerprint.hashCode();
     }
 
-    protected Date getDate() {
-      return date;
-    }
-    
-    int getSizeInBytes() {
-      return sizeInBytes;
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      FingerprintKey other = (FingerprintKey) o;
+      return fingerprintHash == other.fingerprintHash && ip.equals(other.ip);
     }
 
+    @Override
+    public int hashCode() {
+      return 31 * ip.hashCode() + fingerprintHash;
+    }
   }
 
 }
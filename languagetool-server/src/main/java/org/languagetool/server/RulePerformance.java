@@ -0,0 +1,66 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.languagetool.rules.RuleMetrics;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * @since 5.9
+ */
+public class RulePerformance implements RulePerformanceMBean {
+
+  @Override
+  public Map<String, Long> getTopRulesByTime() {
+    return toMap(RuleMetrics.getRuleStats(), stats -> stats.getEstimatedNanos() / 1_000_000);
+  }
+
+  @Override
+  public Map<String, Long> getTopDisambiguationRulesByTime() {
+    return toMap(RuleMetrics.getDisambiguationRuleStats(), stats -> stats.getEstimatedNanos() / 1_000_000);
+  }
+
+  @Override
+  public Map<String, Long> getTopRulesInvocations() {
+    return toMap(RuleMetrics.getRuleStats(), RuleMetrics.RuleStats::getInvocations);
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return RuleMetrics.isEnabled();
+  }
+
+  @Override
+  public void setEnabled(boolean enabled) {
+    RuleMetrics.setEnabled(enabled);
+  }
+
+  private static Map<String, Long> toMap(List<RuleMetrics.RuleStats> stats, ToLongFunction<RuleMetrics.RuleStats> value) {
+    Map<String, Long> result = new LinkedHashMap<>();
+    for (RuleMetrics.RuleStats ruleStats : RuleMetrics.getTopRulesByTime(stats, ServerMetricsCollector.MAX_EXPORTED_RULES)) {
+      result.put(ruleStats.getLangCode() + "/" + ruleStats.getRuleId(), value.applyAsLong(ruleStats));
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,50 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import java.util.Map;
+
+/**
+ * JMX access to {@link org.languagetool.rules.RuleMetrics}. There's no reset, as the metrics are
+ * also exported as Prometheus counters, which must not decrease.
+ * @since 5.9
+ */
+public interface RulePerformanceMBean {
+
+  /**
+   * @return language code and rule id (like {@code de/COMMA_RULE}) mapped to the estimated
+   * computation time in milliseconds, most expensive rules first
+   */
+  Map<String, Long> getTopRulesByTime();
+
+  /**
+   * @return like {@link #getTopRulesByTime()}, but for disambiguation rules
+   */
+  Map<String, Long> getTopDisambiguationRulesByTime();
+
+  /**
+   * @return language code and rule id mapped to the number of times the rule was run,
+   * for the rules from {@link #getTopRulesByTime()}
+   */
+  Map<String, Long> getTopRulesInvocations();
+
+  boolean isEnabled();
+
+  void setEnabled(boolean enabled);
+}
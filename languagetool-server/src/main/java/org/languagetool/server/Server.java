@@ -128,8 +128,19 @@ abstract class Server {
     System.out.println("                 'maxSpellingSuggestions' - only this many spelling errors will have suggestions for performance reasons (optional,\n" +
                        "                                            affects Hunspell-based languages only)");
     System.out.println("                 'maxCheckThreads' - maximum number of threads working in parallel (optional)");
+    System.out.println("                 'maxBatchCheckThreads' - maximum number of threads a request with several texts uses in parallel (optional, default: a quarter of the checker threads)");
+    System.out.println("                 'virtualThreads' - handle requests on virtual threads, needs Java 21 (optional, default: false)");
+    System.out.println("                 'maxVirtualThreads' - maximum number of requests handled in parallel if 'virtualThreads' is set (optional, default: 1000)");
+    System.out.println("                 'streamResponses' - send JSON responses with chunked encoding while they are written, errors while writing\n" +
+                       "                                     result in incomplete JSON with status 200 (optional, default: false)");
+    System.out.println("                 'checkScheduler' - queue checks in lanes by length and mode and adapt the number of parallel checks to their latency (optional, default: false)");
+    System.out.println("                 'checkSchedulerLongTextLength' - texts with more characters are queued as long texts if 'checkScheduler' is set (optional, default: 5000)");
+    System.out.println("                 'checkSchedulerQueueSize' - maximum number of checks waiting per lane if 'checkScheduler' is set (optional, default: 50)");
     System.out.println("                 'cacheSize' - size of internal cache in number of sentences (optional, default: 0)");
     System.out.println("                 'cacheTTLSeconds' - how many seconds sentences are kept in cache (optional, default: 300 if 'cacheSize' is set)");
+    System.out.println("                 'cacheOffHeapSizeInMB' - off-heap memory in MB for rule matches that don't fit into the cache anymore (optional, default: 0)");
+    System.out.println("                 'sharedCacheFile' - file for rule matches shared by all server processes on this host (optional)");
+    System.out.println("                 'sharedCacheSizeInMB' - size of 'sharedCacheFile', must be the same for all processes (optional, default: 256)");
     System.out.println("                 'requestLimit' - maximum number of requests per requestLimitPeriodInSeconds (optional)");
     System.out.println("                 'requestLimitInBytes' - maximum aggregated size of requests per requestLimitPeriodInSeconds (optional)");
     System.out.println("                 'timeoutRequestLimit' - maximum number of timeout request (optional)");
@@ -140,7 +151,8 @@ abstract class Server {
     System.out.println("                  https://github.com/languagetool-org/languagetool/blob/master/languagetool-standalone/CHANGES.md#word2vec");
     System.out.println("                 'fasttextModel' - a model file for better language detection (optional), see");
     System.out.println("                                   https://fasttext.cc/docs/en/language-identification.html");
-    System.out.println("                 'fasttextBinary' - compiled fasttext executable for language detection (optional), see");
+    System.out.println("                 'fasttextBinary' - compiled fasttext executable for language detection (optional, only needed if");
+    System.out.println("                                    'fasttextModel' can't be run in the JVM, e.g. because it's quantized), see");
     System.out.println("                                    https://fasttext.cc/docs/en/support.html");
     System.out.println("                 'maxWorkQueueSize' - reject request if request queue gets larger than this (optional)");
     System.out.println("                 'rulesFile' - a file containing rules configuration, such as .langugagetool.cfg (optional)");
@@ -150,7 +162,10 @@ abstract class Server {
     System.out.println("                 'disabledRuleIds' - a comma-separated list of rule ids that are turned off for this server (optional)");
     System.out.println("                 'pipelineCaching' - set to 'true' to enable caching of internal pipelines to improve performance");
     System.out.println("                 'maxPipelinePoolSize' - cache size if 'pipelineCaching' is set");
-    System.out.println("                 'pipelineExpireTimeInSeconds' - time after which pipeline cache items expire");
+    System.out.println("                 'incrementalCheckingSessions' - number of documents per pipeline for which a re-check with the same 'textSessionId'\n" +
+                       "                                                 only checks the changed sentences, needs 'pipelineCaching' (optional, default: 0, i.e. disabled)");
+    System.out.println("                 'incrementalCheckingNeighbourhood' - number of unchanged sentences around a change that get checked again (optional, default: 1)");
+    System.out.println("                 'pipelineExpireTimeInSeconds' - time after which idle pipeline cache items expire, unless they were recently needed");
     System.out.println("                 'pipelinePrewarming' - set to 'true' to fill pipeline cache on start (can slow down start a lot)");
     System.out.println("                 Spellcheck-only languages: You can add simple spellcheck-only support for languages that LT doesn't");
     System.out.println("                                            support by defining two optional properties:");
@@ -186,6 +201,13 @@ abstract class Server {
   }
   
   protected ThreadPoolExecutor getExecutorService(HTTPServerConfig config) {
+    if (config.isVirtualThreads()) {
+      ServerTools.print("Setting up virtual thread pool with " + config.getMaxVirtualThreads() + " threads" +
+        (LtThreadPoolFactory.isVirtualThreadSupported() ? "" : " (not supported by this JVM, using platform threads)"));
+      return LtThreadPoolFactory.createVirtualThreadPoolExecutor(LtThreadPoolFactory.SERVER_POOL,
+        config.getMaxVirtualThreads(), 0,
+        (thread, throwable) -> log.error("Thread: " + thread.getName() + " failed with: " + throwable.getMessage()), false);
+    }
     int threadPoolSize = config.getMaxCheckThreads();
     ServerTools.print("Setting up thread pool with " + threadPoolSize + " threads");
 
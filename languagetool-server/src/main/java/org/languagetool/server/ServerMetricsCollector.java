@@ -19,19 +19,27 @@
 package org.languagetool.server;
 
 import com.google.common.cache.Cache;
+import io.prometheus.client.Collector;
 import io.prometheus.client.Counter;
+import io.prometheus.client.CounterMetricFamily;
 import io.prometheus.client.Gauge;
 import io.prometheus.client.Histogram;
 import io.prometheus.client.Info;
 import io.prometheus.client.exporter.HTTPServer;
 import io.prometheus.client.guava.cache.CacheMetricsCollector;
 import io.prometheus.client.hotspot.DefaultExports;
+import org.jetbrains.annotations.Nullable;
 import org.languagetool.JLanguageTool;
 import org.languagetool.Language;
 import org.languagetool.Premium;
+import org.languagetool.rules.RuleMetrics;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ServerMetricsCollector {
 
@@ -58,6 +66,9 @@ public class ServerMetricsCollector {
     10, 100, 500, 1000, 2500, 5000, 7500, 10000, 20000, 50000
   };
 
+  // only the most expensive rules are exported (and shown via JMX), to keep the cardinality low:
+  static final int MAX_EXPORTED_RULES = 100;
+
   private static final ServerMetricsCollector collector = new ServerMetricsCollector();
   
   private static HTTPServer server;
@@ -90,6 +101,10 @@ public class ServerMetricsCollector {
     .build("languagetool_check_speed_chars_per_second", "Histogram of relative check speed")
     .buckets(SPEED_BUCKETS).labelNames("language", "mode").register();
 
+  private final Counter coalescedCheckCounter = Counter
+    .build("languagetool_coalesced_checks_total", "Checks that waited for an identical check running at the same time")
+    .labelNames("language", "mode").register();
+
   private final Counter requestErrorCounter = Counter
     .build("languagetool_request_errors_total", "Various request errors")
     .labelNames("reason").register();
@@ -114,6 +129,8 @@ public class ServerMetricsCollector {
 
   private final CacheMetricsCollector cacheMetrics = new CacheMetricsCollector().register();
 
+  private final RuleMetricsCollector ruleMetrics = new RuleMetricsCollector(MAX_EXPORTED_RULES).register();
+
 
   public static void init(HTTPServerConfig config) throws IOException {
     DefaultExports.initialize();
@@ -186,6 +203,13 @@ public class ServerMetricsCollector {
     checkSpeed.labels("", modeLabel).observe(speed);
   }
 
+  /** @since 5.9 */
+  public void logCoalescedCheck(Language language, JLanguageTool.Mode mode) {
+    String langLabel = language != null ? language.getShortCode() : UNKNOWN;
+    String modeLabel = mode != null ? mode.name() : UNKNOWN;
+    coalescedCheckCounter.labels(langLabel, modeLabel).inc();
+  }
+
   public void logRequestError(RequestErrorType type) {
     requestErrorCounter.labels(type.name().toLowerCase()).inc();
   }
@@ -202,4 +226,66 @@ public class ServerMetricsCollector {
     failedHealthcheckCounter.inc();
   }
 
+  /**
+   * Exports {@link RuleMetrics} of the rules that used the most CPU time. A rule that has been among the
+   * {@code maxRules} most expensive rules once keeps being exported, so its series don't disappear when
+   * other rules become more expensive, and as {@link RuleMetrics} are never reset, they are proper counters.
+   * The time is exported as sampled, not extrapolated (which isn't monotonic), the estimated time per rule is
+   * {@code sampled_computation_time_seconds / sampled_invocations * invocations}.
+   * To limit the cardinality, no more rules are added once {@code 5 * maxRules} rules per type are exported.
+   */
+  static class RuleMetricsCollector extends Collector {
+
+    private static final List<String> LABELS = Arrays.asList("language", "rule_id", "type");
+
+    private final int maxRules;
+    private final Set<String> exportedRules = ConcurrentHashMap.newKeySet();
+    private final Set<String> exportedDisambiguationRules = ConcurrentHashMap.newKeySet();
+
+    RuleMetricsCollector(int maxRules) {
+      this.maxRules = maxRules;
+    }
+
+    @Override
+    public List<MetricFamilySamples> collect() {
+      CounterMetricFamily sampledTime = new CounterMetricFamily("languagetool_rule_sampled_computation_time_seconds_total",
+        "Computation time of the timed invocations per rule, in seconds", LABELS);
+      CounterMetricFamily sampledInvocations = new CounterMetricFamily("languagetool_rule_sampled_invocations_total",
+        "Number of times a rule was run and timed", LABELS);
+      CounterMetricFamily invocations = new CounterMetricFamily("languagetool_rule_invocations_total",
+        "Number of times a rule was run", LABELS);
+      CounterMetricFamily matches = new CounterMetricFamily("languagetool_rule_matches_total",
+        "Number of matches per rule", LABELS);
+      add(RuleMetrics.getRuleStats(), "rule", exportedRules, sampledTime, sampledInvocations, invocations, matches);
+      add(RuleMetrics.getDisambiguationRuleStats(), "disambiguation", exportedDisambiguationRules,
+        sampledTime, sampledInvocations, invocations, null);
+      return Arrays.asList(sampledTime, sampledInvocations, invocations, matches);
+    }
+
+    private void add(List<RuleMetrics.RuleStats> stats, String type, Set<String> exported, CounterMetricFamily sampledTime,
+                     CounterMetricFamily sampledInvocations, CounterMetricFamily invocations, @Nullable CounterMetricFamily matches) {
+      for (RuleMetrics.RuleStats ruleStats : RuleMetrics.getTopRulesByTime(stats, maxRules)) {
+        if (exported.size() < 5 * maxRules) {
+          exported.add(getKey(ruleStats));
+        }
+      }
+      for (RuleMetrics.RuleStats ruleStats : stats) {
+        if (!exported.contains(getKey(ruleStats))) {
+          continue;
+        }
+        List<String> labels = Arrays.asList(ruleStats.getLangCode(), ruleStats.getRuleId(), type);
+        sampledTime.addMetric(labels, ruleStats.getSampledNanos() / 1e9);
+        sampledInvocations.addMetric(labels, ruleStats.getSampledInvocations());
+        invocations.addMetric(labels, ruleStats.getInvocations());
+        if (matches != null) {
+          matches.addMetric(labels, ruleStats.getMatches());
+        }
+      }
+    }
+
+    private static String getKey(RuleMetrics.RuleStats ruleStats) {
+      return ruleStats.getLangCode() + "/" + ruleStats.getRuleId();
+    }
+  }
+
 }
@@ -18,6 +18,8 @@
  */
 package org.languagetool.server;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.sun.net.httpserver.HttpExchange;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.builder.EqualsBuilder;
@@ -32,6 +34,7 @@ import org.languagetool.language.identifier.LanguageIdentifier;
 import org.languagetool.language.identifier.LanguageIdentifierService;
 import org.languagetool.markup.AnnotatedText;
 import org.languagetool.markup.AnnotatedTextBuilder;
+import org.languagetool.markup.TextPart;
 import org.languagetool.rules.*;
 import org.languagetool.rules.bitext.BitextRule;
 import org.languagetool.rules.spelling.morfologik.suggestions_ordering.SuggestionsOrdererConfig;
@@ -41,7 +44,9 @@ import org.slf4j.MDC;
 
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -66,6 +71,20 @@ abstract class TextChecker {
   protected abstract void setHeaders(HttpExchange httpExchange);
   protected abstract String getResponse(AnnotatedText text, Language language, DetectedLanguage lang, Language motherTongue, List<CheckResults> matches,
                                         List<RuleMatch> hiddenMatches, String incompleteResultReason, int compactMode, boolean showPremiumHint, JLanguageTool.Mode mode);
+  /**
+   * Like {@link #getResponse}, but writes the response (UTF-8 encoded) directly to {@code out}. The default
+   * implementation writes the result of {@link #getResponse}, subclasses can overwrite this to avoid
+   * building the complete response in memory.
+   * @since 5.9
+   */
+  protected void writeResponse(OutputStream out, AnnotatedText text, Language language, DetectedLanguage lang, Language motherTongue, List<CheckResults> matches,
+                               List<RuleMatch> hiddenMatches, String incompleteResultReason, int compactMode, boolean showPremiumHint, JLanguageTool.Mode mode) throws IOException {
+    out.write(getResponse(text, language, lang, motherTongue, matches, hiddenMatches, incompleteResultReason, compactMode, showPremiumHint, mode).getBytes(ENCODING));
+  }
+  /**
+   * @param responses the responses for the texts of a batch check, as created by {@link #getResponse}
+   */
+  protected abstract String getBatchResponse(List<String> responses);
   @NotNull
   protected abstract List<String> getPreferredVariants(Map<String, String> parameters);
   protected abstract DetectedLanguage getLanguage(String text, Map<String, String> parameters, List<String> preferredVariants,
@@ -89,7 +108,12 @@ abstract class TextChecker {
   private final RequestCounter reqCounter;
   private LanguageIdentifier languageIdentifier;
   private final ExecutorService executorService;
+  @Nullable
+  private final CheckScheduler scheduler;
   private final ResultCache cache;
+  @Nullable
+  private final SharedResultCache sharedCache;
+  private final CheckCoalescer checkCoalescer = new CheckCoalescer();
   private final DatabaseLogger databaseLogger;
   private final Long logServerId;
   private final Random random = new Random();
@@ -109,6 +133,7 @@ abstract class TextChecker {
               config.getNgramLangIdentData(),
               config.getFasttextBinary(),
               config.getFasttextModel());
+      ServerMetricsCollector.getInstance().monitorCache("languagetool_language_detection_cache", languageIdentifier.getDetectionCache());
     }
     this.executorService = LtThreadPoolFactory.createFixedThreadPoolExecutor(
       LtThreadPoolFactory.TEXT_CHECKER_POOL,
@@ -118,6 +143,8 @@ abstract class TextChecker {
         log.error("Thread: " + thread.getName() + " failed with: " + throwable.getMessage());
       },
       false);
+    this.scheduler = config.isCheckScheduler() ?
+      new CheckScheduler(executorService, config.getMaxTextCheckerThreads(), config.getCheckSchedulerQueueSize()) : null;
 
     // set up other pools used by text checker and remote rule
     //Need to use own thread pool, otherwise the text-checker thread-pool will be full very soon
@@ -129,7 +156,18 @@ abstract class TextChecker {
         log.error("Couldn't read RemoteRule configuration", e);
       }
     }
-    if (remoteRuleCount > 0) {
+    if (remoteRuleCount > 0 && config.isVirtualThreads()) {
+      // remote rules mostly wait for I/O:
+      LtThreadPoolFactory.createVirtualThreadPoolExecutor(
+        LtThreadPoolFactory.REMOTE_RULE_EXECUTING_POOL,
+        config.getMaxCheckThreads() * remoteRuleCount * LtThreadPoolFactory.REMOTE_RULE_POOL_SIZE_FACTOR,
+        -1,
+        (thread, throwable) -> {
+          log.error("Thread: " + thread.getName() + " failed with: " + throwable.getMessage());
+        },
+        true
+      );
+    } else if (remoteRuleCount > 0) {
       LtThreadPoolFactory.createFixedThreadPoolExecutor(
         LtThreadPoolFactory.REMOTE_RULE_EXECUTING_POOL,
         config.getMaxCheckThreads(),
@@ -142,8 +180,10 @@ abstract class TextChecker {
       );
     }
 
+    this.sharedCache = config.getCacheSize() > 0 ? getSharedCache(config) : null;
     this.cache = config.getCacheSize() > 0 ? new ResultCache(
-      config.getCacheSize(), config.getCacheTTLSeconds(), TimeUnit.SECONDS) : null;
+      config.getCacheSize(), config.getCacheTTLSeconds(), TimeUnit.SECONDS, config.getCacheOffHeapSizeInMB() * 1024L * 1024L,
+      sharedCache) : null;
     this.databaseLogger = DatabaseLogger.getInstance();
     if (databaseLogger.isLogging()) {
       this.logServerId = DatabaseAccess.getInstance().getOrCreateServerId();
@@ -181,6 +221,19 @@ abstract class TextChecker {
     }
   }
 
+  @Nullable
+  private static SharedResultCache getSharedCache(HTTPServerConfig config) {
+    if (config.getSharedCacheFile() == null) {
+      return null;
+    }
+    try {
+      log.info("Using shared cache file " + config.getSharedCacheFile() + " (" + config.getSharedCacheSizeInMB() + "MB)");
+      return new MappedFileResultCache(config.getSharedCacheFile().toPath(), config.getSharedCacheSizeInMB() * 1024L * 1024L);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not open shared cache file " + config.getSharedCacheFile(), e);
+    }
+  }
+
   private void prewarmPipelinePool() {
     // setting + number of pipelines
     // typical addon settings at the moment (2018-11-05)
@@ -218,19 +271,7 @@ abstract class TextChecker {
     }
     try {
       for (Map.Entry<PipelineSettings, Integer> prewarmSetting : prewarmSettings.entrySet()) {
-          int numPipelines = prewarmSetting.getValue();
-          PipelineSettings setting = prewarmSetting.getKey();
-
-          // request n pipelines first, return all afterwards -> creates multiple for same setting
-          List<Pipeline> pipelines = new ArrayList<>();
-          for (int i = 0; i < numPipelines; i++) {
-            Pipeline p = pipelinePool.getPipeline(setting);
-            p.check("LanguageTool");
-            pipelines.add(p);
-          }
-          for (Pipeline p : pipelines) {
-            pipelinePool.returnPipeline(setting, p);
-          }
+        pipelinePool.prewarm(prewarmSetting.getKey(), prewarmSetting.getValue());
       }
     } catch (Exception e) {
       throw new RuntimeException("Error while prewarming pipelines", e);
@@ -239,7 +280,15 @@ abstract class TextChecker {
 
   void shutdownNow() {
     executorService.shutdownNow();
+    pipelinePool.shutdown();
     RemoteRule.shutdown();
+    if (sharedCache != null) {
+      try {
+        sharedCache.close();
+      } catch (IOException e) {
+        log.warn("Could not close shared cache file " + config.getSharedCacheFile(), e);
+      }
+    }
   }
 
   void checkText(AnnotatedText aText, HttpExchange httpExchange, Map<String, String> params, ErrorRequestLimiter errorRequestLimiter,
@@ -307,18 +356,6 @@ abstract class TextChecker {
       return;
     }
     }
-    List<String> dictGroups = null;
-    String dictName = "default";
-    if (params.containsKey("dicts")) {
-      dictGroups = Arrays.asList(params.get("dicts").split(","));
-      dictGroups.sort(Comparator.naturalOrder());
-      dictName = "groups_" + String.join(",", dictGroups);
-    }
-    List<String> dictWords = limits.getPremiumUid() != null ?
-      getUserDictWords(limits, dictGroups) : Collections.emptyList();
-
-    boolean filterDictionaryMatches = "true".equals(params.get("filterDictionaryMatches"));
-
     Long textSessionId = null;
     try {
       if (params.containsKey("textSessionId")) {
@@ -385,13 +422,7 @@ abstract class TextChecker {
       params.getOrDefault("ld", "control").equalsIgnoreCase("test"));
     Language lang = detLang.getGivenLanguage();
 
-    List<Rule> userRules = getUserRules(limits, lang, dictGroups);
-    UserConfig userConfig =
-      new UserConfig(dictWords, userRules,
-                     getRuleValues(params), config.getMaxSpellingSuggestions(),
-                     limits.getPremiumUid(), dictName, limits.getDictCacheSize(),
-                     null, filterDictionaryMatches, abTest, textSessionId,
-                     !limits.hasPremium() && enableHiddenRules);
+    UserConfig userConfig = getUserConfig(params, limits, lang, abTest, textSessionId, enableHiddenRules);
 
     //print("Check start: " + text.length() + " chars, " + langParam);
 
@@ -421,65 +452,34 @@ abstract class TextChecker {
     //print("Starting check: " + aText.getPlainText().length() + " chars, #" + count);
     String motherTongueParam = params.get("motherTongue");
     Language motherTongue = motherTongueParam != null ? parseLanguage(motherTongueParam) : null;
-    boolean useEnabledOnly = "yes".equals(params.get("enabledOnly")) || "true".equals(params.get("enabledOnly"));
-    List<Language> altLanguages = new ArrayList<>();
-    if (params.get("altLanguages") != null) {
-      String[] altLangParams = params.get("altLanguages").split(",\\s*");
-      for (String langCode : altLangParams) {
-        Language altLang = parseLanguage(langCode);
-        altLanguages.add(altLang);
-        if (altLang.hasVariant() && !altLang.isVariant()) {
-          ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
-          throw new BadRequestException("You specified altLanguage '" + langCode + "', but for this language you need to specify a variant, e.g. 'en-GB' instead of just 'en'");
-        }
-      }
-    }
-    List<String> enabledRules = getEnabledRuleIds(params);
-
-    List<String> disabledRules = getDisabledRuleIds(params);
-    List<CategoryId> enabledCategories = getCategoryIds("enabledCategories", params);
-    List<CategoryId> disabledCategories = getCategoryIds("disabledCategories", params);
-
-    if ((disabledRules.size() > 0 || disabledCategories.size() > 0) && useEnabledOnly) {
-      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
-      throw new BadRequestException("You cannot specify disabled rules or categories using enabledOnly=true");
-    }
-    if (enabledRules.isEmpty() && enabledCategories.isEmpty() && useEnabledOnly) {
-      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
-      throw new BadRequestException("You must specify enabled rules or categories when using enabledOnly=true");
-    }
-
-    boolean enableTempOffRules = "true".equals(params.get("enableTempOffRules"));
-    boolean useQuerySettings = enabledRules.size() > 0 || disabledRules.size() > 0 ||
-            enabledCategories.size() > 0 || disabledCategories.size() > 0 || enableTempOffRules;
-    boolean allowIncompleteResults = "true".equals(params.get("allowIncompleteResults"));
-    JLanguageTool.Mode mode = ServerTools.getMode(params);
-    JLanguageTool.Level level = ServerTools.getLevel(params);
-    String callback = params.get("callback");
-    // allowed to log input on errors?
-    boolean inputLogging = !params.getOrDefault("inputLogging", "").equals("no");
-    QueryParams qParams = new QueryParams(altLanguages, enabledRules, disabledRules,
-      enabledCategories, disabledCategories, useEnabledOnly,
-      useQuerySettings, allowIncompleteResults, enableHiddenRules, limits.getPremiumUid() != null && limits.hasPremium(), enableTempOffRules, mode, level, callback, inputLogging);
+    QueryParams qParams = getQueryParams(params, limits, enableHiddenRules);
+    JLanguageTool.Mode mode = qParams.mode;
 
     int textSize = length;
 
     List<CheckResults> ruleMatchesSoFar = Collections.synchronizedList(new ArrayList<>());
 
+    Object checkKey = getCheckKey(aText, lang, motherTongue, params, qParams, userConfig, limits, detLang, preferredLangs, preferredVariants);
     Future<List<CheckResults>> future;
     try {
-      future = executorService.submit(() -> {
+      future = submitCheck(length, mode, false, () -> {
         try (MDC.MDCCloseable c = MDC.putCloseable("rID", LanguageToolHttpHandler.getRequestId(httpExchange))) {
           log.debug("Starting text check on {} chars; params: {}", length, qParams);
-          long time = System.currentTimeMillis();
-          List<CheckResults> results = getRuleMatches(aText, lang, motherTongue, params, qParams, userConfig, detLang, preferredLangs,
-            preferredVariants, f -> ruleMatchesSoFar.add(new CheckResults(Collections.singletonList(f), Collections.emptyList())));
-          log.debug("Finished text check in {}ms. Starting suggestion generation.", System.currentTimeMillis() - time);
-          time = System.currentTimeMillis();
-          // generate suggestions, otherwise this is not part of the timeout logic and not properly measured in the metrics
-          results.stream().flatMap(r -> r.getRuleMatches().stream()).forEach(RuleMatch::computeLazySuggestedReplacements);
-          log.debug("Finished suggestion generation in {}ms, returning results.", System.currentTimeMillis() - time);
-          return results;
+          // identical requests that are checked at the same time share one check:
+          return checkCoalescer.check(checkKey,
+            f -> ruleMatchesSoFar.add(new CheckResults(Collections.singletonList(f), Collections.emptyList())),
+            () -> ServerMetricsCollector.getInstance().logCoalescedCheck(lang, mode),
+            listener -> {
+              long time = System.currentTimeMillis();
+              List<CheckResults> results = getRuleMatches(aText, lang, motherTongue, params, qParams, userConfig, detLang, preferredLangs,
+                preferredVariants, listener);
+              log.debug("Finished text check in {}ms. Starting suggestion generation.", System.currentTimeMillis() - time);
+              time = System.currentTimeMillis();
+              // generate suggestions, otherwise this is not part of the timeout logic and not properly measured in the metrics
+              results.stream().flatMap(r -> r.getRuleMatches().stream()).forEach(RuleMatch::computeLazySuggestedReplacements);
+              log.debug("Finished suggestion generation in {}ms, returning results.", System.currentTimeMillis() - time);
+              return results;
+            });
         }
       });
     } catch (RejectedExecutionException e) {
@@ -488,11 +488,7 @@ abstract class TextChecker {
     String incompleteResultReason = null;
     List<CheckResults> res;
     try {
-      if (limits.getMaxCheckTimeMillis() < 0) {
-        res = future.get();
-      } else {
-        res = future.get(limits.getMaxCheckTimeMillis(), TimeUnit.MILLISECONDS);
-      }
+      res = getResult(future, limits.getMaxCheckTimeMillis());
     } catch (ExecutionException e) {
       future.cancel(true);
       if (ExceptionUtils.getRootCause(e) instanceof ErrorRateTooHighException) {
@@ -576,18 +572,32 @@ abstract class TextChecker {
     }
 
     int compactMode = Integer.parseInt(params.getOrDefault("c", "0"));
-    String response = getResponse(aText, lang, detLang, motherTongue, res, hiddenMatches, incompleteResultReason, compactMode,
-      limits.getPremiumUid() == null, qParams.mode);
-    if (qParams.callback != null) {
-      // JSONP - still needed today for the special case of hosting your own on-premise LT without SSL
-      // and using it from a local MS Word (not Online Word) - issue #89 in the add-in repo:
-      response = qParams.callback + "(" + response + ");";
-    }
     String messageSent = "sent";
     String languageMessage = lang.getShortCodeWithCountryAndVariant();
     try {
-      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.getBytes(ENCODING).length);
-      httpExchange.getResponseBody().write(response.getBytes(ENCODING));
+      if (config.isStreamResponses()) {
+        // response length 0 = chunked transfer encoding, so the response doesn't need to be built in memory first:
+        httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+        OutputStream out = httpExchange.getResponseBody();
+        if (qParams.callback != null) {
+          out.write((qParams.callback + "(").getBytes(ENCODING));
+        }
+        writeResponse(out, aText, lang, detLang, motherTongue, res, hiddenMatches, incompleteResultReason, compactMode,
+          limits.getPremiumUid() == null, qParams.mode);
+        if (qParams.callback != null) {
+          out.write(");".getBytes(ENCODING));
+        }
+      } else {
+        String response = getResponse(aText, lang, detLang, motherTongue, res, hiddenMatches, incompleteResultReason, compactMode,
+          limits.getPremiumUid() == null, qParams.mode);
+        if (qParams.callback != null) {
+          // JSONP - still needed today for the special case of hosting your own on-premise LT without SSL
+          // and using it from a local MS Word (not Online Word) - issue #89 in the add-in repo:
+          response = qParams.callback + "(" + response + ");";
+        }
+        httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.getBytes(ENCODING).length);
+        httpExchange.getResponseBody().write(response.getBytes(ENCODING));
+      }
       ServerMetricsCollector.getInstance().logResponse(HttpURLConnection.HTTP_OK);
     } catch (IOException exception) {
       // the client is disconnected
@@ -674,6 +684,213 @@ abstract class TextChecker {
 
   }
 
+  /**
+   * Check several independent texts with the same settings, as sent to {@code /v2/check/batch}. The texts
+   * are distributed over the check threads, each of which fetches a pipeline only once for all its texts.
+   * The limits for text length and check time apply to the batch as a whole. Language detection,
+   * multilingual texts, bitext checks and hidden matches are not supported.
+   * @since 5.9
+   */
+  void checkTexts(List<AnnotatedText> texts, HttpExchange httpExchange, Map<String, String> params,
+                  ErrorRequestLimiter errorRequestLimiter, String remoteAddress) throws Exception {
+    checkParams(params);
+    if (getLanguageAutoDetect(params) || params.get("multilingual") != null || params.get("sourceText") != null ||
+        params.get("callback") != null) {
+      throw new BadRequestException("Automatic language detection, 'multilingual', 'sourceText' and 'callback' are not supported for batch checks");
+    }
+    long timeStart = System.currentTimeMillis();
+    UserLimits limits = ServerTools.getUserLimits(params, config);
+    if (!config.isAnonymousAccessAllowed() && limits.getPremiumUid() == null) {
+      throw new AuthException("Anonymous access is prohibited on this server, please provide authentication.");
+    }
+    int length = texts.stream().mapToInt(text -> text.getPlainText().length()).sum();
+    if (length > limits.getMaxTextLength()) {
+      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.MAX_TEXT_SIZE);
+      throw new TextTooLongException("Your texts exceed the limit of " + limits.getMaxTextLength() +
+              " characters (they're " + length + " characters). Please submit fewer or shorter texts.");
+    }
+    if (!config.isLocalApiMode()) {
+      try {
+        RequestLimiter.checkUserLimit(getHttpReferrer(httpExchange), getHttpUserAgent(httpExchange), limits);
+      } catch (TooManyRequestsException e) {
+        String response = "Error: Access denied: " + e.getMessage();
+        httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_FORBIDDEN, response.getBytes(ENCODING).length);
+        httpExchange.getResponseBody().write(response.getBytes(ENCODING));
+        log.warn("Blocked batch request from uid:" + limits.getPremiumUid() + " because user limit is reached: " +
+          "limit = " + limits.getRequestsPerDay() + ", mode = " + limits.getLimitEnforcementMode() + ", access from " + remoteAddress);
+        return;
+      }
+    }
+
+    Language lang = parseLanguage(params.get("language"));
+    DetectedLanguage detLang = new DetectedLanguage(lang, lang);
+    String motherTongueParam = params.get("motherTongue");
+    Language motherTongue = motherTongueParam != null ? parseLanguage(motherTongueParam) : null;
+    UserConfig userConfig = getUserConfig(params, limits, lang, null, null, false);
+    QueryParams qParams = getQueryParams(params, limits, false);
+    PipelineSettings settings = new PipelineSettings(lang, motherTongue, qParams, config.globalConfig, userConfig);
+
+    // texts are assigned round-robin, so each thread gets about the same amount of work:
+    List<CheckResults> results = Collections.synchronizedList(new ArrayList<>(Collections.nCopies(texts.size(), null)));
+    int threads = Math.max(1, Math.min(texts.size(), config.getMaxBatchCheckThreads()));
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int i = 0; i < threads; i++) {
+        int firstText = i;
+        futures.add(submitCheck(length / threads, qParams.mode, true, () -> {
+          try (MDC.MDCCloseable c = MDC.putCloseable("rID", LanguageToolHttpHandler.getRequestId(httpExchange))) {
+            Pipeline lt = pipelinePool.getPipeline(settings);
+            try {
+              for (int j = firstText; j < texts.size() && !Thread.currentThread().isInterrupted(); j += threads) {
+                CheckResults result = lt.check2(texts.get(j), true, JLanguageTool.ParagraphHandling.NORMAL, null,
+                  qParams.mode, qParams.level, null);
+                result.getRuleMatches().forEach(RuleMatch::computeLazySuggestedReplacements);
+                results.set(j, result);
+              }
+            } finally {
+              pipelinePool.returnPipeline(settings, lt);
+            }
+          }
+          return null;
+        }));
+      }
+    } catch (RejectedExecutionException e) {
+      futures.forEach(future -> future.cancel(true));
+      throw new UnavailableException("Server overloaded, please try again later", e);
+    }
+    String incompleteResultReason = null;
+    try {
+      for (Future<?> future : futures) {
+        if (limits.getMaxCheckTimeMillis() < 0) {
+          future.get();
+        } else {
+          long remainingMillis = limits.getMaxCheckTimeMillis() - (System.currentTimeMillis() - timeStart);
+          future.get(Math.max(0, remainingMillis), TimeUnit.MILLISECONDS);
+        }
+      }
+    } catch (ExecutionException e) {
+      futures.forEach(future -> future.cancel(true));
+      if (e.getCause() != null && e.getCause() instanceof OutOfMemoryError) {
+        throw (OutOfMemoryError)e.getCause();
+      }
+      throw new RuntimeException(ServerTools.cleanUserTextFromMessage(e.getMessage(), params), e);
+    } catch (TimeoutException e) {
+      futures.forEach(future -> future.cancel(true));
+      if (errorRequestLimiter != null) {
+        errorRequestLimiter.logAccess(remoteAddress, httpExchange.getRequestHeaders(), params);
+      }
+      String message = "Batch checking took longer than allowed maximum of " + limits.getMaxCheckTimeMillis() +
+                       " milliseconds (lang: " + lang.getShortCodeWithCountryAndVariant() +
+                       ", " + texts.size() + " texts, " + length + " characters)";
+      if (qParams.allowIncompleteResults) {
+        log.info(message + " - returning the texts checked so far");
+        incompleteResultReason = "Results are incomplete: text checking took longer than allowed maximum of " +
+                String.format(Locale.ENGLISH, "%.2f", limits.getMaxCheckTimeMillis()/1000.0) + " seconds";
+      } else {
+        ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.MAX_CHECK_TIME);
+        throw new RuntimeException(message, e);
+      }
+    }
+
+    setHeaders(httpExchange);
+    int compactMode = Integer.parseInt(params.getOrDefault("c", "0"));
+    List<String> responses = new ArrayList<>();
+    int matchCount = 0;
+    for (int i = 0; i < texts.size(); i++) {
+      CheckResults result = results.get(i);
+      List<CheckResults> res;
+      if (result == null) {
+        res = Collections.emptyList();  // not checked because of the timeout
+      } else {
+        // no lazy computation at later points (outside of timeout enforcement)
+        result.getRuleMatches().forEach(RuleMatch::discardLazySuggestedReplacements);
+        res = Collections.singletonList(result);
+        matchCount += result.getRuleMatches().size();
+      }
+      responses.add(getResponse(texts.get(i), lang, detLang, motherTongue, res, Collections.emptyList(),
+        result == null ? incompleteResultReason : null, compactMode, limits.getPremiumUid() == null, qParams.mode));
+    }
+    String response = getBatchResponse(responses);
+    String messageSent = "sent";
+    try {
+      httpExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.getBytes(ENCODING).length);
+      httpExchange.getResponseBody().write(response.getBytes(ENCODING));
+      ServerMetricsCollector.getInstance().logResponse(HttpURLConnection.HTTP_OK);
+    } catch (IOException exception) {
+      // the client is disconnected
+      messageSent = "notSent: " + exception.getMessage();
+    }
+    int computationTime = (int) (System.currentTimeMillis() - timeStart);
+    ServerMetricsCollector.getInstance().logCheck(lang, computationTime, length, matchCount, qParams.mode);
+    log.info("Batch check done: " + texts.size() + " texts, " + length + " chars, " + lang.getShortCodeWithCountryAndVariant() +
+            ", " + matchCount + " matches, " + computationTime + "ms, " + threads + " threads, " + messageSent +
+            ", m:" + ServerTools.getModeForLog(qParams.mode) +
+            (limits.getPremiumUid() != null ? ", uid:" + limits.getPremiumUid() : ""));
+  }
+
+  private UserConfig getUserConfig(Map<String, String> params, UserLimits limits, Language lang, String abTest,
+                                   Long textSessionId, boolean enableHiddenRules) {
+    List<String> dictGroups = null;
+    String dictName = "default";
+    if (params.containsKey("dicts")) {
+      dictGroups = Arrays.asList(params.get("dicts").split(","));
+      dictGroups.sort(Comparator.naturalOrder());
+      dictName = "groups_" + String.join(",", dictGroups);
+    }
+    List<String> dictWords = limits.getPremiumUid() != null ?
+      getUserDictWords(limits, dictGroups) : Collections.emptyList();
+    boolean filterDictionaryMatches = "true".equals(params.get("filterDictionaryMatches"));
+    List<Rule> userRules = getUserRules(limits, lang, dictGroups);
+    return new UserConfig(dictWords, userRules,
+                     getRuleValues(params), config.getMaxSpellingSuggestions(),
+                     limits.getPremiumUid(), dictName, limits.getDictCacheSize(),
+                     null, filterDictionaryMatches, abTest, textSessionId,
+                     !limits.hasPremium() && enableHiddenRules);
+  }
+
+  private QueryParams getQueryParams(Map<String, String> params, UserLimits limits, boolean enableHiddenRules) {
+    boolean useEnabledOnly = "yes".equals(params.get("enabledOnly")) || "true".equals(params.get("enabledOnly"));
+    List<Language> altLanguages = new ArrayList<>();
+    if (params.get("altLanguages") != null) {
+      String[] altLangParams = params.get("altLanguages").split(",\\s*");
+      for (String langCode : altLangParams) {
+        Language altLang = parseLanguage(langCode);
+        altLanguages.add(altLang);
+        if (altLang.hasVariant() && !altLang.isVariant()) {
+          ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
+          throw new BadRequestException("You specified altLanguage '" + langCode + "', but for this language you need to specify a variant, e.g. 'en-GB' instead of just 'en'");
+        }
+      }
+    }
+    List<String> enabledRules = getEnabledRuleIds(params);
+
+    List<String> disabledRules = getDisabledRuleIds(params);
+    List<CategoryId> enabledCategories = getCategoryIds("enabledCategories", params);
+    List<CategoryId> disabledCategories = getCategoryIds("disabledCategories", params);
+
+    if ((disabledRules.size() > 0 || disabledCategories.size() > 0) && useEnabledOnly) {
+      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
+      throw new BadRequestException("You cannot specify disabled rules or categories using enabledOnly=true");
+    }
+    if (enabledRules.isEmpty() && enabledCategories.isEmpty() && useEnabledOnly) {
+      ServerMetricsCollector.getInstance().logRequestError(ServerMetricsCollector.RequestErrorType.INVALID_REQUEST);
+      throw new BadRequestException("You must specify enabled rules or categories when using enabledOnly=true");
+    }
+
+    boolean enableTempOffRules = "true".equals(params.get("enableTempOffRules"));
+    boolean useQuerySettings = enabledRules.size() > 0 || disabledRules.size() > 0 ||
+            enabledCategories.size() > 0 || disabledCategories.size() > 0 || enableTempOffRules;
+    boolean allowIncompleteResults = "true".equals(params.get("allowIncompleteResults"));
+    JLanguageTool.Mode mode = ServerTools.getMode(params);
+    JLanguageTool.Level level = ServerTools.getLevel(params);
+    String callback = params.get("callback");
+    // allowed to log input on errors?
+    boolean inputLogging = !params.getOrDefault("inputLogging", "").equals("no");
+    return new QueryParams(altLanguages, enabledRules, disabledRules,
+      enabledCategories, disabledCategories, useEnabledOnly,
+      useQuerySettings, allowIncompleteResults, enableHiddenRules, limits.getPremiumUid() != null && limits.hasPremium(), enableTempOffRules, mode, level, callback, inputLogging);
+  }
+
   @NotNull
   private Map<String, Integer> getRuleMatchCount(List<CheckResults> res) {
     Map<String, Integer> ruleMatchCount = new HashMap<>();
@@ -730,7 +947,10 @@ abstract class TextChecker {
       String sentenceHitPercentage = String.format(Locale.ENGLISH, "%.2f", cache.getSentenceCache().stats().hitRate() * 100.0f);
       String matchesHitPercentage = String.format(Locale.ENGLISH, "%.2f", cache.getMatchesCache().stats().hitRate() * 100.0f);
       String remoteHitPercentage = String.format(Locale.ENGLISH, "%.2f", cache.getRemoteMatchesCache().stats().hitRate() * 100.0f);
-      log.info("Cache stats: " + sentenceHitPercentage + "% / " + matchesHitPercentage + "% / " + remoteHitPercentage + "% hit rate");
+      log.info("Cache stats: " + sentenceHitPercentage + "% / " + matchesHitPercentage + "% / " + remoteHitPercentage + "% hit rate" +
+        (config.getCacheOffHeapSizeInMB() > 0 ? ", off-heap: " + cache.getOffHeapSize() + " sentences, " + cache.getOffHeapBytes() / 1024 + "KB, " +
+          String.format(Locale.ENGLISH, "%.2f", cache.getOffHeapHitRate() * 100.0f) + "% hit rate" : "") +
+        (config.getSharedCacheFile() != null ? ", shared cache hits: " + cache.getSharedHitCount() : ""));
     }
 
     if (parameters.get("sourceText") != null) {
@@ -782,6 +1002,50 @@ abstract class TextChecker {
     }
   }
 
+  /**
+   * Waits for the result of a check, at most {@code maxCheckTimeMillis} (unless negative). If the check was
+   * coalesced with an identical one that has been interrupted because it took too long, this request
+   * is treated as if it took too long itself, i.e. a {@link TimeoutException} is thrown.
+   */
+  static <T> T getResult(Future<T> future, long maxCheckTimeMillis) throws InterruptedException, ExecutionException, TimeoutException {
+    try {
+      if (maxCheckTimeMillis < 0) {
+        return future.get();
+      }
+      return future.get(maxCheckTimeMillis, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      if (ExceptionUtils.getRootCause(e) instanceof CheckCoalescer.CheckInterruptedException) {
+        TimeoutException timeout = new TimeoutException(ExceptionUtils.getRootCause(e).getMessage());
+        timeout.addSuppressed(e);
+        throw timeout;
+      }
+      throw e;
+    }
+  }
+
+  private <T> Future<T> submitCheck(int textLength, JLanguageTool.Mode mode, boolean batch, Callable<T> check) {
+    if (scheduler != null) {
+      CheckScheduler.Lane lane = CheckScheduler.Lane.of(textLength, mode, config.getCheckSchedulerLongTextLength(), batch);
+      return scheduler.submit(lane, textLength, check);
+    }
+    return executorService.submit(check);
+  }
+
+  // everything the result of getRuleMatches() depends on, used to find identical checks:
+  private Object getCheckKey(AnnotatedText aText, Language lang, Language motherTongue, Map<String, String> params,
+                             QueryParams qParams, UserConfig userConfig, UserLimits limits, DetectedLanguage detLang,
+                             List<String> preferredLangs, List<String> preferredVariants) {
+    Hasher textHash = Hashing.sha256().newHasher();
+    for (TextPart part : aText.getParts()) {
+      textHash.putInt(part.getType().ordinal()).putInt(part.getPart().length()).putString(part.getPart(), StandardCharsets.UTF_8);
+    }
+    textHash.putString(aText.getGlobalMetaData().toString(), StandardCharsets.UTF_8);
+    textHash.putString(aText.getCustomMetaData().toString(), StandardCharsets.UTF_8);
+    return Arrays.asList(textHash.hash(), lang, new PipelineSettings(lang, motherTongue, qParams, config.globalConfig, userConfig),
+      userConfig.getTextSessionId(), limits.getMaxCheckTimeMillis(), detLang != null ? detLang.getDetectedLanguage() : null,
+      preferredLangs, preferredVariants, params.get("multilingual"), params.get("sourceText"), params.get("sourceLanguage"));
+  }
+
   private Language getLanguageVariantForCode(String langCode, List<String> preferredVariants) {
     for (String preferredVariant : preferredVariants) {
       if (preferredVariant.startsWith(langCode + "-")) {
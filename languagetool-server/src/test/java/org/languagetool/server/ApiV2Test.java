@@ -18,6 +18,8 @@
  */
 package org.languagetool.server;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sun.net.httpserver.HttpExchange;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
@@ -64,6 +66,47 @@ public class ApiV2Test {
     } catch (BadRequestException ignored) {}
   }
   
+  @Test
+  public void testBatchCheck() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig();
+    ApiV2 apiV2 = new ApiV2(new V2TextChecker(config, false, new LinkedBlockingQueue<>(), new RequestCounter()), null);
+    Map<String, String> params = new HashMap<>();
+    params.put("language", "es");
+    params.put("data", "{\"items\": [{\"text\": \"Esto es es una prueba.\"}, {\"text\": \"Esto es una prueba.\"}," +
+      " {\"annotation\": [{\"text\": \"Una \"}, {\"markup\": \"<b>\"}, {\"text\": \"prueba prueba.\"}]}]}");
+    FakeHttpExchange httpExchange = new FakeHttpExchange("post");
+    apiV2.handleRequest("check/batch", httpExchange, params, null, null, config);
+    JsonNode results = new ObjectMapper().readTree(httpExchange.getOutput()).get("results");
+    assertEquals(3, results.size());
+    assertTrue(getOffsets(results.get(0)).contains(5));
+    assertFalse(getOffsets(results.get(1)).contains(5));
+    assertTrue(getOffsets(results.get(2)).contains(14));
+  }
+
+  private List<Integer> getOffsets(JsonNode result) {
+    List<Integer> offsets = new ArrayList<>();
+    result.get("matches").forEach(match -> offsets.add(match.get("offset").asInt()));
+    return offsets;
+  }
+
+  @Test
+  public void testInvalidBatchRequest() throws Exception {
+    HTTPServerConfig config = new HTTPServerConfig();
+    ApiV2 apiV2 = new ApiV2(new FakeTextChecker(config, false, null, new RequestCounter()), null);
+    Map<String, String> params = new HashMap<>();
+    params.put("language", "es");
+    params.put("data", "{\"items\": []}");
+    try {
+      apiV2.handleRequest("check/batch", new FakeHttpExchange("post"), params, null, null, config);
+      fail();
+    } catch (BadRequestException ignored) {}
+    params.put("data", "{\"items\": [{\"text\": \"Esto es una prueba.\"}]}");
+    try {
+      apiV2.handleRequest("check/batch", new FakeHttpExchange("get"), params, null, null, config);
+      fail();
+    } catch (BadRequestException ignored) {}
+  }
+
   @Test
   @Ignore("code is currently commented out")
   public void testRuleExamples() throws Exception {
@@ -90,6 +133,10 @@ public class ApiV2Test {
     protected String getResponse(AnnotatedText text, Language language, DetectedLanguage lang, Language motherTongue, List<CheckResults> matches, List<RuleMatch> hiddenMatches, String incompleteResultReason, int compactMode, boolean showPremiumHint, JLanguageTool.Mode mode) {
       return "";
     }
+    @Override
+    protected String getBatchResponse(List<String> responses) {
+      return "";
+    }
     @NotNull
     @Override
     protected List<String> getPreferredVariants(Map<String, String> parameters) {
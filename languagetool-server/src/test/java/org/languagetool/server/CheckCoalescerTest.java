@@ -0,0 +1,188 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.CheckResults;
+import org.languagetool.rules.Rule;
+import org.languagetool.rules.RuleMatch;
+import org.languagetool.rules.SuggestedReplacement;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class CheckCoalescerTest {
+
+  private final RuleMatch match1 = new RuleMatch(mock(Rule.class), null, 0, 1, "first");
+  private final RuleMatch match2 = new RuleMatch(mock(Rule.class), null, 2, 3, "second");
+
+  @Test
+  public void testIdenticalChecksAreCoalesced() throws Exception {
+    CheckCoalescer coalescer = new CheckCoalescer();
+    CountDownLatch firstMatchFound = new CountDownLatch(1);
+    CountDownLatch secondRequestWaiting = new CountDownLatch(1);
+    AtomicInteger runCount = new AtomicInteger();
+    List<RuleMatch> matchesSoFar1 = Collections.synchronizedList(new ArrayList<>());
+    List<RuleMatch> matchesSoFar2 = Collections.synchronizedList(new ArrayList<>());
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<List<CheckResults>> future1 = executor.submit(() -> coalescer.check("key", matchesSoFar1::add, () -> {}, listener -> {
+        runCount.incrementAndGet();
+        listener.matchFound(match1);
+        firstMatchFound.countDown();
+        secondRequestWaiting.await();
+        listener.matchFound(match2);
+        return Collections.singletonList(new CheckResults(Arrays.asList(match1, match2), Collections.emptyList()));
+      }));
+      firstMatchFound.await();
+      Future<List<CheckResults>> future2 = executor.submit(() -> coalescer.check("key", matchesSoFar2::add, secondRequestWaiting::countDown, listener -> {
+        runCount.incrementAndGet();
+        return Collections.emptyList();
+      }));
+      List<CheckResults> results1 = future1.get(10, TimeUnit.SECONDS);
+      List<CheckResults> results2 = future2.get(10, TimeUnit.SECONDS);
+      assertThat(runCount.get(), is(1));
+      assertThat(coalescer.getCoalescedCount(), is(1L));
+      assertThat(results1.get(0).getRuleMatches(), is(Arrays.asList(match1, match2)));
+      assertThat(results2.get(0).getRuleMatches(), is(Arrays.asList(match1, match2)));
+      assertThat(results1.get(0) != results2.get(0), is(true));
+      assertThat(matchesSoFar1, is(Arrays.asList(match1, match2)));
+      assertThat(matchesSoFar2, is(Arrays.asList(match1, match2)));  // the first one has been replayed
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testWaiterOfTimedOutCheckTimesOut() throws Exception {
+    CheckCoalescer coalescer = new CheckCoalescer();
+    CountDownLatch checkStarted = new CountDownLatch(1);
+    CountDownLatch secondRequestWaiting = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<List<CheckResults>> future1 = executor.submit(() -> coalescer.check("key", m -> {}, () -> {}, listener -> {
+        checkStarted.countDown();
+        new CountDownLatch(1).await();  // takes too long, until interrupted
+        return Collections.emptyList();
+      }));
+      checkStarted.await();
+      Future<List<CheckResults>> future2 = executor.submit(() -> coalescer.check("key", m -> {}, secondRequestWaiting::countDown, listener -> {
+        throw new AssertionError("the identical check is running already");
+      }));
+      secondRequestWaiting.await();
+      try {
+        TextChecker.getResult(future1, 50);
+        throw new AssertionError("Expected a timeout");
+      } catch (TimeoutException expected) {
+        future1.cancel(true);
+      }
+      try {
+        TextChecker.getResult(future2, 10_000);
+        throw new AssertionError("Expected a timeout");
+      } catch (TimeoutException expected) {
+        // handled like a timeout of this request, not like an internal error
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testWaitersGetCopiesOfMatches() throws Exception {
+    CheckCoalescer coalescer = new CheckCoalescer();
+    RuleMatch lazyMatch = new RuleMatch(mock(Rule.class), null, 0, 1, "lazy");
+    lazyMatch.setLazySuggestedReplacements(() -> Collections.singletonList(new SuggestedReplacement("suggestion")));
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch secondRequestWaiting = new CountDownLatch(1);
+    List<RuleMatch> matchesSoFar2 = Collections.synchronizedList(new ArrayList<>());
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<List<CheckResults>> future1 = executor.submit(() -> coalescer.check("key", m -> {}, () -> {}, listener -> {
+        listener.matchFound(lazyMatch);
+        running.countDown();
+        secondRequestWaiting.await();
+        return Collections.singletonList(new CheckResults(Collections.singletonList(lazyMatch), Collections.emptyList()));
+      }));
+      running.await();
+      Future<List<CheckResults>> future2 = executor.submit(() -> coalescer.check("key", matchesSoFar2::add, secondRequestWaiting::countDown,
+        listener -> Collections.emptyList()));
+      RuleMatch ownMatch = future1.get(10, TimeUnit.SECONDS).get(0).getRuleMatches().get(0);
+      RuleMatch waiterMatch = future2.get(10, TimeUnit.SECONDS).get(0).getRuleMatches().get(0);
+      assertThat(ownMatch == lazyMatch, is(true));
+      assertThat(waiterMatch != lazyMatch, is(true));
+      assertThat(matchesSoFar2.get(0) != lazyMatch, is(true));
+      // e.g. on a timeout of the waiting request:
+      waiterMatch.discardLazySuggestedReplacements();
+      matchesSoFar2.get(0).discardLazySuggestedReplacements();
+      assertThat(waiterMatch.getSuggestedReplacements(), is(Collections.emptyList()));
+      assertThat(lazyMatch.getSuggestedReplacements(), is(Collections.singletonList("suggestion")));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testDifferentOrSequentialChecksAreNotCoalesced() throws Exception {
+    CheckCoalescer coalescer = new CheckCoalescer();
+    AtomicInteger runCount = new AtomicInteger();
+    CheckCoalescer.Check check = listener -> {
+      runCount.incrementAndGet();
+      return Collections.singletonList(new CheckResults(Collections.singletonList(match1), Collections.emptyList()));
+    };
+    coalescer.check("key1", m -> {}, () -> {}, check);
+    coalescer.check("key1", m -> {}, () -> {}, check);
+    coalescer.check("key2", m -> {}, () -> {}, check);
+    assertThat(runCount.get(), is(3));
+    assertThat(coalescer.getCoalescedCount(), is(0L));
+  }
+
+  @Test
+  public void testFailureIsShared() throws Exception {
+    CheckCoalescer coalescer = new CheckCoalescer();
+    CountDownLatch running = new CountDownLatch(1);
+    CountDownLatch secondRequestWaiting = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<List<CheckResults>> future1 = executor.submit(() -> coalescer.check("key", m -> {}, () -> {}, listener -> {
+        running.countDown();
+        secondRequestWaiting.await();
+        throw new IllegalStateException("check failed");
+      }));
+      running.await();
+      Future<List<CheckResults>> future2 = executor.submit(() -> coalescer.check("key", m -> {}, secondRequestWaiting::countDown,
+        listener -> Collections.emptyList()));
+      for (Future<List<CheckResults>> future : Arrays.asList(future1, future2)) {
+        try {
+          future.get(10, TimeUnit.SECONDS);
+          throw new AssertionError("Expected the check to fail");
+        } catch (ExecutionException e) {
+          assertThat(e.getCause().getMessage(), is("check failed"));
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+}
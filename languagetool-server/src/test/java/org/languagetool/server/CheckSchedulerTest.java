@@ -0,0 +1,119 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.junit.Test;
+import org.languagetool.JLanguageTool;
+import org.languagetool.server.CheckScheduler.Lane;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class CheckSchedulerTest {
+
+  @Test
+  public void testLanes() {
+    assertThat(Lane.of(100, JLanguageTool.Mode.ALL, 5000), is(Lane.SHORT));
+    assertThat(Lane.of(10000, JLanguageTool.Mode.ALL, 5000), is(Lane.LONG));
+    assertThat(Lane.of(100, JLanguageTool.Mode.TEXTLEVEL_ONLY, 5000), is(Lane.TEXT_LEVEL));
+  }
+
+  @Test
+  public void testBatchLane() {
+    // batches of short texts must not compete with interactive checks:
+    assertThat(Lane.of(100, JLanguageTool.Mode.ALL, 5000, true), is(Lane.LONG));
+    assertThat(Lane.of(100, JLanguageTool.Mode.TEXTLEVEL_ONLY, 5000, true), is(Lane.LONG));
+    assertThat(Lane.of(100, JLanguageTool.Mode.ALL, 5000, false), is(Lane.SHORT));
+  }
+
+  @Test
+  public void testWeightedFairQueuing() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(1);
+    try {
+      CheckScheduler scheduler = new CheckScheduler(executor, 1, 100);
+      CountDownLatch blocker = new CountDownLatch(1);
+      Future<?> first = scheduler.submit(Lane.LONG, 100, () -> blocker.await(10, TimeUnit.SECONDS));
+      List<Lane> order = Collections.synchronizedList(new ArrayList<>());
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < 7; i++) {
+        futures.add(scheduler.submit(Lane.LONG, 100, () -> order.add(Lane.LONG)));
+        futures.add(scheduler.submit(Lane.SHORT, 100, () -> order.add(Lane.SHORT)));
+      }
+      assertThat(scheduler.getQueueSize(Lane.SHORT), is(7));
+      blocker.countDown();
+      first.get(10, TimeUnit.SECONDS);
+      for (Future<?> future : futures) {
+        future.get(10, TimeUnit.SECONDS);
+      }
+      // with weights 6:1, the short checks get most of the first turns although they were submitted later:
+      assertThat(order.subList(0, 6), is(Collections.nCopies(6, Lane.SHORT)));
+      assertThat(order.contains(Lane.LONG), is(true));
+      assertThat(order.size(), is(14));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testFullQueueIsRejected() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(1);
+    try {
+      CheckScheduler scheduler = new CheckScheduler(executor, 1, 1);
+      CountDownLatch blocker = new CountDownLatch(1);
+      scheduler.submit(Lane.SHORT, 100, () -> blocker.await(10, TimeUnit.SECONDS));
+      scheduler.submit(Lane.SHORT, 100, () -> null);
+      try {
+        scheduler.submit(Lane.SHORT, 100, () -> null);
+        throw new AssertionError("Expected the check to be rejected");
+      } catch (RejectedExecutionException expected) {
+      }
+      scheduler.submit(Lane.LONG, 100, () -> null);  // other lanes are not affected
+      blocker.countDown();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testAdaptiveLimit() {
+    CheckScheduler scheduler = new CheckScheduler(Runnable::run, 16, 10);
+    assertThat(scheduler.getLimit(), is(16));
+    for (int i = 0; i < 100; i++) {
+      scheduler.addLatency(TimeUnit.MILLISECONDS.toNanos(50), 1000);
+    }
+    assertThat(scheduler.getLimit(), is(16));
+    // checks get much slower, e.g. because they compete for the CPU:
+    for (int i = 0; i < 30; i++) {
+      scheduler.addLatency(TimeUnit.MILLISECONDS.toNanos(500), 1000);
+    }
+    int reducedLimit = scheduler.getLimit();
+    assertThat(reducedLimit < 8, is(true));
+    // checks are fast again:
+    for (int i = 0; i < 300; i++) {
+      scheduler.addLatency(TimeUnit.MILLISECONDS.toNanos(50), 1000);
+    }
+    assertThat(scheduler.getLimit(), is(16));
+  }
+
+}
@@ -19,14 +19,25 @@
 package org.languagetool.server;
 
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
 
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertThat;
 
 public class HTTPServerConfigTest {
 
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
   @Test
   public void testArgumentParsing() {
     HTTPServerConfig config1 = new HTTPServerConfig(new String[]{});
@@ -66,4 +77,46 @@ public class HTTPServerConfigTest {
     Assert.assertTrue(config.languageModelDir.getAbsolutePath().endsWith(languageModelDirectory));
   }
 
+  @Test
+  public void testFasttextModelWithoutBinary() throws IOException {
+    File model = tempFolder.newFile("lid.176.bin");
+    File configFile = tempFolder.newFile("server.properties");
+    Files.write(configFile.toPath(), Collections.singletonList("fasttextModel=" + model.getAbsolutePath().replace('\\', '/')));
+    HTTPServerConfig config = new HTTPServerConfig(new String[]{"--config", configFile.getPath()});
+    assertThat(config.getFasttextModel(), is(model));
+    assertThat(config.getFasttextBinary(), is(nullValue()));
+  }
+
+  @Test
+  public void testMaxBatchCheckThreads() throws IOException {
+    HTTPServerConfig config = new HTTPServerConfig(new String[]{});
+    config.setMaxCheckThreads(10);
+    assertThat(config.getMaxBatchCheckThreads(), is(2));
+    config.setMaxCheckThreads(2);
+    assertThat(config.getMaxBatchCheckThreads(), is(1));
+    File configFile = tempFolder.newFile("server.properties");
+    Files.write(configFile.toPath(), Collections.singletonList("maxBatchCheckThreads=3"));
+    assertThat(new HTTPServerConfig(new String[]{"--config", configFile.getPath()}).getMaxBatchCheckThreads(), is(3));
+  }
+
+  @Test
+  public void testIncrementalChecking() throws IOException {
+    HTTPServerConfig config = new HTTPServerConfig(new String[]{});
+    assertThat(config.getIncrementalCheckingSessions(), is(0));
+    File configFile = tempFolder.newFile("server.properties");
+    Files.write(configFile.toPath(), Arrays.asList("incrementalCheckingSessions=50", "incrementalCheckingNeighbourhood=2"));
+    config = new HTTPServerConfig(new String[]{"--config", configFile.getPath()});
+    assertThat(config.getIncrementalCheckingSessions(), is(50));
+    assertThat(config.getIncrementalCheckingNeighbourhood(), is(2));
+  }
+
+  @Test(expected = RuntimeException.class)
+  public void testInvalidFasttextBinary() throws IOException {
+    File model = tempFolder.newFile("lid.176.bin");
+    File configFile = tempFolder.newFile("server.properties");
+    Files.write(configFile.toPath(), Arrays.asList("fasttextModel=" + model.getAbsolutePath().replace('\\', '/'),
+      "fasttextBinary=" + new File(tempFolder.getRoot(), "does-not-exist").getAbsolutePath().replace('\\', '/')));
+    new HTTPServerConfig(new String[]{"--config", configFile.getPath()});
+  }
+
 }
@@ -0,0 +1,150 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import org.apache.commons.pool2.PooledObject;
+import org.apache.commons.pool2.impl.EvictionConfig;
+import org.junit.After;
+import org.junit.Test;
+import org.languagetool.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests the demand-based eviction and replenishing of {@link PipelinePool} with pipelines that have no rules.
+ */
+public class PipelinePoolDemandTest {
+
+  private final AtomicInteger createdPipelines = new AtomicInteger();
+  private PipelinePool pool;
+
+  @After
+  public void tearDown() {
+    if (pool != null) {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void testDemand() {
+    PipelinePool.Demand demand = new PipelinePool.Demand();
+    long period = PipelinePool.DEMAND_PERIOD_MILLIS;
+    long start = period * 10;
+    assertEquals(0, demand.get(start));
+    demand.record(3, start);
+    demand.record(1, start + 1);
+    assertEquals(3, demand.get(start + 2));
+    // the peak of the previous period still counts:
+    demand.record(2, start + period);
+    assertEquals(3, demand.get(start + period + 1));
+    assertEquals(2, demand.get(start + 2 * period));
+    // no demand for two periods:
+    assertEquals(0, demand.get(start + 4 * period));
+    demand.setMinimum(2);
+    assertEquals(2, demand.get(start + 5 * period));
+  }
+
+  @Test
+  public void testRepeatedDemand() {
+    PipelinePool.Demand demand = new PipelinePool.Demand();
+    long period = PipelinePool.DEMAND_PERIOD_MILLIS;
+    demand.record(1, period);
+    assertFalse(demand.isRepeated());
+    demand.record(1, period + 10);
+    assertTrue(demand.isRepeated());
+    demand.record(1, 3 * period);
+    assertFalse(demand.isRepeated());
+    demand.record(2, 5 * period);  // used by two requests at the same time
+    assertTrue(demand.isRepeated());
+    PipelinePool.Demand prewarmed = new PipelinePool.Demand();
+    prewarmed.setMinimum(1);
+    assertTrue(prewarmed.isRepeated());
+  }
+
+  @Test
+  public void testReplenishOnlyOnRepeatedUse() throws Exception {
+    pool = createPool();
+    PipelineSettings settings = new PipelineSettings(new FakeLanguage(), new UserConfig());
+    Pipeline p1 = pool.getPipeline(settings);
+    Thread.sleep(200);
+    assertEquals("a single use must not create a spare pipeline", 1, createdPipelines.get());
+    pool.returnPipeline(settings, p1);
+    Pipeline p2 = pool.getPipeline(settings);
+    assertSame(p1, p2);
+    waitForPipelines(2);
+    pool.returnPipeline(settings, p2);
+    Pipeline p3 = pool.getPipeline(settings);
+    Thread.sleep(200);
+    assertEquals("there's still an idle pipeline", 2, createdPipelines.get());
+    assertNotSame(p3, pool.getPipeline(settings));
+  }
+
+  @Test
+  public void testEvict() throws Exception {
+    pool = createPool();
+    EvictionConfig evictionConfig = new EvictionConfig(1, 1, 0);
+    PipelineSettings unused = new PipelineSettings(new FakeLanguage(), new UserConfig());
+    PooledObject<Pipeline> pooled = pool.makeObject(unused);
+    Thread.sleep(10);
+    assertTrue(pool.evict(evictionConfig, pooled, 1));
+
+    PipelineSettings settings = new PipelineSettings(new FakeLanguage(), new UserConfig());
+    List<Pipeline> pipelines = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      pipelines.add(pool.getPipeline(settings));
+    }
+    for (Pipeline pipeline : pipelines) {
+      pool.returnPipeline(settings, pipeline);
+    }
+    pooled = pool.makeObject(settings);
+    Thread.sleep(10);
+    // two have been in use at the same time recently:
+    assertFalse(pool.evict(evictionConfig, pooled, 2));
+    assertTrue(pool.evict(evictionConfig, pooled, 3));
+  }
+
+  private PipelinePool createPool() {
+    HTTPServerConfig config = new HTTPServerConfig(HTTPTestTools.getDefaultPort());
+    config.setPipelineCaching(true);
+    config.setPipelineExpireTime(60);
+    config.setMaxPipelinePoolSize(10);
+    return new PipelinePool(config, null, false) {
+      @Override
+      Pipeline createPipeline(Language lang, Language motherTongue, TextChecker.QueryParams params, GlobalConfig globalConfig,
+                              UserConfig userConfig, List<String> disabledRuleIds) {
+        createdPipelines.incrementAndGet();
+        Pipeline pipeline = new Pipeline(lang, params.altLanguages, motherTongue, null, globalConfig, userConfig, false);
+        pipeline.setupFinished();
+        return pipeline;
+      }
+    };
+  }
+
+  private void waitForPipelines(int count) throws InterruptedException {
+    for (int i = 0; i < 100 && createdPipelines.get() < count; i++) {
+      Thread.sleep(50);
+    }
+    assertEquals(count, createdPipelines.get());
+  }
+
+}
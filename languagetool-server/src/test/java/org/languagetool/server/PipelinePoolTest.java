@@ -30,6 +30,7 @@ import org.languagetool.markup.AnnotatedTextBuilder;
 import java.lang.reflect.Field;
 import java.util.*;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
@@ -19,12 +19,15 @@
 package org.languagetool.server;
 
 import org.junit.Test;
+import org.languagetool.JLanguageTool;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.*;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class RequestLimiterTest {
@@ -57,6 +60,45 @@ public class RequestLimiterTest {
     assertException(limiter, secondIp, params, firstHeader);
   }
 
+  @Test
+  public void testNoRequestsLostWhileExpiredWindowsAreRemoved() throws Exception {
+    int threads = 8;
+    int ips = 20_000;
+    RequestLimiter limiter = new RequestLimiter(threads, 0, 1, 0);
+    Map<String, String> params = new HashMap<>();
+    String fingerprint = limiter.computeFingerprint(new HashMap<>(), params);
+    for (int i = 0; i < ips; i++) {
+      limiter.logRequest("10.0." + i, fingerprint, 0, JLanguageTool.Mode.ALL);
+    }
+    Thread.sleep(1150);
+    // the first request after the period removes the expired windows while the other threads add to them:
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      CyclicBarrier barrier = new CyclicBarrier(threads);
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int offset = t * ips / threads;
+        futures.add(executor.submit(() -> {
+          barrier.await();
+          for (int i = 0; i < ips; i++) {
+            limiter.logRequest("10.0." + (i + offset) % ips, fingerprint, 0, JLanguageTool.Mode.ALL);
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    for (int i = 0; i < ips; i++) {
+      String ip = "10.0." + i;
+      // checkAccess() logs one request more than the limit, unless one of the concurrent requests was lost:
+      assertException(limiter, ip, params, new HashMap<>());
+    }
+  }
+
   @Test
   public void testIsAccessOkayWithFingerprintDisabled() throws Exception {
     RequestLimiter limiter = new RequestLimiter(3, 0, 1, 0);
@@ -149,6 +191,24 @@ public class RequestLimiterTest {
     assertOkayWithSkippingLimits(limiter, firstIp, params, firstHeader);
   }
 
+  @Test
+  public void testWindow() {
+    RequestLimiter.Window window = new RequestLimiter.Window();
+    window.add(100, 10);
+    window.add(100, 5);
+    window.add(105, 1);
+    assertThat(window.getRequests(105), is(3));
+    assertThat(window.getSize(105), is(16L));
+    assertThat(window.getRequests(109), is(3));
+    assertThat(window.getRequests(110), is(1));
+    assertThat(window.getSize(110), is(1L));
+    assertFalse(window.isExpired(114));
+    assertTrue(window.isExpired(115));
+    window.add(120, 7);  // re-uses the bucket of 100
+    assertThat(window.getRequests(120), is(1));
+    assertThat(window.getSize(120), is(7L));
+  }
+
   private void assertOkay(RequestLimiter limiter, String ip, Map<String, String> params, Map<String, List<String>> header) {
     try {
       limiter.checkAccess(ip, params, header, UserLimits.getDefaultLimits(config));
@@ -0,0 +1,82 @@
+/* LanguageTool, a natural language style checker
+ * Copyright (C) 2023 Daniel Naber (http://www.danielnaber.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ */
+package org.languagetool.server;
+
+import io.prometheus.client.Collector;
+import org.junit.Test;
+import org.languagetool.rules.RuleMetrics;
+
+import java.util.*;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+public class RuleMetricsCollectorTest {
+
+  private static final String LANG = "xx-metrics-test";
+
+  @Test
+  public void testExportedRulesAreStable() {
+    ServerMetricsCollector.RuleMetricsCollector collector = new ServerMetricsCollector.RuleMetricsCollector(1);
+    // much more expensive than the rules run by other tests, so these are the top rules:
+    RuleMetrics.ruleDone(LANG, "RULE_A", System.nanoTime() - 1_000_000_000_000L, 0);
+    assertThat(getExportedInvocations(collector), is(Collections.singletonMap("RULE_A", 1.0)));
+
+    RuleMetrics.ruleDone(LANG, "RULE_B", System.nanoTime() - 2_000_000_000_000L, 0);
+    RuleMetrics.ruleDone(LANG, "RULE_C", System.nanoTime() - 10_000_000L, 0);
+    Map<String, Double> expected = new HashMap<>();
+    expected.put("RULE_A", 1.0);
+    expected.put("RULE_B", 1.0);
+    // RULE_A isn't among the top rules anymore, but still exported:
+    assertThat(getExportedInvocations(collector), is(expected));
+
+    RuleMetrics.ruleDone(LANG, "RULE_A", System.nanoTime() - 10_000_000L, 0);
+    expected.put("RULE_A", 2.0);
+    assertThat(getExportedInvocations(collector), is(expected));
+  }
+
+  @Test
+  public void testSampledTimeIsExported() {
+    ServerMetricsCollector.RuleMetricsCollector collector = new ServerMetricsCollector.RuleMetricsCollector(100_000);
+    RuleMetrics.ruleDone(LANG, "RULE_D", System.nanoTime() - 10_000_000L, 0);
+    RuleMetrics.ruleDone(LANG, "RULE_D", RuleMetrics.startTiming(), 0);
+    // the raw sampled values, the extrapolated estimate isn't monotonic:
+    double sampledInvocations = getExported(collector, "languagetool_rule_sampled_invocations_total").get("RULE_D");
+    assertThat(sampledInvocations >= 1 && sampledInvocations <= 2, is(true));
+    assertThat(getExported(collector, "languagetool_rule_sampled_computation_time_seconds_total").get("RULE_D") >= 0.01, is(true));
+    assertThat(getExported(collector, "languagetool_rule_invocations_total").get("RULE_D"), is(2.0));
+  }
+
+  private Map<String, Double> getExportedInvocations(Collector collector) {
+    return getExported(collector, "languagetool_rule_invocations_total");
+  }
+
+  private Map<String, Double> getExported(Collector collector, String sampleName) {
+    Map<String, Double> result = new HashMap<>();
+    for (Collector.MetricFamilySamples family : collector.collect()) {
+      for (Collector.MetricFamilySamples.Sample sample : family.samples) {
+        if (sample.name.equals(sampleName) && sample.labelValues.get(0).equals(LANG)) {
+          result.put(sample.labelValues.get(1), sample.value);
+        }
+      }
+    }
+    return result;
+  }
+
+}
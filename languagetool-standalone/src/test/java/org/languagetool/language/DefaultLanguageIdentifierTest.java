@@ -32,6 +32,7 @@ import java.io.File;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -155,6 +156,48 @@ public class DefaultLanguageIdentifierTest extends LanguageIdentifierTest{
     langAssert("en", "This is an English text.\n-- \nDas ist ein\ndeutscher Text in der Signatur, der länger ist als der Haupttext.", identifier);
   }
 
+  @Test
+  public void testCleanAndShortenTextLikeRegexFilters() {
+    LanguageIdentifier ident = LanguageIdentifierService.INSTANCE
+            .clearLanguageIdentifier("default")
+            .getDefaultLanguageIdentifier(100, null, null, null);
+    assertThat(ident.cleanAndShortenText("@one and @two"), is(" and @two"));
+    assertThat(ident.cleanAndShortenText("Hi,\nbye\n-- \nJohn\nfoo@example.com"), is("Hi,\nbye"));
+    // the cleanup used to be done with these regular expressions, one after the other:
+    String chars = "htps:/@a.-_#\n \uFEFF\u00A0";
+    Random random = new Random(42);
+    for (int i = 0; i < 100_000; i++) {
+      StringBuilder sb = new StringBuilder();
+      int length = random.nextInt(20);
+      for (int j = 0; j < length; j++) {
+        sb.append(chars.charAt(random.nextInt(chars.length())));
+      }
+      String text = sb.toString().replace("hts", "http://").replace("htp", "https://");
+      String expected = text.replaceAll("\uFEFF+", " ")
+        .replaceAll("https?://[-_.?&~;+=/#%0-9A-Za-z]+", " ")
+        .replaceAll("[-_.0-9A-Za-z]+@[-_0-9A-Za-z]+[-_.0-9A-Za-z]+", " ")
+        .replaceFirst("(?s)\n-- \n.*", "")
+        .replaceFirst("@[A-Za-z0-9_]+", "")
+        .replace('\u00A0', ' ');
+      assertThat(text, ident.cleanAndShortenText(text), is(expected));
+    }
+  }
+
+  @Test
+  public void testDetectionCache() {
+    LanguageIdentifier ident = LanguageIdentifierService.INSTANCE
+            .clearLanguageIdentifier("default")
+            .getDefaultLanguageIdentifier(0, null, null, null);
+    List<String> noLangs = Collections.emptyList();
+    DetectedLanguage lang1 = ident.detectLanguage("Das ist ein deutscher Text", noLangs, noLangs);
+    DetectedLanguage lang2 = ident.detectLanguage("Das ist ein deutscher Text", noLangs, noLangs);
+    assertSame(lang1, lang2);
+    assertThat(ident.getDetectionCache().stats().hitCount(), is(1L));
+    langAssert("de", "Das ist ein deutscher Text", ident);
+    ident.detectLanguage("Das ist ein deutscher Text", noLangs, Arrays.asList("en"));  // preferred languages are part of the key
+    assertThat(ident.getDetectionCache().stats().missCount(), is(2L));
+  }
+
   @Test
   @Ignore("Only works with locally installed fastText")
   public void testAdditionalLanguagesFasttext() {